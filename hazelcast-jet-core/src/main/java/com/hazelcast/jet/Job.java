@@ -23,6 +23,7 @@ import com.hazelcast.jet.impl.util.Util;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -105,4 +106,18 @@ public interface Job {
      */
     boolean restart();
 
+    /**
+     * Returns the current values of the runtime metrics of this job, such as
+     * the number of items received and emitted by each processor, the time
+     * its tasklet spent in {@code call()} and blocked on a full outbox, the
+     * number of bytes sent and received over distributed edges and the size
+     * and duration of the last snapshot.
+     * <p>
+     * Each key is the name of the metric prefixed with the address of the
+     * member which reported it. If the job is not running, the returned map
+     * is empty.
+     */
+    @Nonnull
+    Map<String, Long> getMetrics();
+
 }
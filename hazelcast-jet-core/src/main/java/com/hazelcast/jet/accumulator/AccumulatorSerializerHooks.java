@@ -25,6 +25,7 @@ import com.hazelcast.nio.serialization.StreamSerializer;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Map;
 
 /**
  * Hazelcast serializer hooks for the classes in the {@code
@@ -266,4 +267,133 @@ class AccumulatorSerializerHooks {
             return true;
         }
     }
+
+    public static final class HyperLogLogAccHook implements SerializerHook<HyperLogLogAccumulator> {
+
+        @Override
+        public Class<HyperLogLogAccumulator> getSerializationType() {
+            return HyperLogLogAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<HyperLogLogAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.HYPER_LOG_LOG_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, HyperLogLogAccumulator object) throws IOException {
+                    out.writeByteArray(object.registers());
+                }
+
+                @Override
+                public HyperLogLogAccumulator read(ObjectDataInput in) throws IOException {
+                    return new HyperLogLogAccumulator(in.readByteArray());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class TDigestAccHook implements SerializerHook<TDigestAccumulator> {
+
+        @Override
+        public Class<TDigestAccumulator> getSerializationType() {
+            return TDigestAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<TDigestAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.T_DIGEST_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, TDigestAccumulator object) throws IOException {
+                    out.writeInt(object.compression());
+                    out.writeDoubleArray(object.centroidMeans());
+                    out.writeLongArray(object.centroidWeights());
+                    out.writeDouble(object.min());
+                    out.writeDouble(object.max());
+                }
+
+                @Override
+                public TDigestAccumulator read(ObjectDataInput in) throws IOException {
+                    return new TDigestAccumulator(in.readInt(), in.readDoubleArray(), in.readLongArray(),
+                            in.readDouble(), in.readDouble());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class HeavyHittersAccHook implements SerializerHook<HeavyHittersAccumulator> {
+
+        @Override
+        public Class<HeavyHittersAccumulator> getSerializationType() {
+            return HeavyHittersAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<HeavyHittersAccumulator<Object>>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.HEAVY_HITTERS_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, HeavyHittersAccumulator<Object> object) throws IOException {
+                    out.writeInt(object.k());
+                    out.writeInt(object.depth());
+                    out.writeInt(object.width());
+                    out.writeLongArray(object.counters());
+                    out.writeInt(object.topItems().size());
+                    for (Map.Entry<Object, Long> e : object.topItems().entrySet()) {
+                        out.writeObject(e.getKey());
+                        out.writeLong(e.getValue());
+                    }
+                }
+
+                @Override
+                public HeavyHittersAccumulator<Object> read(ObjectDataInput in) throws IOException {
+                    HeavyHittersAccumulator<Object> acc = new HeavyHittersAccumulator<>(
+                            in.readInt(), in.readInt(), in.readInt(), in.readLongArray());
+                    for (int i = in.readInt(); i > 0; i--) {
+                        acc.offer(in.readObject(), in.readLong());
+                    }
+                    return acc;
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
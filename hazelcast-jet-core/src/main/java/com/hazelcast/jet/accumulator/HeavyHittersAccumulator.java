@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.jet.impl.util.SerializedHash;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * Finds the most frequent items using a count-min sketch. The sketch is a
+ * {@code depth x width} table of counters; an item's frequency is
+ * estimated as the minimum of its {@code depth} counters and overestimates
+ * the true frequency by at most {@code e / width} of the total count with
+ * probability {@code 1 - e^-depth}. Next to the sketch, the accumulator
+ * keeps the {@code k} items with the highest estimates seen so far.
+ * <p>
+ * Two accumulators with the same dimensions can be combined and one can be
+ * deducted from the other. Deduction is exact for the counters, but an
+ * item that was dropped from the top {@code k} can't come back until it is
+ * accumulated again.
+ *
+ * @param <T> the type of the counted items
+ */
+public final class HeavyHittersAccumulator<T> {
+
+    private final int k;
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private final Map<T, Long> topItems;
+    private long minTopCount;
+
+    /**
+     * Creates an empty accumulator that tracks the top {@code k} items in a
+     * sketch with the given dimensions.
+     */
+    public HeavyHittersAccumulator(int k, int depth, int width) {
+        this(k, depth, width, new long[depth * width]);
+    }
+
+    /**
+     * Creates an accumulator with the given counters. Intended only for
+     * testing and deserialization; call {@link #offer} to restore the top
+     * items.
+     */
+    public HeavyHittersAccumulator(int k, int depth, int width, long[] counters) {
+        checkPositive(k, "k must be positive");
+        checkPositive(depth, "depth must be positive");
+        checkPositive(width, "width must be positive");
+        checkTrue(counters.length == depth * width, "counters.length must be depth * width");
+        this.k = k;
+        this.depth = depth;
+        this.width = width;
+        this.counters = counters;
+        this.topItems = new HashMap<>();
+    }
+
+    /**
+     * Accumulates one occurrence of the given item. The item is hashed by
+     * its serialized form, so the items that are equal must serialize to the
+     * same bytes. The hash doesn't depend on the item's {@code hashCode()}
+     * and is the same on all members.
+     */
+    public HeavyHittersAccumulator<T> accumulate(T item) {
+        long hash = hash(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int i = index(hash, row);
+            estimate = Math.min(estimate, ++counters[i]);
+        }
+        offer(item, estimate);
+        return this;
+    }
+
+    /**
+     * Combines this accumulator with the supplied one. Both must have the
+     * same dimensions.
+     */
+    public HeavyHittersAccumulator<T> combine(HeavyHittersAccumulator<T> that) {
+        checkSameDimensions(that);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += that.counters[i];
+        }
+        List<T> candidates = new ArrayList<>(topItems.keySet());
+        candidates.addAll(that.topItems.keySet());
+        refreshTopItems(candidates);
+        return this;
+    }
+
+    /**
+     * Deducts the supplied accumulator from this one. Both must have the
+     * same dimensions.
+     */
+    public HeavyHittersAccumulator<T> deduct(HeavyHittersAccumulator<T> that) {
+        checkSameDimensions(that);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= that.counters[i];
+        }
+        refreshTopItems(new ArrayList<>(topItems.keySet()));
+        return this;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the given item.
+     */
+    public long estimate(T item) {
+        long hash = hash(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns up to {@code k} most frequent items with their estimated
+     * counts, sorted by the count in descending order.
+     */
+    public List<Entry<T, Long>> topK() {
+        List<Entry<T, Long>> result = new ArrayList<>(topItems.size());
+        for (Entry<T, Long> e : topItems.entrySet()) {
+            result.add(new SimpleImmutableEntry<>(e.getKey(), e.getValue()));
+        }
+        result.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+        return result;
+    }
+
+    /**
+     * Considers the given item with the given estimated count for the top
+     * {@code k} items.
+     */
+    public void offer(T item, long estimate) {
+        if (estimate <= 0) {
+            topItems.remove(item);
+            return;
+        }
+        if (topItems.size() >= k && estimate <= minTopCount && !topItems.containsKey(item)) {
+            return;
+        }
+        Long prev = topItems.put(item, estimate);
+        if (prev != null) {
+            if (prev == minTopCount || estimate < minTopCount) {
+                minTopCount = computeMin();
+            }
+            return;
+        }
+        if (topItems.size() <= k) {
+            minTopCount = topItems.size() == 1 ? estimate : Math.min(minTopCount, estimate);
+            return;
+        }
+        // the map is now one over capacity, evict the item with the lowest estimate
+        Iterator<Entry<T, Long>> it = topItems.entrySet().iterator();
+        Entry<T, Long> lowest = it.next();
+        while (it.hasNext()) {
+            Entry<T, Long> e = it.next();
+            if (e.getValue() < lowest.getValue()) {
+                lowest = e;
+            }
+        }
+        topItems.remove(lowest.getKey());
+        minTopCount = computeMin();
+    }
+
+    int k() {
+        return k;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    int width() {
+        return width;
+    }
+
+    long[] counters() {
+        return counters;
+    }
+
+    Map<T, Long> topItems() {
+        return topItems;
+    }
+
+    private void refreshTopItems(List<T> candidates) {
+        topItems.clear();
+        for (T item : candidates) {
+            if (!topItems.containsKey(item)) {
+                offer(item, estimate(item));
+            }
+        }
+    }
+
+    private long computeMin() {
+        long min = Long.MAX_VALUE;
+        for (long v : topItems.values()) {
+            min = Math.min(min, v);
+        }
+        return min;
+    }
+
+    private void checkSameDimensions(HeavyHittersAccumulator<T> that) {
+        checkTrue(this.k == that.k && this.depth == that.depth && this.width == that.width,
+                "Accumulators have different dimensions");
+    }
+
+    private static long hash(Object item) {
+        return SerializedHash.hash64(item);
+    }
+
+    /**
+     * Derives the column for the given row from the two halves of the hash,
+     * as in Kirsch and Mitzenmacher, "Less Hashing, Same Performance".
+     */
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> Integer.SIZE);
+        int h = h1 + row * h2;
+        return row * width + ((h & Integer.MAX_VALUE) % width);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        HeavyHittersAccumulator that = (HeavyHittersAccumulator) o;
+        return this.k == that.k
+                && this.depth == that.depth
+                && this.width == that.width
+                && Arrays.equals(this.counters, that.counters)
+                && this.topItems.equals(that.topItems);
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + k;
+        hc = 73 * hc + Arrays.hashCode(counters);
+        hc = 73 * hc + topItems.hashCode();
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "HeavyHittersAccumulator(k=" + k + ", topK=" + topK() + ')';
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.jet.impl.util.SerializedHash;
+
+import java.util.Arrays;
+
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * HyperLogLog sketch that estimates the number of distinct items it was
+ * given. Its size is fixed by the {@code precision}: it keeps {@code
+ * 2^precision} one-byte registers and the standard error of the estimate
+ * is about {@code 1.04 / sqrt(2^precision)}.
+ * <p>
+ * Two sketches with the same precision can be combined; the result is the
+ * same as if one sketch had seen the items of both. Combining doesn't
+ * modify the other sketch. Deduction isn't possible; in a sliding window
+ * the frames are combined incrementally, so that each frame is combined
+ * only a constant number of times, regardless of the window size.
+ */
+public final class HyperLogLogAccumulator {
+
+    /**
+     * The smallest supported precision.
+     */
+    public static final int MIN_PRECISION = 4;
+
+    /**
+     * The largest supported precision.
+     */
+    public static final int MAX_PRECISION = 16;
+
+    private static final double ALPHA_16 = 0.673;
+    private static final double ALPHA_32 = 0.697;
+    private static final double ALPHA_64 = 0.709;
+    private static final double ALPHA_INF = 0.7213;
+    private static final double ALPHA_INF_DIVISOR = 1.079;
+    private static final double LINEAR_COUNTING_THRESHOLD = 2.5;
+
+    private final byte[] registers;
+    private final int precision;
+
+    /**
+     * Creates an empty sketch with the given precision, which must be
+     * between {@value #MIN_PRECISION} and {@value #MAX_PRECISION}.
+     */
+    public HyperLogLogAccumulator(int precision) {
+        checkTrue(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+                "precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ", but is " + precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Creates a sketch with the given registers. Intended only for testing
+     * and deserialization.
+     */
+    public HyperLogLogAccumulator(byte[] registers) {
+        checkTrue(Integer.bitCount(registers.length) == 1
+                        && registers.length >= 1 << MIN_PRECISION && registers.length <= 1 << MAX_PRECISION,
+                "Invalid number of registers: " + registers.length);
+        this.precision = Integer.numberOfTrailingZeros(registers.length);
+        this.registers = registers;
+    }
+
+    /**
+     * Accumulates the given item. The item is hashed by its serialized form,
+     * so the items that are equal must serialize to the same bytes. The hash
+     * doesn't depend on the item's {@code hashCode()} and is the same on all
+     * members.
+     */
+    public HyperLogLogAccumulator accumulate(Object item) {
+        return accumulateHash(SerializedHash.hash64(item));
+    }
+
+    /**
+     * Accumulates an item given by its 64-bit hash. The hash must be well
+     * distributed over all 64 bits.
+     */
+    public HyperLogLogAccumulator accumulateHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // a sentinel bit guarantees the rank is at most (64 - precision + 1)
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+        return this;
+    }
+
+    /**
+     * Combines this sketch with the supplied one. Both must have the same
+     * precision.
+     */
+    public HyperLogLogAccumulator combine(HyperLogLogAccumulator that) {
+        checkTrue(this.precision == that.precision,
+                "Can't combine sketches of different precision: " + this.precision + " and " + that.precision);
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < that.registers[i]) {
+                registers[i] = that.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated number of distinct items accumulated.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= LINEAR_COUNTING_THRESHOLD * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns the precision of this sketch.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    byte[] registers() {
+        return registers;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return ALPHA_16;
+            case 32:
+                return ALPHA_32;
+            case 64:
+                return ALPHA_64;
+            default:
+                return ALPHA_INF / (1 + ALPHA_INF_DIVISOR / m);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o ||
+                o != null
+                && this.getClass() == o.getClass()
+                && Arrays.equals(this.registers, ((HyperLogLogAccumulator) o).registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLogAccumulator(precision=" + precision + ", estimate=" + estimate() + ')';
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import java.util.Arrays;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * A merging t-digest: a sketch of a distribution of {@code double} values
+ * that answers quantile queries with an error that is smallest near the
+ * tails. The values are summarized into weighted centroids, at most {@code
+ * compression} of them, regardless of how many values were accumulated or
+ * how many digests were combined.
+ * <p>
+ * Two digests can be combined; the result is a digest of the union of
+ * their values. Combining doesn't modify the other digest. Deduction isn't
+ * possible; in a sliding window the frames are combined incrementally, so
+ * that each frame is combined only a constant number of times, regardless
+ * of the window size.
+ */
+public final class TDigestAccumulator {
+
+    /**
+     * The compression used by the no-argument constructor.
+     */
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private static final int BUFFER_SIZE_FACTOR = 5;
+
+    private final int compression;
+
+    // centroids, sorted by mean
+    private final double[] means;
+    private final long[] weights;
+    private int centroidCount;
+
+    // values not yet merged into the centroids
+    private final double[] buffer;
+    private int bufferSize;
+
+    private long totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates an empty digest with the {@linkplain #DEFAULT_COMPRESSION
+     * default compression}.
+     */
+    public TDigestAccumulator() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates an empty digest with the given compression. Higher compression
+     * gives more accurate quantiles at the cost of more memory.
+     */
+    public TDigestAccumulator(int compression) {
+        checkPositive(compression, "compression must be positive");
+        this.compression = compression;
+        this.means = new double[compression];
+        this.weights = new long[compression];
+        this.buffer = new double[BUFFER_SIZE_FACTOR * compression];
+    }
+
+    /**
+     * Creates a digest with the given centroids, sorted by mean. Intended
+     * only for testing and deserialization.
+     */
+    public TDigestAccumulator(int compression, double[] means, long[] weights, double min, double max) {
+        this(compression);
+        checkTrue(means.length == weights.length, "means and weights differ in length");
+        for (int i = 0; i < means.length; i++) {
+            checkTrue(i == 0 || means[i - 1] <= means[i], "means aren't sorted");
+            totalWeight += weights[i];
+        }
+        // the centroids of a serialized digest pass the compression unchanged
+        compress(means, weights, means.length);
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Accumulates the given value.
+     */
+    public TDigestAccumulator accumulate(double value) {
+        checkTrue(!Double.isNaN(value), "Can't accumulate NaN");
+        if (bufferSize == buffer.length) {
+            flush();
+        }
+        buffer[bufferSize++] = value;
+        totalWeight++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Combines this digest with the supplied one. The supplied digest is
+     * not modified.
+     */
+    public TDigestAccumulator combine(TDigestAccumulator that) {
+        if (that.totalWeight == 0) {
+            return this;
+        }
+        flush();
+        double[] thatBuffer = Arrays.copyOf(that.buffer, that.bufferSize);
+        Arrays.sort(thatBuffer);
+        double[] thatMeans = new double[that.centroidCount + thatBuffer.length];
+        long[] thatWeights = new long[thatMeans.length];
+        int thatCount = mergeSorted(that.means, that.weights, that.centroidCount,
+                thatBuffer, null, thatBuffer.length, thatMeans, thatWeights);
+        double[] mergedMeans = new double[centroidCount + thatCount];
+        long[] mergedWeights = new long[mergedMeans.length];
+        int mergedCount = mergeSorted(means, weights, centroidCount,
+                thatMeans, thatWeights, thatCount, mergedMeans, mergedWeights);
+        totalWeight += that.totalWeight;
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+        compress(mergedMeans, mergedWeights, mergedCount);
+        return this;
+    }
+
+    /**
+     * Returns the estimated value at the given quantile, which must be
+     * between 0 and 1. Returns {@code NaN} if no values were accumulated.
+     */
+    public double quantile(double q) {
+        checkTrue(q >= 0 && q <= 1, "quantile must be between 0 and 1, but is " + q);
+        flush();
+        if (totalWeight == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        double target = q * totalWeight;
+        // walk the centroid centers, each centroid's weight being spread evenly around its mean
+        double prevCenter = 0;
+        double prevMean = min;
+        double cumulative = 0;
+        for (int i = 0; i < centroidCount; i++) {
+            double center = cumulative + weights[i] / 2.0;
+            if (target < center) {
+                return interpolate(target, prevCenter, prevMean, center, means[i]);
+            }
+            cumulative += weights[i];
+            prevCenter = center;
+            prevMean = means[i];
+        }
+        return interpolate(target, prevCenter, prevMean, totalWeight, max);
+    }
+
+    /**
+     * Returns the number of values accumulated.
+     */
+    public long count() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the compression of this digest.
+     */
+    public int compression() {
+        return compression;
+    }
+
+    private static double interpolate(double x, double x0, double y0, double x1, double y1) {
+        return x1 == x0 ? y0 : y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+    }
+
+    private void flush() {
+        if (bufferSize == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferSize);
+        double[] mergedMeans = new double[centroidCount + bufferSize];
+        long[] mergedWeights = new long[mergedMeans.length];
+        int mergedCount = mergeSorted(means, weights, centroidCount,
+                buffer, null, bufferSize, mergedMeans, mergedWeights);
+        bufferSize = 0;
+        compress(mergedMeans, mergedWeights, mergedCount);
+    }
+
+    /**
+     * Merges two sequences of centroids sorted by mean. A {@code null}
+     * weights array stands for all weights equal to 1.
+     */
+    private static int mergeSorted(
+            double[] means1, long[] weights1, int count1,
+            double[] means2, long[] weights2, int count2,
+            double[] outMeans, long[] outWeights
+    ) {
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < count1 || j < count2) {
+            if (j == count2 || i < count1 && means1[i] <= means2[j]) {
+                outMeans[k] = means1[i];
+                outWeights[k++] = weights1 == null ? 1 : weights1[i];
+                i++;
+            } else {
+                outMeans[k] = means2[j];
+                outWeights[k++] = weights2 == null ? 1 : weights2[j];
+                j++;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Replaces the centroids with the given sorted ones, merging neighbours
+     * as long as a centroid spans at most 1 on the {@linkplain #scale k1
+     * scale}. A centroid that can't take in its right neighbour spans more
+     * than 1 together with it, and the whole scale spans {@code compression /
+     * 2}, so there are at most {@code compression} centroids.
+     */
+    private void compress(double[] inMeans, long[] inWeights, int inCount) {
+        centroidCount = 0;
+        if (inCount == 0) {
+            return;
+        }
+        double curMean = inMeans[0];
+        long curWeight = inWeights[0];
+        long weightBefore = 0;
+        double scaleBefore = scale(0);
+        for (int i = 1; i < inCount; i++) {
+            long proposed = curWeight + inWeights[i];
+            if (scale((double) (weightBefore + proposed) / totalWeight) - scaleBefore <= 1) {
+                curMean += (inMeans[i] - curMean) * inWeights[i] / proposed;
+                curWeight = proposed;
+            } else {
+                addCentroid(curMean, curWeight);
+                weightBefore += curWeight;
+                scaleBefore = scale((double) weightBefore / totalWeight);
+                curMean = inMeans[i];
+                curWeight = inWeights[i];
+            }
+        }
+        addCentroid(curMean, curWeight);
+    }
+
+    /**
+     * The k1 scale function, {@code compression / (2 * PI) * asin(2 * q - 1)}.
+     * It's steepest near the tails, so the centroids there are the smallest.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private void addCentroid(double mean, long weight) {
+        if (centroidCount == means.length) {
+            // can only happen due to a rounding error in the scale, fold it into the last centroid
+            long merged = weights[centroidCount - 1] + weight;
+            means[centroidCount - 1] += (mean - means[centroidCount - 1]) * weight / merged;
+            weights[centroidCount - 1] = merged;
+            return;
+        }
+        means[centroidCount] = mean;
+        weights[centroidCount++] = weight;
+    }
+
+    double[] centroidMeans() {
+        flush();
+        return Arrays.copyOf(means, centroidCount);
+    }
+
+    long[] centroidWeights() {
+        flush();
+        return Arrays.copyOf(weights, centroidCount);
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        TDigestAccumulator that = (TDigestAccumulator) o;
+        return this.compression == that.compression
+                && this.totalWeight == that.totalWeight
+                && Double.compare(this.min, that.min) == 0
+                && Double.compare(this.max, that.max) == 0
+                && Arrays.equals(this.centroidMeans(), that.centroidMeans())
+                && Arrays.equals(this.centroidWeights(), that.centroidWeights());
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + compression;
+        hc = 73 * hc + Long.hashCode(totalWeight);
+        hc = 73 * hc + Arrays.hashCode(centroidMeans());
+        hc = 73 * hc + Arrays.hashCode(centroidWeights());
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "TDigestAccumulator(count=" + totalWeight + ", min=" + min + ", max=" + max + ')';
+    }
+}
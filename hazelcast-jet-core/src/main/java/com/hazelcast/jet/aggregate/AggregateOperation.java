@@ -163,9 +163,9 @@ public interface AggregateOperation<A, R> extends Serializable {
      * that case it is optional, but its presence may significantly reduce the
      * computational cost. With it, the current sliding window can be obtained
      * from the previous one by deducting the trailing frame and combining the
-     * leading frame; without it, each window must be recomputed from all its
-     * constituent frames. The finer the sliding step, the more pronounced the
-     * difference in computation effort will be.
+     * leading frame; without it, Jet keeps partial combinations of the frames
+     * and combines each frame a constant number of times, but a few times more
+     * than with {@code deductFn}, and it has to keep more accumulators per key.
      * <p>
      * If this method returns non-null, then {@link #createFn()} <strong>must
      * </strong> return an accumulator which properly implements {@code
@@ -17,11 +17,14 @@
 package com.hazelcast.jet.aggregate;
 
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.HeavyHittersAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.TDigestAccumulator;
 import com.hazelcast.jet.aggregate.AggregateOperationBuilder.VarArity;
 import com.hazelcast.jet.datamodel.BagsByTag;
 import com.hazelcast.jet.datamodel.Tag;
@@ -47,11 +50,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
 import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
 
 /**
  * Utility class with factory methods for several useful aggregate
@@ -59,6 +64,10 @@ import static com.hazelcast.util.Preconditions.checkPositive;
  */
 public final class AggregateOperations {
 
+    private static final int DEFAULT_HLL_PRECISION = 14;
+    private static final int DEFAULT_CMS_DEPTH = 5;
+    private static final int DEFAULT_CMS_WIDTH = 2048;
+
     private AggregateOperations() {
     }
 
@@ -244,6 +253,132 @@ public final class AggregateOperations {
                 .andFinish(LinTrendAccumulator::finish);
     }
 
+    /**
+     * Returns an aggregate operation that estimates the number of distinct
+     * keys it obtains by applying {@code keyFn} to each item. It uses a
+     * {@link HyperLogLogAccumulator} with precision 14, which takes 16 kB
+     * of memory and has a standard error of about 0.8%.
+     *
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, HyperLogLogAccumulator, Long> approximateCountDistinct(
+            @Nonnull DistributedFunction<? super T, ?> keyFn
+    ) {
+        return approximateCountDistinct(keyFn, DEFAULT_HLL_PRECISION);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the number of distinct
+     * keys it obtains by applying {@code keyFn} to each item. It uses a
+     * {@link HyperLogLogAccumulator} with the given precision, see there for
+     * the memory and accuracy trade-off. The operation has no deduct
+     * function.
+     *
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, HyperLogLogAccumulator, Long> approximateCountDistinct(
+            @Nonnull DistributedFunction<? super T, ?> keyFn,
+            int precision
+    ) {
+        checkTrue(precision >= HyperLogLogAccumulator.MIN_PRECISION
+                        && precision <= HyperLogLogAccumulator.MAX_PRECISION,
+                "precision must be between " + HyperLogLogAccumulator.MIN_PRECISION
+                        + " and " + HyperLogLogAccumulator.MAX_PRECISION);
+        return AggregateOperation
+                .withCreate(() -> new HyperLogLogAccumulator(precision))
+                .andAccumulate((HyperLogLogAccumulator a, T item) -> a.accumulate(keyFn.apply(item)))
+                .andCombine(HyperLogLogAccumulator::combine)
+                .andFinish(HyperLogLogAccumulator::estimate);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the given quantile of the
+     * {@code double} values it obtains by applying {@code getDoubleValueFn}
+     * to each item. For example, {@code 0.99} estimates the 99th percentile.
+     * It uses a {@link TDigestAccumulator} with the {@linkplain
+     * TDigestAccumulator#DEFAULT_COMPRESSION default compression}.
+     *
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, TDigestAccumulator, Double> approximateQuantile(
+            @Nonnull DistributedToDoubleFunction<? super T> getDoubleValueFn,
+            double quantile
+    ) {
+        return approximateQuantile(getDoubleValueFn, quantile, TDigestAccumulator.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the given quantile of the
+     * {@code double} values it obtains by applying {@code getDoubleValueFn}
+     * to each item. It uses a {@link TDigestAccumulator} with the given
+     * compression. The operation has no deduct function.
+     *
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, TDigestAccumulator, Double> approximateQuantile(
+            @Nonnull DistributedToDoubleFunction<? super T> getDoubleValueFn,
+            double quantile,
+            int compression
+    ) {
+        checkTrue(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+        checkPositive(compression, "compression must be positive");
+        return AggregateOperation
+                .withCreate(() -> new TDigestAccumulator(compression))
+                .andAccumulate((TDigestAccumulator a, T item) -> a.accumulate(getDoubleValueFn.applyAsDouble(item)))
+                .andCombine(TDigestAccumulator::combine)
+                .andFinish(a -> a.quantile(quantile));
+    }
+
+    /**
+     * Returns an aggregate operation that finds the {@code k} most frequent
+     * keys it obtains by applying {@code keyFn} to each item. It uses a
+     * {@link HeavyHittersAccumulator} with a count-min sketch of depth 5
+     * and width 2048, which overestimates the counts by at most 0.14% of
+     * the total count with 99% probability.
+     *
+     * @param <T> input item type
+     * @param <K> type of the key
+     */
+    @Nonnull
+    public static <T, K> AggregateOperation1<T, HeavyHittersAccumulator<K>, List<Entry<K, Long>>> approximateTopK(
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn,
+            int k
+    ) {
+        return approximateTopK(keyFn, k, DEFAULT_CMS_DEPTH, DEFAULT_CMS_WIDTH);
+    }
+
+    /**
+     * Returns an aggregate operation that finds the {@code k} most frequent
+     * keys it obtains by applying {@code keyFn} to each item. It uses a
+     * {@link HeavyHittersAccumulator} with the given dimensions of the
+     * count-min sketch. The result lists the keys with their estimated
+     * counts, the most frequent first.
+     *
+     * @param <T> input item type
+     * @param <K> type of the key
+     */
+    @Nonnull
+    public static <T, K> AggregateOperation1<T, HeavyHittersAccumulator<K>, List<Entry<K, Long>>> approximateTopK(
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn,
+            int k,
+            int depth,
+            int width
+    ) {
+        checkPositive(k, "k must be positive");
+        checkPositive(depth, "depth must be positive");
+        checkPositive(width, "width must be positive");
+        return AggregateOperation
+                .withCreate(() -> new HeavyHittersAccumulator<K>(k, depth, width))
+                .andAccumulate((HeavyHittersAccumulator<K> a, T item) -> a.accumulate(keyFn.apply(item)))
+                .andCombine(HeavyHittersAccumulator::combine)
+                .andDeduct(HeavyHittersAccumulator::deduct)
+                .andFinish(HeavyHittersAccumulator::topK);
+    }
+
     /**
      * Convenience for {@link #allOf(AggregateOperation1, AggregateOperation1,
      * DistributedBiFunction)} with identity finish.
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Compression applied to the network packets of a distributed edge. The
+ * sender compresses the serialized items in the packet and the receiver
+ * decompresses them before deserialization. Compression trades CPU time
+ * on both sides for network bandwidth; it pays off when the network is
+ * the bottleneck and the items have a lot of redundancy, such as text or
+ * repeated keys.
+ * <p>
+ * The flow control between the members is not affected: it is based on
+ * the uncompressed size of the items.
+ */
+public enum EdgeCompression {
+
+    /**
+     * The packets are sent as they are. This is the default.
+     */
+    NONE,
+
+    /**
+     * A fast compression with a lower compression ratio. It uses the
+     * deflate algorithm tuned for speed.
+     */
+    FAST,
+
+    /**
+     * The deflate algorithm with its default balance between speed and
+     * compression ratio.
+     */
+    DEFLATE
+}
@@ -18,8 +18,10 @@ package com.hazelcast.jet.config;
 
 import com.hazelcast.jet.core.Edge;
 
+import javax.annotation.Nonnull;
 import java.io.Serializable;
 
+import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.Preconditions.checkPositive;
 
 /**
@@ -47,6 +49,8 @@ public class EdgeConfig implements Serializable {
     private int queueSize = DEFAULT_QUEUE_SIZE;
     private int receiveWindowMultiplier = DEFAULT_RECEIVE_WINDOW_MULTIPLIER;
     private int packetSizeLimit = DEFAULT_PACKET_SIZE_LIMIT;
+    private EdgeCompression compression = EdgeCompression.NONE;
+    private boolean adaptiveQueueSize;
 
     /**
      * Sets the capacity of processor-to-processor concurrent queues. The value
@@ -62,7 +66,7 @@ public class EdgeConfig implements Serializable {
      * on each member. Care should be taken to strike a balance between performance
      * and memory usage. The default of {@value #DEFAULT_QUEUE_SIZE} is a good size
      * for simple DAGs and moderate parallelism, but the optimum can be determined only
-     * by experiment.
+     * by experiment. See also {@link #setAdaptiveQueueSize(boolean)}.
      *
      * @return {@code this} instance for fluent API
      */
@@ -80,6 +84,38 @@ public class EdgeConfig implements Serializable {
         return queueSize;
     }
 
+    /**
+     * Enables the adaptive sizing of the processor-to-processor concurrent
+     * queues. An adaptive queue starts with a small capacity limit and the
+     * consumer adjusts it according to the observed rate of draining: the
+     * limit is doubled when the consumer finds the queue full and halved
+     * when it drains only a small fraction of the limit for a while. The
+     * {@link #setQueueSize(int) queue size} is the upper bound of the limit.
+     * <p>
+     * This keeps the number of items buffered in the queues low for edges
+     * where the consumer keeps up with the producer, which saves memory when
+     * the items are large, while still allowing the full queue size for
+     * edges where larger batches are needed for throughput. The array
+     * backing an adaptive queue also starts small and grows with the limit,
+     * up to the queue size. It doesn't shrink when the limit goes down.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    public EdgeConfig setAdaptiveQueueSize(boolean adaptiveQueueSize) {
+        this.adaptiveQueueSize = adaptiveQueueSize;
+        return this;
+    }
+
+    /**
+     * Tells whether the {@link #setAdaptiveQueueSize(boolean) adaptive
+     * queue sizing} is enabled.
+     */
+    public boolean isAdaptiveQueueSize() {
+        return adaptiveQueueSize;
+    }
+
     /**
      * Sets the scaling factor used by the adaptive receive window sizing
      * function.
@@ -147,4 +183,28 @@ public class EdgeConfig implements Serializable {
     public int getPacketSizeLimit() {
         return packetSizeLimit;
     }
+
+    /**
+     * Sets the compression of the network packets of a distributed edge. See
+     * {@link EdgeCompression} for the available options.
+     * <p>
+     * The packet size limit applies to the uncompressed data. The default
+     * value is {@link EdgeCompression#NONE}. This setting has no effect on a
+     * non-distributed edge.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    public EdgeConfig setCompression(@Nonnull EdgeCompression compression) {
+        this.compression = checkNotNull(compression, "compression must not be null");
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setCompression(EdgeCompression) compression} of the
+     * network packets.
+     */
+    @Nonnull
+    public EdgeCompression getCompression() {
+        return compression;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Defines how a cooperative worker thread behaves when none of its
+ * tasklets made progress in the last round. The choice trades latency
+ * against CPU usage: spinning reacts to new data immediately but keeps a
+ * core busy, parking frees the core but delays the reaction by up to
+ * the {@link InstanceConfig#setMaxIdleParkMicros(int) maximum park
+ * time}.
+ * <p>
+ * Blocking tasklets run on their own threads and always use {@link
+ * #BACKOFF}, regardless of this setting.
+ */
+public enum IdleStrategyType {
+
+    /**
+     * Parks the thread for an exponentially growing period, starting at
+     * one microsecond and capped at the maximum park time. This is the
+     * default.
+     */
+    BACKOFF,
+
+    /**
+     * Never gives up the CPU. Offers the lowest latency, but each
+     * cooperative thread occupies a core even when the cluster is idle.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Calls {@link Thread#yield()} on every idle round. Lets other threads
+     * run while staying responsive, but still keeps the cores busy on an
+     * idle cluster.
+     */
+    YIELD,
+
+    /**
+     * Learns from the recent progress pattern of the worker: if idle
+     * periods were short, it spins and yields for a while before parking;
+     * if they were long, it parks right away with a growing period.
+     */
+    ADAPTIVE,
+
+    /**
+     * Parks the thread until it's signalled or until the maximum park time
+     * elapses, whichever comes first. A producer signals after it added new
+     * data to one of the worker's input queues and a consumer after it made
+     * room in a queue the worker found full. Offers low latency without
+     * spinning, at the cost of a wake-up call on the producer side.
+     * <p>
+     * Events without a signal, such as a source finding new data in an
+     * external system, are noticed only after the park time elapses, see
+     * {@link InstanceConfig#setMaxIdleParkMicros(int)}.
+     */
+    PARK_UNTIL_SIGNALLED
+}
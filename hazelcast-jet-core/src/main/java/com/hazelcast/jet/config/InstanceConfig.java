@@ -21,7 +21,10 @@ import com.hazelcast.config.MapConfig;
 import javax.annotation.Nonnull;
 
 import static com.hazelcast.util.Preconditions.checkBackupCount;
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
 
 /**
  * General configuration options pertaining to a Jet instance.
@@ -38,11 +41,54 @@ public class InstanceConfig {
      */
     public static final int DEFAULT_BACKUP_COUNT = MapConfig.DEFAULT_BACKUP_COUNT;
 
+    /**
+     * The default value of the {@link #setMaxIdleParkMicros(int) maximum idle
+     * park time}.
+     */
+    public static final int DEFAULT_MAX_IDLE_PARK_MICROS = 1000;
+
+    /**
+     * The default value of the {@link #setLoadBalancingPeriodMs(int)
+     * load-balancing period}.
+     */
+    public static final int DEFAULT_LOAD_BALANCING_PERIOD_MS = 100;
+
+    /**
+     * The default value of the {@link #setLoadImbalanceThreshold(double)
+     * load-imbalance threshold}.
+     */
+    public static final double DEFAULT_LOAD_IMBALANCE_THRESHOLD = 0.25;
+
+    /**
+     * The default value of the {@link #setMaxInMemoryGroupingKeys(int)
+     * maximum number of in-memory grouping keys}. Zero means no limit.
+     */
+    public static final int DEFAULT_MAX_IN_MEMORY_GROUPING_KEYS = 0;
+
+    /**
+     * The default value of the {@link #setMaxPartialAggregationKeys(int)
+     * maximum number of partial aggregation keys}. Zero means no limit.
+     */
+    public static final int DEFAULT_MAX_PARTIAL_AGGREGATION_KEYS = 0;
+
+    /**
+     * The default value of the {@link #setPackedGroupingAccumulators(boolean)
+     * packed-grouping-accumulators} flag.
+     */
+    public static final boolean DEFAULT_PACKED_GROUPING_ACCUMULATORS = true;
 
     private int cooperativeThreadCount = Runtime.getRuntime().availableProcessors();
     private int flowControlPeriodMs = DEFAULT_FLOW_CONTROL_PERIOD_MS;
     private int backupCount = DEFAULT_BACKUP_COUNT;
     private String tempDir;
+    private IdleStrategyType idleStrategy = IdleStrategyType.BACKOFF;
+    private int maxIdleParkMicros = DEFAULT_MAX_IDLE_PARK_MICROS;
+    private int loadBalancingPeriodMs = DEFAULT_LOAD_BALANCING_PERIOD_MS;
+    private double loadImbalanceThreshold = DEFAULT_LOAD_IMBALANCE_THRESHOLD;
+    private int maxInMemoryGroupingKeys = DEFAULT_MAX_IN_MEMORY_GROUPING_KEYS;
+    private int maxPartialAggregationKeys = DEFAULT_MAX_PARTIAL_AGGREGATION_KEYS;
+    private boolean packedGroupingAccumulators = DEFAULT_PACKED_GROUPING_ACCUMULATORS;
+    private SnapshotStorageType snapshotStorage = SnapshotStorageType.IMAP;
 
     /**
      * Sets the number of threads each cluster member will use to execute Jet
@@ -62,6 +108,207 @@ public class InstanceConfig {
         return  cooperativeThreadCount;
     }
 
+    /**
+     * Sets the strategy a cooperative thread uses when none of its tasklets
+     * made progress. See {@link IdleStrategyType} for the available options.
+     * The default is {@link IdleStrategyType#BACKOFF BACKOFF}.
+     */
+    public InstanceConfig setIdleStrategy(@Nonnull IdleStrategyType idleStrategy) {
+        this.idleStrategy = checkNotNull(idleStrategy, "idleStrategy must not be null");
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setIdleStrategy(IdleStrategyType) idle strategy}
+     * of the cooperative threads.
+     */
+    @Nonnull
+    public IdleStrategyType getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    /**
+     * Sets the maximum time (in microseconds) an idle thread parks before it
+     * checks its tasklets again. It bounds the latency added by the parking
+     * {@link #setIdleStrategy(IdleStrategyType) idle strategies}.
+     * <p>
+     * With {@link IdleStrategyType#PARK_UNTIL_SIGNALLED PARK_UNTIL_SIGNALLED}
+     * a thread is woken up early when data arrives on its input queues, when
+     * a full output queue is drained, when a remote member grants more
+     * flow-control credit and when a snapshot starts or the job is cancelled.
+     * Everything else waits for the park time to elapse: most notably a
+     * source processor polling an external system that had no data, and the
+     * completion of asynchronous operations other than snapshot writes. A
+     * wake-up signal racing with the thread going to park can also be missed.
+     */
+    public InstanceConfig setMaxIdleParkMicros(int maxIdleParkMicros) {
+        checkPositive(maxIdleParkMicros, "maxIdleParkMicros should be a positive number");
+        this.maxIdleParkMicros = maxIdleParkMicros;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setMaxIdleParkMicros(int) maximum idle park time}
+     * in microseconds.
+     */
+    public int getMaxIdleParkMicros() {
+        return maxIdleParkMicros;
+    }
+
+    /**
+     * Sets the length (in milliseconds) of the load-balancing period of the
+     * cooperative threads. Each thread measures the time its tasklets spend
+     * executing and, at the end of every period, compares its load with the
+     * other threads. If it is less loaded than the busiest thread by more
+     * than the {@link #setLoadImbalanceThreshold(double) load-imbalance
+     * threshold}, it takes over one of that thread's tasklets. New tasklets
+     * are also preferably assigned to the least loaded threads.
+     * <p>
+     * Setting the period to zero disables the measurement. Threads then only
+     * balance the number of tasklets, and only when a tasklet completes.
+     */
+    public InstanceConfig setLoadBalancingPeriodMs(int loadBalancingPeriodMs) {
+        checkNotNegative(loadBalancingPeriodMs, "loadBalancingPeriodMs must not be negative");
+        this.loadBalancingPeriodMs = loadBalancingPeriodMs;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setLoadBalancingPeriodMs(int) load-balancing
+     * period} in milliseconds.
+     */
+    public int getLoadBalancingPeriodMs() {
+        return loadBalancingPeriodMs;
+    }
+
+    /**
+     * Sets the minimum difference between the loads of two cooperative
+     * threads, as a fraction of the busier thread's load, that causes the
+     * less loaded thread to take over some work. The value must be in the
+     * range {@code (0, 1]}. Lower values balance more aggressively, but move
+     * tasklets more often. The default is {@value
+     * #DEFAULT_LOAD_IMBALANCE_THRESHOLD}.
+     */
+    public InstanceConfig setLoadImbalanceThreshold(double loadImbalanceThreshold) {
+        checkTrue(loadImbalanceThreshold > 0 && loadImbalanceThreshold <= 1,
+                "loadImbalanceThreshold must be in the range (0, 1]");
+        this.loadImbalanceThreshold = loadImbalanceThreshold;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setLoadImbalanceThreshold(double) load-imbalance
+     * threshold}.
+     */
+    public double getLoadImbalanceThreshold() {
+        return loadImbalanceThreshold;
+    }
+
+    /**
+     * Sets the maximum number of keys a batch grouping processor keeps in
+     * memory. When a processor has more keys, it writes the accumulators of
+     * the least recently used half of them to a file in the {@link
+     * #setTempDir(String) temp directory} and merges the files when it
+     * emits the results. This bounds the heap used by a group-by with many
+     * distinct keys at the cost of sequential disk I/O. It only applies to
+     * aggregate operations that have a {@link
+     * com.hazelcast.jet.aggregate.AggregateOperation#combineFn() combine}
+     * primitive.
+     * <p>
+     * Zero, the default, means no limit: all keys are kept in memory.
+     */
+    public InstanceConfig setMaxInMemoryGroupingKeys(int maxInMemoryGroupingKeys) {
+        checkNotNegative(maxInMemoryGroupingKeys, "maxInMemoryGroupingKeys must not be negative");
+        this.maxInMemoryGroupingKeys = maxInMemoryGroupingKeys;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setMaxInMemoryGroupingKeys(int) maximum number of
+     * in-memory grouping keys}.
+     */
+    public int getMaxInMemoryGroupingKeys() {
+        return maxInMemoryGroupingKeys;
+    }
+
+    /**
+     * Sets the maximum number of keys the first stage of a two-stage batch
+     * group-and-aggregate keeps in each processor. The first stage then
+     * works as a cache of partial results: when it has more keys, it sends
+     * the least recently used accumulator to the second stage right away,
+     * where it is combined with the other partial results of the key. If
+     * the first stage evicts an accumulator for almost every item, the keys
+     * rarely repeat and it stops caching new keys for the rest of the input.
+     * <p>
+     * This bounds the memory of the first stage and avoids holding partial
+     * results that reduce the network traffic very little. Zero, the
+     * default, means no limit: the first stage keeps all its keys until the
+     * input is exhausted.
+     */
+    public InstanceConfig setMaxPartialAggregationKeys(int maxPartialAggregationKeys) {
+        checkNotNegative(maxPartialAggregationKeys, "maxPartialAggregationKeys must not be negative");
+        this.maxPartialAggregationKeys = maxPartialAggregationKeys;
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setMaxPartialAggregationKeys(int) maximum number
+     * of partial aggregation keys}.
+     */
+    public int getMaxPartialAggregationKeys() {
+        return maxPartialAggregationKeys;
+    }
+
+    /**
+     * Sets whether a batch grouping processor keeps the accumulators of
+     * primitive-valued aggregate operations (such as counting, summing or
+     * averaging) packed in a {@code long} array instead of as one object per
+     * key. Grouping 2 million keys, this took 26 instead of 60 bytes of heap
+     * per key for counting and 35 instead of 72 for averaging, at the same
+     * speed. The array is grown by copying, which briefly needs twice its
+     * memory. It doesn't apply when the {@link #setMaxInMemoryGroupingKeys(int)
+     * number of in-memory grouping keys} is limited, nor to sliding windows.
+     * <p>
+     * The values stay on the Java heap: the collector doesn't scan a {@code
+     * long} array, and a direct buffer only saved another 8 bytes per key
+     * while leaving each buffer outgrown by the table to be freed by a later
+     * garbage collection.
+     * <p>
+     * The default is {@code true}.
+     */
+    public InstanceConfig setPackedGroupingAccumulators(boolean packedGroupingAccumulators) {
+        this.packedGroupingAccumulators = packedGroupingAccumulators;
+        return this;
+    }
+
+    /**
+     * Returns whether the {@link #setPackedGroupingAccumulators(boolean)
+     * packed grouping accumulators} are enabled.
+     */
+    public boolean isPackedGroupingAccumulators() {
+        return packedGroupingAccumulators;
+    }
+
+    /**
+     * Sets where the members store the data of job snapshots. See {@link
+     * SnapshotStorageType} for the available options. The default is {@link
+     * SnapshotStorageType#IMAP IMAP}. All members of the cluster must use the
+     * same setting.
+     */
+    public InstanceConfig setSnapshotStorage(@Nonnull SnapshotStorageType snapshotStorage) {
+        this.snapshotStorage = checkNotNull(snapshotStorage, "snapshotStorage must not be null");
+        return this;
+    }
+
+    /**
+     * Returns the {@link #setSnapshotStorage(SnapshotStorageType) snapshot
+     * storage}.
+     */
+    @Nonnull
+    public SnapshotStorageType getSnapshotStorage() {
+        return snapshotStorage;
+    }
+
     /**
      * Sets the directory where Jet can place its temporary working directories.
      */
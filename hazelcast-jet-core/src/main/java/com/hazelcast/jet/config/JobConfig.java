@@ -40,6 +40,8 @@ public class JobConfig implements Serializable {
     private String name;
     private ProcessingGuarantee processingGuarantee = ProcessingGuarantee.NONE;
     private long snapshotIntervalMillis = SNAPSHOT_INTERVAL_MILLIS_DEFAULT;
+    private int fullSnapshotInterval = 1;
+    private boolean nonBlockingSnapshotBarriersEnabled;
 
     private boolean splitBrainProtectionEnabled;
     private final List<ResourceConfig> resourceConfigs = new ArrayList<>();
@@ -184,6 +186,81 @@ public class JobConfig implements Serializable {
         return this;
     }
 
+    /**
+     * Returns the configured {@link #setFullSnapshotInterval(int) full
+     * snapshot interval}.
+     */
+    public int getFullSnapshotInterval() {
+        return fullSnapshotInterval;
+    }
+
+    /**
+     * Enables <em>delta snapshots</em> and sets how often a full snapshot is
+     * taken. With a value of {@code n > 1} Jet takes a full snapshot followed
+     * by up to {@code n - 1} delta snapshots. A delta snapshot contains only
+     * the state that changed since the previous snapshot, as far as the
+     * processors {@link com.hazelcast.jet.core.Processor#supportsDeltaSnapshot()
+     * support it}; processors that don't support it save their full state
+     * into each snapshot. When the job restarts, Jet merges the delta
+     * snapshots with the full snapshot they are based on.
+     * <p>
+     * A failed snapshot and the first snapshot after the job (re)starts are
+     * always full.
+     * <p>
+     * The default value is 1: every snapshot is a full snapshot.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setFullSnapshotInterval(int fullSnapshotInterval) {
+        Preconditions.checkPositive(fullSnapshotInterval, "fullSnapshotInterval must be positive");
+        this.fullSnapshotInterval = fullSnapshotInterval;
+        return this;
+    }
+
+    /**
+     * Tells whether {@link #setNonBlockingSnapshotBarriers(boolean)
+     * non-blocking snapshot barriers} are enabled.
+     */
+    public boolean isNonBlockingSnapshotBarriersEnabled() {
+        return nonBlockingSnapshotBarriersEnabled;
+    }
+
+    /**
+     * Enables <em>non-blocking snapshot barriers</em> for the {@link
+     * ProcessingGuarantee#EXACTLY_ONCE exactly-once} guarantee. By default, a
+     * processor with several inputs stops receiving from an input that
+     * delivered the snapshot barrier until all other inputs deliver it too.
+     * A slow input then stalls all others until its barrier arrives.
+     * <p>
+     * With non-blocking barriers the processor saves its state as soon as the
+     * first input delivers the barrier and keeps receiving from all inputs.
+     * The items it receives on the other inputs before they deliver the
+     * barrier are saved to the snapshot too and are replayed to the processor
+     * when the job restarts from the snapshot. The snapshot then contains more
+     * data, but the fast inputs no longer stall waiting for the slow ones.
+     * <p>
+     * These aren't unaligned snapshots: a barrier never overtakes the items
+     * queued ahead of it, and the items waiting in the queues aren't saved.
+     * The snapshot completes only after the processor received the barrier
+     * from all inputs, which still takes longer when the queues are full. The
+     * duration of a snapshot therefore still depends on the backpressure.
+     * <p>
+     * The barriers stay blocking when the items are sent to another member
+     * and for processors with a {@link
+     * com.hazelcast.jet.core.Edge#broadcast() broadcast} inbound edge.
+     * <p>
+     * The setting has no effect with other processing guarantees. It's
+     * disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setNonBlockingSnapshotBarriers(boolean enabled) {
+        this.nonBlockingSnapshotBarriersEnabled = enabled;
+        return this;
+    }
+
     /**
      * Sets the maximum time to retain the watermarks while coalescing them.
      * A negative value disables the limit and Jet will retain the watermark
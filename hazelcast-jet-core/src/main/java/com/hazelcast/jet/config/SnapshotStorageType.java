@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.config;
+
+/**
+ * Defines where the members store the data of job snapshots. The snapshot
+ * metadata is always stored in IMaps.
+ */
+public enum SnapshotStorageType {
+
+    /**
+     * Stores the snapshot data in IMaps with the {@link
+     * InstanceConfig#setBackupCount(int) configured number} of backups. Each
+     * entry is written to the member owning its partition. This is the
+     * default.
+     */
+    IMAP,
+
+    /**
+     * Writes the snapshot data of each vertex on a member sequentially to a
+     * memory-mapped file in the {@link InstanceConfig#setTempDir(String)
+     * temp directory} and copies the file to as many other members as the
+     * {@link InstanceConfig#setBackupCount(int) backup count}. The data
+     * doesn't occupy heap memory and isn't sent to partition owners; on
+     * restore, each member reads the files it holds and most entries stay
+     * local when the partition assignment didn't change.
+     * <p>
+     * Delta snapshots are not supported with this storage: every snapshot is
+     * a full snapshot, regardless of {@link
+     * JobConfig#setFullSnapshotInterval(int)}. Files of members that were
+     * not in the cluster when a snapshot was deleted are left behind.
+     */
+    LOCAL_DISK
+}
@@ -87,6 +87,26 @@ public interface Outbox {
     @CheckReturnValue
     boolean offerToSnapshot(@Nonnull Object key, @Nonnull Object value);
 
+    /**
+     * Records in the processor's snapshot storage the removal of the given
+     * key since the previous snapshot. When the job is restored, the key
+     * won't be restored even if an earlier snapshot contains it.
+     * <p>
+     * This method may only be called from the {@link
+     * Processor#saveDeltaToSnapshot()} method.
+     * <p>
+     * The default implementation throws {@code
+     * UnsupportedOperationException}, the outboxes Jet passes to the
+     * processors override it.
+     *
+     * @return {@code true} if the outbox accepted the item
+     */
+    @CheckReturnValue
+    default boolean offerRemovalToSnapshot(@Nonnull Object key) {
+        throw new UnsupportedOperationException("Outbox " + getClass().getName()
+                + " doesn't support delta snapshots");
+    }
+
     /**
      * Offers the item to all edges. See {@link #offer(int, Object)} for more
      * details.
@@ -200,6 +200,48 @@ public interface Processor {
         return true;
     }
 
+    /**
+     * Tells whether this processor implements {@link #saveDeltaToSnapshot()}.
+     * Must return the same value for all processor instances of a vertex.
+     * <p>
+     * The default implementation returns {@code false}.
+     */
+    default boolean supportsDeltaSnapshot() {
+        return false;
+    }
+
+    /**
+     * Stores only the part of its state that changed since the previous
+     * snapshot. Jet calls this method instead of {@link #saveToSnapshot()}
+     * when the job uses {@link
+     * com.hazelcast.jet.config.JobConfig#setFullSnapshotInterval(int) delta
+     * snapshots}, the current snapshot is a delta snapshot and {@link
+     * #supportsDeltaSnapshot()} returns {@code true}. The same rules as for
+     * {@code saveToSnapshot()} apply.
+     * <p>
+     * The processor must save:<ul>
+     *     <li>all the keys whose values changed since the previous snapshot,
+     *     either full or delta
+     *     <li>all the keys it removed from its state since the previous
+     *     snapshot, using {@link Outbox#offerRemovalToSnapshot(Object)}
+     *     <li>all the {@link BroadcastKey broadcast keys}: the broadcast keys
+     *     in a delta snapshot replace those in the previous snapshots
+     * </ul>
+     * When the job is restored, the processor receives the merged state in
+     * {@link #restoreFromSnapshot(Inbox)}, just like after a full snapshot.
+     * <p>
+     * The processor should only track its changes when {@link
+     * Context#deltaSnapshotsEnabled()} returns {@code true}. Every call to
+     * {@code saveToSnapshot()} or this method that returns {@code true} starts
+     * a new tracking period.
+     * <p>
+     * The default implementation throws an exception.
+     */
+    default boolean saveDeltaToSnapshot() {
+        throw new JetException("Processor " + getClass().getName()
+                + " does not override the saveDeltaToSnapshot() method");
+    }
+
     /**
      * Called when a batch of items is received during the "restore from
      * snapshot" operation. The type of items in the inbox is {@code
@@ -260,5 +302,15 @@ public interface Processor {
          * Returns the guarantee for current job.
          */
         ProcessingGuarantee processingGuarantee();
+
+        /**
+         * Returns true, if the job may take {@link
+         * com.hazelcast.jet.config.JobConfig#setFullSnapshotInterval(int)
+         * delta snapshots}. Only then the processors supporting them need to
+         * track the changes to their state.
+         */
+        default boolean deltaSnapshotsEnabled() {
+            return false;
+        }
     }
 }
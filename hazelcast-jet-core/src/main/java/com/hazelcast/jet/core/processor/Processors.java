@@ -41,6 +41,8 @@ import com.hazelcast.jet.impl.processor.GroupP;
 import com.hazelcast.jet.impl.processor.InsertWatermarksP;
 import com.hazelcast.jet.impl.processor.SessionWindowP;
 import com.hazelcast.jet.impl.processor.SlidingWindowP;
+import com.hazelcast.jet.impl.processor.SortedGroupP;
+import com.hazelcast.jet.impl.processor.StreamStreamJoinP;
 import com.hazelcast.jet.impl.processor.TransformP;
 import com.hazelcast.jet.impl.processor.TransformUsingContextP;
 import com.hazelcast.jet.impl.util.WrappingProcessorMetaSupplier;
@@ -55,6 +57,7 @@ import static com.hazelcast.jet.core.TimestampKind.EVENT;
 import static com.hazelcast.jet.function.DistributedFunction.identity;
 import static com.hazelcast.jet.function.DistributedFunctions.constantKey;
 import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
+import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
@@ -198,6 +201,9 @@ import static java.util.stream.Collectors.toList;
  *     <td>N/A</td>
  * </tr></table>
  * <p>
+ * Two streams can be joined on a key and within a time window using
+ * {@link #windowedJoinP}.
+ * <p>
  * Tumbling window is a special case of sliding window with sliding step =
  * window size.
  */
@@ -313,6 +319,45 @@ public final class Processors {
         return () -> new GroupP<>(keyFns, aggrOp, mapToOutputFn);
     }
 
+    /**
+     * Returns a supplier of processors for a vertex that groups items by key
+     * and performs the provided aggregate operation on each group, assuming
+     * that the items with the same key arrive one after another, for example
+     * because the input is sorted by the key. It keeps only the accumulator
+     * of the current key and emits the result for it as soon as it receives
+     * an item with a different key. It computes the item to emit by passing
+     * the (key, result) pair to {@code mapToOutputFn}.
+     * <p>
+     * If the items with the same key aren't adjacent in the input, the
+     * vertex emits a separate result for each run of them. To preserve the
+     * order of the items, the inbound edge should be {@link
+     * com.hazelcast.jet.core.Edge#isolated() isolated} and the vertex should
+     * have the same local parallelism as the upstream vertex, so that each
+     * processor receives the items of exactly one upstream processor. An
+     * isolated edge into a vertex with higher parallelism spreads the items
+     * of an upstream processor over several processors.
+     * <p>
+     * This processor has state, but does not save it to snapshot. On job
+     * restart, the state will be lost.
+     *
+     * @param keyFn function that computes the grouping key
+     * @param aggrOp the aggregate operation
+     * @param mapToOutputFn function that creates the output item
+     * @param <T> type of the input item
+     * @param <K> type of key
+     * @param <A> type of accumulator returned from {@code aggrOp.createAccumulatorFn()}
+     * @param <R> type of the result returned from {@code aggrOp.finishAccumulationFn()}
+     * @param <OUT> type of the item to emit
+     */
+    @Nonnull
+    public static <T, K, A, R, OUT> DistributedSupplier<Processor> aggregateSortedByKeyP(
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn,
+            @Nonnull AggregateOperation1<? super T, A, R> aggrOp,
+            @Nonnull DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn
+    ) {
+        return () -> new SortedGroupP<>(keyFn, aggrOp, mapToOutputFn);
+    }
+
     /**
      * Returns a supplier of processors for the first-stage vertex in a
      * two-stage group-and-aggregate setup. The vertex groups items by the
@@ -321,6 +366,11 @@ public final class Processors {
      * After exhausting all its input it emits one {@code Map.Entry<K, A>} per
      * distinct key.
      * <p>
+     * If the {@linkplain com.hazelcast.jet.config.InstanceConfig#setMaxPartialAggregationKeys
+     * number of partial aggregation keys} is limited, it emits the least
+     * recently used accumulator as soon as it has too many keys, so it can
+     * emit several entries for one key.
+     * <p>
      * The vertex accepts input from one or more inbound edges. The type of
      * items may be different on each edge. For each edge a separate key
      * extracting function must be supplied and the aggregate operation must
@@ -339,7 +389,7 @@ public final class Processors {
             @Nonnull List<DistributedFunction<?, ? extends K>> getKeyFns,
             @Nonnull AggregateOperation<A, ?> aggrOp
     ) {
-        return () -> new GroupP<>(getKeyFns, aggrOp.withFinishFn(identity()), Util::entry);
+        return () -> new GroupP<>(getKeyFns, aggrOp.withFinishFn(identity()), Util::entry, true);
     }
 
     /**
@@ -625,6 +675,55 @@ public final class Processors {
         return () -> new SessionWindowP<>(sessionTimeout, timestampFns, keyFns, aggrOp, mapToOutputFn);
     }
 
+    /**
+     * Returns a supplier of processors for a vertex that joins two streams
+     * on a key and within a time window. An item {@code t0} from ordinal 0
+     * and an item {@code t1} from ordinal 1 are joined if their keys are
+     * equal and
+     * <pre>
+     *     timestamp(t0) + lowerBound <= timestamp(t1) <= timestamp(t0) + upperBound
+     * </pre>
+     * For each such pair the vertex emits the result of {@code
+     * mapToOutputFn}. It is an inner join: items without a match produce no
+     * output. Both inbound edges must be partitioned by the join key.
+     * <p>
+     * The vertex buffers the items of both ordinals and evicts them as the
+     * watermark advances past the point where they can no longer be joined.
+     * Its memory use is therefore proportional to the amount of data within
+     * the join window. Items behind the watermark are dropped as late.
+     * <p>
+     * <i>Behavior on job restart</i><br>
+     * This processor saves its buffers to the snapshot and continues joining
+     * where it left off after a restart.
+     *
+     * @param keyFn0        function to extract the join key from items on ordinal 0
+     * @param keyFn1        function to extract the join key from items on ordinal 1
+     * @param timestampFn0  function to extract the timestamp from items on ordinal 0
+     * @param timestampFn1  function to extract the timestamp from items on ordinal 1
+     * @param lowerBound    the lower bound of {@code timestamp(t1) - timestamp(t0)}
+     * @param upperBound    the upper bound of {@code timestamp(t1) - timestamp(t0)}
+     * @param mapToOutputFn function that creates the output item from the joined items
+     *
+     * @param <T0> type of items on ordinal 0
+     * @param <T1> type of items on ordinal 1
+     * @param <K> type of the join key
+     * @param <OUT> type of the output item
+     */
+    @Nonnull
+    public static <T0, T1, K, OUT> DistributedSupplier<Processor> windowedJoinP(
+            @Nonnull DistributedFunction<? super T0, ? extends K> keyFn0,
+            @Nonnull DistributedFunction<? super T1, ? extends K> keyFn1,
+            @Nonnull DistributedToLongFunction<? super T0> timestampFn0,
+            @Nonnull DistributedToLongFunction<? super T1> timestampFn1,
+            long lowerBound,
+            long upperBound,
+            @Nonnull DistributedBiFunction<? super T0, ? super T1, ? extends OUT> mapToOutputFn
+    ) {
+        checkTrue(lowerBound <= upperBound, "lowerBound must not be greater than upperBound");
+        return () -> new StreamStreamJoinP<>(keyFn0, keyFn1, timestampFn0, timestampFn1,
+                lowerBound, upperBound, mapToOutputFn);
+    }
+
     /**
      * Returns a supplier of processors for a vertex that inserts {@link
      * com.hazelcast.jet.core.Watermark watermark items} into the stream. The
@@ -18,6 +18,7 @@ package com.hazelcast.jet.core.test;
 
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.jet.core.Outbox;
+import com.hazelcast.jet.impl.execution.DeltaSnapshotTag;
 import com.hazelcast.jet.impl.execution.OutboundCollector;
 import com.hazelcast.jet.impl.execution.OutboxImpl;
 import com.hazelcast.jet.impl.util.ProgressState;
@@ -51,6 +52,7 @@ public final class TestOutbox implements Outbox {
     private final Queue<Entry<Data, Data>> snapshotQueue = new ArrayDeque<>();
     private final OutboxImpl outbox;
     private final SerializationService serializationService;
+    private final int snapshotCapacity;
 
     /** Items that were rejected for each output ordinal */
     private final Object[] rejectedItems;
@@ -79,6 +81,7 @@ public final class TestOutbox implements Outbox {
     public TestOutbox(int[] edgeCapacities, int snapshotCapacity) {
         checkNotNegative(snapshotCapacity, "snapshotCapacity must be >= 0 (0 for no snapshot queue)");
 
+        this.snapshotCapacity = snapshotCapacity;
         buckets = new Queue[edgeCapacities.length];
         Arrays.setAll(buckets, i -> new ArrayDeque());
 
@@ -132,12 +135,24 @@ public final class TestOutbox implements Outbox {
 
     @Override
     public boolean offerToSnapshot(@Nonnull Object key, @Nonnull Object value) {
-        boolean offerResult = outbox.offerToSnapshot(key, value);
+        // The entries are added to the snapshot queue one by one so that the
+        // tests can observe them and the rejections. OutboxImpl would collect
+        // them into batches emitted before the next snapshot barrier.
+        if (snapshotCapacity == 0) {
+            throw new IllegalStateException("Outbox does not have snapshot queue");
+        }
+        boolean offerResult = addToQueue(snapshotQueue, snapshotCapacity,
+                entry(serializationService.toData(key), serializationService.toData(value))).isDone();
         rejectedSnapshotKey = check(key, rejectedSnapshotKey, offerResult);
         rejectedSnapshotValue = check(value, rejectedSnapshotValue, offerResult);
         return offerResult;
     }
 
+    @Override
+    public boolean offerRemovalToSnapshot(@Nonnull Object key) {
+        return offerToSnapshot(key, DeltaSnapshotTag.REMOVED);
+    }
+
     @CheckReturnValue
     private Object check(Object item, Object rejectedItem, boolean offerResult) {
         if (rejectedItem != null) {
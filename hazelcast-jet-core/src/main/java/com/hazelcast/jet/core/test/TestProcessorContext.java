@@ -30,6 +30,7 @@ public class TestProcessorContext extends TestProcessorSupplierContext implement
 
     private int globalProcessorIndex;
     private ProcessingGuarantee processingGuarantee = ProcessingGuarantee.NONE;
+    private boolean deltaSnapshotsEnabled;
 
     /**
      * Constructor with default values.
@@ -65,6 +66,20 @@ public class TestProcessorContext extends TestProcessorSupplierContext implement
         return this;
     }
 
+    @Override
+    public boolean deltaSnapshotsEnabled() {
+        return deltaSnapshotsEnabled;
+    }
+
+    /**
+     * Sets whether the job may take delta snapshots.
+     */
+    @Nonnull
+    public TestProcessorContext setDeltaSnapshotsEnabled(boolean deltaSnapshotsEnabled) {
+        this.deltaSnapshotsEnabled = deltaSnapshotsEnabled;
+        return this;
+    }
+
     @Nonnull @Override
     public TestProcessorContext setLogger(@Nonnull ILogger logger) {
         return (TestProcessorContext) super.setLogger(logger);
@@ -20,6 +20,7 @@ import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.JetCancelJobCodec;
 import com.hazelcast.client.impl.protocol.codec.JetGetJobConfigCodec;
+import com.hazelcast.client.impl.protocol.codec.JetGetJobMetricsCodec;
 import com.hazelcast.client.impl.protocol.codec.JetGetJobStatusCodec;
 import com.hazelcast.client.impl.protocol.codec.JetGetJobSubmissionTimeCodec;
 import com.hazelcast.client.impl.protocol.codec.JetJoinSubmittedJobCodec;
@@ -38,6 +39,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -82,6 +84,16 @@ public class ClientJobProxy extends AbstractJobProxy<HazelcastClientInstanceImpl
         }
     }
 
+    @Nonnull @Override
+    public Map<String, Long> getMetrics() {
+        ClientMessage request = JetGetJobMetricsCodec.encodeRequest(getId());
+        return uncheckCall(() -> {
+            ClientMessage response = invocation(request, masterAddress()).invoke().get();
+            Data metricsData = JetGetJobMetricsCodec.decodeResponse(response).response;
+            return serializationService().toObject(metricsData);
+        });
+    }
+
     @Override
     protected ICompletableFuture<Void> invokeSubmitJob(Data dag, JobConfig config) {
         Data configData = serializationService().toData(config);
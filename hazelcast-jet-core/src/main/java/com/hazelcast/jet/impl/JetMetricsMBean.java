@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.ILogger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.Map;
+
+import static com.hazelcast.jet.impl.util.MetricsUtil.collectMetrics;
+
+/**
+ * Exposes the current values of all Jet metrics on this member as read-only
+ * attributes of a single MBean. The attribute names are the metric names
+ * without the leading {@code jet.}.
+ */
+public class JetMetricsMBean implements DynamicMBean {
+
+    private static final String METRICS_PREFIX = "jet.";
+
+    private final MetricsRegistry registry;
+    private final ObjectName objectName;
+    private final ILogger logger;
+
+    JetMetricsMBean(MetricsRegistry registry, String instanceName, ILogger logger) {
+        this.registry = registry;
+        this.logger = logger;
+        Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", "Metrics");
+        properties.put("instance", ObjectName.quote(instanceName));
+        try {
+            this.objectName = new ObjectName("com.hazelcast.jet", properties);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid instance name: " + instanceName, e);
+        }
+    }
+
+    void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            logger.warning("Failed to register the metrics MBean " + objectName, e);
+        }
+    }
+
+    void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            logger.warning("Failed to unregister the metrics MBean " + objectName, e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = collectMetrics(registry, METRICS_PREFIX).get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Long> metrics = collectMetrics(registry, METRICS_PREFIX);
+        AttributeList result = new AttributeList();
+        for (String name : attributes) {
+            Long value = metrics.get(name);
+            if (value != null) {
+                result.add(new Attribute(name, value));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attributes = collectMetrics(registry, METRICS_PREFIX)
+                .keySet().stream()
+                .map(name -> new MBeanAttributeInfo(name, long.class.getName(), name, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Jet metrics", attributes, null, null, null);
+    }
+}
@@ -25,6 +25,7 @@ import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.core.TopologyChangedException;
 import com.hazelcast.jet.impl.execution.TaskletExecutionService;
+import com.hazelcast.jet.impl.snapshot.SnapshotStorage;
 import com.hazelcast.jet.impl.util.ExceptionUtil;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -39,6 +40,7 @@ import com.hazelcast.spi.MembershipServiceEvent;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.spi.properties.GroupProperty;
 
 import java.io.IOException;
 import java.util.Properties;
@@ -59,9 +61,11 @@ public class JetService
     private Networking networking;
     private TaskletExecutionService taskletExecutionService;
     private JobRepository jobRepository;
+    private SnapshotStorage snapshotStorage;
     private SnapshotRepository snapshotRepository;
     private JobCoordinationService jobCoordinationService;
     private JobExecutionService jobExecutionService;
+    private JetMetricsMBean metricsMBean;
 
     private final AtomicInteger numConcurrentPutAllOps = new AtomicInteger();
 
@@ -87,9 +91,10 @@ public class JetService
 
         jetInstance = new JetInstanceImpl((HazelcastInstanceImpl) engine.getHazelcastInstance(), config);
         taskletExecutionService = new TaskletExecutionService(nodeEngine.getHazelcastInstance(),
-                config.getInstanceConfig().getCooperativeThreadCount());
+                config.getInstanceConfig());
 
-        snapshotRepository = new SnapshotRepository(jetInstance);
+        snapshotStorage = SnapshotStorage.create(nodeEngine, config.getInstanceConfig());
+        snapshotRepository = new SnapshotRepository(jetInstance, snapshotStorage);
         jobRepository = new JobRepository(jetInstance, snapshotRepository);
 
         jobExecutionService = new JobExecutionService(nodeEngine, taskletExecutionService);
@@ -102,6 +107,12 @@ public class JetService
 
         jobCoordinationService.init();
 
+        if (nodeEngine.getProperties().getBoolean(GroupProperty.ENABLE_JMX)) {
+            metricsMBean = new JetMetricsMBean(nodeEngine.getMetricsRegistry(),
+                    nodeEngine.getHazelcastInstance().getName(), logger);
+            metricsMBean.register();
+        }
+
         JetBuildInfo jetBuildInfo = BuildInfoProvider.getBuildInfo().getJetBuildInfo();
         logger.info(String.format("Starting Jet %s (%s - %s)",
                 jetBuildInfo.getVersion(), jetBuildInfo.getBuild(), jetBuildInfo.getRevision()));
@@ -122,6 +133,9 @@ public class JetService
         jobExecutionService.reset("shutdown", HazelcastInstanceNotActiveException::new);
         networking.shutdown();
         taskletExecutionService.shutdown();
+        if (metricsMBean != null) {
+            metricsMBean.unregister();
+        }
     }
 
     @Override
@@ -142,6 +156,10 @@ public class JetService
         return jobRepository;
     }
 
+    public SnapshotStorage getSnapshotStorage() {
+        return snapshotStorage;
+    }
+
     public JobCoordinationService getJobCoordinationService() {
         return jobCoordinationService;
     }
@@ -150,6 +168,14 @@ public class JetService
         return jobExecutionService;
     }
 
+    public TaskletExecutionService getTaskletExecutionService() {
+        return taskletExecutionService;
+    }
+
+    public Networking getNetworking() {
+        return networking;
+    }
+
     public ClassLoader getClassLoader(long jobId) {
         return jobCoordinationService.getClassLoader(jobId);
     }
@@ -58,6 +58,7 @@ import static com.hazelcast.jet.impl.util.JetGroupProperty.JOB_SCAN_PERIOD;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static com.hazelcast.util.executor.ExecutorType.CACHED;
+import static java.util.Collections.emptyMap;
 import static java.util.Comparator.comparing;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -376,6 +377,24 @@ public class JobCoordinationService {
         throw new JobNotFoundException(jobId);
     }
 
+    /**
+     * Returns a future which will be completed with the current metrics of the
+     * job collected from all members. If the job is not running, the future is
+     * completed with an empty map.
+     */
+    public CompletableFuture<Map<String, Long>> getJobMetrics(long jobId) {
+        if (!isMaster()) {
+            throw new JetException("Cannot query metrics of Job " + idToString(jobId) + ". Master address: "
+                    + nodeEngine.getClusterService().getMasterAddress());
+        }
+
+        MasterContext masterContext = masterContexts.get(jobId);
+        if (masterContext == null) {
+            return CompletableFuture.completedFuture(emptyMap());
+        }
+        return masterContext.collectMetrics();
+    }
+
     /**
      * Returns the job config or fails with {@link JobNotFoundException}
      * if the requested job is not found.
@@ -527,7 +546,7 @@ public class JobCoordinationService {
             }
             try {
                 if (isSuccess) {
-                    snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotId);
+                    snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotId);
                 } else {
                     snapshotRepository.deleteSingleSnapshot(jobId, snapshotId);
                 }
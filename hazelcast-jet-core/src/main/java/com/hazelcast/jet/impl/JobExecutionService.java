@@ -43,9 +43,12 @@ import java.util.function.Supplier;
 
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.function.DistributedFunctions.entryValue;
+import static com.hazelcast.jet.impl.execution.init.ExecutionPlan.metricsPrefix;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.jet.impl.util.MetricsUtil.collectMetrics;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.newSetFromMap;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
@@ -87,6 +90,18 @@ public class JobExecutionService {
                          .collect(toMap(entryKey(), entryValue()));
     }
 
+    /**
+     * Returns the current values of the metrics of the given execution on
+     * this member, keyed by the metric name relative to the execution. Returns
+     * an empty map if the execution is not running on this member.
+     */
+    public Map<String, Long> getLocalExecutionMetrics(long executionId) {
+        if (!executionContexts.containsKey(executionId)) {
+            return emptyMap();
+        }
+        return collectMetrics(nodeEngine.getMetricsRegistry(), metricsPrefix(executionId));
+    }
+
     Map<Integer, Map<Integer, Map<Address, SenderTasklet>>> getSenderMap(long executionId) {
         ExecutionContext ctx = executionContexts.get(executionId);
         return ctx != null ? ctx.senderMap() : null;
@@ -22,6 +22,7 @@ import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.JobStatus;
 import com.hazelcast.jet.impl.operation.CancelJobOperation;
 import com.hazelcast.jet.impl.operation.GetJobConfigOperation;
+import com.hazelcast.jet.impl.operation.GetJobMetricsOperation;
 import com.hazelcast.jet.impl.operation.GetJobStatusOperation;
 import com.hazelcast.jet.impl.operation.GetJobSubmissionTimeOperation;
 import com.hazelcast.jet.impl.operation.JoinSubmittedJobOperation;
@@ -35,6 +36,7 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
@@ -71,6 +73,15 @@ public class JobProxy extends AbstractJobProxy<NodeEngineImpl> {
         }
     }
 
+    @Nonnull @Override
+    public Map<String, Long> getMetrics() {
+        return uncheckCall(
+                () -> this.<Map<String, Long>>invokeOp(
+                        new GetJobMetricsOperation(getId())
+                ).get()
+        );
+    }
+
     @Override
     protected ICompletableFuture<Void> invokeSubmitJob(Data dag, JobConfig config) {
         return invokeOp(new SubmitJobOperation(getId(), dag, config));
@@ -24,16 +24,21 @@ import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.DefaultPartitionStrategy;
 import com.hazelcast.jet.core.Edge;
 import com.hazelcast.jet.core.JobStatus;
+import com.hazelcast.jet.core.Partitioner;
 import com.hazelcast.jet.core.TopologyChangedException;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.impl.exception.JobRestartRequestedException;
 import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.jet.impl.execution.InFlightItemKey;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
+import com.hazelcast.jet.impl.processor.MergeSnapshotChainP;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
+import com.hazelcast.jet.impl.operation.GetLocalExecutionMetricsOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
 import com.hazelcast.jet.impl.operation.StartExecutionOperation;
@@ -47,6 +52,7 @@ import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.HashMap;
@@ -55,6 +61,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,6 +73,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.Edge.from;
 import static com.hazelcast.jet.core.JobStatus.COMPLETED;
 import static com.hazelcast.jet.core.JobStatus.FAILED;
 import static com.hazelcast.jet.core.JobStatus.NOT_STARTED;
@@ -73,9 +81,7 @@ import static com.hazelcast.jet.core.JobStatus.RESTARTING;
 import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.core.JobStatus.STARTING;
 import static com.hazelcast.jet.core.processor.Processors.mapP;
-import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
-import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
 import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.init.CustomClassLoadedObject.deserializeWithCustomClassLoader;
 import static com.hazelcast.jet.impl.execution.init.ExecutionPlanBuilder.createExecutionPlans;
@@ -85,6 +91,7 @@ import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
 
@@ -111,6 +118,10 @@ public class MasterContext {
     private volatile long jobStartTime;
     private volatile Map<MemberInfo, ExecutionPlan> executionPlanMap;
     private volatile CompletionToken executionRestartToken;
+    // the last successful snapshot of the current execution and the number of
+    // snapshots in its chain, used to decide whether the next one is a delta
+    private volatile long lastCompletedSnapshotId = NO_SNAPSHOT;
+    private volatile int snapshotChainLength;
 
     MasterContext(NodeEngineImpl nodeEngine, JobCoordinationService coordinationService, JobRecord jobRecord) {
         this.nodeEngine = nodeEngine;
@@ -175,17 +186,20 @@ public class MasterContext {
         vertices = new HashSet<>();
         dag.iterator().forEachRemaining(vertices::add);
         executionId = executionIdSupplier.apply(jobId);
+        lastCompletedSnapshotId = NO_SNAPSHOT;
+        snapshotChainLength = 0;
 
         // last started snapshot complete or not complete. The next started snapshot must be greater than this number
         long lastSnapshotId = NO_SNAPSHOT;
+        Map<String, String> snapshotRestoreMapNames = emptyMap();
         if (isSnapshottingEnabled()) {
             Long snapshotIdToRestore = snapshotRepository.latestCompleteSnapshot(jobId);
-            snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotIdToRestore);
+            snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotIdToRestore);
             Long lastStartedSnapshot = snapshotRepository.latestStartedSnapshot(jobId);
             if (snapshotIdToRestore != null) {
                 logger.info("State of " + jobIdString() + " will be restored from snapshot "
                         + snapshotIdToRestore);
-                rewriteDagWithSnapshotRestore(dag, snapshotIdToRestore);
+                snapshotRestoreMapNames = rewriteDagWithSnapshotRestore(dag, snapshotIdToRestore);
             } else {
                 logger.warning("No usable snapshot for " + jobIdString() + " found.");
             }
@@ -200,7 +214,8 @@ public class MasterContext {
             logger.info("Start executing " + jobIdString() + ", status " + jobStatus()
                     + "\n" + dag);
             logger.fine("Building execution plan for " + jobIdString());
-            executionPlanMap = createExecutionPlans(nodeEngine, membersView, dag, getJobConfig(), lastSnapshotId);
+            executionPlanMap = createExecutionPlans(nodeEngine, membersView, dag, getJobConfig(), lastSnapshotId,
+                    snapshotRestoreMapNames);
         } catch (Exception e) {
             logger.severe("Exception creating execution plan for " + jobIdString(), e);
             onCompleteStepCompleted(e);
@@ -217,30 +232,76 @@ public class MasterContext {
         invoke(operationCtor, this::onInitStepCompleted, null);
     }
 
-    private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotId) {
+    /**
+     * Adds the restoring of the given snapshot to the DAG. If the snapshot
+     * data of a vertex is a full snapshot in partitioned storage, its
+     * processors restore their state directly from the partitions assigned
+     * to them and the vertex is included in the returned map from the vertex
+     * name to its snapshot data map name. Otherwise, vertices reading the
+     * data and a snapshot restore edge are added to the DAG.
+     */
+    private Map<String, String> rewriteDagWithSnapshotRestore(DAG dag, long snapshotId) {
         logger.info(jobIdString() + ": restoring state from snapshotId=" + snapshotId);
+        List<Long> chain = snapshotRepository.snapshotChain(jobId, snapshotId);
+        // the keys of in-flight items are routed to their original partitions,
+        // which don't match the partitions of the snapshot map
+        boolean partitionLocalRestore = snapshotRepository.storage().supportsPartitionLocalRestore()
+                && !getJobConfig().isNonBlockingSnapshotBarriersEnabled();
+        Map<String, String> snapshotRestoreMapNames = new HashMap<>();
         for (Vertex vertex : dag) {
-            // items with keys of type BroadcastKey need to be broadcast to all processors
-            DistributedFunction<Entry<Object, Object>, ?> projection = (Entry<Object, Object> e) ->
-                    (e.getKey() instanceof BroadcastKey) ? new BroadcastEntry<>(e) : e;
-            // We add the vertex even in case when the map is empty: this ensures, that
+            // We restore the vertex even in case when the map is empty: this ensures, that
             // Processor.finishSnapshotRestore() method is always called on all vertices in
             // a job which is restored from a snapshot.
-            String mapName = snapshotDataMapName(jobId, snapshotId, vertex.getName());
-            Vertex readSnapshotVertex = dag.newVertex("__snapshot_read." + vertex.getName(), readMapP(mapName));
-            // We need a separate mapping vertex and can't use readMapP's projectionFn:
-            // the projection will cause key/value deserialization on partition thread, which doesn't have job's
-            // class loader. If the key/value uses a custom object, it will fail. For example, StreamKafkaP uses
-            // TopicPartition as the key or a custom processor can use custom key.
-            Vertex mapSnapshotVertex = dag.newVertex("__snapshot_map_." + vertex.getName(), mapP(projection));
+            List<String> mapNames = snapshotRepository.snapshotDataMapNames(jobId, chain, vertex.getName());
+            if (partitionLocalRestore && mapNames.size() == 1) {
+                snapshotRestoreMapNames.put(vertex.getName(), mapNames.get(0));
+                continue;
+            }
+            Vertex restoreVertex = mapNames.size() == 1
+                    ? addSnapshotReadVertices(dag, vertex, mapNames.get(0))
+                    : addSnapshotMergeVertices(dag, vertex, mapNames);
+            int destOrdinal = dag.getInboundEdges(vertex.getName()).size();
+            dag.edge(new SnapshotRestoreEdge(restoreVertex, vertex, destOrdinal));
+        }
+        return snapshotRestoreMapNames;
+    }
 
-            readSnapshotVertex.localParallelism(vertex.getLocalParallelism());
-            mapSnapshotVertex.localParallelism(vertex.getLocalParallelism());
+    private Vertex addSnapshotReadVertices(DAG dag, Vertex vertex, String mapName) {
+        // items with keys of type BroadcastKey need to be broadcast to all processors
+        DistributedFunction<Entry<Object, Object>, ?> projection = (Entry<Object, Object> e) ->
+                (e.getKey() instanceof BroadcastKey) ? new BroadcastEntry<>(e) : e;
+        Vertex readSnapshotVertex = dag.newVertex("__snapshot_read." + vertex.getName(),
+                snapshotRepository.storage().readSnapshotP(mapName));
+        // We need a separate mapping vertex and can't use readMapP's projectionFn:
+        // the projection will cause key/value deserialization on partition thread, which doesn't have job's
+        // class loader. If the key/value uses a custom object, it will fail. For example, StreamKafkaP uses
+        // TopicPartition as the key or a custom processor can use custom key.
+        Vertex mapSnapshotVertex = dag.newVertex("__snapshot_map_." + vertex.getName(), mapP(projection));
 
-            int destOrdinal = dag.getInboundEdges(vertex.getName()).size();
-            dag.edge(between(readSnapshotVertex, mapSnapshotVertex).isolated())
-               .edge(new SnapshotRestoreEdge(mapSnapshotVertex, vertex, destOrdinal));
+        readSnapshotVertex.localParallelism(vertex.getLocalParallelism());
+        mapSnapshotVertex.localParallelism(vertex.getLocalParallelism());
+
+        dag.edge(between(readSnapshotVertex, mapSnapshotVertex).isolated());
+        return mapSnapshotVertex;
+    }
+
+    /**
+     * Adds vertices reading the full snapshot and the following delta
+     * snapshots of the vertex and a vertex merging them into its state.
+     */
+    private Vertex addSnapshotMergeVertices(DAG dag, Vertex vertex, List<String> mapNames) {
+        int chainLength = mapNames.size();
+        Vertex mergeVertex = dag.newVertex("__snapshot_merge." + vertex.getName(),
+                () -> new MergeSnapshotChainP(chainLength));
+        mergeVertex.localParallelism(vertex.getLocalParallelism());
+        for (int i = 0; i < chainLength; i++) {
+            Vertex readSnapshotVertex = dag.newVertex("__snapshot_read." + vertex.getName() + '.' + i,
+                    snapshotRepository.storage().readSnapshotP(mapNames.get(i)));
+            readSnapshotVertex.localParallelism(vertex.getLocalParallelism());
+            dag.edge(from(readSnapshotVertex).to(mergeVertex, i).distributed().partitioned(entryKey())
+                    .priority(MergeSnapshotChainP.edgePriority(chainLength, i)));
         }
+        return mergeVertex;
     }
 
     /**
@@ -442,16 +503,23 @@ public class MasterContext {
         }
 
         List<String> vertexNames = vertices.stream().map(Vertex::getName).collect(Collectors.toList());
-        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames);
-
-        logger.info(String.format("Starting snapshot %s for %s", newSnapshotId, jobAndExecutionId(jobId, executionId)));
+        long previousSnapshotId = lastCompletedSnapshotId;
+        boolean isDelta = previousSnapshotId != NO_SNAPSHOT
+                && snapshotRepository.storage().supportsDeltaSnapshots()
+                && snapshotChainLength < getJobConfig().getFullSnapshotInterval();
+        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames,
+                isDelta ? previousSnapshotId : NO_SNAPSHOT);
+
+        logger.info(String.format("Starting %s snapshot %s for %s", isDelta ? "delta" : "full", newSnapshotId,
+                jobAndExecutionId(jobId, executionId)));
         Function<ExecutionPlan, Operation> factory =
-                plan -> new SnapshotOperation(jobId, executionId, newSnapshotId);
+                plan -> new SnapshotOperation(jobId, executionId, newSnapshotId, isDelta);
 
-        invoke(factory, responses -> onSnapshotCompleted(responses, executionId, newSnapshotId), null);
+        invoke(factory, responses -> onSnapshotCompleted(responses, executionId, newSnapshotId, isDelta), null);
     }
 
-    private void onSnapshotCompleted(Map<MemberInfo, Object> responses, long executionId, long snapshotId) {
+    private void onSnapshotCompleted(Map<MemberInfo, Object> responses, long executionId, long snapshotId,
+                                     boolean isDelta) {
         Map<Address, Throwable> errors = responses.entrySet().stream()
             .filter(e -> e.getValue() instanceof Throwable)
             .filter(e -> !(e.getValue() instanceof CancellationException) || !isTopologicalFailure(e.getValue()))
@@ -462,6 +530,16 @@ public class MasterContext {
             logger.warning(jobAndExecutionId(jobId, executionId) + " snapshot " + snapshotId + " has failures: "
                     + errors);
         }
+        if (this.executionId == executionId) {
+            if (isSuccess) {
+                lastCompletedSnapshotId = snapshotId;
+                snapshotChainLength = isDelta ? snapshotChainLength + 1 : 1;
+            } else {
+                // the snapshot after a failed one is always full
+                lastCompletedSnapshotId = NO_SNAPSHOT;
+                snapshotChainLength = 0;
+            }
+        }
         coordinationService.completeSnapshot(jobId, executionId, snapshotId, isSuccess);
     }
 
@@ -611,6 +689,35 @@ public class MasterContext {
         return (failure == null || failure instanceof CancellationException);
     }
 
+    /**
+     * Collects the metrics of the current execution from all participants. The
+     * metric names are prefixed with the address of the member which reported
+     * them. Members which fail to respond are left out. The returned future is
+     * completed with an empty map if the job is not running.
+     */
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Map<String, Long>> collectMetrics() {
+        CompletableFuture<Map<String, Long>> future = new CompletableFuture<>();
+        if (jobStatus() != RUNNING) {
+            future.complete(emptyMap());
+            return future;
+        }
+        long executionId = this.executionId;
+        invoke(plan -> new GetLocalExecutionMetricsOperation(jobId, executionId), responses -> {
+            Map<String, Long> metrics = new TreeMap<>();
+            for (Entry<MemberInfo, Object> response : responses.entrySet()) {
+                if (!(response.getValue() instanceof Map)) {
+                    continue;
+                }
+                String memberPrefix = response.getKey().getAddress().toString() + '.';
+                ((Map<String, Long>) response.getValue()).forEach((name, value) ->
+                        metrics.put(memberPrefix + name, value));
+            }
+            future.complete(metrics);
+        }, null);
+        return future;
+    }
+
     private void invoke(Function<ExecutionPlan, Operation> operationCtor,
                         Consumer<Map<MemberInfo, Object>> completionCallback,
                         ExecutionCallback<Object> callback) {
@@ -683,7 +790,7 @@ public class MasterContext {
         SnapshotRestoreEdge(Vertex source, Vertex destination, int destOrdinal) {
             super(source, 0, destination, destOrdinal);
             distributed();
-            partitioned(entryKey());
+            partitioned(entryKey(), new SnapshotRestorePartitioner());
         }
 
         @Override
@@ -692,6 +799,31 @@ public class MasterContext {
         }
     }
 
+    /**
+     * Applies the default partitioning to the snapshot keys, except for the
+     * keys of in-flight items, which go to the partition they had on their
+     * original edge.
+     */
+    private static class SnapshotRestorePartitioner implements Partitioner<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Partitioner<Object> defaultPartitioner = Partitioner.defaultPartitioner();
+
+        @Override
+        public void init(@Nonnull DefaultPartitionStrategy strat) {
+            defaultPartitioner.init(strat);
+        }
+
+        @Override
+        public int getPartition(@Nonnull Object key, int partitionCount) {
+            if (key instanceof InFlightItemKey && ((InFlightItemKey) key).partitionId() >= 0) {
+                return ((InFlightItemKey) key).partitionId();
+            }
+            return defaultPartitioner.getPartition(key, partitionCount);
+        }
+    }
+
     /**
      * Registered to {@link StartExecutionOperation} invocations to cancel invocations in case of a failure or restart
      */
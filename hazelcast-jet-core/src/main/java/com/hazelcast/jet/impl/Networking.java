@@ -16,7 +16,9 @@
 
 package com.hazelcast.jet.impl;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.jet.impl.execution.ExecutionContext;
+import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -28,9 +30,17 @@ import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.Util.createObjectDataInput;
@@ -39,26 +49,57 @@ import static com.hazelcast.jet.impl.util.Util.getMemberConnection;
 import static com.hazelcast.jet.impl.util.Util.getRemoteMembers;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.readInt;
+import static com.hazelcast.nio.Bits.readLong;
 import static com.hazelcast.nio.Packet.FLAG_JET_FLOW_CONTROL;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
+import static com.hazelcast.spi.ExecutionService.ASYNC_EXECUTOR;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class Networking {
+    /**
+     * Size of the stream packet header: execution id, destination vertex id
+     * and ordinal.
+     */
+    public static final int STREAM_PACKET_HEADER_SIZE = LONG_SIZE_IN_BYTES + 2 * INT_SIZE_IN_BYTES;
+
     private static final byte[] EMPTY_BYTES = new byte[0];
 
     private final NodeEngineImpl nodeEngine;
     private final ILogger logger;
     private final JobExecutionService jobExecutionService;
     private final ScheduledFuture<?> flowControlSender;
+    private final boolean bigEndian;
+    private final AtomicBoolean flowControlRequested = new AtomicBoolean();
+    private final Queue<FlowControlRequest> flowControlRequests = new ConcurrentLinkedQueue<>();
 
     Networking(NodeEngine nodeEngine, JobExecutionService jobExecutionService, int flowControlPeriodMs) {
         this.nodeEngine = (NodeEngineImpl) nodeEngine;
         this.logger = nodeEngine.getLogger(getClass());
         this.jobExecutionService = jobExecutionService;
+        this.bigEndian = ((InternalSerializationService) nodeEngine.getSerializationService()).getByteOrder()
+                == ByteOrder.BIG_ENDIAN;
         this.flowControlSender = nodeEngine.getExecutionService().scheduleWithRepetition(
                 this::broadcastFlowControlPacket, 0, flowControlPeriodMs, MILLISECONDS);
     }
 
+    /**
+     * Requests an immediate flow-control message for the given receiver in
+     * addition to the periodic broadcast. Called by a receiver tasklet that
+     * has consumed a large part of its receive window, so that its sender
+     * doesn't have to wait for the next period. Only the requesting receivers
+     * are looked up; concurrent requests are coalesced into one packet per
+     * member.
+     */
+    public void requestFlowControlPacket(long executionId, int vertexId, int ordinal, Address member) {
+        flowControlRequests.add(new FlowControlRequest(executionId, vertexId, ordinal, member));
+        if (!flowControlRequested.get() && flowControlRequested.compareAndSet(false, true)) {
+            nodeEngine.getExecutionService().execute(ASYNC_EXECUTOR, this::sendRequestedFlowControlPackets);
+        }
+    }
+
     void shutdown() {
         flowControlSender.cancel(false);
     }
@@ -71,13 +112,15 @@ public class Networking {
         handleFlowControlPacket(packet.getConn().getEndPoint(), packet.toByteArray());
     }
 
-    private void handleStreamPacket(Packet packet) throws IOException {
-        BufferObjectDataInput in = createObjectDataInput(nodeEngine, packet.toByteArray());
-        long executionId = in.readLong();
-        int vertexId = in.readInt();
-        int ordinal = in.readInt();
+    private void handleStreamPacket(Packet packet) {
+        // The header is read directly from the packet's array and the array is handed
+        // over to the receiver tasklet, which deserializes the items from it
+        byte[] bytes = packet.toByteArray();
+        long executionId = readLong(bytes, 0, bigEndian);
+        int vertexId = readInt(bytes, LONG_SIZE_IN_BYTES, bigEndian);
+        int ordinal = readInt(bytes, LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES, bigEndian);
         ExecutionContext executionContext = jobExecutionService.getExecutionContext(executionId);
-        executionContext.handlePacket(vertexId, ordinal, packet.getConn().getEndPoint(), in);
+        executionContext.handlePacket(vertexId, ordinal, packet.getConn().getEndPoint(), bytes);
     }
 
     public static byte[] createStreamPacketHeader(NodeEngine nodeEngine, long executionId,
@@ -86,51 +129,164 @@ public class Networking {
             out.writeLong(executionId);
             out.writeInt(destinationVertexId);
             out.writeInt(ordinal);
+            assert out.position() == STREAM_PACKET_HEADER_SIZE : "Unexpected header size: " + out.position();
             return out.toByteArray();
         } catch (IOException e) {
             throw sneakyThrow(e);
         }
     }
 
-    private void broadcastFlowControlPacket() {
+    // synchronized because the periodic broadcast and the requested packets can be sent concurrently
+    private synchronized void sendRequestedFlowControlPackets() {
+        // clear the flag before draining the requests, a request made
+        // after this point must trigger another run
+        flowControlRequested.set(false);
+        try {
+            Map<Address, Map<Long, List<FlowControlRequest>>> requestsByMember = new HashMap<>();
+            for (FlowControlRequest r; (r = flowControlRequests.poll()) != null; ) {
+                requestsByMember.computeIfAbsent(r.member, x -> new HashMap<>())
+                                .computeIfAbsent(r.executionId, x -> new ArrayList<>())
+                                .add(r);
+            }
+            requestsByMember.forEach((member, requestsByExecution) -> uncheckRun(() -> {
+                final byte[] packetBuf = createRequestedFlowControlPacket(member, requestsByExecution);
+                sendFlowControlPacket(member, packetBuf);
+            }));
+        } catch (Throwable t) {
+            logger.severe("Sending of requested flow-control packets failed", t);
+        }
+    }
+
+    // synchronized because the periodic broadcast and the requested packets can be sent concurrently
+    private synchronized void broadcastFlowControlPacket() {
         try {
             getRemoteMembers(nodeEngine).forEach(member -> uncheckRun(() -> {
                 final byte[] packetBuf = createFlowControlPacket(member);
-                if (packetBuf.length == 0) {
-                    return;
-                }
-                Connection conn = getMemberConnection(nodeEngine, member);
-                if (conn != null) {
-                    conn.write(new Packet(packetBuf)
-                            .setPacketType(Packet.Type.JET)
-                            .raiseFlags(FLAG_URGENT | FLAG_JET_FLOW_CONTROL));
-                }
+                sendFlowControlPacket(member, packetBuf);
             }));
         } catch (Throwable t) {
             logger.severe("Flow-control packet broadcast failed", t);
         }
     }
 
+    private void sendFlowControlPacket(Address member, byte[] packetBuf) {
+        if (packetBuf.length == 0) {
+            return;
+        }
+        Connection conn = getMemberConnection(nodeEngine, member);
+        if (conn != null) {
+            conn.write(new Packet(packetBuf)
+                    .setPacketType(Packet.Type.JET)
+                    .raiseFlags(FLAG_URGENT | FLAG_JET_FLOW_CONTROL));
+        }
+    }
+
+    /**
+     * Creates a packet with the send seq limits of the receivers for the
+     * given member. Only the limits that grew since they were last sent are
+     * included, so the executions where no data was received since the last
+     * broadcast contribute nothing. Returns an empty array if there's nothing
+     * to send.
+     */
     private byte[] createFlowControlPacket(Address member) throws IOException {
         try (BufferObjectDataOutput out = createObjectDataOutput(nodeEngine)) {
-            final boolean[] hasData = {false};
+            int executionCtxCount = 0;
+            out.writeInt(0); // placeholder for executionCtxCount
             Map<Long, ExecutionContext> executionContexts = jobExecutionService.getExecutionContextsFor(member);
-            out.writeInt(executionContexts.size());
-            executionContexts.forEach((execId, exeCtx) -> uncheckRun(() -> {
-                out.writeLong(execId);
-                out.writeInt(exeCtx.receiverMap().values().stream().mapToInt(Map::size).sum());
-                exeCtx.receiverMap().forEach((vertexId, ordinalToSenderToTasklet) ->
-                        ordinalToSenderToTasklet.forEach((ordinal, senderToTasklet) -> uncheckRun(() -> {
-                            out.writeInt(vertexId);
-                            out.writeInt(ordinal);
-                            out.writeInt(senderToTasklet.get(member).updateAndGetSendSeqLimitCompressed());
-                            hasData[0] = true;
-                        })));
-            }));
-            return hasData[0] ? out.toByteArray() : EMPTY_BYTES;
+            for (Entry<Long, ExecutionContext> execEntry : executionContexts.entrySet()) {
+                final int execStart = out.position();
+                out.writeLong(execEntry.getKey());
+                final int countPos = out.position();
+                out.writeInt(0); // placeholder for flowCtlMsgCount
+                int flowCtlMsgCount = 0;
+                for (Entry<Integer, Map<Integer, Map<Address, ReceiverTasklet>>> vertexEntry
+                        : execEntry.getValue().receiverMap().entrySet()) {
+                    for (Entry<Integer, Map<Address, ReceiverTasklet>> ordinalEntry
+                            : vertexEntry.getValue().entrySet()) {
+                        ReceiverTasklet receiver = ordinalEntry.getValue().get(member);
+                        if (writeSendSeqLimit(out, vertexEntry.getKey(), ordinalEntry.getKey(), receiver)) {
+                            flowCtlMsgCount++;
+                        }
+                    }
+                }
+                if (flowCtlMsgCount == 0) {
+                    out.position(execStart);
+                } else {
+                    out.writeInt(countPos, flowCtlMsgCount);
+                    executionCtxCount++;
+                }
+            }
+            if (executionCtxCount == 0) {
+                return EMPTY_BYTES;
+            }
+            out.writeInt(0, executionCtxCount);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Creates a packet with the send seq limits of only the requesting
+     * receivers for the given member. Returns an empty array if there's
+     * nothing to send.
+     */
+    private byte[] createRequestedFlowControlPacket(
+            Address member, Map<Long, List<FlowControlRequest>> requestsByExecution
+    ) throws IOException {
+        try (BufferObjectDataOutput out = createObjectDataOutput(nodeEngine)) {
+            int executionCtxCount = 0;
+            out.writeInt(0); // placeholder for executionCtxCount
+            for (Entry<Long, List<FlowControlRequest>> execEntry : requestsByExecution.entrySet()) {
+                final ExecutionContext executionContext = jobExecutionService.getExecutionContext(execEntry.getKey());
+                if (executionContext == null) {
+                    continue;
+                }
+                final int execStart = out.position();
+                out.writeLong(execEntry.getKey());
+                final int countPos = out.position();
+                out.writeInt(0); // placeholder for flowCtlMsgCount
+                int flowCtlMsgCount = 0;
+                for (FlowControlRequest r : execEntry.getValue()) {
+                    // a receiver requesting twice sends its limit only once, the limit didn't grow
+                    final ReceiverTasklet receiver = Optional.ofNullable(executionContext.receiverMap().get(r.vertexId))
+                                                             .map(ordinalMap -> ordinalMap.get(r.ordinal))
+                                                             .map(addrMap -> addrMap.get(member))
+                                                             .orElse(null);
+                    if (receiver != null && writeSendSeqLimit(out, r.vertexId, r.ordinal, receiver)) {
+                        flowCtlMsgCount++;
+                    }
+                }
+                if (flowCtlMsgCount == 0) {
+                    out.position(execStart);
+                } else {
+                    out.writeInt(countPos, flowCtlMsgCount);
+                    executionCtxCount++;
+                }
+            }
+            if (executionCtxCount == 0) {
+                return EMPTY_BYTES;
+            }
+            out.writeInt(0, executionCtxCount);
+            return out.toByteArray();
         }
     }
 
+    /**
+     * Writes a flow-control message with the current send seq limit of the
+     * given receiver, if the limit grew since it was last sent. Returns
+     * whether the message was written.
+     */
+    private static boolean writeSendSeqLimit(BufferObjectDataOutput out, int vertexId, int ordinal,
+                                             ReceiverTasklet receiver) throws IOException {
+        int limit = receiver.updateAndGetSendSeqLimitCompressed();
+        if (!receiver.offerSendSeqLimitToSend(limit)) {
+            return false;
+        }
+        out.writeInt(vertexId);
+        out.writeInt(ordinal);
+        out.writeInt(limit);
+        return true;
+    }
+
     private void handleFlowControlPacket(Address fromAddr, byte[] packet) throws IOException {
         try (BufferObjectDataInput in = createObjectDataInput(nodeEngine, packet)) {
             final int executionCtxCount = in.readInt();
@@ -154,7 +310,7 @@ public class Networking {
                                                     .orElse(null);
                     if (t == null) {
                         logMissingSenderTasklet(destVertexId, destOrdinal);
-                        return;
+                        continue;
                     }
                     t.setSendSeqLimitCompressed(sendSeqLimitCompressed);
                 }
@@ -162,6 +318,20 @@ public class Networking {
         }
     }
 
+    private static final class FlowControlRequest {
+        final long executionId;
+        final int vertexId;
+        final int ordinal;
+        final Address member;
+
+        FlowControlRequest(long executionId, int vertexId, int ordinal, Address member) {
+            this.executionId = executionId;
+            this.vertexId = vertexId;
+            this.ordinal = ordinal;
+            this.member = member;
+        }
+    }
+
     private void logMissingExeCtx(long executionId) {
         if (logger.isFinestEnabled()) {
             logger.finest("Ignoring flow control message applying to non-existent execution context "
@@ -18,17 +18,26 @@ package com.hazelcast.jet.impl;
 
 import com.hazelcast.aggregation.impl.MaxByAggregator;
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
 import com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus;
+import com.hazelcast.jet.impl.snapshot.SnapshotStorage;
 import com.hazelcast.jet.IMapJet;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFinest;
 import static com.hazelcast.jet.impl.util.Util.compute;
@@ -52,23 +61,41 @@ public class SnapshotRepository {
     private static final long LATEST_STARTED_SNAPSHOT_ID_KEY = -1;
 
     private final JetInstance instance;
+    private final SnapshotStorage storage;
     private final ILogger logger;
 
     public SnapshotRepository(JetInstance jetInstance) {
+        this(jetInstance, ((JetService) ((HazelcastInstanceImpl) jetInstance.getHazelcastInstance())
+                .node.nodeEngine.getService(JetService.SERVICE_NAME)).getSnapshotStorage());
+    }
+
+    SnapshotRepository(JetInstance jetInstance, SnapshotStorage storage) {
         this.instance = jetInstance;
+        this.storage = storage;
         this.logger = jetInstance.getHazelcastInstance().getLoggingService().getLogger(getClass());
     }
 
+    /**
+     * Returns the storage of the snapshot data.
+     */
+    SnapshotStorage storage() {
+        return storage;
+    }
+
     /**
      * Registers a new snapshot. Returns the ID for the registered snapshot
+     *
+     * @param previousSnapshotId the snapshot the new snapshot is a delta of or
+     *                           {@code NO_SNAPSHOT} for a
+     *                           full snapshot
      */
-    long registerSnapshot(long jobId, Collection<String> vertexNames) {
+    long registerSnapshot(long jobId, Collection<String> vertexNames, long previousSnapshotId) {
         IMapJet<Long, Object> snapshots = getSnapshotMap(jobId);
 
         SnapshotRecord record;
         do {
             long nextSnapshotId = generateNextSnapshotId(snapshots);
-            record = new SnapshotRecord(jobId, nextSnapshotId, vertexNames);
+            record = new SnapshotRecord(jobId, nextSnapshotId, previousSnapshotId, vertexNames);
         } while (snapshots.putIfAbsent(record.snapshotId(), record) != null);
         return record.snapshotId();
     }
@@ -131,6 +158,47 @@ public class SnapshotRepository {
         return map.get(LATEST_STARTED_SNAPSHOT_ID_KEY);
     }
 
+    /**
+     * Returns the IDs of the snapshots needed to restore the given snapshot:
+     * the full snapshot it is based on followed by the delta snapshots up to
+     * and including the given one.
+     */
+    List<Long> snapshotChain(long jobId, long snapshotId) {
+        IMapJet<Long, Object> snapshotMap = getSnapshotMap(jobId);
+        List<Long> chain = new ArrayList<>();
+        for (long id = snapshotId; id != NO_SNAPSHOT; ) {
+            Object record = snapshotMap.get(id);
+            if (!(record instanceof SnapshotRecord)) {
+                throw new JetException("Snapshot " + id + " needed to restore snapshot " + snapshotId
+                        + " of job " + idToString(jobId) + " not found");
+            }
+            chain.add(id);
+            id = ((SnapshotRecord) record).previousSnapshotId();
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    /**
+     * Returns the names of the maps with the data of the given vertex needed
+     * to restore the last snapshot in the given chain, oldest first. The
+     * list starts at the newest snapshot which isn't a {@link
+     * SnapshotStorage#isDeltaSnapshot delta}, it holds the full state of the
+     * vertex.
+     */
+    List<String> snapshotDataMapNames(long jobId, List<Long> chain, String vertexName) {
+        List<String> mapNames = new ArrayList<>();
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            String mapName = snapshotDataMapName(jobId, chain.get(i), vertexName);
+            mapNames.add(mapName);
+            if (!storage.isDeltaSnapshot(mapName)) {
+                break;
+            }
+        }
+        Collections.reverse(mapNames);
+        return mapNames;
+    }
+
     public <T> IMapJet<Long, T> getSnapshotMap(long jobId) {
         return instance.getMap(snapshotsMapName(jobId));
     }
@@ -148,7 +216,8 @@ public class SnapshotRepository {
     }
 
     /**
-     * Deletes snapshot data and records from snapshotsMap except one.
+     * Deletes snapshot data and records from snapshotsMap except one and the
+     * snapshots it is a delta of.
      * <p>
      * Method must be run when there's no ongoing snapshot, because it also
      * deletes the ongoing snapshots. If we omitted them, then interrupted
@@ -156,10 +225,13 @@ public class SnapshotRepository {
      *
      * @param snapshotToKeep the current snapshot to keep
      */
-    void deleteAllSnapshotsExceptOne(long jobId, Long snapshotToKeep) {
+    void deleteAllSnapshotsExcept(long jobId, Long snapshotToKeep) {
         final IMapJet<Long, SnapshotRecord> snapshotMap = getSnapshotMap(jobId);
+        Set<Long> toKeep = snapshotToKeep == null
+                ? new HashSet<>()
+                : new HashSet<>(snapshotChain(jobId, snapshotToKeep));
         Predicate<Long, SnapshotRecord> predicate =
-                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !e.getKey().equals(snapshotToKeep);
+                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !toKeep.contains(e.getKey());
 
         for (Entry<Long, SnapshotRecord> entry : snapshotMap.entrySet(predicate)) {
             deleteSnapshot(snapshotMap, entry.getValue());
@@ -201,7 +273,7 @@ public class SnapshotRepository {
     private void deleteSnapshotData(SnapshotRecord record) {
         for (String vertexName : record.vertices()) {
             String mapName = snapshotDataMapName(record.jobId(), record.snapshotId(), vertexName);
-            instance.getMap(mapName).destroy();
+            storage.deleteSnapshotData(mapName);
             logFine(logger, "Deleted snapshot data for snapshot %d for job %s and vertex '%s'",
                     record.snapshotId(), idToString(record.jobId()), vertexName);
         }
@@ -25,9 +25,12 @@ import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.instance.JetBuildInfo;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.config.IdleStrategyType;
 import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorageType;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.nio.IOUtil;
@@ -191,6 +194,30 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "backup-count":
                     instanceConfig.setBackupCount(intValue(node));
                     break;
+                case "idle-strategy":
+                    instanceConfig.setIdleStrategy(IdleStrategyType.valueOf(stringValue(node)));
+                    break;
+                case "max-idle-park-micros":
+                    instanceConfig.setMaxIdleParkMicros(intValue(node));
+                    break;
+                case "load-balancing-period":
+                    instanceConfig.setLoadBalancingPeriodMs(intValue(node));
+                    break;
+                case "load-imbalance-threshold":
+                    instanceConfig.setLoadImbalanceThreshold(Double.parseDouble(stringValue(node)));
+                    break;
+                case "max-in-memory-grouping-keys":
+                    instanceConfig.setMaxInMemoryGroupingKeys(intValue(node));
+                    break;
+                case "max-partial-aggregation-keys":
+                    instanceConfig.setMaxPartialAggregationKeys(intValue(node));
+                    break;
+                case "packed-grouping-accumulators":
+                    instanceConfig.setPackedGroupingAccumulators(Boolean.parseBoolean(stringValue(node)));
+                    break;
+                case "snapshot-storage":
+                    instanceConfig.setSnapshotStorage(SnapshotStorageType.valueOf(stringValue(node)));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
@@ -205,12 +232,18 @@ public final class XmlJetConfigBuilder extends AbstractConfigBuilder {
                 case "queue-size":
                     config.setQueueSize(intValue(child));
                     break;
+                case "adaptive-queue-size":
+                    config.setAdaptiveQueueSize(Boolean.parseBoolean(stringValue(child)));
+                    break;
                 case "packet-size-limit":
                     config.setPacketSizeLimit(intValue(child));
                     break;
                 case "receive-window-multiplier":
                     config.setReceiveWindowMultiplier(intValue(child));
                     break;
+                case "compression":
+                    config.setCompression(EdgeCompression.valueOf(stringValue(child)));
+                    break;
                 default:
                     throw new AssertionError("Unrecognized XML element: " + name);
             }
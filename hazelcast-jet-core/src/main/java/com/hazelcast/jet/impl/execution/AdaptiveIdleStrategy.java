@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.util.concurrent.IdleStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.Math.min;
+
+/**
+ * An idle strategy that adapts to the recent progress pattern of its
+ * worker thread. It measures the length of each idle streak (the number
+ * of consecutive rounds without progress) and keeps an exponential moving
+ * average of it:
+ * <ul><li>
+ *     if recent streaks were short, new data typically arrives soon after
+ *     the worker goes idle, so the strategy spins and then yields for up to
+ *     twice the average streak length before it starts parking;
+ * </li><li>
+ *     if recent streaks were long, the worker is mostly idle and the
+ *     strategy parks right away, starting with a short period and doubling
+ *     it up to {@code maxParkNanos}.
+ * </li></ul>
+ * Not thread-safe, each worker thread needs its own instance.
+ */
+final class AdaptiveIdleStrategy implements IdleStrategy {
+
+    /** Streaks longer than this aren't worth spinning or yielding for. */
+    static final int MAX_ACTIVE_ROUNDS = 128;
+
+    /** Weight of the latest streak in the moving average, as a power of two. */
+    private static final int AVERAGE_WEIGHT_LOG2 = 3;
+    private static final long MIN_PARK_NANOS = 1_000;
+    private static final int MAX_PARK_SHIFT = 30;
+
+    private final long maxParkNanos;
+
+    // the average is kept scaled up by 2^AVERAGE_WEIGHT_LOG2 to retain precision
+    private long scaledAvgStreak;
+    private long lastIdleCount;
+
+    AdaptiveIdleStrategy(long maxParkNanos) {
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public boolean idle(long n) {
+        if (n <= lastIdleCount) {
+            // the worker made progress in between, so the previous streak has ended
+            recordStreak(lastIdleCount);
+        }
+        lastIdleCount = n;
+        long activeRounds = activeRounds();
+        if (n <= activeRounds / 2) {
+            return false;
+        }
+        if (n <= activeRounds) {
+            Thread.yield();
+            return false;
+        }
+        long parkShift = min(n - activeRounds - 1, MAX_PARK_SHIFT);
+        long parkNanos = min(MIN_PARK_NANOS << parkShift, maxParkNanos);
+        LockSupport.parkNanos(parkNanos);
+        return parkNanos == maxParkNanos;
+    }
+
+    /**
+     * Returns the number of rounds to spend spinning and yielding before
+     * parking, derived from the average streak length.
+     */
+    long activeRounds() {
+        long avgStreak = scaledAvgStreak >> AVERAGE_WEIGHT_LOG2;
+        return avgStreak > MAX_ACTIVE_ROUNDS ? 0 : 2 * avgStreak;
+    }
+
+    private void recordStreak(long streak) {
+        // cap the streak so that a single long pause doesn't dominate the average for too long
+        scaledAvgStreak += min(streak, 2 * MAX_ACTIVE_ROUNDS) - (scaledAvgStreak >> AVERAGE_WEIGHT_LOG2);
+    }
+}
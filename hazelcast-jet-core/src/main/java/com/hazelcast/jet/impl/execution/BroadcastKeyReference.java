@@ -16,11 +16,23 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.core.PartitionAware;
 import com.hazelcast.jet.core.BroadcastKey;
 
 import javax.annotation.Nonnull;
 
-public class BroadcastKeyReference<K> implements BroadcastKey<K> {
+/**
+ * The implementation of {@link BroadcastKey}. All broadcast keys map to
+ * the same partition, so that the processors restoring a snapshot from
+ * their own partitions only need to read one more partition to get all
+ * of them.
+ */
+public class BroadcastKeyReference<K> implements BroadcastKey<K>, PartitionAware<String> {
+
+    /**
+     * The partition key of all broadcast keys.
+     */
+    public static final String PARTITION_KEY = "__jet.broadcastKeys";
 
     private final long id;
     private final K key;
@@ -40,6 +52,11 @@ public class BroadcastKeyReference<K> implements BroadcastKey<K> {
         return id;
     }
 
+    @Override
+    public String getPartitionKey() {
+        return PARTITION_KEY;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+
+/**
+ * Reads the {@link BroadcastKey}s from the snapshot map of a vertex once
+ * for all its processors on this member. All broadcast keys are in one
+ * partition (see {@link BroadcastKeyReference}) and every processor needs
+ * all of them, so each {@link SnapshotRestoreInboundStream} of the vertex
+ * takes them from this shared reader instead of fetching the partition
+ * itself.
+ * <p>
+ * The reader has no thread of its own: the streams advance it from their
+ * tasklets. Only one tasklet at a time does so, the others don't wait for
+ * it.
+ */
+public class BroadcastKeysReader {
+
+    private final String mapName;
+    private final int partitionId;
+    private final OperationService operationService;
+    private final MapOperationProvider opProvider;
+    private final SerializationService serializationService;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // the fetched response or failure, added on a response thread
+    private final Queue<Object> responses = new ConcurrentLinkedQueue<>();
+    private final List<Entry<Data, Data>> entries = new ArrayList<>();
+    private int tableIndex = Integer.MAX_VALUE;
+    private boolean fetching;
+    private volatile boolean done;
+    private volatile Throwable failure;
+
+    public BroadcastKeysReader(NodeEngine nodeEngine, String mapName, int partitionId) {
+        this.mapName = mapName;
+        this.partitionId = partitionId;
+        this.operationService = nodeEngine.getOperationService();
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        this.opProvider = mapService.getMapServiceContext().getMapOperationProvider(mapName);
+        this.serializationService = nodeEngine.getSerializationService();
+    }
+
+    /**
+     * Returns the partition holding the broadcast keys.
+     */
+    int partitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Advances the reading and returns the serialized broadcast entries once
+     * all of them are read, or {@code null} if they aren't read yet.
+     */
+    List<Entry<Data, Data>> poll() {
+        if (!done && lock.tryLock()) {
+            try {
+                advance();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (failure != null) {
+            throw new JetException("Failed to read snapshot data from " + mapName + ": " + failure, failure);
+        }
+        return done ? entries : null;
+    }
+
+    private void advance() {
+        Object response = responses.poll();
+        if (response != null) {
+            fetching = false;
+            if (response instanceof Throwable) {
+                failure = (Throwable) response;
+                return;
+            }
+            MapEntriesWithCursor fetched = (MapEntriesWithCursor) response;
+            for (Entry<Data, Data> e : fetched.getBatch()) {
+                if (serializationService.toObject(e.getKey()) instanceof BroadcastKey) {
+                    entries.add(e);
+                }
+            }
+            tableIndex = fetched.getNextTableIndexToReadFrom();
+            if (fetched.getBatch().isEmpty() || tableIndex < 0) {
+                done = true;
+                return;
+            }
+        }
+        if (!fetching) {
+            fetching = true;
+            SnapshotRestoreInboundStream.fetch(operationService, opProvider, mapName, partitionId, tableIndex,
+                    callbackOf(responses::add, responses::add));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+/**
+ * Implemented by internal processors that hold resources outside the Java
+ * heap, such as files. Unlike the processors of a {@link
+ * com.hazelcast.jet.core.CloseableProcessorSupplier}, they can be created
+ * by any supplier: their tasklet closes them when the execution completes,
+ * whatever the outcome.
+ */
+public interface ClosedOnCompletion {
+
+    /**
+     * Releases the resources. Called once, after the last call to any other
+     * method of the processor, even if the processor wasn't initialized.
+     */
+    void close();
+}
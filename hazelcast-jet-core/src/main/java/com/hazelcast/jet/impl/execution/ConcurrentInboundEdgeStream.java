@@ -27,13 +27,22 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.util.function.Predicate;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
 
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.WatermarkCoalescer.NO_NEW_WM;
 import static com.hazelcast.jet.impl.util.ProgressState.DONE;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
+import static com.hazelcast.util.Preconditions.checkTrue;
 
 /**
  * {@link InboundEdgeStream} implemented in terms of a {@link ConcurrentConveyor}.
@@ -48,13 +57,26 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     private final ConcurrentConveyor<Object> conveyor;
     private final ProgressTracker tracker = new ProgressTracker();
     private final ItemDetector itemDetector = new ItemDetector();
+    private Collection<Object> bulkDest;
+    private Consumer<Object> bulkDestAdder;
+    private ObjIntConsumer<Object> partitionedDest;
+    private Consumer<Object> partitionedDestAdder;
 
     private final WatermarkCoalescer watermarkCoalescer;
     private final BitSet receivedBarriers; // indicates if current snapshot is received on the queue
     private final ILogger logger;
     private long pendingSnapshotId; // next snapshot barrier to emit
+    private boolean pendingSnapshotIsDelta; // the type of the next snapshot barrier to emit
     private long numActiveQueues; // number of active queues remaining
 
+    // used only with non-blocking snapshot barriers
+    private final ToIntFunction<Object> inFlightPartitionFn;
+    private final Queue<Entry<Integer, Object>> inFlightItems;
+    private Consumer<Object> recordingDest;
+    private Consumer<Object> recordingDestTarget;
+    private boolean barrierForwarded; // the pending snapshot barrier was forwarded
+    private boolean recordingInFlight;
+
     /**
      * @param waitForSnapshot If true, queues won't be drained until the same
      *                        barrier is received from all of them. This will enforce exactly-once
@@ -63,10 +85,33 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
                                        long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis,
                                        String debugName) {
+        this(conveyor, ordinal, priority, lastSnapshotId, waitForSnapshot, null, maxWatermarkRetainMillis,
+                debugName);
+    }
+
+    /**
+     * @param waitForSnapshot If true, queues won't be drained until the same
+     *                        barrier is received from all of them. This will enforce exactly-once
+     *                        vs. at-least-once, if it is false.
+     * @param inFlightPartitionFn If not null, the barriers are non-blocking: the first
+     *                        barrier received is forwarded right away and the items from the
+     *                        other queues are recorded until they deliver the barrier too, see
+     *                        {@link #startRecordingInFlightItems()}. The function returns the
+     *                        partition ID of a recorded item. Requires {@code waitForSnapshot}
+     *                        to be false.
+     */
+    public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
+                                       long lastSnapshotId, boolean waitForSnapshot,
+                                       @Nullable ToIntFunction<Object> inFlightPartitionFn,
+                                       int maxWatermarkRetainMillis, String debugName) {
+        checkTrue(!waitForSnapshot || inFlightPartitionFn == null,
+                "non-blocking barriers can't be used with waitForSnapshot");
         this.conveyor = conveyor;
         this.ordinal = ordinal;
         this.priority = priority;
         this.waitForSnapshot = waitForSnapshot;
+        this.inFlightPartitionFn = inFlightPartitionFn;
+        this.inFlightItems = inFlightPartitionFn != null ? new ArrayDeque<>() : null;
 
         watermarkCoalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, conveyor.queueCount());
 
@@ -91,8 +136,38 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         return drainTo(watermarkCoalescer.getTime(), dest);
     }
 
+    @Override
+    public ProgressState drainTo(Collection<Object> dest) {
+        return drainTo(watermarkCoalescer.getTime(), dest);
+    }
+
+    @Override
+    public ProgressState drainWithPartitionIdsTo(ObjIntConsumer<Object> dest) {
+        if (dest != partitionedDest) {
+            partitionedDest = dest;
+            partitionedDestAdder = item -> dest.accept(item, -1);
+        }
+        itemDetector.partitionedDest = dest;
+        ProgressState result = drainTo(watermarkCoalescer.getTime(), partitionedDestAdder, null);
+        itemDetector.partitionedDest = null;
+        return result;
+    }
+
+    // package-visible for testing
+    ProgressState drainTo(long now, Collection<Object> dest) {
+        if (dest != bulkDest) {
+            bulkDest = dest;
+            bulkDestAdder = dest::add;
+        }
+        return drainTo(now, bulkDestAdder, dest);
+    }
+
     // package-visible for testing
     ProgressState drainTo(long now, Consumer<Object> dest) {
+        return drainTo(now, dest, null);
+    }
+
+    private ProgressState drainTo(long now, Consumer<Object> dest, Collection<Object> bulkDest) {
         tracker.reset();
         for (int queueIndex = 0; queueIndex < conveyor.queueCount(); queueIndex++) {
             final QueuedPipe<Object> q = conveyor.queue(queueIndex);
@@ -105,13 +180,16 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                 continue;
             }
 
-            ProgressState result = drainQueue(q, dest);
+            ProgressState result = recordingInFlight && !receivedBarriers.get(queueIndex)
+                    ? drainQueue(q, recordingDest(dest), null)
+                    : drainQueue(q, dest, bulkDest);
             tracker.mergeWith(result);
 
             if (itemDetector.item == DONE_ITEM) {
                 conveyor.removeQueue(queueIndex);
                 receivedBarriers.clear(queueIndex);
                 numActiveQueues--;
+                maybeStopRecording();
                 if (maybeEmitWm(watermarkCoalescer.queueDone(queueIndex), dest)) {
                     return numActiveQueues == 0 ? DONE : MADE_PROGRESS;
                 }
@@ -126,7 +204,16 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                     return MADE_PROGRESS;
                 }
             } else if (itemDetector.item instanceof SnapshotBarrier) {
-                observeBarrier(queueIndex, ((SnapshotBarrier) itemDetector.item).snapshotId());
+                observeBarrier(queueIndex, (SnapshotBarrier) itemDetector.item);
+                if (inFlightPartitionFn != null && !barrierForwarded) {
+                    // the first barrier is forwarded without waiting for the other queues, the items
+                    // they deliver before their barrier are recorded
+                    dest.accept(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIsDelta));
+                    barrierForwarded = true;
+                    recordingInFlight = true;
+                    maybeStopRecording();
+                    return MADE_PROGRESS;
+                }
             } else if (result.isMadeProgress()) {
                 watermarkCoalescer.observeEvent(queueIndex);
             }
@@ -136,9 +223,11 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
             }
 
             if (itemDetector.item != null) {
-                // if we have received the current snapshot from all active queues, forward it
-                if (receivedBarriers.cardinality() == numActiveQueues) {
-                    dest.accept(new SnapshotBarrier(pendingSnapshotId));
+                if (inFlightPartitionFn != null) {
+                    maybeStopRecording();
+                } else if (receivedBarriers.cardinality() == numActiveQueues) {
+                    // we have received the current snapshot from all active queues, forward it
+                    dest.accept(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIsDelta));
                     pendingSnapshotId++;
                     receivedBarriers.clear();
                     return MADE_PROGRESS;
@@ -170,50 +259,131 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         return numActiveQueues == 0;
     }
 
+    @Override
+    public void startRecordingInFlightItems() {
+        assert inFlightPartitionFn != null : "non-blocking barriers not enabled";
+        recordingInFlight = true;
+        maybeStopRecording();
+    }
+
+    @Override
+    public boolean isRecordingInFlightItems() {
+        return recordingInFlight;
+    }
+
+    @Override
+    public Queue<Entry<Integer, Object>> inFlightItems() {
+        return inFlightItems;
+    }
+
+    private Consumer<Object> recordingDest(Consumer<Object> dest) {
+        if (dest != recordingDestTarget) {
+            recordingDestTarget = dest;
+            recordingDest = item -> {
+                dest.accept(item);
+                inFlightItems.add(entry(inFlightPartitionFn.applyAsInt(item), item));
+            };
+        }
+        return recordingDest;
+    }
+
+    /**
+     * Stops recording the in-flight items once all active queues delivered the
+     * pending barrier.
+     */
+    private void maybeStopRecording() {
+        if (!recordingInFlight || receivedBarriers.cardinality() != numActiveQueues) {
+            return;
+        }
+        recordingInFlight = false;
+        if (barrierForwarded) {
+            barrierForwarded = false;
+            pendingSnapshotId++;
+            receivedBarriers.clear();
+        }
+    }
+
+    @Override
+    public int queuedItemCount() {
+        int count = 0;
+        for (int i = 0; i < conveyor.queueCount(); i++) {
+            QueuedPipe<Object> q = conveyor.queue(i);
+            if (q != null) {
+                count += q.size();
+            }
+        }
+        return count;
+    }
+
     /**
      * Drains the supplied queue into a {@code dest} collection, up to the next
      * {@link Watermark} or {@link SnapshotBarrier}. Also updates the {@code tracker} with new status.
-     *
+     * <p>
+     * If {@code bulkDest} is given and the queue's control channel reports no
+     * special items, the items are moved to it in bulk, bypassing the
+     * per-item check.
      */
-    private ProgressState drainQueue(Pipe<Object> queue, Consumer<Object> dest) {
-        itemDetector.reset(dest);
+    private ProgressState drainQueue(Pipe<Object> queue, Consumer<Object> dest, Collection<Object> bulkDest) {
+        ConveyorQueue conveyorQueue = queue instanceof ConveyorQueue ? (ConveyorQueue) queue : null;
+        itemDetector.reset(dest, conveyorQueue);
+        if (bulkDest != null && conveyorQueue != null) {
+            int drainedCount = conveyorQueue.drainOrdinaryItemsTo(bulkDest);
+            if (drainedCount >= 0) {
+                itemDetector.dest = null;
+                return ProgressState.valueOf(drainedCount > 0, false);
+            }
+        }
 
         int drainedCount = queue.drain(itemDetector);
 
         itemDetector.dest = null;
+        itemDetector.queue = null;
+        if (itemDetector.item != null && conveyorQueue != null) {
+            conveyorQueue.specialItemConsumed();
+        }
         return ProgressState.valueOf(drainedCount > 0, itemDetector.item == DONE_ITEM);
     }
 
-    private void observeBarrier(int queueIndex, long snapshotId) {
-        if (snapshotId != pendingSnapshotId) {
+    private void observeBarrier(int queueIndex, SnapshotBarrier barrier) {
+        if (barrier.snapshotId() != pendingSnapshotId) {
             throw new JetException("Unexpected snapshot barrier "
-                    + snapshotId + ", expected " + pendingSnapshotId);
+                    + barrier.snapshotId() + ", expected " + pendingSnapshotId);
         }
         receivedBarriers.set(queueIndex);
+        pendingSnapshotIsDelta = barrier.isDelta();
     }
 
     /**
      * Drains a concurrent conveyor's queue while watching for {@link Watermark}s
      * and {@link SnapshotBarrier}s.
      * When encountering either of them it prevents draining more items.
+     * If {@code partitionedDest} is set, the items are passed to it along
+     * with the partition ID the queue holds for them.
      */
     private static final class ItemDetector implements Predicate<Object> {
         Consumer<Object> dest;
+        ObjIntConsumer<Object> partitionedDest;
+        ConveyorQueue queue;
         BroadcastItem item;
 
-        void reset(Consumer<Object> newDest) {
+        void reset(Consumer<Object> newDest, ConveyorQueue newQueue) {
             dest = newDest;
+            queue = newQueue;
             item = null;
         }
 
         @Override
         public boolean test(Object o) {
-            if (o instanceof Watermark || o instanceof SnapshotBarrier || o == DONE_ITEM) {
+            if (ConveyorQueue.isSpecialItem(o)) {
                 assert item == null : "Received multiple special items without a call to reset(): " + item;
                 item = (BroadcastItem) o;
                 return false;
             }
-            dest.accept(o);
+            if (partitionedDest != null) {
+                partitionedDest.accept(o, queue != null ? queue.drainedPartitionId() : -1);
+            } else {
+                dest.accept(o);
+            }
             return true;
         }
     }
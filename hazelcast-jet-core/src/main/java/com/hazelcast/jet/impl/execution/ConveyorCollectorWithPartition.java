@@ -17,18 +17,32 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
-import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
 import com.hazelcast.jet.impl.util.ProgressState;
 
+/**
+ * Collector that offers items to a conveyor feeding a {@link
+ * SenderTasklet}. The partition ID is stored by the {@link ConveyorQueue}
+ * next to the item.
+ */
 public class ConveyorCollectorWithPartition extends ConveyorCollector {
 
-    public ConveyorCollectorWithPartition(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions) {
-        super(conveyor, queueIndex, partitions);
+    private final ConveyorQueue queue;
+    private final WorkerWakeup.Target wakeup;
+
+    public ConveyorCollectorWithPartition(ConcurrentConveyor<Object> conveyor, int queueIndex, int[] partitions,
+                                          WorkerWakeup.Target wakeup) {
+        super(conveyor, queueIndex, partitions, wakeup);
+        this.queue = (ConveyorQueue) conveyor.queue(queueIndex);
+        this.wakeup = wakeup;
     }
 
     @Override
     public ProgressState offer(Object item, int partitionId) {
-        return offerToConveyor(new ObjectWithPartitionId(item, partitionId));
+        if (!queue.offer(item, partitionId)) {
+            return ProgressState.NO_PROGRESS;
+        }
+        wakeup.signal();
+        return ProgressState.DONE;
     }
 
     @Override
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.util.concurrent.QueuedPipe;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.util.QuickMath;
+import com.hazelcast.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+
+/**
+ * A 1-to-1 concurrent array queue used by the conveyors of local edges.
+ * Next to the items it maintains a control channel: the count of special
+ * items ({@link Watermark}, {@link SnapshotBarrier} and {@code DONE_ITEM})
+ * currently in the queue. The count is incremented before such an item is
+ * added, so if the consumer observes it to be zero after having read the
+ * queue size, the items present at that moment are all ordinary and can
+ * be drained in bulk without inspecting each of them.
+ * <p>
+ * A queue feeding a {@link SenderTasklet} additionally keeps the partition
+ * ID of each item in a parallel {@code int} array, so that the routing
+ * information travels to the sender without wrapping the item.
+ * <p>
+ * An adaptive queue enforces a capacity limit lower than its capacity. The
+ * consumer doubles the limit when it finds the queue full and halves it
+ * when, during a whole adaptation period, it never drained more than a
+ * quarter of it. Its array starts small and the producer replaces it with
+ * one twice as big when the limit allows more items than the array holds,
+ * so the memory follows the highest limit reached rather than the
+ * capacity. The producer links the new array to the old one and puts a
+ * marker into the slot after the last item of the old one, the consumer
+ * follows the link when it reads the marker. The arrays never shrink.
+ * <p>
+ * A producer that finds the queue full marks it as blocked. The consumer
+ * signals the producer's {@linkplain #setProducerWakeup wake-up target}
+ * when it removes items from a blocked queue, so that a producer parked
+ * by the {@link com.hazelcast.jet.config.IdleStrategyType#PARK_UNTIL_SIGNALLED
+ * PARK_UNTIL_SIGNALLED} idle strategy continues as soon as there is room.
+ */
+public final class ConveyorQueue extends AbstractQueue<Object> implements QueuedPipe<Object> {
+
+    static final int MIN_ADAPTIVE_CAPACITY = 16;
+    static final int ADAPTATION_PERIOD = 1024;
+
+    // put by the producer into the slot after the last item of a replaced buffer
+    private static final Object NEXT_BUFFER = new Object();
+
+    private final int capacity;
+    private final boolean withPartitionIds;
+    private final boolean adaptiveCapacity;
+    private final AtomicInteger specialItemCount = new AtomicInteger();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // written by the consumer, read by the producer
+    private volatile int capacityLimit;
+
+    // set by the producer when it finds the queue full, cleared by the consumer
+    private volatile boolean producerBlocked;
+    private WorkerWakeup.Target producerWakeup;
+
+    // only accessed by the producer
+    private Buffer producerBuffer;
+    private long headCache;
+
+    // only accessed by the consumer
+    private Buffer consumerBuffer;
+    private int drainedPartitionId = -1;
+    private int drainCallCount;
+    private int maxDrainedCount;
+
+    public ConveyorQueue(int requestedCapacity) {
+        this(requestedCapacity, false, false);
+    }
+
+    public ConveyorQueue(int requestedCapacity, boolean withPartitionIds, boolean adaptiveCapacity) {
+        this.capacity = QuickMath.nextPowerOfTwo(requestedCapacity);
+        this.withPartitionIds = withPartitionIds;
+        this.adaptiveCapacity = adaptiveCapacity;
+        this.capacityLimit = adaptiveCapacity ? Math.min(MIN_ADAPTIVE_CAPACITY, capacity) : capacity;
+        this.producerBuffer = new Buffer(adaptiveCapacity ? capacityLimit : capacity, withPartitionIds, 0);
+        this.consumerBuffer = producerBuffer;
+    }
+
+    @Override
+    public boolean offer(Object item) {
+        return offer(item, -1);
+    }
+
+    /**
+     * Adds the item along with its partition ID. The partition ID is
+     * discarded if this queue wasn't created to keep partition IDs.
+     */
+    public boolean offer(Object item, int partitionId) {
+        if (item == null) {
+            throw new NullPointerException("item");
+        }
+        final long currentTail = tail.get();
+        if (currentTail - headCache >= capacityLimit) {
+            headCache = head.get();
+            if (currentTail - headCache >= capacityLimit) {
+                if (!producerBlocked) {
+                    producerBlocked = true;
+                }
+                return false;
+            }
+        }
+        final boolean special = isSpecialItem(item);
+        if (special) {
+            specialItemCount.incrementAndGet();
+        }
+        Buffer buffer = producerBuffer;
+        // a buffer that can still be replaced keeps a slot free for the marker
+        if (buffer.length() < capacity && buffer.occupied(currentTail, headCache) >= buffer.length() - 1) {
+            headCache = head.get();
+            if (buffer.occupied(currentTail, headCache) >= buffer.length() - 1) {
+                buffer = growBuffer(buffer, currentTail);
+            }
+        }
+        buffer.put(currentTail, item, partitionId);
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Replaces the producer's buffer with one twice as big. The slot of the
+     * item at {@code currentTail} in the old buffer gets the marker, the
+     * item itself will go to the new buffer.
+     */
+    private Buffer growBuffer(Buffer buffer, long currentTail) {
+        Buffer newBuffer = new Buffer(buffer.length() << 1, withPartitionIds, currentTail);
+        buffer.next = newBuffer;
+        // publishes the link to the consumer
+        buffer.items.lazySet(buffer.index(currentTail), NEXT_BUFFER);
+        producerBuffer = newBuffer;
+        return newBuffer;
+    }
+
+    @Override
+    public Object poll() {
+        final Object item = peek();
+        if (item == null) {
+            return null;
+        }
+        remove(item, head.get());
+        unblockProducer();
+        return item;
+    }
+
+    @Override
+    public Object peek() {
+        final long currentHead = head.get();
+        Object item = consumerBuffer.items.get(consumerBuffer.index(currentHead));
+        if (item == NEXT_BUFFER) {
+            consumerBuffer = consumerBuffer.next;
+            item = consumerBuffer.items.get(consumerBuffer.index(currentHead));
+        }
+        return item;
+    }
+
+    private void remove(Object item, long currentHead) {
+        final int index = consumerBuffer.index(currentHead);
+        if (withPartitionIds) {
+            drainedPartitionId = consumerBuffer.partitionIds[index];
+        }
+        consumerBuffer.items.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+    }
+
+    /**
+     * Drains the items into the {@code dest} collection, but only if none of
+     * them is a special item. Items added concurrently with this call are
+     * not drained.
+     *
+     * @return the number of drained items or -1, if the queue might contain
+     *         a special item and must be drained item by item
+     */
+    int drainOrdinaryItemsTo(Collection<Object> dest) {
+        if (withPartitionIds) {
+            // bulk draining would lose the partition IDs
+            return -1;
+        }
+        int size = size();
+        if (specialItemCount.get() != 0) {
+            return -1;
+        }
+        return observeDrained(size == 0 ? 0 : drainItemsTo(dest, size));
+    }
+
+    @Override
+    public int drain(Predicate<? super Object> itemHandler) {
+        int count = 0;
+        for (Object item; count < capacity && (item = peek()) != null; ) {
+            remove(item, head.get());
+            count++;
+            if (!itemHandler.test(item)) {
+                break;
+            }
+        }
+        if (count > 0) {
+            unblockProducer();
+        }
+        return observeDrained(count);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Object> target, int limit) {
+        return drainItemsTo(target, limit);
+    }
+
+    private int drainItemsTo(Collection<? super Object> target, int limit) {
+        int count = 0;
+        for (Object item; count < limit && (item = peek()) != null; ) {
+            remove(item, head.get());
+            target.add(item);
+            count++;
+        }
+        if (count > 0) {
+            unblockProducer();
+        }
+        return count;
+    }
+
+    /**
+     * Signals the producer if it found the queue full. Called by the consumer
+     * after it removed items.
+     */
+    private void unblockProducer() {
+        if (producerBlocked) {
+            producerBlocked = false;
+            if (producerWakeup != null) {
+                producerWakeup.signal();
+            }
+        }
+    }
+
+    /**
+     * Adapts the capacity limit of an adaptive queue to the number of items
+     * drained by the consumer in one call.
+     *
+     * @return the {@code drainedCount}
+     */
+    private int observeDrained(int drainedCount) {
+        if (!adaptiveCapacity) {
+            return drainedCount;
+        }
+        final int limit = capacityLimit;
+        if (drainedCount >= limit) {
+            // the queue was full, the producer might have been blocked
+            capacityLimit = Math.min(limit << 1, capacity);
+            drainCallCount = 0;
+            maxDrainedCount = 0;
+            return drainedCount;
+        }
+        maxDrainedCount = Math.max(maxDrainedCount, drainedCount);
+        if (++drainCallCount == ADAPTATION_PERIOD) {
+            if (maxDrainedCount < limit >> 2) {
+                capacityLimit = Math.max(limit >> 1, MIN_ADAPTIVE_CAPACITY);
+            }
+            drainCallCount = 0;
+            maxDrainedCount = 0;
+        }
+        return drainedCount;
+    }
+
+    @Override
+    public int size() {
+        long currentHead = head.get();
+        long headBefore;
+        long currentTail;
+        do {
+            headBefore = currentHead;
+            currentTail = tail.get();
+            currentHead = head.get();
+        } while (currentHead != headBefore);
+        return (int) (currentTail - currentHead);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    @Override
+    public long addedCount() {
+        return tail.get();
+    }
+
+    @Override
+    public long removedCount() {
+        return head.get();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacityLimit - size();
+    }
+
+    @Nonnull @Override
+    public Iterator<Object> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sets the target the consumer signals when it makes room in the queue
+     * after the producer found it full. Must be called before the queue is
+     * used.
+     */
+    public void setProducerWakeup(WorkerWakeup.Target producerWakeup) {
+        this.producerWakeup = producerWakeup;
+    }
+
+    /**
+     * Returns the current capacity limit, it's equal to the {@link
+     * #capacity()} unless this queue is adaptive.
+     */
+    int capacityLimit() {
+        return capacityLimit;
+    }
+
+    /**
+     * Returns the length of the array currently used by the producer.
+     */
+    int bufferLength() {
+        return producerBuffer.length();
+    }
+
+    /**
+     * Returns the partition ID of the item {@link #drain(Predicate)} is
+     * currently passing to its handler, or -1 if this queue doesn't keep
+     * partition IDs.
+     */
+    int drainedPartitionId() {
+        return drainedPartitionId;
+    }
+
+    /**
+     * Must be called by the consumer after it has polled a special item.
+     */
+    void specialItemConsumed() {
+        specialItemCount.decrementAndGet();
+    }
+
+    static boolean isSpecialItem(Object item) {
+        return item instanceof Watermark || item instanceof SnapshotBarrier || item == DONE_ITEM;
+    }
+
+    /**
+     * One array of the queue, with the parallel array of partition IDs.
+     */
+    private static final class Buffer {
+        final AtomicReferenceArray<Object> items;
+        final int[] partitionIds;
+        final int mask;
+        // the sequence of the first item put into this buffer
+        final long startSequence;
+        // written by the producer before it puts the marker, read by the consumer after it reads it
+        Buffer next;
+
+        Buffer(int length, boolean withPartitionIds, long startSequence) {
+            this.items = new AtomicReferenceArray<>(length);
+            this.partitionIds = withPartitionIds ? new int[length] : null;
+            this.mask = length - 1;
+            this.startSequence = startSequence;
+        }
+
+        int length() {
+            return mask + 1;
+        }
+
+        /**
+         * Returns the number of slots of this buffer taken by the items not
+         * yet removed, the items of the previous buffers don't count.
+         */
+        long occupied(long currentTail, long currentHead) {
+            return currentTail - Math.max(currentHead, startSequence);
+        }
+
+        int index(long sequence) {
+            return (int) sequence & mask;
+        }
+
+        void put(long sequence, Object item, int partitionId) {
+            int index = index(sequence);
+            if (partitionIds != null) {
+                // the slot is free and the write is published by the write of the item below
+                partitionIds[index] = partitionId;
+            }
+            items.lazySet(index, item);
+        }
+    }
+}
@@ -14,30 +14,22 @@
  * limitations under the License.
  */
 
-package com.hazelcast.jet.impl.util;
+package com.hazelcast.jet.impl.execution;
 
-public class ObjectWithPartitionId {
-
-    private final Object item;
-    private final int partitionId;
-
-    public ObjectWithPartitionId(Object item, int partitionId) {
-        this.item = item;
-        this.partitionId = partitionId;
-    }
-
-    public Object getItem() {
-        return item;
-    }
+/**
+ * Special keys and values stored in the data of a delta snapshot.
+ */
+public enum DeltaSnapshotTag {
 
-    public int getPartitionId() {
-        return partitionId;
-    }
+    /**
+     * Key of the entry marking the data of a vertex as a delta of the
+     * previous snapshot. Without it, the data is a full snapshot of the
+     * vertex's state.
+     */
+    DELTA_MARKER,
 
-    @Override public String toString() {
-        return "ObjectWithPartitionId{" +
-                "item=" + item +
-                ", partitionId=" + partitionId +
-                '}';
-    }
+    /**
+     * Value of an entry whose key was removed since the previous snapshot.
+     */
+    REMOVED
 }
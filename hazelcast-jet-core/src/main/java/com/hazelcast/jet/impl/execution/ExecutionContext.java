@@ -23,7 +23,6 @@ import com.hazelcast.jet.impl.JetService;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
-import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
@@ -35,6 +34,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
+import static com.hazelcast.jet.impl.execution.init.ExecutionPlan.metricsPrefix;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
@@ -95,6 +95,8 @@ public class ExecutionContext {
         processors = plan.getProcessors();
         snapshotContext = new SnapshotContext(nodeEngine.getLogger(SnapshotContext.class), jobId, executionId,
                 plan.lastSnapshotId(), plan.getJobConfig().getProcessingGuarantee());
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry()
+                                     .scanAndRegister(snapshotContext, metricsPrefix(executionId) + "snapshot");
         plan.initialize(nodeEngine, jobId, executionId, snapshotContext);
         snapshotContext.initTaskletCount(plan.getStoreSnapshotTaskletCount(), plan.getHigherPriorityVertexCount());
         receiverMap = unmodifiableMap(plan.getReceiverMap());
@@ -145,6 +147,20 @@ public class ExecutionContext {
         });
         MetricsRegistry metricsRegistry = ((NodeEngineImpl) nodeEngine).getMetricsRegistry();
         processors.forEach(metricsRegistry::deregister);
+        if (tasklets != null) {
+            tasklets.forEach(metricsRegistry::deregister);
+            tasklets.forEach(t -> {
+                try {
+                    t.close();
+                } catch (Throwable e) {
+                    logger.severe(jobAndExecutionId(jobId, executionId)
+                            + " encountered an exception in Tasklet.close(), ignoring it", e);
+                }
+            });
+        }
+        if (snapshotContext != null) {
+            metricsRegistry.deregister(snapshotContext);
+        }
     }
 
     /**
@@ -154,6 +170,7 @@ public class ExecutionContext {
     public CompletableFuture<Void> cancelExecution() {
         synchronized (executionLock) {
             cancellationFuture.cancel(true);
+            wakeUpTasklets();
             if (executionFuture == null) {
                 // if cancelled before execution started, then assign the already completed future.
                 executionFuture = cancellationFuture;
@@ -164,21 +181,43 @@ public class ExecutionContext {
 
     /**
      * Starts a new snapshot by incrementing the current snapshot id
+     *
+     * @param isDelta whether the snapshot should only contain the changes
+     *                since the previous snapshot
      */
-    public CompletionStage<Void> beginSnapshot(long snapshotId) {
+    public CompletionStage<Void> beginSnapshot(long snapshotId, boolean isDelta) {
         synchronized (executionLock) {
             if (cancellationFuture.isDone() || executionFuture != null && executionFuture.isDone()) {
                 throw new CancellationException();
             }
-            return snapshotContext.startNewSnapshot(snapshotId);
+            CompletableFuture<Void> future = snapshotContext.startNewSnapshot(snapshotId, isDelta);
+            // the source processors start the snapshot, they aren't woken up by any input
+            wakeUpTasklets();
+            return future;
+        }
+    }
+
+    /**
+     * Signals the wake-up targets of all tasklets, so that the parked ones
+     * notice a change not caused by their input.
+     */
+    private void wakeUpTasklets() {
+        if (tasklets == null) {
+            return;
+        }
+        for (Tasklet t : tasklets) {
+            WorkerWakeup.Target target = t.wakeupTarget();
+            if (target != null) {
+                target.signal();
+            }
         }
     }
 
-    public void handlePacket(int vertexId, int ordinal, Address sender, BufferObjectDataInput in) {
+    public void handlePacket(int vertexId, int ordinal, Address sender, byte[] packet) {
         receiverMap.get(vertexId)
                    .get(ordinal)
                    .get(sender)
-                   .receiveStreamPacket(in);
+                   .receiveStreamPacket(packet);
     }
 
     public boolean hasParticipant(Address member) {
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * The snapshot key of an item which a processor received after it saved
+ * its state at the first barrier, but before the item's input queue
+ * delivered the barrier, see {@link
+ * com.hazelcast.jet.config.JobConfig#setNonBlockingSnapshotBarriers}. Such items are replayed to the processor
+ * after the state is restored.
+ * <p>
+ * The key is unique within the snapshot of a vertex. The partition ID is
+ * the one the item had on its inbound edge and it is used to route the
+ * item on restore, it's -1 if the edge isn't partitioned.
+ */
+public final class InFlightItemKey implements IdentifiedDataSerializable, Comparable<InFlightItemKey> {
+
+    private int processorIndex;
+    private int ordinal;
+    private long sequence;
+    private int partitionId;
+
+    public InFlightItemKey() {
+    }
+
+    InFlightItemKey(int processorIndex, int ordinal, long sequence, int partitionId) {
+        this.processorIndex = processorIndex;
+        this.ordinal = ordinal;
+        this.sequence = sequence;
+        this.partitionId = partitionId;
+    }
+
+    /**
+     * Returns the ordinal on which the item was received.
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * Returns the partition ID of the item on its inbound edge or -1.
+     */
+    public int partitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Orders the keys by the processor which saved the item and the order in
+     * which it received it.
+     */
+    @Override
+    public int compareTo(@Nonnull InFlightItemKey that) {
+        int res = Integer.compare(processorIndex, that.processorIndex);
+        return res != 0 ? res : Long.compare(sequence, that.sequence);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.IN_FLIGHT_ITEM_KEY;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(processorIndex);
+        out.writeInt(ordinal);
+        out.writeLong(sequence);
+        out.writeInt(partitionId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        processorIndex = in.readInt();
+        ordinal = in.readInt();
+        sequence = in.readLong();
+        partitionId = in.readInt();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        InFlightItemKey that;
+        return this == o
+                || o instanceof InFlightItemKey
+                && this.processorIndex == (that = (InFlightItemKey) o).processorIndex
+                && this.ordinal == that.ordinal
+                && this.sequence == that.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = processorIndex;
+        hc = 73 * hc + ordinal;
+        hc = 73 * hc + (int) (sequence ^ (sequence >>> 32));
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightItemKey{processorIndex=" + processorIndex + ", ordinal=" + ordinal
+                + ", sequence=" + sequence + ", partitionId=" + partitionId + '}';
+    }
+}
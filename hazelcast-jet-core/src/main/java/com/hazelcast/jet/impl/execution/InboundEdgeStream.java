@@ -18,7 +18,12 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.impl.util.ProgressState;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * The inbound side of a data stream corresponding to a single DAG edge identified by its ordinal. In the
@@ -33,5 +38,56 @@ public interface InboundEdgeStream {
 
     ProgressState drainTo(Consumer<Object> dest);
 
+    /**
+     * Same as {@link #drainTo(Consumer)}, but allows the implementation to
+     * move batches of ordinary items directly into the collection.
+     */
+    default ProgressState drainTo(Collection<Object> dest) {
+        return drainTo(dest::add);
+    }
+
+    /**
+     * Same as {@link #drainTo(Consumer)}, but also passes to the consumer
+     * the partition ID the item was emitted with, or -1 if the item has
+     * none.
+     */
+    default ProgressState drainWithPartitionIdsTo(ObjIntConsumer<Object> dest) {
+        return drainTo(item -> dest.accept(item, -1));
+    }
+
     boolean isDone();
+
+    /**
+     * Used with non-blocking snapshot barriers: starts recording the items
+     * drained from the queues which haven't delivered the barrier of the
+     * pending snapshot yet. The recording stops when all of them deliver it.
+     */
+    default void startRecordingInFlightItems() {
+    }
+
+    /**
+     * Tells whether the stream is recording the in-flight items, see {@link
+     * #startRecordingInFlightItems()}.
+     */
+    default boolean isRecordingInFlightItems() {
+        return false;
+    }
+
+    /**
+     * Returns the recorded in-flight items along with their partition IDs, or
+     * {@code null} if the stream doesn't record them. The caller removes the
+     * items it consumes from the queue.
+     */
+    @Nullable
+    default Queue<Entry<Integer, Object>> inFlightItems() {
+        return null;
+    }
+
+    /**
+     * Returns the number of items currently waiting in the queues of this
+     * stream. May be called from any thread, the result is approximate.
+     */
+    default int queuedItemCount() {
+        return 0;
+    }
 }
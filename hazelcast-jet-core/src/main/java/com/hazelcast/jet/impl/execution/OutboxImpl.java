@@ -23,15 +23,18 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Map.Entry;
 import java.util.stream.IntStream;
 
-import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.util.Preconditions.checkPositive;
 
 public class OutboxImpl implements Outbox {
 
+    // a snapshot batch is emitted when its size reaches this many bytes
+    private static final int SNAPSHOT_BATCH_BYTES = 1 << 17;
+    private static final int INITIAL_SNAPSHOT_BATCH_CAPACITY = 256;
+
     private final OutboundCollector[] outstreams;
     private final ProgressTracker progTracker;
     private final SerializationService serializationService;
@@ -42,9 +45,20 @@ public class OutboxImpl implements Outbox {
     private final int[] allEdgesAndSnapshot;
     private final int[] snapshotEdge;
     private final BitSet broadcastTracker;
-    private Entry<Data, Data> pendingSnapshotEntry;
     private int numRemainingInBatch;
 
+    // the snapshot keys and values not yet emitted, laid out as in SnapshotBatch
+    private Data[] snapshotBatchBuffer;
+    private long snapshotBatchDataSize;
+    private int snapshotBatchEntryCount;
+    private SnapshotBatch pendingSnapshotBatch;
+
+    // metrics, written by the processor's thread, read by the metrics registry
+    private long emittedCount;
+    private long blockedNanos;
+    private boolean blocked;
+    private long blockedSince;
+
     /**
      * @param outstreams The output queues
      * @param hasSnapshot If the last queue in {@code outstreams} is the snapshot queue
@@ -112,8 +126,19 @@ public class OutboxImpl implements Outbox {
         }
         if (done) {
             broadcastTracker.clear();
+            if (blocked) {
+                blocked = false;
+                blockedNanos += System.nanoTime() - blockedSince;
+            }
+            if (ordinals != snapshotEdge && !(item instanceof BroadcastItem)) {
+                emittedCount++;
+            }
         } else {
             numRemainingInBatch = -1;
+            if (!blocked) {
+                blocked = true;
+                blockedSince = System.nanoTime();
+            }
         }
         return done;
     }
@@ -123,26 +148,72 @@ public class OutboxImpl implements Outbox {
         return offer(allEdges, item);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entries aren't offered to the snapshot queue one by one, but
+     * appended to a buffer which is emitted as a {@link SnapshotBatch} when
+     * it gets full and before any other item goes to the snapshot queue.
+     * Only the emitting of the batch can be rejected. The key and the value
+     * are serialized separately, the same as without batching.
+     */
     @Override
     public final boolean offerToSnapshot(@Nonnull Object key, @Nonnull Object value) {
         if (snapshotEdge == null) {
             throw new IllegalStateException("Outbox does not have snapshot queue");
         }
+        if (snapshotBatchDataSize >= SNAPSHOT_BATCH_BYTES && !flushSnapshotBatch()) {
+            return false;
+        }
+        // We serialize the key and value immediately to effectively clone them,
+        // so the caller can modify them right after they are accepted by this method.
+        appendToSnapshotBatch(serializationService.toData(key), serializationService.toData(value));
+        progTracker.madeProgress();
+        return true;
+    }
+
+    @Override
+    public final boolean offerRemovalToSnapshot(@Nonnull Object key) {
+        return offerToSnapshot(key, DeltaSnapshotTag.REMOVED);
+    }
 
-        // pendingSnapshotEntry is used to avoid duplicate serialization when the queue rejects the entry
-        if (pendingSnapshotEntry == null) {
-            // We serialize the key and value immediately to effectively clone them,
-            // so the caller can modify them right after they are accepted by this method.
-            Data sKey = serializationService.toData(key);
-            Data sValue = serializationService.toData(value);
-            pendingSnapshotEntry = entry(sKey, sValue);
+    private void appendToSnapshotBatch(Data key, Data value) {
+        int index = 2 * snapshotBatchEntryCount;
+        if (snapshotBatchBuffer == null) {
+            snapshotBatchBuffer = new Data[INITIAL_SNAPSHOT_BATCH_CAPACITY];
+        } else if (snapshotBatchBuffer.length == index) {
+            snapshotBatchBuffer = Arrays.copyOf(snapshotBatchBuffer, 2 * index);
         }
+        snapshotBatchBuffer[index] = key;
+        snapshotBatchBuffer[index + 1] = value;
+        snapshotBatchDataSize += key.totalSize() + value.totalSize();
+        snapshotBatchEntryCount++;
+    }
 
-        boolean success = offer(snapshotEdge, pendingSnapshotEntry);
-        if (success) {
-            pendingSnapshotEntry = null;
+    /**
+     * Offers the snapshot entries appended since the last batch to the
+     * snapshot queue as a {@link SnapshotBatch}.
+     *
+     * @return true, if the batch was accepted or there were no entries
+     */
+    private boolean flushSnapshotBatch() {
+        if (pendingSnapshotBatch == null) {
+            if (snapshotBatchEntryCount == 0) {
+                return true;
+            }
+            // the buffer is reused for the next batch, the batch gets a copy of the references
+            int length = 2 * snapshotBatchEntryCount;
+            pendingSnapshotBatch = new SnapshotBatch(Arrays.copyOf(snapshotBatchBuffer, length),
+                    snapshotBatchEntryCount, snapshotBatchDataSize);
+            Arrays.fill(snapshotBatchBuffer, 0, length, null);
+            snapshotBatchDataSize = 0;
+            snapshotBatchEntryCount = 0;
+        }
+        if (!offer(snapshotEdge, pendingSnapshotBatch)) {
+            return false;
         }
-        return success;
+        pendingSnapshotBatch = null;
+        return true;
     }
 
     /**
@@ -162,6 +233,31 @@ public class OutboxImpl implements Outbox {
     }
 
     final boolean offerToEdgesAndSnapshot(Object item) {
-        return offer(allEdgesAndSnapshot, item);
+        return flushSnapshotBatch() && offer(allEdgesAndSnapshot, item);
+    }
+
+    /**
+     * Offers the item only to the snapshot queue, unlike {@link
+     * #offerToSnapshot} it doesn't wrap it into a snapshot entry. The
+     * pending snapshot batch is emitted first.
+     */
+    final boolean offerToSnapshotQueue(Object item) {
+        return flushSnapshotBatch() && offer(snapshotEdge, item);
+    }
+
+    /**
+     * Returns the number of items accepted by the outbound edges, not
+     * counting snapshot entries and broadcast items.
+     */
+    final long emittedCount() {
+        return emittedCount;
+    }
+
+    /**
+     * Returns the total time an item waited for an outbound queue to
+     * accept it. Time of the current wait is not included until it ends.
+     */
+    final long blockedNanos() {
+        return blockedNanos;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.config.EdgeCompression;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.readIntB;
+import static com.hazelcast.nio.Bits.writeIntB;
+
+/**
+ * Compresses and decompresses the body of stream packets according to the
+ * {@link EdgeCompression} of the edge. The header of the packet is left
+ * intact. A compressed body consists of the length of the uncompressed
+ * body followed by the deflated data.
+ * <p>
+ * An instance keeps its working buffers between calls and isn't
+ * thread-safe.
+ */
+final class PacketCompressor {
+
+    private static final int MIN_BUFFER_SIZE = 1 << 10;
+
+    private final int level;
+    // created lazily, a sender only compresses and a receiver only decompresses
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] buffer = new byte[MIN_BUFFER_SIZE];
+
+    private PacketCompressor(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Returns a compressor for the given setting or {@code null} for {@link
+     * EdgeCompression#NONE}.
+     */
+    static PacketCompressor forCompression(EdgeCompression compression) {
+        switch (compression) {
+            case NONE:
+                return null;
+            case FAST:
+                return new PacketCompressor(Deflater.BEST_SPEED);
+            case DEFLATE:
+                return new PacketCompressor(Deflater.DEFAULT_COMPRESSION);
+            default:
+                throw new AssertionError("Missing case label for " + compression);
+        }
+    }
+
+    /**
+     * Returns a new array containing the first {@code bodyOffset} bytes of
+     * {@code packet} unchanged, followed by the compressed rest.
+     */
+    byte[] compress(byte[] packet, int bodyOffset) {
+        int bodyLength = packet.length - bodyOffset;
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        deflater.reset();
+        deflater.setInput(packet, bodyOffset, bodyLength);
+        deflater.finish();
+        ensureBufferSize(bodyLength);
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            compressedLength += deflater.deflate(buffer, compressedLength, buffer.length - compressedLength);
+        }
+        byte[] result = new byte[bodyOffset + INT_SIZE_IN_BYTES + compressedLength];
+        System.arraycopy(packet, 0, result, 0, bodyOffset);
+        writeIntB(result, bodyOffset, bodyLength);
+        System.arraycopy(buffer, 0, result, bodyOffset + INT_SIZE_IN_BYTES, compressedLength);
+        return result;
+    }
+
+    /**
+     * Decompresses the body of the packet, which starts at {@code
+     * bodyOffset}. The returned array is reused by the next call, the
+     * uncompressed body starts at its index 0.
+     */
+    byte[] decompress(byte[] packet, int bodyOffset) {
+        int bodyLength = readIntB(packet, bodyOffset);
+        int compressedOffset = bodyOffset + INT_SIZE_IN_BYTES;
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        inflater.reset();
+        inflater.setInput(packet, compressedOffset, packet.length - compressedOffset);
+        ensureBufferSize(bodyLength);
+        try {
+            int inflatedLength = 0;
+            while (inflatedLength < bodyLength) {
+                int count = inflater.inflate(buffer, inflatedLength, bodyLength - inflatedLength);
+                if (count == 0 && (inflater.needsInput() || inflater.finished())) {
+                    throw new JetException("Truncated compressed packet, expected " + bodyLength
+                            + " bytes, got " + inflatedLength);
+                }
+                inflatedLength += count;
+            }
+        } catch (DataFormatException e) {
+            throw new JetException("Corrupted compressed packet: " + e, e);
+        }
+        return buffer;
+    }
+
+    /**
+     * Releases the native resources of the compressor. Can be called more
+     * than once.
+     */
+    void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    private void ensureBufferSize(int size) {
+        if (buffer.length < size) {
+            buffer = new byte[size];
+        }
+    }
+}
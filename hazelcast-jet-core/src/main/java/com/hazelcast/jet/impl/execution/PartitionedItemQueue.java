@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+/**
+ * A growable FIFO queue of items along with their partition IDs and
+ * serialized sizes. The three are kept in parallel arrays so that the
+ * routing information doesn't need a wrapper object per item. Not
+ * thread-safe.
+ */
+final class PartitionedItemQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Object[] items = new Object[INITIAL_CAPACITY];
+    private int[] partitionIds = new int[INITIAL_CAPACITY];
+    private int[] itemSizes = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    void add(Object item, int partitionId) {
+        add(item, partitionId, 0);
+    }
+
+    void add(Object item, int partitionId, int itemSize) {
+        if (size == items.length) {
+            grow();
+        }
+        final int index = (head + size) & (items.length - 1);
+        items[index] = item;
+        partitionIds[index] = partitionId;
+        itemSizes[index] = itemSize;
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the item at the head of the queue or {@code null}, if the
+     * queue is empty.
+     */
+    Object peekItem() {
+        return items[head];
+    }
+
+    /**
+     * Returns the partition ID of the item at the head of the queue. The
+     * queue must not be empty.
+     */
+    int peekPartitionId() {
+        return partitionIds[head];
+    }
+
+    /**
+     * Returns the size of the item at the head of the queue. The queue
+     * must not be empty.
+     */
+    int peekItemSize() {
+        return itemSizes[head];
+    }
+
+    /**
+     * Removes the item at the head of the queue. The queue must not be
+     * empty.
+     */
+    void remove() {
+        assert size > 0 : "remove() called on an empty queue";
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+    }
+
+    private void grow() {
+        final int oldCapacity = items.length;
+        final int tailLength = oldCapacity - head;
+        items = unwrap(items, new Object[oldCapacity << 1], tailLength);
+        partitionIds = unwrap(partitionIds, new int[oldCapacity << 1], tailLength);
+        itemSizes = unwrap(itemSizes, new int[oldCapacity << 1], tailLength);
+        head = 0;
+    }
+
+    private <T> T unwrap(T src, T dest, int tailLength) {
+        System.arraycopy(src, head, dest, 0, tailLength);
+        System.arraycopy(src, 0, dest, tailLength, head);
+        return dest;
+    }
+}
@@ -65,6 +65,13 @@ enum ProcessorState {
      */
     EMIT_BARRIER,
 
+    /**
+     * Waiting for the snapshot queue to accept the {@link SnapshotBarrier}
+     * after all in-flight items of a snapshot with non-blocking barriers were
+     * saved.
+     */
+    COMPLETE_NON_BLOCKING_SNAPSHOT,
+
     /**
      * Waiting for the outbox to accept the {@code DONE_ITEM}.
      */
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Processor;
@@ -31,15 +32,20 @@ import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.TreeMap;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.DELTA_MARKER;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE;
 import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE_EDGE;
+import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE_NON_BLOCKING_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_BARRIER;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_WATERMARK;
@@ -67,16 +73,35 @@ public class ProcessorTasklet implements Tasklet {
     private final BitSet receivedBarriers; // indicates if current snapshot is received on the ordinal
 
     private final ArrayDequeInbox inbox = new ArrayDequeInbox(progTracker);
+    private final InboundEdgeStream[] instreams;
     private final Queue<ArrayList<InboundEdgeStream>> instreamGroupQueue;
     private final WatermarkCoalescer watermarkCoalescer;
+    private final boolean nonBlockingBarriers;
 
     private int numActiveOrdinals; // counter for remaining active ordinals
     private CircularListCursor<InboundEdgeStream> instreamCursor;
     private InboundEdgeStream currInstream;
     private ProcessorState state;
+    private WorkerWakeup.Target wakeupTarget;
     private long pendingSnapshotId;
+    private boolean pendingSnapshotIsDelta;
+    private boolean deltaMarkerSaved;
     private Watermark pendingWatermark;
 
+    // the state is saved and the in-flight items are being saved, see JobConfig.setNonBlockingSnapshotBarriers()
+    private boolean nonBlockingSnapshotInProgress;
+    private long inFlightSequence;
+    private List<Entry<InFlightItemKey, Object>> restoredInFlightItems;
+    private Queue<Entry<InFlightItemKey, Object>> inFlightReplay;
+    private int replayOrdinal;
+
+    @Probe(level = MANDATORY)
+    private long receivedCount;
+    @Probe(level = MANDATORY)
+    private long callCount;
+    @Probe(level = MANDATORY)
+    private long callNanos;
+
     public ProcessorTasklet(@Nonnull ProcCtx context,
                             @Nonnull Processor processor,
                             @Nonnull List<? extends InboundEdgeStream> instreams,
@@ -84,10 +109,27 @@ public class ProcessorTasklet implements Tasklet {
                             @Nonnull SnapshotContext ssContext,
                             @Nonnull OutboundCollector ssCollector,
                             int maxWatermarkRetainMillis) {
+        this(context, processor, instreams, outstreams, ssContext, ssCollector, maxWatermarkRetainMillis, false);
+    }
+
+    /**
+     * @param nonBlockingBarriers if true, the processor saves its state when the
+     *                           first snapshot barrier arrives and then saves the
+     *                           in-flight items recorded by the inbound streams
+     */
+    public ProcessorTasklet(@Nonnull ProcCtx context,
+                            @Nonnull Processor processor,
+                            @Nonnull List<? extends InboundEdgeStream> instreams,
+                            @Nonnull List<? extends OutboundEdgeStream> outstreams,
+                            @Nonnull SnapshotContext ssContext,
+                            @Nonnull OutboundCollector ssCollector,
+                            int maxWatermarkRetainMillis,
+                            boolean nonBlockingBarriers) {
         Preconditions.checkNotNull(processor, "processor");
         this.context = context;
         this.processor = processor;
         this.numActiveOrdinals = instreams.size();
+        this.instreams = instreams.toArray(new InboundEdgeStream[0]);
         this.instreamGroupQueue = instreams
                 .stream()
                 .collect(groupingBy(InboundEdgeStream::priority, TreeMap::new,
@@ -108,6 +150,7 @@ public class ProcessorTasklet implements Tasklet {
         pendingSnapshotId = ssContext.lastSnapshotId() + 1;
 
         watermarkCoalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, instreams.size());
+        this.nonBlockingBarriers = nonBlockingBarriers;
     }
 
     private OutboxImpl createOutbox(OutboundCollector ssCollector) {
@@ -138,6 +181,7 @@ public class ProcessorTasklet implements Tasklet {
 
     // package-visible for testing
     ProgressState call(long now) {
+        callCount++;
         progTracker.reset();
         outbox.reset();
         stateMachineStep(now);
@@ -175,11 +219,21 @@ public class ProcessorTasklet implements Tasklet {
 
             case PROCESS_INBOX:
                 progTracker.notDone();
+                if (inFlightReplay != null) {
+                    replayInFlightItems();
+                    return;
+                }
+                if (nonBlockingSnapshotInProgress && !saveInFlightItems()) {
+                    return;
+                }
                 if (inbox.isEmpty() && (isSnapshotInbox() || processor.tryProcess())) {
                     fillInbox(now);
                 }
                 if (!inbox.isEmpty()) {
                     if (isSnapshotInbox()) {
+                        if (nonBlockingBarriers) {
+                            extractInFlightItems();
+                        }
                         processor.restoreFromSnapshot(inbox);
                     } else {
                         processor.process(currInstream.ordinal(), inbox);
@@ -192,10 +246,15 @@ public class ProcessorTasklet implements Tasklet {
                         state = COMPLETE_EDGE;
                         progTracker.madeProgress();
                         return;
+                    } else if (nonBlockingSnapshotInProgress) {
+                        state = isNonBlockingSnapshotComplete() ? COMPLETE_NON_BLOCKING_SNAPSHOT : PROCESS_WATERMARK;
                     } else if (context.snapshottingEnabled()
                             && numActiveOrdinals > 0
-                            && receivedBarriers.cardinality() == numActiveOrdinals) {
+                            && (nonBlockingBarriers
+                                    ? receivedBarriers.cardinality() > 0
+                                    : receivedBarriers.cardinality() == numActiveOrdinals)) {
                         // we have an empty inbox and received the current snapshot barrier from all active ordinals
+                        // or, with non-blocking barriers, from the first one
                         state = SAVE_SNAPSHOT;
                         return;
                     } else if (numActiveOrdinals == 0) {
@@ -212,6 +271,11 @@ public class ProcessorTasklet implements Tasklet {
                 if (isSnapshotInbox()
                         ? processor.finishSnapshotRestore() : processor.completeEdge(currInstream.ordinal())) {
                     progTracker.madeProgress();
+                    if (restoredInFlightItems != null) {
+                        restoredInFlightItems.sort(Entry.comparingByKey());
+                        inFlightReplay = new ArrayDeque<>(restoredInFlightItems);
+                        restoredInFlightItems = null;
+                    }
                     state = initialProcessingState();
                 }
                 return;
@@ -220,7 +284,7 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
-                if (processor.saveToSnapshot()) {
+                if (saveSnapshot()) {
                     progTracker.madeProgress();
                     state = EMIT_BARRIER;
                 }
@@ -230,7 +294,26 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
-                if (outbox.offerToEdgesAndSnapshot(new SnapshotBarrier(pendingSnapshotId))) {
+                SnapshotBarrier barrier = new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIsDelta);
+                if (nonBlockingBarriers && numActiveOrdinals > 0) {
+                    // the barrier goes to the snapshot queue after the in-flight items are saved
+                    if (outbox.offer(barrier)) {
+                        startRecordingInFlightItems();
+                        nonBlockingSnapshotInProgress = true;
+                        state = initialProcessingState();
+                    }
+                } else if (outbox.offerToEdgesAndSnapshot(barrier)) {
+                    receivedBarriers.clear();
+                    pendingSnapshotId++;
+                    state = initialProcessingState();
+                }
+                return;
+
+            case COMPLETE_NON_BLOCKING_SNAPSHOT:
+                progTracker.notDone();
+                if (outbox.offerToSnapshotQueue(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIsDelta))) {
+                    progTracker.madeProgress();
+                    nonBlockingSnapshotInProgress = false;
                     receivedBarriers.clear();
                     pendingSnapshotId++;
                     state = initialProcessingState();
@@ -245,6 +328,7 @@ public class ProcessorTasklet implements Tasklet {
                     assert currSnapshotId <= pendingSnapshotId : "Unexpected new snapshot id " + currSnapshotId
                             + ", current was" + pendingSnapshotId;
                     if (currSnapshotId == pendingSnapshotId) {
+                        pendingSnapshotIsDelta = ssContext.isDeltaSnapshot();
                         state = SAVE_SNAPSHOT;
                         progTracker.madeProgress();
                         return;
@@ -270,6 +354,122 @@ public class ProcessorTasklet implements Tasklet {
         }
     }
 
+    /**
+     * Saves the processor's state, or only its changes if the pending
+     * snapshot is a delta snapshot and the processor supports it. In the
+     * latter case the data is marked with the {@link
+     * DeltaSnapshotTag#DELTA_MARKER} first.
+     */
+    private boolean saveSnapshot() {
+        if (!pendingSnapshotIsDelta || !processor.supportsDeltaSnapshot()) {
+            return processor.saveToSnapshot();
+        }
+        if (!deltaMarkerSaved) {
+            if (!outbox.offerToSnapshot(DELTA_MARKER, true)) {
+                return false;
+            }
+            deltaMarkerSaved = true;
+        }
+        if (!processor.saveDeltaToSnapshot()) {
+            return false;
+        }
+        deltaMarkerSaved = false;
+        return true;
+    }
+
+    /**
+     * Makes the inbound streams which haven't delivered the pending barrier
+     * record the items they receive until they deliver it.
+     */
+    private void startRecordingInFlightItems() {
+        for (InboundEdgeStream instream : instreams) {
+            if (!instream.isDone() && !receivedBarriers.get(instream.ordinal())) {
+                instream.startRecordingInFlightItems();
+            }
+        }
+    }
+
+    /**
+     * Saves the in-flight items recorded by the inbound streams. Returns
+     * false if the snapshot queue didn't accept all of them.
+     */
+    private boolean saveInFlightItems() {
+        for (InboundEdgeStream instream : instreams) {
+            Queue<Entry<Integer, Object>> items = instream.inFlightItems();
+            if (items == null) {
+                continue;
+            }
+            for (Entry<Integer, Object> e; (e = items.peek()) != null; ) {
+                InFlightItemKey key = new InFlightItemKey(context.globalProcessorIndex(), instream.ordinal(),
+                        inFlightSequence, e.getKey());
+                if (!outbox.offerToSnapshot(key, e.getValue())) {
+                    return false;
+                }
+                inFlightSequence++;
+                items.remove();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true when all inputs delivered the barrier and all recorded
+     * in-flight items were saved. The barrier arrives on each input only
+     * after the items queued ahead of it, so this waits for them to be
+     * processed.
+     */
+    private boolean isNonBlockingSnapshotComplete() {
+        if (receivedBarriers.cardinality() != numActiveOrdinals) {
+            return false;
+        }
+        for (InboundEdgeStream instream : instreams) {
+            Queue<Entry<Integer, Object>> items = instream.inFlightItems();
+            if (instream.isRecordingInFlightItems() || items != null && !items.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the saved in-flight items from the snapshot inbox, they are
+     * replayed after the restore is finished.
+     */
+    @SuppressWarnings("unchecked")
+    private void extractInFlightItems() {
+        for (Iterator<Object> it = inbox.queue().iterator(); it.hasNext(); ) {
+            Entry<Object, Object> e = (Entry<Object, Object>) it.next();
+            if (e.getKey() instanceof InFlightItemKey) {
+                if (restoredInFlightItems == null) {
+                    restoredInFlightItems = new ArrayList<>();
+                }
+                restoredInFlightItems.add(entry((InFlightItemKey) e.getKey(), e.getValue()));
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Passes the restored in-flight items to the processor, a run of items
+     * from the same ordinal at a time.
+     */
+    private void replayInFlightItems() {
+        if (inbox.isEmpty()) {
+            Entry<InFlightItemKey, Object> e = inFlightReplay.peek();
+            if (e == null) {
+                inFlightReplay = null;
+                progTracker.madeProgress();
+                return;
+            }
+            replayOrdinal = e.getKey().ordinal();
+            for (; e != null && e.getKey().ordinal() == replayOrdinal; e = inFlightReplay.peek()) {
+                inbox.queue().add(e.getValue());
+                inFlightReplay.remove();
+            }
+        }
+        processor.process(replayOrdinal, inbox);
+    }
+
     private void fillInbox(long now) {
         assert inbox.isEmpty() : "inbox is not empty";
         assert pendingWatermark == null : "null wm expected, but was " + pendingWatermark;
@@ -285,11 +485,13 @@ public class ProcessorTasklet implements Tasklet {
 
             // skip ordinals where a snapshot barrier has already been received
             if (ssContext != null && ssContext.processingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
+                    && !nonBlockingBarriers
                     && receivedBarriers.get(currInstream.ordinal())) {
                 instreamCursor.advance();
                 continue;
             }
-            result = currInstream.drainTo(inbox.queue()::add);
+            int sizeBefore = inbox.queue().size();
+            result = currInstream.drainTo(inbox.queue());
             progTracker.madeProgress(result.isMadeProgress());
 
             // check if the last drained item is special
@@ -302,10 +504,12 @@ public class ProcessorTasklet implements Tasklet {
                 }
             } else if (lastItem instanceof SnapshotBarrier) {
                 SnapshotBarrier barrier = (SnapshotBarrier) inbox.queue().removeLast();
-                observeSnapshot(currInstream.ordinal(), barrier.snapshotId());
+                observeSnapshot(currInstream.ordinal(), barrier);
             } else if (lastItem != null && !(lastItem instanceof BroadcastItem)) {
                 watermarkCoalescer.observeEvent(currInstream.ordinal());
             }
+            // a watermark or a barrier can only be the last drained item and it's removed by now
+            receivedCount += inbox.queue().size() - sizeBefore;
 
             if (result.isDone()) {
                 receivedBarriers.clear(currInstream.ordinal());
@@ -335,17 +539,66 @@ public class ProcessorTasklet implements Tasklet {
                        .orElse(null);
     }
 
+    /**
+     * Sets the target the producers of this tasklet's input signal.
+     */
+    public void setWakeupTarget(WorkerWakeup.Target wakeupTarget) {
+        this.wakeupTarget = wakeupTarget;
+    }
+
+    @Override
+    public WorkerWakeup.Target wakeupTarget() {
+        return wakeupTarget;
+    }
+
+    @Override
+    public void close() {
+        if (processor instanceof ClosedOnCompletion) {
+            ((ClosedOnCompletion) processor).close();
+        }
+    }
+
+    // for tests
+    long receivedCount() {
+        return receivedCount;
+    }
+
+    @Override
+    public void callCompleted(long elapsedNanos) {
+        callNanos += elapsedNanos;
+    }
+
+    @Probe(level = MANDATORY)
+    long emittedCount() {
+        return outbox.emittedCount();
+    }
+
+    @Probe(level = MANDATORY)
+    long outboxBlockedNanos() {
+        return outbox.blockedNanos();
+    }
+
+    @Probe(level = MANDATORY)
+    long queuedItemCount() {
+        long count = 0;
+        for (InboundEdgeStream instream : instreams) {
+            count += instream.queuedItemCount();
+        }
+        return count;
+    }
+
     @Override
     public String toString() {
         return "ProcessorTasklet{" + context.vertexName() + '#' + context.globalProcessorIndex() + '}';
     }
 
-    private void observeSnapshot(int ordinal, long snapshotId) {
-        if (snapshotId != pendingSnapshotId) {
-            throw new JetException("Unexpected snapshot barrier " + snapshotId + " from ordinal " + ordinal +
+    private void observeSnapshot(int ordinal, SnapshotBarrier barrier) {
+        if (barrier.snapshotId() != pendingSnapshotId) {
+            throw new JetException("Unexpected snapshot barrier " + barrier.snapshotId() + " from ordinal " + ordinal +
                     " expected " + pendingSnapshotId);
         }
         receivedBarriers.set(ordinal);
+        pendingSnapshotIsDelta = barrier.isDelta();
     }
 
     /**
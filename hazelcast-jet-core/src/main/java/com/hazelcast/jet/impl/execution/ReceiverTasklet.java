@@ -16,9 +16,11 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.concurrent.MPSCQueue;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.jet.impl.util.LoggingUtil;
-import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.logging.ILogger;
@@ -28,9 +30,10 @@ import com.hazelcast.util.concurrent.IdleStrategy;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.Queue;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.jet.impl.Networking.STREAM_PACKET_HEADER_SIZE;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
 import static java.lang.Math.ceil;
@@ -68,6 +71,8 @@ public class ReceiverTasklet implements Tasklet {
      */
     static final int INITIAL_RECEIVE_WINDOW_COMPRESSED = 800;
 
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     /**
      * Receive Window converges towards the amount of data processed per flow-control
      * period multiplied by this number.
@@ -75,12 +80,21 @@ public class ReceiverTasklet implements Tasklet {
     private final int rwinMultiplier;
     private final double flowControlPeriodNs;
 
-    private final Queue<BufferObjectDataInput> incoming = new MPSCQueue<>((IdleStrategy) null);
+    private final Queue<byte[]> incoming = new MPSCQueue<>((IdleStrategy) null);
+    // reused for all received packets, it is only accessed by the tasklet execution thread
+    private final BufferObjectDataInput packetInput;
+    private final PacketCompressor compressor;
     private final ProgressTracker tracker = new ProgressTracker();
-    private final ArrayDeque<ObjWithPtionIdAndSize> inbox = new ArrayDeque<>();
+    private final PartitionedItemQueue inbox = new PartitionedItemQueue();
     private final OutboundCollector collector;
+    private final WorkerWakeup.Target wakeup;
+    private final Runnable flowControlRequest;
 
     private boolean receptionDone;
+    @Probe(level = MANDATORY)
+    private long bytesReceived;
+    @Probe(level = MANDATORY)
+    private long itemsReceived;
 
     //                    FLOW-CONTROL STATE
     //            All arrays are indexed by sender ID.
@@ -88,15 +102,34 @@ public class ReceiverTasklet implements Tasklet {
     // read by a task scheduler thread, written by a tasklet execution thread
     private volatile long ackedSeq;
 
-    // read and written by updateAndGetSendSeqLimitCompressed(), which is invoked sequentially by a task scheduler
+    // written by a task scheduler thread, read by a tasklet execution thread. When ackedSeq
+    // reaches it, the tasklet requests an immediate flow-control message
+    private volatile long ackRequestSeq = 1L << (COMPRESSED_SEQ_UNIT_LOG2 - 1);
+
+    // the ackRequestSeq for which the tasklet last requested a flow-control message,
+    // accessed only by the tasklet execution thread
+    private long requestedAtSeq = -1;
+
+    // read and written by updateAndGetSendSeqLimitCompressed() and offerSendSeqLimitToSend(),
+    // which are invoked sequentially by a task scheduler
     private int receiveWindowCompressed;
     private int prevAckedSeqCompressed;
+    private long prevAckedSeq;
     private long prevTimestamp;
+    private boolean hasSentLimit;
+    private int sentLimitCompressed;
+    private int sentAckedSeqCompressed;
 
     //                 END FLOW-CONTROL STATE
 
-    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs) {
+    public ReceiverTasklet(OutboundCollector collector, int rwinMultiplier, int flowControlPeriodMs,
+                           WorkerWakeup.Target wakeup, InternalSerializationService serializationService,
+                           EdgeCompression compression, Runnable flowControlRequest) {
         this.collector = collector;
+        this.flowControlRequest = flowControlRequest;
+        this.packetInput = serializationService.createObjectDataInput(EMPTY_BYTES);
+        this.compressor = PacketCompressor.forCompression(compression);
+        this.wakeup = wakeup;
         this.rwinMultiplier = rwinMultiplier;
         this.flowControlPeriodNs = (double) MILLISECONDS.toNanos(flowControlPeriodMs);
         this.receiveWindowCompressed = INITIAL_RECEIVE_WINDOW_COMPRESSED;
@@ -110,30 +143,54 @@ public class ReceiverTasklet implements Tasklet {
         tracker.reset();
         tracker.notDone();
         tryFillInbox();
-        for (ObjWithPtionIdAndSize o; (o = inbox.peek()) != null; ) {
-            final Object item = o.getItem();
+        for (Object item; (item = inbox.peekItem()) != null; ) {
             if (item == DONE_ITEM) {
                 receptionDone = true;
                 inbox.remove();
-                assert inbox.peek() == null : "Found something in the queue beyond the DONE_ITEM: " + inbox.remove();
+                assert inbox.isEmpty() : "Found something in the queue beyond the DONE_ITEM: " + inbox.peekItem();
                 break;
             }
             ProgressState outcome = item instanceof BroadcastItem
                     ? collector.offerBroadcast((BroadcastItem) item)
-                    : collector.offer(item, o.getPartitionId());
+                    : collector.offer(item, inbox.peekPartitionId());
             if (!outcome.isDone()) {
                 tracker.madeProgress(outcome.isMadeProgress());
                 break;
             }
             tracker.madeProgress();
+            ackItem(estimatedMemoryFootprint(inbox.peekItemSize()));
             inbox.remove();
-            ackItem(o.estimatedMemoryFootprint);
+        }
+        final long requestSeq = ackRequestSeq;
+        if (ackedSeq - requestSeq >= 0 && requestSeq != requestedAtSeq) {
+            // request once, the request seq moves when the limit is sent
+            requestedAtSeq = requestSeq;
+            flowControlRequest.run();
         }
         return tracker.toProgressState();
     }
 
-    void receiveStreamPacket(BufferObjectDataInput packetInput) {
-        incoming.add(packetInput);
+    @Override
+    public WorkerWakeup.Target wakeupTarget() {
+        return wakeup;
+    }
+
+    @Override
+    public void close() {
+        if (compressor != null) {
+            compressor.close();
+        }
+    }
+
+    /**
+     * Enqueues a stream packet received from the network. The packet's
+     * content starts after a header of {@link
+     * com.hazelcast.jet.impl.Networking#STREAM_PACKET_HEADER_SIZE} bytes. The
+     * array is not copied, the caller must not modify it afterwards.
+     */
+    void receiveStreamPacket(byte[] packet) {
+        incoming.add(packet);
+        wakeup.signal();
     }
 
     /**
@@ -181,7 +238,8 @@ public class ReceiverTasklet implements Tasklet {
         final long ackTimeDelta = timestampNow - prevTimestamp;
         prevTimestamp = timestampNow;
 
-        final int ackedSeqCompressed = compressSeq(ackedSeq);
+        prevAckedSeq = ackedSeq;
+        final int ackedSeqCompressed = compressSeq(prevAckedSeq);
         final int ackedSeqCompressedDelta = ackedSeqCompressed - prevAckedSeqCompressed;
         prevAckedSeqCompressed = ackedSeqCompressed;
 
@@ -195,6 +253,38 @@ public class ReceiverTasklet implements Tasklet {
         return ackedSeqCompressed + receiveWindowCompressed;
     }
 
+    /**
+     * Decides whether the limit returned from the preceding call to {@link
+     * #updateAndGetSendSeqLimitCompressed()} should be sent to the sender. It
+     * should if it's greater than the last sent limit or if the receiver
+     * processed some data since then. Otherwise the sender is already allowed
+     * to send up to the last sent limit and the message can be skipped. This
+     * way no flow-control message is sent when the receiver is idle.
+     * <p>
+     * The second condition ensures progress if a message was lost, for
+     * example because it arrived before the execution started on the
+     * sending member: the sender can always send some data, which causes a
+     * new message to be sent.
+     * <p>
+     * Also sets the point at which this tasklet will request the next
+     * flow-control broadcast: when it has processed half of the data the
+     * sender is allowed to send beyond the current acked seq.
+     */
+    // Invoked sequentially by a task scheduler
+    public boolean offerSendSeqLimitToSend(int sendSeqLimitCompressed) {
+        final boolean send = !hasSentLimit
+                || sendSeqLimitCompressed - sentLimitCompressed > 0
+                || prevAckedSeqCompressed != sentAckedSeqCompressed;
+        if (send) {
+            hasSentLimit = true;
+            sentLimitCompressed = sendSeqLimitCompressed;
+            sentAckedSeqCompressed = prevAckedSeqCompressed;
+        }
+        final int allowedAheadCompressed = sentLimitCompressed - prevAckedSeqCompressed;
+        ackRequestSeq = prevAckedSeq + ((long) Math.max(1, allowedAheadCompressed / 2) << COMPRESSED_SEQ_UNIT_LOG2);
+        return send;
+    }
+
     long ackItem(long itemWeight) {
         final long seqNow = ackedSeq;
         final long seqToBe = seqNow + itemWeight;
@@ -212,42 +302,44 @@ public class ReceiverTasklet implements Tasklet {
     }
 
     static long estimatedMemoryFootprint(long itemBlobSize) {
-        final int inboxSlot = 4; // slot in ArrayDeque<ObjPtionAndSenderId> inbox
-        final int objPtionAndSenderIdHeader = 16; // object header of ObjPtionAndSenderId instance
-        final int itemField = 4; // ObjectWithPartitionId.item
+        final int itemSlot = 4; // slot in PartitionedItemQueue.items
+        final int partitionIdSlot = 4; // slot in PartitionedItemQueue.partitionIds
+        final int itemSizeSlot = 4; // slot in PartitionedItemQueue.itemSizes
         final int itemObjHeader = 16; // header of the item object (unknown type)
-        final int partitionIdField = 4; // ObjectWithPartitionId.item
-        final int senderIdField = 4; // ObjectWithPartitionId.senderId
-        final int estimatedMemoryFootprintField = 8;  // ObjectWithPartitionId.estimatedMemoryFootprint
-        final int overhead = inboxSlot + objPtionAndSenderIdHeader + itemField + itemObjHeader + partitionIdField
-                + senderIdField + estimatedMemoryFootprintField;
+        final int overhead = itemSlot + partitionIdSlot + itemSizeSlot + itemObjHeader;
         return overhead + itemBlobSize;
     }
 
+    /**
+     * Returns the current size of the receive window in bytes.
+     */
+    @Probe(level = MANDATORY)
+    long receiveWindowBytes() {
+        return (long) receiveWindowCompressed << COMPRESSED_SEQ_UNIT_LOG2;
+    }
+
     private void tryFillInbox() {
         try {
-            for (BufferObjectDataInput received; (received = incoming.poll()) != null; ) {
-                final int itemCount = received.readInt();
+            for (byte[] received; (received = incoming.poll()) != null; ) {
+                bytesReceived += received.length;
+                if (compressor != null) {
+                    packetInput.init(compressor.decompress(received, STREAM_PACKET_HEADER_SIZE), 0);
+                } else {
+                    packetInput.init(received, STREAM_PACKET_HEADER_SIZE);
+                }
+                final int itemCount = packetInput.readInt();
+                itemsReceived += itemCount;
                 for (int i = 0; i < itemCount; i++) {
-                    final int mark = received.position();
-                    final Object item = received.readObject();
-                    final int itemSize = received.position() - mark;
-                    inbox.add(new ObjWithPtionIdAndSize(item, received.readInt(), itemSize));
+                    final int mark = packetInput.position();
+                    final Object item = packetInput.readObject();
+                    final int itemSize = packetInput.position() - mark;
+                    inbox.add(item, packetInput.readInt(), itemSize);
                 }
-                received.close();
+                packetInput.clear();
                 tracker.madeProgress();
             }
         } catch (IOException e) {
             throw rethrow(e);
         }
     }
-
-    private static class ObjWithPtionIdAndSize extends ObjectWithPartitionId {
-        final long estimatedMemoryFootprint;
-
-        ObjWithPtionIdAndSize(Object item, int partitionId, int itemBlobSize) {
-            super(item, partitionId);
-            this.estimatedMemoryFootprint = estimatedMemoryFootprint(itemBlobSize);
-        }
-    }
 }
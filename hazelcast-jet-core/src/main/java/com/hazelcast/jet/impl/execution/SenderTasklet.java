@@ -16,7 +16,8 @@
 
 package com.hazelcast.jet.impl.execution;
 
-import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.nio.Address;
@@ -28,9 +29,9 @@ import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.function.ObjIntConsumer;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.jet.impl.Networking.createStreamPacketHeader;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.execution.ReceiverTasklet.compressSeq;
@@ -43,14 +44,21 @@ import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 public class SenderTasklet implements Tasklet {
 
     private final Connection connection;
-    private final Queue<Object> inbox = new ArrayDeque<>();
+    private final PartitionedItemQueue inbox = new PartitionedItemQueue();
+    private final ObjIntConsumer<Object> addToInbox = inbox::add;
     private final ProgressTracker progTracker = new ProgressTracker();
     private final InboundEdgeStream inboundEdgeStream;
     private final BufferObjectDataOutput outputBuffer;
     private final int bufPosPastHeader;
     private final int packetSizeLimit;
+    private final PacketCompressor compressor;
 
     private boolean instreamExhausted;
+    private WorkerWakeup.Target wakeupTarget;
+    @Probe(level = MANDATORY)
+    private long bytesSent;
+    @Probe(level = MANDATORY)
+    private long itemsSent;
     // read and written by Jet thread
     private long sentSeq;
 
@@ -58,9 +66,11 @@ public class SenderTasklet implements Tasklet {
     private volatile int sendSeqLimitCompressed;
 
     public SenderTasklet(InboundEdgeStream inboundEdgeStream, NodeEngine nodeEngine, Address destinationAddress,
-                         long executionId, int destinationVertexId, int packetSizeLimit) {
+                         long executionId, int destinationVertexId, int packetSizeLimit,
+                         EdgeCompression compression) {
         this.inboundEdgeStream = inboundEdgeStream;
         this.packetSizeLimit = packetSizeLimit;
+        this.compressor = PacketCompressor.forCompression(compression);
         this.connection = getMemberConnection(nodeEngine, destinationAddress);
         this.outputBuffer = createObjectDataOutput(nodeEngine);
         uncheckRun(() -> outputBuffer.write(createStreamPacketHeader(
@@ -78,7 +88,12 @@ public class SenderTasklet implements Tasklet {
         }
         if (tryFillOutputBuffer()) {
             progTracker.madeProgress();
-            connection.write(new Packet(outputBuffer.toByteArray()).setPacketType(Packet.Type.JET));
+            byte[] packet = outputBuffer.toByteArray();
+            if (compressor != null) {
+                packet = compressor.compress(packet, bufPosPastHeader);
+            }
+            bytesSent += packet.length;
+            connection.write(new Packet(packet).setPacketType(Packet.Type.JET));
         }
         return progTracker.toProgressState();
     }
@@ -92,11 +107,11 @@ public class SenderTasklet implements Tasklet {
             return;
         }
         progTracker.notDone();
-        final ProgressState result = inboundEdgeStream.drainTo(inbox::add);
+        final ProgressState result = inboundEdgeStream.drainWithPartitionIdsTo(addToInbox);
         progTracker.madeProgress(result.isMadeProgress());
         instreamExhausted = result.isDone();
         if (instreamExhausted) {
-            inbox.add(new ObjectWithPartitionId(DONE_ITEM, -1));
+            inbox.add(DONE_ITEM, -1);
         }
     }
 
@@ -108,17 +123,18 @@ public class SenderTasklet implements Tasklet {
             for (Object item;
                  outputBuffer.position() < packetSizeLimit
                          && isWithinLimit(sentSeq, sendSeqLimitCompressed)
-                         && (item = inbox.poll()) != null;
+                         && (item = inbox.peekItem()) != null;
                  writtenCount++
                     ) {
-                ObjectWithPartitionId itemWithpId = item instanceof ObjectWithPartitionId ?
-                        (ObjectWithPartitionId) item : new ObjectWithPartitionId(item, - 1);
+                final int partitionId = inbox.peekPartitionId();
+                inbox.remove();
                 final int mark = outputBuffer.position();
-                outputBuffer.writeObject(itemWithpId.getItem());
+                outputBuffer.writeObject(item);
                 sentSeq += estimatedMemoryFootprint(outputBuffer.position() - mark);
-                outputBuffer.writeInt(itemWithpId.getPartitionId());
+                outputBuffer.writeInt(partitionId);
             }
             outputBuffer.writeInt(bufPosPastHeader, writtenCount);
+            itemsSent += writtenCount;
             return writtenCount > 0;
         } catch (IOException e) {
             throw rethrow(e);
@@ -135,6 +151,29 @@ public class SenderTasklet implements Tasklet {
     // Called from HZ networking thread
     public void setSendSeqLimitCompressed(int sendSeqLimitCompressed) {
         this.sendSeqLimitCompressed = sendSeqLimitCompressed;
+        // the sender might be parked waiting for a higher limit
+        if (wakeupTarget != null) {
+            wakeupTarget.signal();
+        }
+    }
+
+    /**
+     * Sets the target the producers of this tasklet's input signal.
+     */
+    public void setWakeupTarget(WorkerWakeup.Target wakeupTarget) {
+        this.wakeupTarget = wakeupTarget;
+    }
+
+    @Override
+    public WorkerWakeup.Target wakeupTarget() {
+        return wakeupTarget;
+    }
+
+    @Override
+    public void close() {
+        if (compressor != null) {
+            compressor.close();
+        }
     }
 
     @Override
@@ -22,19 +22,33 @@ package com.hazelcast.jet.impl.execution;
  */
 public class SnapshotBarrier implements BroadcastItem {
     private final long snapshotId;
+    private final boolean isDelta;
 
     public SnapshotBarrier(long snapshotId) {
+        this(snapshotId, false);
+    }
+
+    public SnapshotBarrier(long snapshotId, boolean isDelta) {
         assert snapshotId >= 0; // snapshot ID starts at 0 and is only incremented
         this.snapshotId = snapshotId;
+        this.isDelta = isDelta;
     }
 
     public long snapshotId() {
         return snapshotId;
     }
 
+    /**
+     * Returns true, if the snapshot only contains the changes since the
+     * previous snapshot.
+     */
+    public boolean isDelta() {
+        return isDelta;
+    }
+
     @Override
     public String toString() {
-        return "SnapshotBarrier{snapshotId=" + snapshotId + '}';
+        return "SnapshotBarrier{snapshotId=" + snapshotId + (isDelta ? ", delta" : "") + '}';
     }
 
     @Override
@@ -48,11 +62,11 @@ public class SnapshotBarrier implements BroadcastItem {
 
         SnapshotBarrier barrier = (SnapshotBarrier) o;
 
-        return snapshotId == barrier.snapshotId;
+        return snapshotId == barrier.snapshotId && isDelta == barrier.isDelta;
     }
 
     @Override
     public int hashCode() {
-        return (int) (snapshotId ^ (snapshotId >>> 32));
+        return 31 * (int) (snapshotId ^ (snapshotId >>> 32)) + (isDelta ? 1 : 0);
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * A batch of serialized snapshot entries a processor emitted to the
+ * snapshot queue as a single item, see {@link
+ * OutboxImpl#offerToSnapshot}. The keys and values are kept as the {@link
+ * Data} instances they were serialized to and are passed on without
+ * copying.
+ * <p>
+ * A batch only takes one slot in the snapshot queue instead of one per
+ * entry. Each key and value is still serialized on its own and the
+ * snapshot storage still stores each entry as a separate record.
+ */
+public final class SnapshotBatch {
+
+    // the keys at even and the values at odd indices
+    private final Data[] keysAndValues;
+    private final int entryCount;
+    private final long dataSize;
+
+    SnapshotBatch(Data[] keysAndValues, int entryCount, long dataSize) {
+        this.keysAndValues = keysAndValues;
+        this.entryCount = entryCount;
+        this.dataSize = dataSize;
+    }
+
+    public int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the total size of the serialized keys and values.
+     */
+    public long dataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Passes each entry to the given action.
+     */
+    public void forEach(Consumer<? super Entry<Data, Data>> action) {
+        for (int i = 0; i < 2 * entryCount; i += 2) {
+            action.accept(entry(keysAndValues[i], keysAndValues[i + 1]));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotBatch{entryCount=" + entryCount + ", dataSize=" + dataSize + '}';
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.logging.ILogger;
 
@@ -24,6 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -44,6 +46,13 @@ public class SnapshotContext {
      */
     private final AtomicLong lastSnapshotId;
 
+    /**
+     * True, if the last started snapshot is a delta snapshot. Written before
+     * {@link #lastSnapshotId} is incremented, so that the source processors
+     * see the value for the snapshot they start.
+     */
+    private volatile boolean isDeltaSnapshot;
+
     /**
      * Current number of {@link StoreSnapshotTasklet}s in the job. It's
      * decremented as the tasklets complete (this is when they receive
@@ -82,6 +91,21 @@ public class SnapshotContext {
     /** Future which will be completed when the current snapshot completes. */
     private volatile CompletableFuture<Void> future;
 
+    /** Size of the current snapshot, added to by the {@link StoreSnapshotTasklet}s. */
+    private final AtomicLong currentSnapshotBytes = new AtomicLong();
+    private final AtomicLong currentSnapshotEntryCount = new AtomicLong();
+    private volatile long snapshotStartNanos;
+
+    // metrics of the last successful snapshot on this member
+    @Probe(level = MANDATORY)
+    private final AtomicLong completedSnapshotCount = new AtomicLong();
+    @Probe(level = MANDATORY)
+    private volatile long lastSnapshotBytes;
+    @Probe(level = MANDATORY)
+    private volatile long lastSnapshotEntryCount;
+    @Probe(level = MANDATORY)
+    private volatile long lastSnapshotDurationNanos;
+
     SnapshotContext(ILogger logger, long jobId, long executionId, long lastSnapshotId,
                     ProcessingGuarantee guarantee
     ) {
@@ -99,6 +123,14 @@ public class SnapshotContext {
         return lastSnapshotId.get();
     }
 
+    /**
+     * Returns true, if the {@link #lastSnapshotId() last started snapshot}
+     * only contains the changes since the previous snapshot.
+     */
+    boolean isDeltaSnapshot() {
+        return isDeltaSnapshot;
+    }
+
     ProcessingGuarantee processingGuarantee() {
         return guarantee;
     }
@@ -126,10 +158,20 @@ public class SnapshotContext {
      * the {@code SnapshotOperation} is called on this member.
      */
     synchronized CompletableFuture<Void> startNewSnapshot(long snapshotId) {
+        return startNewSnapshot(snapshotId, false);
+    }
+
+    /**
+     * Same as {@link #startNewSnapshot(long)}, but the snapshot can be a
+     * delta snapshot.
+     */
+    synchronized CompletableFuture<Void> startNewSnapshot(long snapshotId, boolean isDelta) {
         assert snapshotId == lastSnapshotId.get() + 1
                 : "new snapshotId not incremented by 1. Previous=" + lastSnapshotId + ", new=" + snapshotId;
         assert numTasklets >= 0 : "numTasklets=" + numTasklets;
 
+        snapshotStartNanos = System.nanoTime();
+        isDeltaSnapshot = isDelta;
         int newNumRemainingTasklets = numRemainingTasklets.addAndGet(numTasklets);
         assert newNumRemainingTasklets - numTasklets <= 0 :
                 "previous snapshot was not finished, numRemainingTasklets=" + (newNumRemainingTasklets - numTasklets);
@@ -201,9 +243,24 @@ public class SnapshotContext {
         }
     }
 
+    /**
+     * Called by a {@link StoreSnapshotTasklet} before {@link
+     * #snapshotDoneForTasklet()} with the size of its part of the snapshot.
+     */
+    void addSnapshotSize(long bytes, long entryCount) {
+        currentSnapshotBytes.addAndGet(bytes);
+        currentSnapshotEntryCount.addAndGet(entryCount);
+    }
+
     private void handleSnapshotDone() {
         Throwable t = snapshotError.get();
+        long bytes = currentSnapshotBytes.getAndSet(0);
+        long entryCount = currentSnapshotEntryCount.getAndSet(0);
         if (t == null) {
+            lastSnapshotBytes = bytes;
+            lastSnapshotEntryCount = entryCount;
+            lastSnapshotDurationNanos = System.nanoTime() - snapshotStartNanos;
+            completedSnapshotCount.incrementAndGet();
             future.complete(null);
         } else {
             future.completeExceptionally(t);
@@ -45,6 +45,7 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
 
     private long jobId;
     private long snapshotId;
+    private long previousSnapshotId = SnapshotContext.NO_SNAPSHOT;
     private long startTime = System.currentTimeMillis();
     private SnapshotStatus status = ONGOING;
     private Collection<String> vertices;
@@ -53,8 +54,13 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
     }
 
     public SnapshotRecord(long jobId, long snapshotId, Collection<String> vertices) {
+        this(jobId, snapshotId, SnapshotContext.NO_SNAPSHOT, vertices);
+    }
+
+    public SnapshotRecord(long jobId, long snapshotId, long previousSnapshotId, Collection<String> vertices) {
         this.jobId = jobId;
         this.snapshotId = snapshotId;
+        this.previousSnapshotId = previousSnapshotId;
         this.vertices = vertices;
     }
 
@@ -88,6 +94,18 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return snapshotId;
     }
 
+    /**
+     * Returns the ID of the snapshot this snapshot is a delta of or {@link
+     * SnapshotContext#NO_SNAPSHOT}, if this is a full snapshot.
+     */
+    public long previousSnapshotId() {
+        return previousSnapshotId;
+    }
+
+    public boolean isDelta() {
+        return previousSnapshotId != SnapshotContext.NO_SNAPSHOT;
+    }
+
     public long startTime() {
         return startTime;
     }
@@ -110,6 +128,7 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeLong(jobId);
         out.writeLong(snapshotId);
+        out.writeLong(previousSnapshotId);
         out.writeLong(startTime);
         out.writeUTF(status.toString());
         out.writeObject(vertices);
@@ -119,6 +138,7 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
     public void readData(ObjectDataInput in) throws IOException {
         jobId = in.readLong();
         snapshotId = in.readLong();
+        previousSnapshotId = in.readLong();
         startTime = in.readLong();
         status = SnapshotStatus.valueOf(in.readUTF());
         vertices = in.readObject();
@@ -129,6 +149,7 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return "SnapshotRecord{" +
                 "jobId=" + idToString(jobId) +
                 ", snapshotId=" + snapshotId +
+                ", previousSnapshotId=" + previousSnapshotId +
                 ", startTime=" + toLocalDateTime(startTime) +
                 ", status=" + status +
                 ", vertices=" + vertices +
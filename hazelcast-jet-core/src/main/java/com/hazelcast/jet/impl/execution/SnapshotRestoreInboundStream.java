@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.jet.impl.util.ProgressTracker;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.MasterContext.SNAPSHOT_RESTORE_EDGE_PRIORITY;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+
+/**
+ * {@link InboundEdgeStream} restoring the state of one processor directly
+ * from the IMap holding the snapshot data of its vertex. It reads the
+ * partitions of the map assigned to the processor, which are the same
+ * partitions the keys would be routed to on a partitioned edge, so the
+ * processor receives exactly the keys it will own and no other vertex or
+ * network hop is involved. The broadcast keys, which every processor
+ * needs, come from a {@link BroadcastKeysReader} shared by all processors
+ * of the vertex on this member, so their partition is read once per member.
+ * <p>
+ * The partitions are read with asynchronous fetch operations, a batch of
+ * entries at a time, and each drain moves the fetched batches into the
+ * inbox at once.
+ */
+public class SnapshotRestoreInboundStream implements InboundEdgeStream {
+
+    // same as the fetch size of ReadWithPartitionIteratorP
+    private static final int FETCH_SIZE = 16384;
+    private static final int MAX_PARALLEL_FETCHES = 4;
+
+    // These magic values are copied from com.hazelcast.spi.impl.operationservice.impl.InvokeOnPartitions
+    private static final int TRY_COUNT = 10;
+    private static final int TRY_PAUSE_MILLIS = 300;
+
+    private final int ordinal;
+    private final String mapName;
+    private final OperationService operationService;
+    private final MapOperationProvider opProvider;
+    private final SerializationService serializationService;
+    private final ProgressTracker tracker = new ProgressTracker();
+
+    // partitions not yet fetched from and the fetched responses, the
+    // responses are added on the response threads
+    private final Queue<Fetch> pendingFetches = new ArrayDeque<>();
+    private final Queue<Object> responses = new ConcurrentLinkedQueue<>();
+    private int activeFetches;
+
+    private final BroadcastKeysReader broadcastKeysReader;
+    private boolean broadcastKeysRestored;
+
+    /**
+     * @param partitions the partitions assigned to the processor
+     * @param broadcastKeysReader the reader of the {@link BroadcastKey}s,
+     *                            shared by all processors of the vertex
+     */
+    public SnapshotRestoreInboundStream(NodeEngine nodeEngine, String mapName, int ordinal, int[] partitions,
+                                        BroadcastKeysReader broadcastKeysReader) {
+        this.ordinal = ordinal;
+        this.mapName = mapName;
+        this.operationService = nodeEngine.getOperationService();
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        this.opProvider = mapService.getMapServiceContext().getMapOperationProvider(mapName);
+        this.serializationService = nodeEngine.getSerializationService();
+        this.broadcastKeysReader = broadcastKeysReader;
+        for (int partitionId : partitions) {
+            pendingFetches.add(new Fetch(partitionId));
+        }
+    }
+
+    @Override
+    public int ordinal() {
+        return ordinal;
+    }
+
+    @Override
+    public int priority() {
+        return SNAPSHOT_RESTORE_EDGE_PRIORITY;
+    }
+
+    @Override
+    public ProgressState drainTo(Consumer<Object> dest) {
+        tracker.reset();
+        for (Object response; (response = responses.poll()) != null; ) {
+            tracker.madeProgress();
+            activeFetches--;
+            if (response instanceof Throwable) {
+                throw new JetException("Failed to read snapshot data from " + mapName + ": " + response,
+                        (Throwable) response);
+            }
+            @SuppressWarnings("unchecked")
+            Entry<Fetch, MapEntriesWithCursor> fetched = (Entry<Fetch, MapEntriesWithCursor>) response;
+            Fetch fetch = fetched.getKey();
+            for (Entry<Data, Data> e : fetched.getValue().getBatch()) {
+                Object key = serializationService.toObject(e.getKey());
+                // the broadcast keys come from the shared reader
+                if (!(key instanceof BroadcastKey)) {
+                    dest.accept(entry(key, serializationService.toObject(e.getValue())));
+                }
+            }
+            fetch.tableIndex = fetched.getValue().getNextTableIndexToReadFrom();
+            if (!fetched.getValue().getBatch().isEmpty() && fetch.tableIndex >= 0) {
+                pendingFetches.add(fetch);
+            }
+        }
+        while (activeFetches < MAX_PARALLEL_FETCHES && !pendingFetches.isEmpty()) {
+            tracker.madeProgress();
+            startFetch(pendingFetches.poll());
+        }
+        if (!broadcastKeysRestored) {
+            List<Entry<Data, Data>> broadcastEntries = broadcastKeysReader.poll();
+            if (broadcastEntries != null) {
+                tracker.madeProgress();
+                broadcastKeysRestored = true;
+                // each processor deserializes its own copy of the entries
+                for (Entry<Data, Data> e : broadcastEntries) {
+                    dest.accept(entry(serializationService.toObject(e.getKey()),
+                            serializationService.toObject(e.getValue())));
+                }
+            }
+        }
+        if (!isDone()) {
+            tracker.notDone();
+        }
+        return tracker.toProgressState();
+    }
+
+    @Override
+    public boolean isDone() {
+        return activeFetches == 0 && pendingFetches.isEmpty() && broadcastKeysRestored;
+    }
+
+    private void startFetch(Fetch fetch) {
+        activeFetches++;
+        fetch(operationService, opProvider, mapName, fetch.partitionId, fetch.tableIndex,
+                callbackOf(r -> responses.add(entry(fetch, r)), responses::add));
+    }
+
+    /**
+     * Fetches the next batch of entries from the given partition of the map,
+     * starting at the given table index.
+     */
+    static void fetch(OperationService operationService, MapOperationProvider opProvider, String mapName,
+                      int partitionId, int tableIndex, ExecutionCallback<MapEntriesWithCursor> callback) {
+        operationService
+                .createInvocationBuilder(MapService.SERVICE_NAME,
+                        opProvider.createFetchEntriesOperation(mapName, tableIndex, FETCH_SIZE),
+                        partitionId)
+                .setTryCount(TRY_COUNT)
+                .setTryPauseMillis(TRY_PAUSE_MILLIS)
+                .setExecutionCallback((ExecutionCallback) callback)
+                .invoke();
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotRestoreInboundStream{" +
+                "mapName='" + mapName + '\'' +
+                ", ordinal=" + ordinal +
+                '}';
+    }
+
+    /**
+     * The state of reading one partition.
+     */
+    private static final class Fetch {
+        final int partitionId;
+        int tableIndex = Integer.MAX_VALUE;
+
+        Fetch(int partitionId) {
+            this.partitionId = partitionId;
+        }
+    }
+}
@@ -17,8 +17,9 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.impl.JetService;
 import com.hazelcast.jet.impl.SnapshotRepository;
-import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.jet.impl.snapshot.SnapshotWriter;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.logging.ILogger;
@@ -43,15 +44,18 @@ public class StoreSnapshotTasklet implements Tasklet {
     private final long jobId;
     private final InboundEdgeStream inboundEdgeStream;
     private final SnapshotContext snapshotContext;
-    private final AsyncMapWriter mapWriter;
+    private final SnapshotWriter snapshotWriter;
     private final boolean isHigherPrioritySource;
     private final String vertexName;
     private final ILogger logger;
 
     private final AtomicInteger numActiveFlushes = new AtomicInteger();
     private State state = DRAIN;
+    private WorkerWakeup.Target wakeupTarget;
     private boolean hasReachedBarrier;
     private boolean inputIsDone;
+    private long snapshotBytes;
+    private long snapshotEntryCount;
 
     public StoreSnapshotTasklet(SnapshotContext snapshotContext, long jobId, InboundEdgeStream inboundEdgeStream,
                                 NodeEngine nodeEngine, String vertexName, boolean isHigherPrioritySource) {
@@ -61,9 +65,10 @@ public class StoreSnapshotTasklet implements Tasklet {
         this.vertexName = vertexName;
         this.isHigherPrioritySource = isHigherPrioritySource;
 
-        this.mapWriter = new AsyncMapWriter(nodeEngine);
+        JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
+        this.snapshotWriter = service.getSnapshotStorage().newWriter();
         this.pendingSnapshotId = snapshotContext.lastSnapshotId() + 1;
-        this.mapWriter.setMapName(currMapName());
+        this.snapshotWriter.setSnapshotName(currMapName());
         this.logger = nodeEngine.getLogger(StoreSnapshotTasklet.class + "." + vertexName + "#snapshot");
     }
 
@@ -85,8 +90,16 @@ public class StoreSnapshotTasklet implements Tasklet {
                         assert pendingSnapshotId == barrier.snapshotId() : "Unexpected barrier, expected was " +
                                 pendingSnapshotId + ", but barrier was " + barrier.snapshotId() + ", this=" + this;
                         hasReachedBarrier = true;
+                    } else if (o instanceof SnapshotBatch) {
+                        SnapshotBatch batch = (SnapshotBatch) o;
+                        snapshotBytes += batch.dataSize();
+                        snapshotEntryCount += batch.entryCount();
+                        snapshotWriter.put(batch);
                     } else {
-                        mapWriter.put((Entry<Data, Data>) o);
+                        Entry<Data, Data> entry = (Entry<Data, Data>) o;
+                        snapshotBytes += entry.getKey().totalSize() + entry.getValue().totalSize();
+                        snapshotEntryCount++;
+                        snapshotWriter.put(entry);
                     }
                 });
                 if (result.isDone()) {
@@ -105,13 +118,16 @@ public class StoreSnapshotTasklet implements Tasklet {
                 future.whenComplete(withTryCatch(logger, (r, t) -> {
                     // this callback may be called from a non-tasklet thread
                     if (t != null) {
-                        logger.severe("Error writing to snapshot map '" + currMapName() + "'", t);
+                        logger.severe("Error writing snapshot data '" + currMapName() + "'", t);
                         snapshotContext.reportError(t);
                     }
                     // numActiveFlushes must be decremented last otherwise we may miss the error
                     numActiveFlushes.decrementAndGet();
+                    if (wakeupTarget != null) {
+                        wakeupTarget.signal();
+                    }
                 }));
-                if (mapWriter.tryFlushAsync(future)) {
+                if (snapshotWriter.tryFlushAsync(future)) {
                     progTracker.madeProgress();
                     numActiveFlushes.incrementAndGet();
                     state = inputIsDone ? DONE : hasReachedBarrier ? REACHED_BARRIER : DRAIN;
@@ -121,9 +137,12 @@ public class StoreSnapshotTasklet implements Tasklet {
             case REACHED_BARRIER:
                 progTracker.notDone();
                 if (numActiveFlushes.get() == 0) {
+                    snapshotContext.addSnapshotSize(snapshotBytes, snapshotEntryCount);
+                    snapshotBytes = 0;
+                    snapshotEntryCount = 0;
                     snapshotContext.snapshotDoneForTasklet();
                     pendingSnapshotId++;
-                    mapWriter.setMapName(currMapName());
+                    snapshotWriter.setSnapshotName(currMapName());
                     state = inputIsDone ? DONE : DRAIN;
                     hasReachedBarrier = false;
                 }
@@ -132,6 +151,8 @@ public class StoreSnapshotTasklet implements Tasklet {
             case DONE:
                 if (numActiveFlushes.get() != 0) {
                     progTracker.notDone();
+                } else {
+                    snapshotWriter.close();
                 }
                 snapshotContext.taskletDone(pendingSnapshotId - 1, isHigherPrioritySource);
                 return;
@@ -145,6 +166,18 @@ public class StoreSnapshotTasklet implements Tasklet {
         return SnapshotRepository.snapshotDataMapName(jobId, pendingSnapshotId, vertexName);
     }
 
+    /**
+     * Sets the target the producers of this tasklet's input signal.
+     */
+    public void setWakeupTarget(WorkerWakeup.Target wakeupTarget) {
+        this.wakeupTarget = wakeupTarget;
+    }
+
+    @Override
+    public WorkerWakeup.Target wakeupTarget() {
+        return wakeupTarget;
+    }
+
     @Override
     public String toString() {
         return StoreSnapshotTasklet.class.getSimpleName() + '{' + vertexName + '}';
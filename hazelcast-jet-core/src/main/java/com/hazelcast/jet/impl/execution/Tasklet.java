@@ -19,6 +19,7 @@ package com.hazelcast.jet.impl.execution;
 import com.hazelcast.jet.impl.util.ProgressState;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.Callable;
 
 public interface Tasklet extends Callable<ProgressState> {
@@ -32,4 +33,31 @@ public interface Tasklet extends Callable<ProgressState> {
     default boolean isCooperative() {
         return true;
     }
+
+    /**
+     * Called by the executing thread after a sample of the {@link #call()}
+     * invocations with the time the call took, multiplied by the sampling
+     * interval. The sum of the reported times estimates the total time spent
+     * in {@code call()}; tasklets that expose metrics use it.
+     */
+    default void callCompleted(long elapsedNanos) {
+    }
+
+    /**
+     * Releases the resources held by the tasklet. Called once the execution
+     * has completed, whatever the outcome: the tasklet may have finished,
+     * failed, been cancelled or never been started.
+     */
+    default void close() {
+    }
+
+    /**
+     * Returns the target the producers feeding this tasklet signal after
+     * adding data to its input queues, or {@code null} if the tasklet
+     * isn't fed through queues.
+     */
+    @Nullable
+    default WorkerWakeup.Target wakeupTarget() {
+        return null;
+    }
 }
@@ -18,9 +18,14 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.config.IdleStrategyType;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.impl.util.NonCompletableFuture;
 import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.jet.impl.util.SerializedHash;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.concurrent.BackoffIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
@@ -43,6 +48,7 @@ import java.util.concurrent.locks.LockSupport;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 import static java.lang.Thread.currentThread;
+import static java.util.Comparator.comparingLong;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -53,23 +59,47 @@ import static java.util.stream.Collectors.toList;
 
 public class TaskletExecutionService {
 
-    private static final IdleStrategy IDLER =
-            new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), MILLISECONDS.toNanos(1));
+    /**
+     * Only one in this many tasklet calls is timed, reading the clock around
+     * each call would cost more than short calls themselves. A power of two.
+     */
+    static final int CALL_SAMPLING_INTERVAL = 16;
 
     private final ExecutorService blockingTaskletExecutor = newCachedThreadPool(new BlockingTaskThreadFactory());
     private final CooperativeWorker[] cooperativeWorkers;
     private final Thread[] cooperativeThreadPool;
     private final String hzInstanceName;
+    private final SerializationService serializationService;
     private final ILogger logger;
     private final AtomicInteger cooperativeThreadIndex = new AtomicInteger();
+    private final IdleStrategyType idleStrategyType;
+    private final long maxIdleParkNanos;
+    private final long loadBalancingPeriodNanos;
+    private final double loadImbalanceThreshold;
+    private final WorkerWakeup workerWakeup = new WorkerWakeup();
 
     private volatile boolean isShutdown;
 
-    public TaskletExecutionService(HazelcastInstance hz, int threadCount) {
+    public TaskletExecutionService(HazelcastInstance hz, InstanceConfig config) {
+        int threadCount = config.getCooperativeThreadCount();
         this.hzInstanceName = hz.getName();
+        this.serializationService = hz instanceof SerializationServiceSupport
+                ? ((SerializationServiceSupport) hz).getSerializationService() : null;
         this.cooperativeWorkers = new CooperativeWorker[threadCount];
         this.cooperativeThreadPool = new Thread[threadCount];
         this.logger = hz.getLoggingService().getLogger(TaskletExecutionService.class);
+        this.idleStrategyType = config.getIdleStrategy();
+        this.maxIdleParkNanos = MICROSECONDS.toNanos(config.getMaxIdleParkMicros());
+        this.loadBalancingPeriodNanos = MILLISECONDS.toNanos(config.getLoadBalancingPeriodMs());
+        this.loadImbalanceThreshold = config.getLoadImbalanceThreshold();
+    }
+
+    /**
+     * Returns the object producers use to wake up worker threads parked
+     * while waiting for data.
+     */
+    public WorkerWakeup workerWakeup() {
+        return workerWakeup;
     }
 
     /**
@@ -133,27 +163,76 @@ public class TaskletExecutionService {
         ensureThreadsStarted();
         final List<TaskletTracker>[] trackersByThread = new List[cooperativeWorkers.length];
         Arrays.setAll(trackersByThread, i -> new ArrayList());
+        final int[] threadOrder = threadOrderForPlacement(tasklets.size());
+        int orderIndex = 0;
         for (Tasklet t : tasklets) {
             t.init();
-            trackersByThread[cooperativeThreadIndex.getAndUpdate(i -> (i + 1) % trackersByThread.length)]
+            trackersByThread[threadOrder[orderIndex++ % threadOrder.length]]
                     .add(new TaskletTracker(t, executionTracker, jobClassLoader));
         }
         for (int i = 0; i < trackersByThread.length; i++) {
+            for (TaskletTracker t : trackersByThread[i]) {
+                t.setOwner(cooperativeWorkers[i]);
+            }
             cooperativeWorkers[i].trackers.addAll(trackersByThread[i]);
         }
         Arrays.stream(cooperativeThreadPool).forEach(LockSupport::unpark);
     }
 
+    /**
+     * Returns the order in which new tasklets are assigned to the
+     * cooperative threads. The order starts at a rotating index so that
+     * consecutive jobs start on different threads. With load balancing
+     * enabled, the threads are further sorted by their measured load so
+     * that the least loaded threads receive tasklets first.
+     */
+    private int[] threadOrderForPlacement(int taskletCount) {
+        final int threadCount = cooperativeWorkers.length;
+        final int startIndex = cooperativeThreadIndex.getAndUpdate(i -> (i + taskletCount) % threadCount);
+        final Integer[] order = new Integer[threadCount];
+        Arrays.setAll(order, i -> (startIndex + i) % threadCount);
+        if (loadBalancingPeriodNanos > 0) {
+            // stable sort, keeps the rotation among equally loaded threads
+            Arrays.sort(order, comparingLong(i -> cooperativeWorkers[i].load));
+        }
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
     private synchronized void ensureThreadsStarted() {
         if (cooperativeWorkers[0] != null) {
             return;
         }
-        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(cooperativeWorkers));
+        Arrays.setAll(cooperativeWorkers, i -> new CooperativeWorker(cooperativeWorkers,
+                newCooperativeIdleStrategy()));
         Arrays.setAll(cooperativeThreadPool, i -> new Thread(cooperativeWorkers[i],
                 String.format("hz.%s.jet.cooperative.thread-%d", hzInstanceName, i)));
         Arrays.stream(cooperativeThreadPool).forEach(Thread::start);
     }
 
+    private IdleStrategy newCooperativeIdleStrategy() {
+        switch (idleStrategyType) {
+            case BACKOFF:
+                return newBackoffIdleStrategy();
+            case BUSY_SPIN:
+                return n -> false;
+            case YIELD:
+                return n -> {
+                    Thread.yield();
+                    return false;
+                };
+            case ADAPTIVE:
+                return new AdaptiveIdleStrategy(maxIdleParkNanos);
+            case PARK_UNTIL_SIGNALLED:
+                return workerWakeup.newIdleStrategy(maxIdleParkNanos);
+            default:
+                throw new IllegalArgumentException("Unknown idle strategy: " + idleStrategyType);
+        }
+    }
+
+    private IdleStrategy newBackoffIdleStrategy() {
+        return new BackoffIdleStrategy(0, 0, MICROSECONDS.toNanos(1), maxIdleParkNanos);
+    }
+
     private String trackersToString() {
         return Arrays.stream(cooperativeWorkers)
                      .flatMap(w -> w.trackers.stream())
@@ -166,6 +245,7 @@ public class TaskletExecutionService {
     private final class BlockingWorker implements Runnable {
         private final TaskletTracker tracker;
         private final CountDownLatch startedLatch;
+        private final IdleStrategy idler = newBackoffIdleStrategy();
 
         private BlockingWorker(TaskletTracker tracker, CountDownLatch startedLatch) {
             this.tracker = tracker;
@@ -176,18 +256,25 @@ public class TaskletExecutionService {
         public void run() {
             final ClassLoader clBackup = currentThread().getContextClassLoader();
             final Tasklet t = tracker.tasklet;
+            SerializedHash.setThreadSerializationService(serializationService);
             currentThread().setContextClassLoader(tracker.jobClassLoader);
             try {
                 startedLatch.countDown();
                 t.init();
                 long idleCount = 0;
+                long callCount = 0;
                 ProgressState result;
                 do {
+                    final boolean measure = (++callCount & (CALL_SAMPLING_INTERVAL - 1)) == 0;
+                    final long start = measure ? System.nanoTime() : 0;
                     result = t.call();
+                    if (measure) {
+                        t.callCompleted((System.nanoTime() - start) * CALL_SAMPLING_INTERVAL);
+                    }
                     if (result.isMadeProgress()) {
                         idleCount = 0;
                     } else {
-                        IDLER.idle(++idleCount);
+                        idler.idle(++idleCount);
                     }
                 } while (!result.isDone()
                         && !tracker.executionTracker.executionCompletedExceptionally()
@@ -207,9 +294,15 @@ public class TaskletExecutionService {
 
         private final List<TaskletTracker> trackers;
         private final CooperativeWorker[] colleagues;
+        private final IdleStrategy idler;
 
-        CooperativeWorker(CooperativeWorker[] colleagues) {
+        // Sum of the loads of this worker's trackers, updated at the end of each
+        // load-balancing period. Written by this worker, read by its colleagues.
+        private volatile long load;
+
+        CooperativeWorker(CooperativeWorker[] colleagues, IdleStrategy idler) {
             this.colleagues = colleagues;
+            this.idler = idler;
             this.trackers = new CopyOnWriteArrayList<>();
         }
 
@@ -217,18 +310,27 @@ public class TaskletExecutionService {
         public void run() {
             final Thread thread = currentThread();
             final ClassLoader clBackup = thread.getContextClassLoader();
+            SerializedHash.setThreadSerializationService(serializationService);
             long idleCount = 0;
+            long roundCount = 0;
+            long periodStart = System.nanoTime();
             while (!isShutdown) {
+                // time every call when logging slow calls, otherwise a sample of rounds
+                // and weigh the sampled times to estimate the total
+                final boolean measureAll = logger.isFinestEnabled();
+                final boolean measure = measureAll || (++roundCount & (CALL_SAMPLING_INTERVAL - 1)) == 0;
+                final long sampleWeight = measureAll ? 1 : CALL_SAMPLING_INTERVAL;
                 boolean madeProgress = false;
                 for (TaskletTracker t : trackers) {
                     long start = 0;
-                    if (logger.isFinestEnabled()) {
+                    if (measure) {
                         start = System.nanoTime();
                     }
                     final CooperativeWorker stealingWorker = t.stealingWorker.get();
                     if (stealingWorker != null) {
                         t.stealingWorker.set(null);
                         trackers.remove(t);
+                        t.setOwner(stealingWorker);
                         stealingWorker.trackers.add(t);
                         continue;
                     }
@@ -248,19 +350,26 @@ public class TaskletExecutionService {
                         dismissTasklet(t);
                     }
 
-                    if (logger.isFinestEnabled()) {
-                        long elapsedMs = NANOSECONDS.toMillis((System.nanoTime() - start));
-                        if (elapsedMs > COOPERATIVE_LOGGING_THRESHOLD) {
-                            logger.finest("Cooperative tasklet call of '" + t.tasklet + "' took more than "
-                                    + COOPERATIVE_LOGGING_THRESHOLD + " ms: " + elapsedMs + "ms");
-                        }
+                    if (measure) {
+                        final long elapsedNanos = System.nanoTime() - start;
+                        t.tasklet.callCompleted(elapsedNanos * sampleWeight);
+                        t.nanosInPeriod += elapsedNanos * sampleWeight;
+                        logSlowCall(t, elapsedNanos);
+                    }
+                }
+                if (loadBalancingPeriodNanos > 0) {
+                    long now = System.nanoTime();
+                    if (now - periodStart >= loadBalancingPeriodNanos) {
+                        periodStart = now;
+                        updateLoad();
+                        stealWorkByLoad();
                     }
                 }
                 if (madeProgress) {
                     idleCount = 0;
                 } else {
                     thread.setContextClassLoader(clBackup);
-                    IDLER.idle(++idleCount);
+                    idler.idle(++idleCount);
                 }
             }
             // Best-effort attempt to release all tasklets. A tasklet can still be added
@@ -269,10 +378,22 @@ public class TaskletExecutionService {
             trackers.clear();
         }
 
+        private void logSlowCall(TaskletTracker t, long elapsedNanos) {
+            if (logger.isFinestEnabled()) {
+                long elapsedMs = NANOSECONDS.toMillis(elapsedNanos);
+                if (elapsedMs > COOPERATIVE_LOGGING_THRESHOLD) {
+                    logger.finest("Cooperative tasklet call of '" + t.tasklet + "' took more than "
+                            + COOPERATIVE_LOGGING_THRESHOLD + " ms: " + elapsedMs + "ms");
+                }
+            }
+        }
+
         private void dismissTasklet(TaskletTracker t) {
             t.executionTracker.taskletDone();
             trackers.remove(t);
-            stealWork();
+            if (loadBalancingPeriodNanos == 0) {
+                stealWork();
+            }
         }
 
         private void stealWork() {
@@ -296,6 +417,60 @@ public class TaskletExecutionService {
                 }
             }
         }
+
+        /**
+         * Closes the current load-balancing period: updates the load of each
+         * tracker from the time it spent in {@code call()} and publishes their
+         * sum as the load of this worker.
+         */
+        private void updateLoad() {
+            long total = 0;
+            for (TaskletTracker t : trackers) {
+                total += t.closePeriod();
+            }
+            load = total;
+        }
+
+        /**
+         * Finds the most loaded colleague and, if its load exceeds the load of
+         * this worker by more than the configured threshold, marks one of its
+         * tasklets for moving to this worker. It picks the tasklet whose load
+         * is closest to half the difference, which best evens out the two
+         * workers. At most one tasklet is stolen per period so that the loads
+         * can be re-measured before the next decision.
+         */
+        private void stealWorkByLoad() {
+            CooperativeWorker busiest = null;
+            for (CooperativeWorker w : colleagues) {
+                if (w != this && (busiest == null || w.load > busiest.load)) {
+                    busiest = w;
+                }
+            }
+            if (busiest == null) {
+                return;
+            }
+            final long busiestLoad = busiest.load;
+            final long loadDiff = busiestLoad - load;
+            if (loadDiff <= busiestLoad * loadImbalanceThreshold) {
+                return;
+            }
+            // Moving a tasklet with load L changes the difference to |loadDiff - 2L|,
+            // so only tasklets with 0 < L < loadDiff improve the balance.
+            TaskletTracker best = null;
+            long bestDistance = Long.MAX_VALUE;
+            for (TaskletTracker t : busiest.trackers) {
+                final long taskletLoad = t.load;
+                final long distance = Math.abs(loadDiff - 2 * taskletLoad);
+                if (taskletLoad > 0 && taskletLoad < loadDiff && distance < bestDistance
+                        && t.stealingWorker.get() == null) {
+                    best = t;
+                    bestDistance = distance;
+                }
+            }
+            if (best != null) {
+                best.stealingWorker.compareAndSet(null, this);
+            }
+        }
     }
 
     private static final class TaskletTracker {
@@ -304,15 +479,48 @@ public class TaskletExecutionService {
         final ClassLoader jobClassLoader;
         final AtomicReference<CooperativeWorker> stealingWorker = new AtomicReference<>();
 
+        // Written only by the worker currently owning the tracker. The load moves
+        // together with the tracker when it's stolen by another worker.
+        long nanosInPeriod;
+
+        // Moving average of the nanoseconds spent in call() per load-balancing period,
+        // read by other workers when they look for work to steal.
+        volatile long load;
+
         TaskletTracker(Tasklet tasklet, ExecutionTracker executionTracker, ClassLoader jobClassLoader) {
             this.tasklet = tasklet;
             this.executionTracker = executionTracker;
             this.jobClassLoader = jobClassLoader;
         }
 
+        /**
+         * Points the tasklet's wake-up target to the given worker. If the
+         * tasklet is moved from another worker, the new owner is woken up in
+         * case a signal went to the previous one.
+         */
+        void setOwner(CooperativeWorker worker) {
+            final WorkerWakeup.Target target = tasklet.wakeupTarget();
+            if (target != null) {
+                target.setOwner(worker.idler);
+                target.signal();
+            }
+        }
+
+        /**
+         * Updates the {@link #load} with the time spent in {@code call()} in
+         * the period that just ended and starts a new period. Returns the
+         * updated load.
+         */
+        long closePeriod() {
+            long newLoad = (load + nanosInPeriod) / 2;
+            load = newLoad;
+            nanosInPeriod = 0;
+            return newLoad;
+        }
+
         @Override
         public String toString() {
-            return "Tracking " + tasklet;
+            return "Tracking " + tasklet + ", load=" + NANOSECONDS.toMicros(load) + "us";
         }
     }
 
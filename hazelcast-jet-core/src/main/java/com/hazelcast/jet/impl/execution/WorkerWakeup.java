@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.util.concurrent.IdleStrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.Thread.currentThread;
+
+/**
+ * Lets producers of data wake up worker threads parked by the {@link
+ * com.hazelcast.jet.config.IdleStrategyType#PARK_UNTIL_SIGNALLED
+ * PARK_UNTIL_SIGNALLED} idle strategy. There is one instance per {@link
+ * TaskletExecutionService}.
+ * <p>
+ * Each tasklet has a {@link Target} which producers signal after adding
+ * data to its queues and consumers signal after making room in a queue the
+ * tasklet found full. The target points to the idle strategy of the worker
+ * currently executing the tasklet, so a signal wakes only that worker. A
+ * worker <em>arms</em> itself and checks its tasklets once more before
+ * every park, which catches most signals sent while it was going to park.
+ * The queues publish their items with lazy writes, so a signal can still
+ * race with the arming and be missed, the worker then wakes up after the
+ * maximum park time. When the worker isn't armed, a signal costs a single
+ * volatile read.
+ */
+public final class WorkerWakeup {
+
+    /**
+     * Returns a new target for a single consumer tasklet.
+     */
+    public Target newTarget() {
+        return new Target();
+    }
+
+    /**
+     * Returns a new idle strategy to be used by a single worker thread. The
+     * thread parks for at most {@code maxParkNanos} between signals.
+     */
+    IdleStrategy newIdleStrategy(long maxParkNanos) {
+        return new ParkingIdleStrategy(maxParkNanos);
+    }
+
+    /**
+     * The wake-up handle of a single consumer tasklet.
+     */
+    public static final class Target {
+        private volatile ParkingIdleStrategy owner;
+
+        Target() {
+        }
+
+        /**
+         * Wakes up the worker executing the tasklet, if it's parked or about
+         * to park. Called by producers after they have added data to a queue
+         * drained by the tasklet, by consumers after they made room in a
+         * queue the tasklet found full, and on events the tasklet waits for
+         * without input, such as a flow-control update or a snapshot start.
+         */
+        public void signal() {
+            ParkingIdleStrategy o = owner;
+            if (o != null) {
+                o.wakeUp();
+            }
+        }
+
+        /**
+         * Called when the tasklet is assigned to a worker using the given
+         * idle strategy. Workers that don't park until signalled need no
+         * wake-ups.
+         */
+        void setOwner(IdleStrategy idler) {
+            owner = idler instanceof ParkingIdleStrategy ? (ParkingIdleStrategy) idler : null;
+        }
+    }
+
+    private static final class ParkingIdleStrategy implements IdleStrategy {
+        private final long maxParkNanos;
+        private final AtomicBoolean armed = new AtomicBoolean();
+        private volatile Thread thread;
+
+        ParkingIdleStrategy(long maxParkNanos) {
+            this.maxParkNanos = maxParkNanos;
+        }
+
+        @Override
+        public boolean idle(long n) {
+            if (!armed.get()) {
+                // arm and let the worker check its tasklets once more before parking
+                if (thread == null) {
+                    thread = currentThread();
+                }
+                armed.set(true);
+                return false;
+            }
+            // stays armed after a timeout: the worker has checked its tasklets since arming
+            LockSupport.parkNanos(maxParkNanos);
+            return true;
+        }
+
+        void wakeUp() {
+            if (armed.get() && armed.compareAndSet(true, false)) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -89,13 +89,22 @@ public final class Contexts {
         private final int index;
         private final SerializationService serService;
         private final ProcessingGuarantee processingGuarantee;
+        private final boolean deltaSnapshotsEnabled;
 
         public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
                        int index, ProcessingGuarantee processingGuarantee, int localParallelism, int totalParallelism) {
+            this(instance, serService, logger, vertexName, index, processingGuarantee, false, localParallelism,
+                    totalParallelism);
+        }
+
+        public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
+                       int index, ProcessingGuarantee processingGuarantee, boolean deltaSnapshotsEnabled,
+                       int localParallelism, int totalParallelism) {
             super(instance, logger, vertexName, localParallelism, totalParallelism);
             this.serService = serService;
             this.index = index;
             this.processingGuarantee = processingGuarantee;
+            this.deltaSnapshotsEnabled = deltaSnapshotsEnabled;
         }
 
         @Override
@@ -108,6 +117,11 @@ public final class Contexts {
             return processingGuarantee;
         }
 
+        @Override
+        public boolean deltaSnapshotsEnabled() {
+            return deltaSnapshotsEnabled;
+        }
+
         public SerializationService getSerializationService() {
             return serService;
         }
@@ -16,21 +16,27 @@
 
 package com.hazelcast.jet.impl.execution.init;
 
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
-import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.EdgeConfig;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Edge.RoutingPolicy;
+import com.hazelcast.jet.core.Partitioner;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.Networking;
+import com.hazelcast.jet.impl.execution.BroadcastKeyReference;
+import com.hazelcast.jet.impl.execution.BroadcastKeysReader;
 import com.hazelcast.jet.impl.execution.ConcurrentInboundEdgeStream;
 import com.hazelcast.jet.impl.execution.ConveyorCollector;
 import com.hazelcast.jet.impl.execution.ConveyorCollectorWithPartition;
+import com.hazelcast.jet.impl.execution.ConveyorQueue;
 import com.hazelcast.jet.impl.execution.InboundEdgeStream;
 import com.hazelcast.jet.impl.execution.OutboundCollector;
 import com.hazelcast.jet.impl.execution.OutboundEdgeStream;
@@ -38,8 +44,10 @@ import com.hazelcast.jet.impl.execution.ProcessorTasklet;
 import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.jet.impl.execution.SnapshotContext;
+import com.hazelcast.jet.impl.execution.SnapshotRestoreInboundStream;
 import com.hazelcast.jet.impl.execution.StoreSnapshotTasklet;
 import com.hazelcast.jet.impl.execution.Tasklet;
+import com.hazelcast.jet.impl.execution.WorkerWakeup;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcSupplierCtx;
 import com.hazelcast.logging.ILogger;
@@ -56,11 +64,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -95,11 +105,19 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
     private final Map<String, ConcurrentConveyor<Object>[]> localConveyorMap = new HashMap<>();
     private final Map<String, Map<Address, ConcurrentConveyor<Object>>> edgeSenderConveyorMap = new HashMap<>();
+    // wake-up targets of the processor tasklets, indexed by vertex ID and local processor index
+    private final Map<Integer, WorkerWakeup.Target[]> processorWakeupTargets = new HashMap<>();
+    private final Map<ConcurrentConveyor<Object>, WorkerWakeup.Target> senderWakeupTargets =
+            new IdentityHashMap<>();
+    // readers of the broadcast keys on snapshot restore, shared by the processors of a vertex
+    private final Map<Integer, BroadcastKeysReader> broadcastKeysReaders = new HashMap<>();
     private final List<Processor> processors = new ArrayList<>();
 
     private PartitionArrangement ptionArrgmt;
 
     private NodeEngine nodeEngine;
+    private WorkerWakeup workerWakeup;
+    private Networking networking;
     private long executionId;
     private long lastSnapshotId;
 
@@ -122,6 +140,9 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     public void initialize(NodeEngine nodeEngine, long jobId, long executionId, SnapshotContext snapshotContext) {
         this.nodeEngine = nodeEngine;
         this.executionId = executionId;
+        JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
+        this.workerWakeup = service.getTaskletExecutionService().workerWakeup();
+        this.networking = service.getNetworking();
         initProcSuppliers();
         initDag();
 
@@ -132,14 +153,18 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
             // create StoreSnapshotTasklet and the queues to it
             QueuedPipe<Object>[] snapshotQueues = new QueuedPipe[vertex.localParallelism()];
-            Arrays.setAll(snapshotQueues, i -> new OneToOneConcurrentArrayQueue<>(SNAPSHOT_QUEUE_SIZE));
+            Arrays.setAll(snapshotQueues, i -> new ConveyorQueue(SNAPSHOT_QUEUE_SIZE));
             ConcurrentConveyor<Object> ssConveyor = ConcurrentConveyor.concurrentConveyor(null, snapshotQueues);
             StoreSnapshotTasklet ssTasklet = new StoreSnapshotTasklet(snapshotContext, jobId,
                     new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, -1,
                             "ssFrom:" + vertex.name()),
                     nodeEngine, vertex.name(), vertex.isHigherPriorityUpstream());
+            WorkerWakeup.Target ssWakeupTarget = workerWakeup.newTarget();
+            ssTasklet.setWakeupTarget(ssWakeupTarget);
+            registerMetrics(ssTasklet, "snapshot." + vertex.name());
             tasklets.add(ssTasklet);
 
+            boolean nonBlockingBarriers = hasNonBlockingBarriers(vertex);
             int localProcessorIdx = 0;
             for (Processor p : processors) {
                 int globalProcessorIndex = vertex.getProcIdxOffset() + localProcessorIdx;
@@ -151,22 +176,30 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                         vertex.name(),
                         globalProcessorIndex,
                         jobConfig.getProcessingGuarantee(),
+                        jobConfig.getProcessingGuarantee() != ProcessingGuarantee.NONE
+                                && jobConfig.getFullSnapshotInterval() > 1
+                                && service.getSnapshotStorage().supportsDeltaSnapshots(),
                         vertex.localParallelism(), vertex.totalParallelism()
                 );
 
-                 String probePrefix = String.format("jet.job.%s.%s#%d", idToString(executionId), vertex.name(),
-                         localProcessorIdx);
-                 ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(p, probePrefix);
+                String probeName = vertex.name() + '#' + localProcessorIdx;
+                registerMetrics(p, probeName);
 
                 // createOutboundEdgeStreams() populates localConveyorMap and edgeSenderConveyorMap.
                 // Also populates instance fields: senderMap, receiverMap, tasklets.
                 List<OutboundEdgeStream> outboundStreams = createOutboundEdgeStreams(vertex, localProcessorIdx);
-                List<InboundEdgeStream> inboundStreams = createInboundEdgeStreams(vertex, localProcessorIdx);
+                List<InboundEdgeStream> inboundStreams =
+                        createInboundEdgeStreams(vertex, localProcessorIdx, nonBlockingBarriers);
 
-                OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null);
+                OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null,
+                        ssWakeupTarget);
+                setProducerWakeup(ssConveyor, localProcessorIdx, processorWakeupTarget(vertex, localProcessorIdx));
 
                 ProcessorTasklet processorTasklet = new ProcessorTasklet(context, p, inboundStreams, outboundStreams,
-                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis());
+                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis(),
+                        nonBlockingBarriers);
+                processorTasklet.setWakeupTarget(processorWakeupTarget(vertex, localProcessorIdx));
+                registerMetrics(processorTasklet, probeName);
                 tasklets.add(processorTasklet);
                 this.processors.add(p);
                 localProcessorIdx++;
@@ -180,6 +213,22 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         tasklets.addAll(allReceivers);
     }
 
+    /**
+     * Registers the probes of the given object in the metrics registry under
+     * the name {@code jet.job.<executionId>.<name>}.
+     */
+    private void registerMetrics(Object source, String name) {
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry()
+                                     .scanAndRegister(source, metricsPrefix(executionId) + name);
+    }
+
+    /**
+     * Returns the prefix of the names of all metrics of the given execution.
+     */
+    public static String metricsPrefix(long executionId) {
+        return "jet.job." + idToString(executionId) + '.';
+    }
+
     public static String createLoggerName(String processorClassName, String vertexName, int processorIndex) {
         return processorClassName + '.' + vertexName + '#' + processorIndex;
     }
@@ -312,16 +361,21 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             final Map<Address, ConcurrentConveyor<Object>> addrToConveyor = new HashMap<>();
             for (Address destAddr : remoteMembers.get()) {
                 final ConcurrentConveyor<Object> conveyor = createConveyorArray(
-                        1, edge.sourceVertex().localParallelism(), edge.getConfig().getQueueSize())[0];
+                        1, edge.sourceVertex().localParallelism(), edge.getConfig(), true)[0];
                 final ConcurrentInboundEdgeStream inboundEdgeStream = newEdgeStream(edge, conveyor,
                         "sender-toVertex:" + edge.destVertex().name() + "-toMember:"
                                 + destAddr.toString().replace('.', '-'));
                 final int destVertexId = edge.destVertex().vertexId();
                 final SenderTasklet t = new SenderTasklet(inboundEdgeStream, nodeEngine,
-                        destAddr, executionId, destVertexId, edge.getConfig().getPacketSizeLimit());
+                        destAddr, executionId, destVertexId, edge.getConfig().getPacketSizeLimit(),
+                        edge.getConfig().getCompression());
+                t.setWakeupTarget(workerWakeup.newTarget());
+                senderWakeupTargets.put(conveyor, t.wakeupTarget());
                 senderMap.computeIfAbsent(destVertexId, xx -> new HashMap<>())
                          .computeIfAbsent(edge.destOrdinal(), xx -> new HashMap<>())
                          .put(destAddr, t);
+                registerMetrics(t, "sender." + edge.destVertex().name() + '#' + edge.destOrdinal() + '.'
+                        + addressForMetrics(destAddr));
                 tasklets.add(t);
                 addrToConveyor.put(destAddr, conveyor);
             }
@@ -330,11 +384,14 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     }
 
     @SuppressWarnings("unchecked")
-    private static ConcurrentConveyor<Object>[] createConveyorArray(int count, int queueCount, int queueSize) {
+    private static ConcurrentConveyor<Object>[] createConveyorArray(
+            int count, int queueCount, EdgeConfig config, boolean withPartitionIds
+    ) {
         ConcurrentConveyor<Object>[] concurrentConveyors = new ConcurrentConveyor[count];
         Arrays.setAll(concurrentConveyors, i -> {
             QueuedPipe<Object>[] queues = new QueuedPipe[queueCount];
-            Arrays.setAll(queues, j -> new OneToOneConcurrentArrayQueue<>(queueSize));
+            Arrays.setAll(queues, j ->
+                    new ConveyorQueue(config.getQueueSize(), withPartitionIds, config.isAdaptiveQueueSize()));
             return concurrentConveyor(null, queues);
         });
         return concurrentConveyors;
@@ -355,7 +412,6 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         final int upstreamParallelism = edge.sourceVertex().localParallelism();
         final int downstreamParallelism = edge.destVertex().localParallelism();
         final int numRemoteMembers = ptionArrgmt.remotePartitionAssignment.get().size();
-        final int queueSize = edge.getConfig().getQueueSize();
 
         final int[][] ptionsPerProcessor =
                 ptionArrgmt.assignPartitionsToProcessors(downstreamParallelism, edge.isDistributed());
@@ -373,10 +429,15 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
 
             // there is only one producer per consumer for a one to many edge, so queueCount is always 1
             ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.computeIfAbsent(edge.edgeId(),
-                    e -> createConveyorArray(downstreamParallelism, 1, queueSize));
+                    e -> createConveyorArray(downstreamParallelism, 1, edge.getConfig(), false));
             return IntStream.range(0, downstreamParallelism)
                             .filter(i -> i % upstreamParallelism == processorIndex)
-                            .mapToObj(i -> new ConveyorCollector(localConveyors[i], 0, ptionsPerProcessor[i]))
+                            .mapToObj(i -> {
+                                setProducerWakeup(localConveyors[i], 0,
+                                        processorWakeupTarget(edge.sourceVertex(), processorIndex));
+                                return new ConveyorCollector(localConveyors[i], 0, ptionsPerProcessor[i],
+                                        processorWakeupTarget(edge.destVertex(), i));
+                            })
                             .toArray(OutboundCollector[]::new);
         }
 
@@ -391,11 +452,15 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         final ConcurrentConveyor<Object>[] localConveyors = localConveyorMap.computeIfAbsent(edge.edgeId(),
                 e -> {
                     int queueCount = upstreamParallelism + (edge.isDistributed() ? numRemoteMembers : 0);
-                    return createConveyorArray(downstreamParallelism, queueCount, queueSize);
+                    return createConveyorArray(downstreamParallelism, queueCount, edge.getConfig(), false);
                 });
         final OutboundCollector[] localCollectors = new OutboundCollector[downstreamParallelism];
-        Arrays.setAll(localCollectors, n ->
-                new ConveyorCollector(localConveyors[n], processorIndex, ptionsPerProcessor[n]));
+        final WorkerWakeup.Target producerWakeup = processorWakeupTarget(edge.sourceVertex(), processorIndex);
+        Arrays.setAll(localCollectors, n -> {
+            setProducerWakeup(localConveyors[n], processorIndex, producerWakeup);
+            return new ConveyorCollector(localConveyors[n], processorIndex, ptionsPerProcessor[n],
+                    processorWakeupTarget(edge.destVertex(), n));
+        });
 
         // in a local edge, we only have the local collectors.
         if (!edge.isDistributed()) {
@@ -414,8 +479,10 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
         allCollectors[0] = compositeCollector(localCollectors, edge, totalPtionCount);
         int index = 1;
         for (Map.Entry<Address, int[]> entry : memberToPartitions.entrySet()) {
-            allCollectors[index++] = new ConveyorCollectorWithPartition(senderConveyorMap.get(entry.getKey()),
-                    processorIndex, entry.getValue());
+            final ConcurrentConveyor<Object> senderConveyor = senderConveyorMap.get(entry.getKey());
+            setProducerWakeup(senderConveyor, processorIndex, producerWakeup);
+            allCollectors[index++] = new ConveyorCollectorWithPartition(senderConveyor,
+                    processorIndex, entry.getValue(), senderWakeupTargets.get(senderConveyor));
         }
         return allCollectors;
     }
@@ -430,33 +497,84 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                        int offset = 0;
                        for (Address addr : ptionArrgmt.remotePartitionAssignment.get().keySet()) {
                            final OutboundCollector[] collectors = new OutboundCollector[ptionsPerProcessor.length];
+                           final WorkerWakeup.Target receiverWakeup = workerWakeup.newTarget();
                            // assign the queues starting from end
                            final int queueOffset = --offset;
-                           Arrays.setAll(collectors, n -> new ConveyorCollector(
-                                   localConveyors[n], localConveyors[n].queueCount() + queueOffset,
-                                   ptionsPerProcessor[n]));
+                           Arrays.setAll(collectors, n -> {
+                               int queueIndex = localConveyors[n].queueCount() + queueOffset;
+                               setProducerWakeup(localConveyors[n], queueIndex, receiverWakeup);
+                               return new ConveyorCollector(localConveyors[n], queueIndex,
+                                       ptionsPerProcessor[n], processorWakeupTarget(edge.destVertex(), n));
+                           });
                            final OutboundCollector collector = compositeCollector(collectors, edge, totalPtionCount);
                            ReceiverTasklet receiverTasklet = new ReceiverTasklet(
                                    collector, edge.getConfig().getReceiveWindowMultiplier(),
-                                   getConfig().getInstanceConfig().getFlowControlPeriodMs());
+                                   getConfig().getInstanceConfig().getFlowControlPeriodMs(),
+                                   receiverWakeup,
+                                   (InternalSerializationService) nodeEngine.getSerializationService(),
+                                   edge.getConfig().getCompression(),
+                                   () -> networking.requestFlowControlPacket(executionId,
+                                           edge.destVertex().vertexId(), edge.destOrdinal(), addr));
+                           registerMetrics(receiverTasklet, "receiver." + edge.destVertex().name() + '#'
+                                   + edge.destOrdinal() + '.' + addressForMetrics(addr));
                            addrToTasklet.put(addr, receiverTasklet);
                        }
                        return addrToTasklet;
                    });
     }
 
+    /**
+     * Returns the wake-up target of the processor tasklet with the given
+     * local index, shared by all the conveyors feeding it.
+     */
+    private WorkerWakeup.Target processorWakeupTarget(VertexDef vertex, int localProcessorIdx) {
+        return processorWakeupTargets.computeIfAbsent(vertex.vertexId(), x -> {
+            WorkerWakeup.Target[] targets = new WorkerWakeup.Target[vertex.localParallelism()];
+            Arrays.setAll(targets, i -> workerWakeup.newTarget());
+            return targets;
+        })[localProcessorIdx];
+    }
+
+    /**
+     * Sets the target the consumer of the given queue signals when it makes
+     * room after the producer found the queue full.
+     */
+    private static void setProducerWakeup(ConcurrentConveyor<Object> conveyor, int queueIndex,
+                                          WorkerWakeup.Target producerWakeup) {
+        ((ConveyorQueue) conveyor.queue(queueIndex)).setProducerWakeup(producerWakeup);
+    }
+
+    private static String addressForMetrics(Address address) {
+        return address.getHost().replace('.', '-') + '_' + address.getPort();
+    }
+
     private JetConfig getConfig() {
         JetService service = nodeEngine.getService(JetService.SERVICE_NAME);
         return service.getJetInstance().getConfig();
     }
 
-    private List<InboundEdgeStream> createInboundEdgeStreams(VertexDef srcVertex, int processorIdx) {
+    private List<InboundEdgeStream> createInboundEdgeStreams(VertexDef srcVertex, int processorIdx,
+                                                             boolean nonBlockingBarriers) {
         final List<InboundEdgeStream> inboundStreams = new ArrayList<>();
         for (EdgeDef inEdge : srcVertex.inboundEdges()) {
             // each tasklet has one input conveyor per edge
             final ConcurrentConveyor<Object> conveyor = localConveyorMap.get(inEdge.edgeId())[processorIdx];
-            inboundStreams.add(newEdgeStream(inEdge, conveyor,
-                    "inputTo:" + inEdge.destVertex().name() + '#' + processorIdx));
+            String debugName = "inputTo:" + inEdge.destVertex().name() + '#' + processorIdx;
+            inboundStreams.add(nonBlockingBarriers
+                    ? new ConcurrentInboundEdgeStream(conveyor, inEdge.destOrdinal(), inEdge.priority(),
+                            lastSnapshotId, false, inFlightPartitionFn(inEdge),
+                            jobConfig.getMaxWatermarkRetainMillis(), debugName)
+                    : newEdgeStream(inEdge, conveyor, debugName));
+        }
+        if (srcVertex.snapshotRestoreMapName() != null) {
+            // takes the ordinal the snapshot restore edge would have
+            int[] partitions = ptionArrgmt.assignPartitionsToProcessors(srcVertex.localParallelism(), true)
+                    [processorIdx];
+            BroadcastKeysReader broadcastKeysReader = broadcastKeysReaders.computeIfAbsent(srcVertex.vertexId(),
+                    x -> new BroadcastKeysReader(nodeEngine, srcVertex.snapshotRestoreMapName(),
+                            nodeEngine.getPartitionService().getPartitionId(BroadcastKeyReference.PARTITION_KEY)));
+            inboundStreams.add(new SnapshotRestoreInboundStream(nodeEngine, srcVertex.snapshotRestoreMapName(),
+                    srcVertex.inboundEdges().size(), partitions, broadcastKeysReader));
         }
         return inboundStreams;
     }
@@ -468,6 +586,33 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                 jobConfig.getMaxWatermarkRetainMillis(), debugName);
     }
 
+    /**
+     * Non-blocking barriers aren't used for vertices with a broadcast inbound
+     * edge: each processor receives its own copy of an item and the copies
+     * saved as in-flight items can't be distributed to the processors on
+     * restore.
+     */
+    private boolean hasNonBlockingBarriers(VertexDef vertex) {
+        return jobConfig.isNonBlockingSnapshotBarriersEnabled()
+                && jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
+                && vertex.inboundEdges().stream().noneMatch(e -> e.routingPolicy() == RoutingPolicy.BROADCAST);
+    }
+
+    /**
+     * Returns the function that computes the partition ID of an in-flight item
+     * received on the given edge, used to route it on restore.
+     */
+    private ToIntFunction<Object> inFlightPartitionFn(EdgeDef inEdge) {
+        if (inEdge.routingPolicy() != RoutingPolicy.PARTITIONED) {
+            return item -> -1;
+        }
+        Partitioner<Object> partitioner = inEdge.partitioner();
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        partitioner.init(partitionService::getPartitionId);
+        int partitionCount = partitionService.getPartitionCount();
+        return item -> partitioner.getPartition(item, partitionCount);
+    }
+
     public List<Processor> getProcessors() {
         return processors;
     }
@@ -54,7 +54,8 @@ public final class ExecutionPlanBuilder {
     }
 
     public static Map<MemberInfo, ExecutionPlan> createExecutionPlans(
-            NodeEngine nodeEngine, MembersView membersView, DAG dag, JobConfig jobConfig, long lastSnapshotId
+            NodeEngine nodeEngine, MembersView membersView, DAG dag, JobConfig jobConfig, long lastSnapshotId,
+            Map<String, String> snapshotRestoreMapNames
     ) {
         final JetInstance instance = getJetInstance(nodeEngine);
         final int defaultParallelism = instance.getConfig().getInstanceConfig().getCooperativeThreadCount();
@@ -95,6 +96,7 @@ public final class ExecutionPlanBuilder {
                 );
                 vertexDef.addInboundEdges(inbound);
                 vertexDef.addOutboundEdges(outbound);
+                vertexDef.setSnapshotRestoreMapName(snapshotRestoreMapNames.get(vertex.getName()));
                 e.getValue().addVertex(vertexDef);
                 procIdxOffset += localParallelism;
             }
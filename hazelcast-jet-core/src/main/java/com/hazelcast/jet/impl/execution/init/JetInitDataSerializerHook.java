@@ -26,23 +26,29 @@ import com.hazelcast.jet.impl.JobRepository.FilterJobRecordByNamePredicate;
 import com.hazelcast.jet.impl.JobRepository.UpdateJobRecordQuorumEntryBackupProcessor;
 import com.hazelcast.jet.impl.JobRepository.UpdateJobRecordQuorumEntryProcessor;
 import com.hazelcast.jet.impl.JobResult;
+import com.hazelcast.jet.impl.execution.InFlightItemKey;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
 import com.hazelcast.jet.impl.operation.CancelJobOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotChunksOperation;
 import com.hazelcast.jet.impl.operation.GetJobConfigOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsByNameOperation;
+import com.hazelcast.jet.impl.operation.GetJobMetricsOperation;
 import com.hazelcast.jet.impl.operation.GetJobSubmissionTimeOperation;
+import com.hazelcast.jet.impl.operation.ReplicateSnapshotChunkOperation;
 import com.hazelcast.jet.impl.operation.RestartJobOperation;
 import com.hazelcast.jet.impl.operation.StartExecutionOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsOperation;
 import com.hazelcast.jet.impl.operation.GetJobStatusOperation;
+import com.hazelcast.jet.impl.operation.GetLocalExecutionMetricsOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.JoinSubmittedJobOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
 import com.hazelcast.jet.impl.operation.SubmitJobOperation;
 import com.hazelcast.jet.impl.processor.SessionWindowP;
 import com.hazelcast.jet.impl.processor.SnapshotKey;
+import com.hazelcast.jet.impl.util.BloomFilter;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
@@ -79,6 +85,12 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
     public static final int GET_JOB_SUBMISSION_TIME_OP = 25;
     public static final int GET_JOB_CONFIG_OP = 26;
     public static final int RESTART_JOB_OP = 27;
+    public static final int GET_JOB_METRICS_OP = 28;
+    public static final int GET_LOCAL_EXECUTION_METRICS_OP = 29;
+    public static final int BLOOM_FILTER = 30;
+    public static final int IN_FLIGHT_ITEM_KEY = 31;
+    public static final int REPLICATE_SNAPSHOT_CHUNK_OP = 32;
+    public static final int DELETE_SNAPSHOT_CHUNKS_OP = 33;
 
     public static final int FACTORY_ID = FactoryIdHelper.getFactoryId(JET_IMPL_DS_FACTORY, JET_IMPL_DS_FACTORY_ID);
 
@@ -154,6 +166,18 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
                     return new GetJobConfigOperation();
                 case RESTART_JOB_OP:
                     return new RestartJobOperation();
+                case GET_JOB_METRICS_OP:
+                    return new GetJobMetricsOperation();
+                case GET_LOCAL_EXECUTION_METRICS_OP:
+                    return new GetLocalExecutionMetricsOperation();
+                case BLOOM_FILTER:
+                    return new BloomFilter();
+                case IN_FLIGHT_ITEM_KEY:
+                    return new InFlightItemKey();
+                case REPLICATE_SNAPSHOT_CHUNK_OP:
+                    return new ReplicateSnapshotChunkOperation();
+                case DELETE_SNAPSHOT_CHUNKS_OP:
+                    return new DeleteSnapshotChunksOperation();
                 default:
                     throw new IllegalArgumentException("Unknown type id " + typeId);
             }
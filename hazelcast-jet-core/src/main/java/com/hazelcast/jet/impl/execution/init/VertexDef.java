@@ -39,6 +39,7 @@ public class VertexDef implements IdentifiedDataSerializable {
     private int procIdxOffset;
     private int localParallelism;
     private int totalParallelism;
+    private String snapshotRestoreMapName;
 
     VertexDef() {
     }
@@ -87,6 +88,18 @@ public class VertexDef implements IdentifiedDataSerializable {
         return outboundEdges;
     }
 
+    /**
+     * Returns the name of the IMap from which the processors restore their
+     * state directly, or {@code null} if they don't.
+     */
+    String snapshotRestoreMapName() {
+        return snapshotRestoreMapName;
+    }
+
+    void setSnapshotRestoreMapName(String snapshotRestoreMapName) {
+        this.snapshotRestoreMapName = snapshotRestoreMapName;
+    }
+
     ProcessorSupplier processorSupplier() {
         return processorSupplier;
     }
@@ -150,6 +163,7 @@ public class VertexDef implements IdentifiedDataSerializable {
         out.writeInt(procIdxOffset);
         out.writeInt(localParallelism);
         out.writeInt(totalParallelism);
+        out.writeUTF(snapshotRestoreMapName);
     }
 
     @Override
@@ -162,5 +176,6 @@ public class VertexDef implements IdentifiedDataSerializable {
         procIdxOffset = in.readInt();
         localParallelism = in.readInt();
         totalParallelism = in.readInt();
+        snapshotRestoreMapName = in.readUTF();
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+
+/**
+ * Sent to the master to collect the current metrics of a job from all
+ * members executing it.
+ */
+public class GetJobMetricsOperation extends AsyncOperation {
+
+    public GetJobMetricsOperation() {
+    }
+
+    public GetJobMetricsOperation(long jobId) {
+        super(jobId);
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        JetService service = getService();
+        service.getJobCoordinationService().getJobMetrics(jobId())
+               .whenComplete((metrics, throwable) -> doSendResponse(throwable != null ? peel(throwable) : metrics));
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.GET_JOB_METRICS_OP;
+    }
+}
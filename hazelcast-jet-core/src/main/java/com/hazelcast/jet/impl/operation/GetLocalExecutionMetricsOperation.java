@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sent by the master to all members executing a job to read the current
+ * values of the execution's metrics on the member.
+ */
+public class GetLocalExecutionMetricsOperation extends AbstractJobOperation {
+
+    private long executionId;
+    private Map<String, Long> response;
+
+    // for deserialization
+    public GetLocalExecutionMetricsOperation() {
+    }
+
+    public GetLocalExecutionMetricsOperation(long jobId, long executionId) {
+        super(jobId);
+        this.executionId = executionId;
+    }
+
+    @Override
+    public void run() throws Exception {
+        JetService service = getService();
+        response = new HashMap<>(service.getJobExecutionService().getLocalExecutionMetrics(executionId));
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.GET_LOCAL_EXECUTION_METRICS_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(executionId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        executionId = in.readLong();
+    }
+}
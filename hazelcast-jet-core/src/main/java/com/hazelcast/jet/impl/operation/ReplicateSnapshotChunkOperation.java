@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.jet.impl.snapshot.LocalDiskSnapshotStorage;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+
+/**
+ * Writes a part of a snapshot chunk of another member to the {@link
+ * LocalDiskSnapshotStorage} of the target member.
+ */
+public class ReplicateSnapshotChunkOperation extends AsyncOperation {
+
+    private String dataMapName;
+    private String chunkName;
+    private long offset;
+    private byte[] bytes;
+
+    public ReplicateSnapshotChunkOperation() {
+    }
+
+    public ReplicateSnapshotChunkOperation(String dataMapName, String chunkName, long offset, byte[] bytes) {
+        this.dataMapName = dataMapName;
+        this.chunkName = chunkName;
+        this.offset = offset;
+        this.bytes = bytes;
+    }
+
+    @Override
+    protected void doRun() {
+        JetService service = getService();
+        LocalDiskSnapshotStorage.of(service.getSnapshotStorage()).writeReplicaAsync(dataMapName, chunkName, offset, bytes)
+                                .whenComplete((r, t) -> doSendResponse(t != null ? peel(t) : null));
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.REPLICATE_SNAPSHOT_CHUNK_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(dataMapName);
+        out.writeUTF(chunkName);
+        out.writeLong(offset);
+        out.writeByteArray(bytes);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        dataMapName = in.readUTF();
+        chunkName = in.readUTF();
+        offset = in.readLong();
+        bytes = in.readByteArray();
+    }
+}
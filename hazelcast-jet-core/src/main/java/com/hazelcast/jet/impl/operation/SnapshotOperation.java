@@ -32,15 +32,17 @@ public class SnapshotOperation extends AsyncOperation {
 
     private long executionId;
     private long snapshotId;
+    private boolean isDelta;
 
     // for deserialization
     public SnapshotOperation() {
     }
 
-    public SnapshotOperation(long jobId, long executionId, long snapshotId) {
+    public SnapshotOperation(long jobId, long executionId, long snapshotId, boolean isDelta) {
         super(jobId);
         this.executionId = executionId;
         this.snapshotId = snapshotId;
+        this.isDelta = isDelta;
     }
 
     @Override
@@ -49,7 +51,7 @@ public class SnapshotOperation extends AsyncOperation {
         ExecutionContext ctx = service.getJobExecutionService().assertExecutionContext(
                 getCallerAddress(), jobId(), executionId, this
         );
-        ctx.beginSnapshot(snapshotId).thenAccept(r -> {
+        ctx.beginSnapshot(snapshotId, isDelta).thenAccept(r -> {
             logFine(getLogger(),
                     "Snapshot %s for job %s finished successfully on member",
                     snapshotId, idToString(jobId()));
@@ -73,6 +75,7 @@ public class SnapshotOperation extends AsyncOperation {
         super.writeInternal(out);
         out.writeLong(executionId);
         out.writeLong(snapshotId);
+        out.writeBoolean(isDelta);
     }
 
     @Override
@@ -80,5 +83,6 @@ public class SnapshotOperation extends AsyncOperation {
         super.readInternal(in);
         executionId = in.readLong();
         snapshotId = in.readLong();
+        isDelta = in.readBoolean();
     }
 }
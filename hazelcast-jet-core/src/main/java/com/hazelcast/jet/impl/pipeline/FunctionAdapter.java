@@ -246,8 +246,12 @@ class JetEventFunctionAdapter extends FunctionAdapter {
     @Nonnull @Override
     @SuppressWarnings("unchecked")
     public JoinClause adaptJoinClause(@Nonnull JoinClause joinClause) {
-        return onKeys(adaptKeyFn(joinClause.leftKeyFn()), joinClause.rightKeyFn())
+        JoinClause adapted = onKeys(adaptKeyFn(joinClause.leftKeyFn()), joinClause.rightKeyFn())
                 .projecting(joinClause.rightProjectFn());
+        if (joinClause.bloomFilterExpectedKeys() > 0) {
+            return adapted.partitionedWithBloomFilter(joinClause.bloomFilterExpectedKeys());
+        }
+        return joinClause.isPartitioned() ? adapted.partitioned() : adapted;
     }
 
     @Override
@@ -60,6 +60,7 @@ public class GrAggBuilder<K> {
 
     @SuppressWarnings("unchecked")
     public GrAggBuilder(StageWithGrouping<?, K> stage0) {
+        StageWithGroupingImpl.checkNotSorted(stage0);
         ComputeStageImplBase computeStage = ((StageWithGroupingBase) stage0).computeStage;
         pipelineImpl = (PipelineImpl) computeStage.getPipeline();
         wDef = null;
@@ -88,6 +89,7 @@ public class GrAggBuilder<K> {
 
     @SuppressWarnings("unchecked")
     public <E> Tag<E> add(StageWithGrouping<E, K> stage) {
+        StageWithGroupingImpl.checkNotSorted(stage);
         upstreamStages.add(((StageWithGroupingBase) stage).computeStage);
         keyFns.add(stage.keyFn());
         return (Tag<E>) tag(upstreamStages.size() - 1);
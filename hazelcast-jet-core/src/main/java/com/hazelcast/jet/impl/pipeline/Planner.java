@@ -24,6 +24,7 @@ import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.WatermarkEmissionPolicy;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.impl.pipeline.transform.FusedTransform;
 import com.hazelcast.jet.impl.pipeline.transform.SinkTransform;
 import com.hazelcast.jet.impl.pipeline.transform.StreamSourceTransform;
 import com.hazelcast.jet.impl.pipeline.transform.TimestampTransform;
@@ -31,6 +32,7 @@ import com.hazelcast.jet.impl.pipeline.transform.Transform;
 import com.hazelcast.jet.impl.util.Util;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -87,12 +89,44 @@ public class Planner {
         }
 
         Iterable<Transform> sorted = topologicalSort(adjacencyMap, Object::toString);
+        Set<Transform> fused = new HashSet<>();
         for (Transform transform : sorted) {
-            transform.addToDag(this);
+            if (fused.contains(transform)) {
+                continue;
+            }
+            List<Transform> chain = fusableChain(transform, adjacencyMap);
+            if (chain.size() > 1) {
+                fused.addAll(chain);
+                new FusedTransform(chain).addToDag(this);
+            } else {
+                transform.addToDag(this);
+            }
         }
         return dag;
     }
 
+    /**
+     * Returns the longest chain of stateless transforms starting at the given
+     * one where each transform is the only downstream of the previous one and
+     * has the same local parallelism. The edges between them would be local
+     * one-to-one edges, so they can be fused into a single vertex.
+     */
+    private static List<Transform> fusableChain(Transform head, Map<Transform, List<Transform>> adjacencyMap) {
+        List<Transform> chain = new ArrayList<>();
+        for (Transform t = head; FusedTransform.isFusable(t); ) {
+            chain.add(t);
+            List<Transform> downstream = adjacencyMap.get(t);
+            if (downstream.size() != 1) {
+                break;
+            }
+            t = downstream.get(0);
+            if (t.localParallelism() != head.localParallelism()) {
+                break;
+            }
+        }
+        return chain;
+    }
+
     private static void validateNoLeakage(Map<Transform, List<Transform>> adjacencyMap) {
         List<Transform> leakages = adjacencyMap
                 .entrySet().stream()
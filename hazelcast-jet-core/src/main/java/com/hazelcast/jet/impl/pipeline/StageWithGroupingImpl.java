@@ -23,6 +23,7 @@ import com.hazelcast.jet.function.DistributedBiFunction;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.impl.pipeline.transform.GroupTransform;
 import com.hazelcast.jet.pipeline.BatchStage;
+import com.hazelcast.jet.pipeline.GeneralStageWithGrouping;
 import com.hazelcast.jet.pipeline.StageWithGrouping;
 
 import javax.annotation.Nonnull;
@@ -34,11 +35,31 @@ import static java.util.Collections.singletonList;
 
 public class StageWithGroupingImpl<T, K> extends StageWithGroupingBase<T, K> implements StageWithGrouping<T, K> {
 
+    private final boolean inputSortedByKey;
+
     StageWithGroupingImpl(
             @Nonnull ComputeStageImplBase<T> computeStage,
             @Nonnull DistributedFunction<? super T, ? extends K> keyFn
+    ) {
+        this(computeStage, keyFn, false);
+    }
+
+    private StageWithGroupingImpl(
+            @Nonnull ComputeStageImplBase<T> computeStage,
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn,
+            boolean inputSortedByKey
     ) {
         super(computeStage, keyFn);
+        this.inputSortedByKey = inputSortedByKey;
+    }
+
+    @Nonnull @Override
+    public StageWithGrouping<T, K> inputSortedByKey() {
+        return new StageWithGroupingImpl<>(computeStage, keyFn(), true);
+    }
+
+    boolean isInputSortedByKey() {
+        return inputSortedByKey;
     }
 
     @Nonnull
@@ -50,7 +71,8 @@ public class StageWithGroupingImpl<T, K> extends StageWithGroupingBase<T, K> imp
                         singletonList(computeStage.transform),
                         singletonList(keyFn()),
                         aggrOp,
-                        mapToOutputFn),
+                        mapToOutputFn,
+                        inputSortedByKey),
                 DONT_ADAPT);
     }
 
@@ -60,6 +82,7 @@ public class StageWithGroupingImpl<T, K> extends StageWithGroupingBase<T, K> imp
             @Nonnull AggregateOperation2<? super T, ? super T1, A, R> aggrOp,
             @Nonnull DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn
     ) {
+        checkNotSorted(this, stage1);
         return computeStage.attach(
                 new GroupTransform<>(
                         asList(computeStage.transform, transformOf(stage1)),
@@ -76,6 +99,7 @@ public class StageWithGroupingImpl<T, K> extends StageWithGroupingBase<T, K> imp
             @Nonnull AggregateOperation3<? super T, ? super T1, ? super T2, A, R> aggrOp,
             @Nonnull DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn
     ) {
+        checkNotSorted(this, stage1, stage2);
         return computeStage.attach(
                 new GroupTransform<>(
                         asList(computeStage.transform, transformOf(stage1), transformOf(stage2)),
@@ -84,4 +108,13 @@ public class StageWithGroupingImpl<T, K> extends StageWithGroupingBase<T, K> imp
                         mapToOutputFn),
                 DONT_ADAPT);
     }
+
+    static void checkNotSorted(GeneralStageWithGrouping... stages) {
+        for (GeneralStageWithGrouping stage : stages) {
+            if (stage instanceof StageWithGroupingImpl && ((StageWithGroupingImpl) stage).isInputSortedByKey()) {
+                throw new IllegalArgumentException(
+                        "inputSortedByKey() is only supported with the single-input aggregate()");
+            }
+        }
+    }
 }
@@ -26,6 +26,7 @@ import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.jet.function.DistributedTriFunction;
 import com.hazelcast.jet.impl.pipeline.transform.AbstractTransform;
 import com.hazelcast.jet.impl.pipeline.transform.Transform;
+import com.hazelcast.jet.impl.pipeline.transform.WindowedJoinTransform;
 import com.hazelcast.jet.pipeline.BatchStage;
 import com.hazelcast.jet.pipeline.ContextFactory;
 import com.hazelcast.jet.pipeline.JoinClause;
@@ -36,6 +37,9 @@ import com.hazelcast.jet.pipeline.WindowDefinition;
 
 import javax.annotation.Nonnull;
 
+import static com.hazelcast.jet.impl.pipeline.JetEvent.jetEvent;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
 public class StreamStageImpl<T> extends ComputeStageImplBase<T> implements StreamStage<T> {
 
     public StreamStageImpl(
@@ -117,6 +121,33 @@ public class StreamStageImpl<T> extends ComputeStageImplBase<T> implements Strea
         return attachHashJoin2(stage1, joinClause1, stage2, joinClause2, mapToOutputFn);
     }
 
+    @Nonnull @Override
+    @SuppressWarnings("unchecked")
+    public <K, T1, R> StreamStage<R> windowedJoin(
+            @Nonnull StreamStage<T1> stage1,
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn0,
+            @Nonnull DistributedFunction<? super T1, ? extends K> keyFn1,
+            long lowerBound,
+            long upperBound,
+            @Nonnull DistributedBiFunction<? super T, ? super T1, ? extends R> mapToOutputFn
+    ) {
+        checkTrue(lowerBound <= upperBound, "lowerBound must not be greater than upperBound");
+        ensureJetEvents(this, "This pipeline stage");
+        ensureJetEvents((ComputeStageImplBase) stage1, "The joined stage");
+        WindowedJoinTransform<K> transform = new WindowedJoinTransform<>(
+                this.transform,
+                transformOf(stage1),
+                (DistributedFunction<JetEvent, K>) e -> keyFn0.apply((T) e.payload()),
+                (DistributedFunction<JetEvent, K>) e -> keyFn1.apply((T1) e.payload()),
+                lowerBound,
+                upperBound,
+                (JetEvent e0, JetEvent e1) -> jetEvent(
+                        mapToOutputFn.apply((T) e0.payload(), (T1) e1.payload()),
+                        Math.max(e0.timestamp(), e1.timestamp()))
+        );
+        return attach(transform, ADAPT_TO_JET_EVENT);
+    }
+
     @Nonnull @Override
     public StreamStage<T> peek(
             @Nonnull DistributedPredicate<? super T> shouldLogFn,
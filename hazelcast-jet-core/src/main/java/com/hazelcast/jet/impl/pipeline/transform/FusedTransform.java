@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.pipeline.transform;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.Traversers;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedPredicate;
+import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.impl.pipeline.Planner;
+import com.hazelcast.jet.impl.pipeline.Planner.PlannerVertex;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+import static com.hazelcast.jet.core.processor.Processors.flatMapP;
+import static com.hazelcast.jet.core.processor.Processors.mapP;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A chain of stateless map, filter and flat-map transforms planned as a
+ * single vertex whose processor applies the functions one after another.
+ * This saves the queue and the tasklet between each pair of the original
+ * transforms. The transforms are stateless so the snapshot and watermark
+ * behavior of the fused vertex is the same as that of the chain.
+ */
+public class FusedTransform extends AbstractTransform {
+    @Nonnull
+    private final List<Transform> chain;
+
+    /**
+     * @param chain the transforms to fuse, each one the only downstream of
+     *              the previous one. See {@link #isFusable}.
+     */
+    public FusedTransform(@Nonnull List<Transform> chain) {
+        super(chain.stream().map(Transform::name).collect(joining("+")), chain.get(0).upstream());
+        this.chain = chain;
+        localParallelism(chain.get(0).localParallelism());
+    }
+
+    /**
+     * Tells whether the transform is stateless and can be fused with its
+     * neighbors.
+     */
+    public static boolean isFusable(Transform transform) {
+        return transform instanceof MapTransform
+                || transform instanceof FilterTransform
+                || transform instanceof FlatMapTransform;
+    }
+
+    @Override
+    public void addToDag(Planner p) {
+        Transform last = chain.get(chain.size() - 1);
+        PlannerVertex pv = p.addVertex(last, p.uniqueVertexName(name(), ""), localParallelism(), processorSupplier());
+        for (Transform t : chain) {
+            p.xform2vertex.put(t, pv);
+        }
+        p.addEdges(this, pv.v);
+    }
+
+    /**
+     * Composes the functions. Consecutive map and filter functions are
+     * composed into a single function returning {@code null} for a filtered
+     * out item so no traverser is created for them. Once there's a flat-map
+     * function in the chain, the remaining ones are applied to its traverser.
+     */
+    @SuppressWarnings("unchecked")
+    private DistributedSupplier<Processor> processorSupplier() {
+        DistributedFunction<Object, Object> singleFn = null;
+        DistributedFunction<Object, Traverser<Object>> travFn = null;
+        for (Transform t : chain) {
+            if (t instanceof MapTransform) {
+                DistributedFunction<Object, Object> mapFn = ((MapTransform) t).mapFn();
+                if (travFn != null) {
+                    DistributedFunction<Object, Traverser<Object>> prevFn = travFn;
+                    travFn = item -> prevFn.apply(item).map(mapFn);
+                } else {
+                    singleFn = andThen(singleFn, mapFn);
+                }
+            } else if (t instanceof FilterTransform) {
+                DistributedPredicate<Object> filterFn = ((FilterTransform) t).filterFn();
+                if (travFn != null) {
+                    DistributedFunction<Object, Traverser<Object>> prevFn = travFn;
+                    travFn = item -> prevFn.apply(item).filter(filterFn);
+                } else {
+                    singleFn = andThen(singleFn, item -> filterFn.test(item) ? item : null);
+                }
+            } else {
+                DistributedFunction<Object, Traverser<Object>> flatMapFn = ((FlatMapTransform) t).flatMapFn();
+                if (travFn != null) {
+                    DistributedFunction<Object, Traverser<Object>> prevFn = travFn;
+                    travFn = item -> prevFn.apply(item).flatMap(flatMapFn);
+                } else if (singleFn != null) {
+                    DistributedFunction<Object, Object> prevFn = singleFn;
+                    travFn = item -> {
+                        Object r = prevFn.apply(item);
+                        return r != null ? flatMapFn.apply(r) : Traversers.empty();
+                    };
+                } else {
+                    travFn = flatMapFn;
+                }
+            }
+        }
+        return travFn != null ? flatMapP(travFn) : mapP(singleFn);
+    }
+
+    private static DistributedFunction<Object, Object> andThen(
+            DistributedFunction<Object, Object> first, DistributedFunction<Object, Object> second
+    ) {
+        if (first == null) {
+            return second;
+        }
+        return item -> {
+            Object r = first.apply(item);
+            return r != null ? second.apply(r) : null;
+        };
+    }
+}
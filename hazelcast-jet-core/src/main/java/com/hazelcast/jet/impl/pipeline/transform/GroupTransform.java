@@ -17,9 +17,14 @@
 package com.hazelcast.jet.impl.pipeline.transform;
 
 import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.Edge;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.function.DistributedBiFunction;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.jet.impl.pipeline.Planner;
 import com.hazelcast.jet.impl.pipeline.Planner.PlannerVertex;
 
@@ -30,9 +35,11 @@ import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.core.Partitioner.HASH_CODE;
 import static com.hazelcast.jet.core.processor.Processors.accumulateByKeyP;
 import static com.hazelcast.jet.core.processor.Processors.aggregateByKeyP;
+import static com.hazelcast.jet.core.processor.Processors.aggregateSortedByKeyP;
 import static com.hazelcast.jet.core.processor.Processors.combineByKeyP;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.impl.pipeline.transform.AbstractTransform.Optimization.MEMORY;
+import static com.hazelcast.util.Preconditions.checkTrue;
 
 public class GroupTransform<K, A, R, OUT> extends AbstractTransform {
     @Nonnull
@@ -41,17 +48,30 @@ public class GroupTransform<K, A, R, OUT> extends AbstractTransform {
     private final AggregateOperation<A, R> aggrOp;
     @Nonnull
     private final DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn;
+    private final boolean inputSortedByKey;
 
     public GroupTransform(
             @Nonnull List<Transform> upstream,
             @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFns,
             @Nonnull AggregateOperation<A, R> aggrOp,
             @Nonnull DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn
+    ) {
+        this(upstream, groupKeyFns, aggrOp, mapToOutputFn, false);
+    }
+
+    public GroupTransform(
+            @Nonnull List<Transform> upstream,
+            @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFns,
+            @Nonnull AggregateOperation<A, R> aggrOp,
+            @Nonnull DistributedBiFunction<? super K, ? super R, OUT> mapToOutputFn,
+            boolean inputSortedByKey
     ) {
         super(createName(upstream), upstream);
+        checkTrue(!inputSortedByKey || upstream.size() == 1, "Sorted input is only supported with a single input");
         this.groupKeyFns = groupKeyFns;
         this.aggrOp = aggrOp;
         this.mapToOutputFn = mapToOutputFn;
+        this.inputSortedByKey = inputSortedByKey;
     }
 
     private static String createName(@Nonnull List<Transform> upstream) {
@@ -62,7 +82,9 @@ public class GroupTransform<K, A, R, OUT> extends AbstractTransform {
 
     @Override
     public void addToDag(Planner p) {
-        if (getOptimization() == MEMORY || aggrOp.combineFn() == null) {
+        if (inputSortedByKey) {
+            addToDagSorted(p);
+        } else if (getOptimization() == MEMORY || aggrOp.combineFn() == null) {
             addToDagSingleStage(p);
         } else {
             addToDagTwoStage(p);
@@ -88,6 +110,33 @@ public class GroupTransform<K, A, R, OUT> extends AbstractTransform {
         p.addEdges(this, pv.v, (e, ord) -> e.distributed().partitioned(groupKeyFns.get(ord)));
     }
 
+    //                   --------
+    //                  | source |
+    //                   --------
+    //                       |
+    //                    isolated
+    //                       v
+    //                -----------------------
+    //               | aggregateSortedByKeyP |
+    //                -----------------------
+    @SuppressWarnings("unchecked")
+    private void addToDagSorted(Planner p) {
+        // Each processor must get the items of exactly one upstream processor, in
+        // their order. An isolated edge only does that if both vertices resolve to
+        // the same local parallelism, otherwise it spreads the items of one
+        // upstream processor over several downstream processors. We copy both the
+        // explicit and the preferred parallelism of the upstream vertex, so that
+        // the two are resolved in the same way.
+        Vertex upstreamVertex = p.xform2vertex.get(upstream().get(0)).v;
+        DistributedSupplier<Processor> procSupplier = aggregateSortedByKeyP(
+                (DistributedFunction<Object, K>) groupKeyFns.get(0),
+                (AggregateOperation1<Object, A, R>) aggrOp,
+                mapToOutputFn);
+        PlannerVertex pv = p.addVertex(this, p.uniqueVertexName(name(), ""), upstreamVertex.getLocalParallelism(),
+                ProcessorMetaSupplier.of(procSupplier, upstreamVertex.getMetaSupplier().preferredLocalParallelism()));
+        p.addEdges(this, pv.v, Edge::isolated);
+    }
+
     //                   ---------        ---------
     //                  | source0 |  ... | sourceN |
     //                   ---------        ---------
@@ -23,15 +23,21 @@ import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedTriFunction;
 import com.hazelcast.jet.impl.pipeline.Planner;
 import com.hazelcast.jet.impl.pipeline.Planner.PlannerVertex;
+import com.hazelcast.jet.impl.processor.HashJoinBloomFilterP;
 import com.hazelcast.jet.impl.processor.HashJoinCollectP;
 import com.hazelcast.jet.impl.processor.HashJoinP;
+import com.hazelcast.jet.impl.processor.HashJoinProbeFilterP;
+import com.hazelcast.jet.impl.processor.PartitionedHashJoinP;
 import com.hazelcast.jet.pipeline.JoinClause;
 import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import static com.hazelcast.jet.core.Edge.from;
+import static com.hazelcast.jet.core.processor.Processors.mapP;
+import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
 import static com.hazelcast.jet.impl.pipeline.Planner.tailList;
+import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.util.stream.Collectors.toList;
 
 public class HashJoinTransform<T0, R> extends AbstractTransform {
@@ -55,6 +61,7 @@ public class HashJoinTransform<T0, R> extends AbstractTransform {
         this.tags = tags;
         this.mapToOutputBiFn = mapToOutputBiFn;
         this.mapToOutputTriFn = null;
+        checkPartitionedClauses(clauses);
     }
 
     public <T1, T2> HashJoinTransform(
@@ -68,6 +75,7 @@ public class HashJoinTransform<T0, R> extends AbstractTransform {
         this.tags = tags;
         this.mapToOutputBiFn = null;
         this.mapToOutputTriFn = mapToOutputTriFn;
+        checkPartitionedClauses(clauses);
     }
 
     //         ---------           ----------           ----------
@@ -91,11 +99,20 @@ public class HashJoinTransform<T0, R> extends AbstractTransform {
     //                              --------
     //                             | joiner |
     //                              --------
+    private static void checkPartitionedClauses(List<? extends JoinClause<?, ?, ?, ?>> clauses) {
+        checkTrue(clauses.size() == 1 || clauses.stream().noneMatch(JoinClause::isPartitioned),
+                "The partitioned hash-join mode is supported only when joining a single stage");
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void addToDag(Planner p) {
         String namePrefix = p.uniqueVertexName(this.name(), "");
         PlannerVertex primary = p.xform2vertex.get(this.upstream().get(0));
+        if (clauses.get(0).isPartitioned()) {
+            addToDagPartitioned(p, namePrefix, primary);
+            return;
+        }
         List keyFns = this.clauses.stream()
                                   .map(JoinClause::leftKeyFn)
                                   .collect(toList());
@@ -128,4 +145,74 @@ public class HashJoinTransform<T0, R> extends AbstractTransform {
             collectorOrdinal++;
         }
     }
+
+    //         ---------                       ----------
+    //        | primary |                     | joined-1 |
+    //         ---------                       ----------
+    //             |                               |   \
+    //           local                             |   local
+    //          unicast                            |     v
+    //             v                               |    ---------------
+    //        -------------      distributed       |   | bloom-builder |
+    //       | bloom-probe | <-------------------------  ---------------
+    //        -------------       broadcast        |
+    //         |         \       prioritized       |
+    //         |        local                      |
+    //         |       unicast                     |
+    //         |           v                       |
+    //         |       ----------                  |
+    //         |      | no-match |                 |
+    //         |       ----------                  |
+    //    distributed      |                  distributed
+    //    partitioned    local                partitioned
+    //     ordinal 0   ordinal 2          prioritized, ordinal 1
+    //          \          |                   /
+    //           -------\  |  /---------------/
+    //                   v v v
+    //                 --------
+    //                | joiner |
+    //                 --------
+    //
+    // Without a Bloom filter the primary connects directly to the joiner's
+    // ordinal 0 over a distributed partitioned edge.
+    @SuppressWarnings("unchecked")
+    private void addToDagPartitioned(Planner p, String namePrefix, PlannerVertex primary) {
+        JoinClause<?, ?, ?, ?> clause = clauses.get(0);
+        DistributedFunction<Object, Object> leftKeyFn = (DistributedFunction<Object, Object>) clause.leftKeyFn();
+        DistributedFunction<Object, Object> rightKeyFn = (DistributedFunction<Object, Object>) clause.rightKeyFn();
+        DistributedFunction<Object, Object> projectFn = (DistributedFunction<Object, Object>) clause.rightProjectFn();
+        Tag tag = tags.isEmpty() ? null : tags.get(0);
+        DistributedBiFunction mapToOutputFn = this.mapToOutputBiFn;
+        Vertex joiner = p.addVertex(this, namePrefix + "-joiner", localParallelism(),
+                () -> new PartitionedHashJoinP<>(leftKeyFn, rightKeyFn, projectFn, tag, mapToOutputFn)).v;
+
+        PlannerVertex joinedPv = p.xform2vertex.get(this.upstream().get(1));
+        p.dag.edge(from(joinedPv.v, joinedPv.nextAvailableOrdinal())
+                .to(joiner, 1)
+                .distributed().partitioned(rightKeyFn).priority(-1));
+
+        long expectedKeys = clause.bloomFilterExpectedKeys();
+        if (expectedKeys == 0) {
+            p.dag.edge(from(primary.v, primary.nextAvailableOrdinal())
+                    .to(joiner, 0)
+                    .distributed().partitioned(leftKeyFn));
+            return;
+        }
+        Vertex bloomBuilder = p.dag.newVertex(namePrefix + "-bloom-builder",
+                () -> new HashJoinBloomFilterP<>(rightKeyFn, expectedKeys));
+        bloomBuilder.localParallelism(1);
+        Vertex bloomProbe = p.dag.newVertex(namePrefix + "-bloom-probe",
+                () -> new HashJoinProbeFilterP<>(leftKeyFn));
+        bloomProbe.localParallelism(localParallelism());
+        p.dag.edge(from(joinedPv.v, joinedPv.nextAvailableOrdinal()).to(bloomBuilder, 0));
+        p.dag.edge(from(primary.v, primary.nextAvailableOrdinal()).to(bloomProbe, 0));
+        p.dag.edge(from(bloomBuilder).to(bloomProbe, 1).distributed().broadcast().priority(-1));
+        p.dag.edge(from(bloomProbe, 0).to(joiner, 0).distributed().partitioned(leftKeyFn));
+        // the DAG allows only one edge between two vertices, so the second
+        // path from the bloom-probe to the joiner passes through a no-op vertex
+        Vertex noMatch = p.dag.newVertex(namePrefix + "-no-match", mapP(wholeItem()));
+        noMatch.localParallelism(localParallelism());
+        p.dag.edge(from(bloomProbe, 1).to(noMatch, 0));
+        p.dag.edge(from(noMatch).to(joiner, 2));
+    }
 }
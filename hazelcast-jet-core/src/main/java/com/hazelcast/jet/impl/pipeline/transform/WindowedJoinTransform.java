@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.pipeline.transform;
+
+import com.hazelcast.jet.function.DistributedBiFunction;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.pipeline.JetEvent;
+import com.hazelcast.jet.impl.pipeline.Planner;
+import com.hazelcast.jet.impl.pipeline.Planner.PlannerVertex;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+import static com.hazelcast.jet.core.processor.Processors.windowedJoinP;
+import static java.util.Arrays.asList;
+
+public class WindowedJoinTransform<K> extends AbstractTransform {
+    @Nonnull
+    private final List<DistributedFunction<? super JetEvent, ? extends K>> keyFns;
+    private final long lowerBound;
+    private final long upperBound;
+    @Nonnull
+    private final DistributedBiFunction<? super JetEvent, ? super JetEvent, ? extends JetEvent> mapToOutputFn;
+
+    public WindowedJoinTransform(
+            @Nonnull Transform upstream0,
+            @Nonnull Transform upstream1,
+            @Nonnull DistributedFunction<? super JetEvent, ? extends K> keyFn0,
+            @Nonnull DistributedFunction<? super JetEvent, ? extends K> keyFn1,
+            long lowerBound,
+            long upperBound,
+            @Nonnull DistributedBiFunction<? super JetEvent, ? super JetEvent, ? extends JetEvent> mapToOutputFn
+    ) {
+        super("windowed-join", asList(upstream0, upstream1));
+        this.keyFns = asList(keyFn0, keyFn1);
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.mapToOutputFn = mapToOutputFn;
+    }
+
+    //              ---------       ---------
+    //             | stream0 |     | stream1 |
+    //              ---------       ---------
+    //                  |               |
+    //             distributed     distributed
+    //             partitioned     partitioned
+    //                  \               /
+    //                   ----\     /----
+    //                        v   v
+    //                  ---------------
+    //                 | windowedJoinP |
+    //                  ---------------
+    @Override
+    public void addToDag(Planner p) {
+        PlannerVertex pv = p.addVertex(this, p.uniqueVertexName(name(), ""), localParallelism(),
+                windowedJoinP(keyFns.get(0), keyFns.get(1), JetEvent::timestamp, JetEvent::timestamp,
+                        lowerBound, upperBound, mapToOutputFn));
+        p.addEdges(this, pv.v, (e, ord) -> e.distributed().partitioned(keyFns.get(ord)));
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static com.hazelcast.util.Preconditions.checkState;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * Moves the accumulators of a grouping processor to disk when it has too
+ * many keys to keep in memory. Each {@link #spill spill} writes a run file
+ * with the accumulators sorted by the hash code of their key. The same key
+ * can be in several runs. {@link #pollMerged Merging} reads the runs and
+ * the remaining in-memory accumulators in the order of the hash code and
+ * combines the accumulators of the same key, so only the keys with one
+ * hash code are in memory at a time.
+ * <p>
+ * The files are written and read on the given I/O executor, so that a
+ * cooperative processor doesn't block on disk. At most one task is in
+ * flight at a time; the processor polls for its completion.
+ */
+final class AccumulatorSpiller<K, A> {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MERGE_BATCH_SIZE = 1024;
+
+    private final Path parentDir;
+    private final SerializationService serService;
+    private final BiConsumer<? super A, ? super A> combineFn;
+    private final Executor ioExecutor;
+    // accessed only by the processor thread
+    private final List<RunFile> runFiles = new ArrayList<>();
+    // accessed by the I/O tasks, which run one at a time
+    private File dir;
+
+    private CompletableFuture<RunFile> pendingSpill;
+    private Merger merger;
+    private CompletableFuture<List<Entry<K, A>>> pendingBatch;
+
+    AccumulatorSpiller(
+            @Nonnull Path parentDir,
+            @Nonnull SerializationService serService,
+            @Nonnull BiConsumer<? super A, ? super A> combineFn,
+            @Nonnull Executor ioExecutor
+    ) {
+        this.parentDir = parentDir;
+        this.serService = serService;
+        this.combineFn = combineFn;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Returns the number of run files written so far, including the one
+     * being written.
+     */
+    int runCount() {
+        return runFiles.size() + (pendingSpill != null ? 1 : 0);
+    }
+
+    /**
+     * Returns {@code true} if the last {@link #spill} is still writing its
+     * run file. Rethrows the exception if it failed.
+     */
+    boolean isSpilling() {
+        if (pendingSpill == null) {
+            return false;
+        }
+        if (!pendingSpill.isDone()) {
+            return true;
+        }
+        runFiles.add(getResult(pendingSpill));
+        pendingSpill = null;
+        return false;
+    }
+
+    /**
+     * Removes the given number of entries from the start of the map and
+     * starts writing them to a new run file. If the map is in access order,
+     * these are the least recently used keys. Must not be called while
+     * {@link #isSpilling()}.
+     */
+    void spill(@Nonnull Map<K, A> keyToAcc, int count) {
+        checkState(!isSpilling(), "the previous spill is still in progress");
+        @SuppressWarnings("unchecked")
+        Entry<K, A>[] entries = new Entry[count];
+        Iterator<Entry<K, A>> it = keyToAcc.entrySet().iterator();
+        for (int i = 0; i < count; i++) {
+            Entry<K, A> e = it.next();
+            entries[i] = entry(e.getKey(), e.getValue());
+            it.remove();
+        }
+        pendingSpill = CompletableFuture.supplyAsync(() -> writeRun(entries), ioExecutor);
+    }
+
+    private RunFile writeRun(Entry<K, A>[] entries) {
+        Arrays.sort(entries, comparingInt(e -> hash(e.getKey())));
+        try {
+            if (dir == null) {
+                dir = Files.createTempDirectory(parentDir, "jet-spill-").toFile();
+            }
+            File file = File.createTempFile("run-", ".bin", dir);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+                for (Entry<K, A> e : entries) {
+                    out.writeInt(hash(e.getKey()));
+                    writeData(out, serService.toData(e.getKey()));
+                    writeData(out, serService.toData(e.getValue()));
+                }
+            }
+            return new RunFile(file, entries.length);
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Returns the next batch of the merged contents of the run files and the
+     * given map, or {@code null} if the batch isn't read yet. Each key is
+     * returned once, with the accumulators from all the runs combined. An
+     * empty batch means the merge is done; the run files are deleted by then.
+     * <p>
+     * The first call starts the merge, the map must not be modified after it.
+     */
+    @Nullable
+    List<Entry<K, A>> pollMerged(@Nonnull Map<K, A> keyToAcc) {
+        if (isSpilling()) {
+            return null;
+        }
+        if (merger == null) {
+            @SuppressWarnings("unchecked")
+            Entry<K, A>[] entries = keyToAcc.entrySet().toArray(new Entry[0]);
+            Merger traverser = new Merger(new ArrayList<>(runFiles));
+            merger = traverser;
+            pendingBatch = CompletableFuture.supplyAsync(() -> {
+                traverser.open(entries);
+                return traverser.readBatch();
+            }, ioExecutor);
+        }
+        if (!pendingBatch.isDone()) {
+            return null;
+        }
+        List<Entry<K, A>> batch = getResult(pendingBatch);
+        if (batch.isEmpty()) {
+            runFiles.clear();
+        } else {
+            // read the next batch while this one is emitted
+            pendingBatch = CompletableFuture.supplyAsync(merger::readBatch, ioExecutor);
+        }
+        return batch;
+    }
+
+    /**
+     * Deletes the run files and the spill directory. If a task is in flight,
+     * they are deleted on the I/O executor after it's done.
+     */
+    void close() {
+        final List<RunFile> files = new ArrayList<>(runFiles);
+        runFiles.clear();
+        final Merger m = merger;
+        final Runnable cleanup = () -> {
+            if (m != null) {
+                m.close();
+            }
+            deleteFiles(files);
+        };
+        if (pendingSpill != null) {
+            pendingSpill.whenComplete((runFile, e) -> {
+                if (runFile != null) {
+                    files.add(runFile);
+                }
+                cleanup.run();
+            });
+            pendingSpill = null;
+        } else if (pendingBatch != null && !pendingBatch.isDone()) {
+            pendingBatch.whenComplete((r, e) -> cleanup.run());
+        } else {
+            cleanup.run();
+        }
+    }
+
+    private void deleteFiles(List<RunFile> files) {
+        for (RunFile runFile : files) {
+            deleteFile(runFile.file);
+        }
+        files.clear();
+        if (dir != null) {
+            deleteFile(dir);
+            dir = null;
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete() && file.exists()) {
+            throw new RuntimeException("Failed to delete " + file);
+        }
+    }
+
+    private static <T> T getResult(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw sneakyThrow(e.getCause());
+        }
+    }
+
+    private static int hash(Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    private static void writeData(DataOutputStream out, Data data) throws IOException {
+        if (data == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = data.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private Object readObject(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return serService.toObject(new HeapData(bytes));
+    }
+
+    private static final class RunFile {
+        final File file;
+        final int entryCount;
+
+        RunFile(File file, int entryCount) {
+            this.file = file;
+            this.entryCount = entryCount;
+        }
+    }
+
+    /**
+     * A sorted sequence of entries. The current entry is in the fields.
+     */
+    private abstract class Run implements Closeable {
+        int hash;
+        K key;
+        A acc;
+
+        /**
+         * Moves to the next entry, returns {@code false} if there's none.
+         */
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private final class ArrayRun extends Run {
+        private final Entry<K, A>[] entries;
+        private int index;
+
+        ArrayRun(Entry<K, A>[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        boolean advance() {
+            if (index == entries.length) {
+                return false;
+            }
+            Entry<K, A> e = entries[index];
+            // release the reference so that the processed accumulators can be collected
+            entries[index++] = null;
+            key = e.getKey();
+            acc = e.getValue();
+            hash = hash(key);
+            return true;
+        }
+    }
+
+    private final class FileRun extends Run {
+        private final DataInputStream in;
+        private int remaining;
+
+        FileRun(RunFile runFile) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile.file), BUFFER_SIZE));
+            this.remaining = runFile.entryCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            hash = in.readInt();
+            key = (K) readObject(in);
+            acc = (A) readObject(in);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Merges the runs. Its methods are called on the I/O executor, one at a
+     * time.
+     */
+    private final class Merger {
+        private final PriorityQueue<Run> queue = new PriorityQueue<>(comparingInt(r -> r.hash));
+        private final List<RunFile> runFiles;
+
+        Merger(List<RunFile> runFiles) {
+            this.runFiles = runFiles;
+        }
+
+        void open(Entry<K, A>[] entries) {
+            Arrays.sort(entries, comparingInt(e -> hash(e.getKey())));
+            try {
+                addRun(new ArrayRun(entries));
+                for (RunFile runFile : runFiles) {
+                    addRun(new FileRun(runFile));
+                }
+            } catch (IOException e) {
+                close();
+                throw sneakyThrow(e);
+            }
+        }
+
+        void addRun(Run run) throws IOException {
+            if (run.advance()) {
+                queue.add(run);
+            } else {
+                run.close();
+            }
+        }
+
+        /**
+         * Reads the next groups of entries until there are at least {@link
+         * #MERGE_BATCH_SIZE} entries or the runs are exhausted. Returns an
+         * empty list when exhausted and deletes the run files.
+         */
+        List<Entry<K, A>> readBatch() {
+            List<Entry<K, A>> batch = new ArrayList<>();
+            try {
+                boolean more = true;
+                while (more && batch.size() < MERGE_BATCH_SIZE) {
+                    more = nextGroup(batch);
+                }
+            } catch (IOException e) {
+                close();
+                throw sneakyThrow(e);
+            }
+            return batch;
+        }
+
+        /**
+         * Takes the entries with the lowest hash code from all runs, combines
+         * the accumulators of equal keys and adds them to the given list.
+         */
+        private boolean nextGroup(List<Entry<K, A>> batch) throws IOException {
+            Run run = queue.peek();
+            if (run == null) {
+                deleteFiles(runFiles);
+                return false;
+            }
+            Map<K, A> group = new HashMap<>();
+            int hash = run.hash;
+            while ((run = queue.peek()) != null && run.hash == hash) {
+                queue.poll();
+                A acc = group.get(run.key);
+                if (acc == null) {
+                    group.put(run.key, run.acc);
+                } else {
+                    combineFn.accept(acc, run.acc);
+                }
+                addRun(run);
+            }
+            for (Entry<K, A> e : group.entrySet()) {
+                batch.add(entry(e.getKey(), e.getValue()));
+            }
+            return true;
+        }
+
+        void close() {
+            for (Run run; (run = queue.poll()) != null; ) {
+                try {
+                    run.close();
+                } catch (IOException ignored) {
+                }
+            }
+            deleteFiles(runFiles);
+        }
+    }
+}
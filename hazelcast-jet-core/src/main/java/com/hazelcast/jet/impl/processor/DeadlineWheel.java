@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * Tells a processor which keys have state that expires when a watermark
+ * arrives, for example sessions to close in {@link SessionWindowP}. This
+ * is a timer wheel: the deadlines are grouped into slots of a fixed width,
+ * and the slots cover a fixed range of time starting at the current
+ * watermark. Deadlines beyond that range are kept in a separate list,
+ * which is scanned only when the wheel reaches its earliest slot.
+ * <p>
+ * Each key is kept only once, in the slot of the earliest deadline of its
+ * state. The current slot is stored in the state, see {@link Scheduled}.
+ * Entries aren't removed when the deadline moves later, for example when
+ * a session is extended. Instead, when the wheel reaches the entry, it
+ * sees that the deadline moved and moves the entry to the right slot. This
+ * makes adding an event O(1) with no allocation. An entry is stale if its
+ * key isn't scheduled in the slot anymore, and it's dropped when the wheel
+ * reaches it.
+ */
+final class DeadlineWheel<K, S extends DeadlineWheel.Scheduled> {
+
+    static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    private static final int WHEEL_SIZE = 1024;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final int slotWidthLog2;
+    private final List<K>[] slots;
+    // the lowest deadline of the entries in each slot
+    private final long[] slotMinDeadlines = new long[WHEEL_SIZE];
+    private final List<K> farKeys = new ArrayList<>();
+    private final List<K> pending = new ArrayList<>();
+    private long[] farSlots = new long[WHEEL_SIZE];
+    private long farMinSlot = Long.MAX_VALUE;
+    private long baseSlot = NOT_SCHEDULED;
+    private int size;
+
+    /**
+     * @param range the usual distance of the deadlines from the watermark,
+     *              the wheel covers twice that range
+     */
+    @SuppressWarnings("unchecked")
+    DeadlineWheel(long range) {
+        long slotWidth = nextPowerOfTwo(Math.max(1, (2 * range + WHEEL_SIZE - 1) / WHEEL_SIZE));
+        this.slotWidthLog2 = Long.numberOfTrailingZeros(slotWidth);
+        this.slots = new List[WHEEL_SIZE];
+        Arrays.setAll(slots, i -> new ArrayList<>());
+        Arrays.fill(slotMinDeadlines, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of entries in the wheel, including the stale ones.
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Ensures the key is scheduled no later than the deadline of its state.
+     * Must be called when the deadline moves earlier, for example when a key
+     * gets a new first session. It's not necessary to call it when the
+     * deadline moves later.
+     */
+    void schedule(K key, S state) {
+        long deadline = state.deadline();
+        long slot = slot(deadline);
+        if (state.scheduledSlot() != NOT_SCHEDULED && state.scheduledSlot() <= slot) {
+            return;
+        }
+        state.setScheduledSlot(add(key, slot, deadline));
+    }
+
+    /**
+     * Adds to the given list the keys whose deadline is before the given
+     * watermark. The added keys are no longer scheduled, the caller must
+     * {@link #schedule} those which still have state after removing the
+     * expired part of it.
+     */
+    void collectExpired(long wm, Map<K, ? extends S> keyToState, List<K> expired) {
+        if (size == 0) {
+            return;
+        }
+        long wmSlot = slot(wm);
+        if (baseSlot == NOT_SCHEDULED) {
+            // the first watermark: all entries are in the far list until now
+            baseSlot = wmSlot;
+        } else if (wmSlot >= horizon()) {
+            // the watermark jumped over the whole wheel: take out all entries and re-add them relative to the new base
+            for (long slot = baseSlot; slot - baseSlot < WHEEL_SIZE; slot++) {
+                int index = (int) slot & WHEEL_MASK;
+                takeValidEntries(slots[index], slot, keyToState);
+                slots[index].clear();
+                slotMinDeadlines[index] = Long.MAX_VALUE;
+            }
+            baseSlot = wmSlot;
+            reAddPending(wm, keyToState, expired);
+        } else if (wmSlot >= baseSlot) {
+            for (long slot = baseSlot; slot < wmSlot; slot++) {
+                processSlot(slot, wm, keyToState, expired);
+            }
+            baseSlot = wmSlot;
+            if (slotMinDeadlines[(int) wmSlot & WHEEL_MASK] < wm) {
+                processSlot(wmSlot, wm, keyToState, expired);
+            }
+        }
+        if (farMinSlot < horizon()) {
+            for (int i = 0; i < farKeys.size(); i++) {
+                takeValid(farKeys.get(i), farSlots[i], keyToState);
+            }
+            farKeys.clear();
+            farMinSlot = Long.MAX_VALUE;
+            reAddPending(wm, keyToState, expired);
+        }
+    }
+
+    private void processSlot(long slot, long wm, Map<K, ? extends S> keyToState, List<K> expired) {
+        int index = (int) slot & WHEEL_MASK;
+        List<K> keys = slots[index];
+        long minDeadline = Long.MAX_VALUE;
+        int kept = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            S state = keyToState.get(key);
+            if (state == null || state.scheduledSlot() != slot) {
+                // stale entry
+                size--;
+                continue;
+            }
+            long deadline = state.deadline();
+            if (deadline < wm) {
+                size--;
+                state.setScheduledSlot(NOT_SCHEDULED);
+                expired.add(key);
+            } else if (slot(deadline) == slot) {
+                keys.set(kept++, key);
+                minDeadline = Math.min(minDeadline, deadline);
+            } else {
+                // the deadline moved later, move the entry to the slot of the new deadline
+                size--;
+                state.setScheduledSlot(add(key, slot(deadline), deadline));
+            }
+        }
+        keys.subList(kept, keys.size()).clear();
+        slotMinDeadlines[index] = minDeadline;
+    }
+
+    private void takeValidEntries(List<K> keys, long slot, Map<K, ? extends S> keyToState) {
+        for (int i = 0; i < keys.size(); i++) {
+            takeValid(keys.get(i), slot, keyToState);
+        }
+    }
+
+    /**
+     * Removes the entry from the count and, if it isn't stale, moves the key
+     * to {@link #pending}. Marking the key as not scheduled ensures that a
+     * duplicate entry of the key will be seen as stale.
+     */
+    private void takeValid(K key, long slot, Map<K, ? extends S> keyToState) {
+        size--;
+        S state = keyToState.get(key);
+        if (state != null && state.scheduledSlot() == slot) {
+            state.setScheduledSlot(NOT_SCHEDULED);
+            pending.add(key);
+        }
+    }
+
+    private void reAddPending(long wm, Map<K, ? extends S> keyToState, List<K> expired) {
+        for (int i = 0; i < pending.size(); i++) {
+            K key = pending.get(i);
+            S state = keyToState.get(key);
+            long deadline = state.deadline();
+            if (deadline < wm) {
+                expired.add(key);
+            } else {
+                state.setScheduledSlot(add(key, slot(deadline), deadline));
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Adds the entry and returns the slot it was added to.
+     */
+    private long add(K key, long slot, long deadline) {
+        size++;
+        // Until the first watermark, the base isn't known and all entries go to the far list.
+        // After it, the deadlines are never before the base slot because late events are dropped.
+        if (baseSlot != NOT_SCHEDULED && slot < horizon()) {
+            slot = Math.max(slot, baseSlot);
+            int index = (int) slot & WHEEL_MASK;
+            slots[index].add(key);
+            slotMinDeadlines[index] = Math.min(slotMinDeadlines[index], deadline);
+        } else {
+            if (farKeys.size() == farSlots.length) {
+                farSlots = Arrays.copyOf(farSlots, farSlots.length * 2);
+            }
+            farSlots[farKeys.size()] = slot;
+            farKeys.add(key);
+            farMinSlot = Math.min(farMinSlot, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the first slot after the wheel, saturated to avoid overflow
+     * after the final watermark.
+     */
+    private long horizon() {
+        return baseSlot > Long.MAX_VALUE - WHEEL_SIZE ? Long.MAX_VALUE : baseSlot + WHEEL_SIZE;
+    }
+
+    private long slot(long deadline) {
+        return deadline >> slotWidthLog2;
+    }
+
+    /**
+     * The state of a key in a {@link DeadlineWheel}.
+     */
+    interface Scheduled {
+
+        /**
+         * Returns the earliest time at which some of the state expires.
+         */
+        long deadline();
+
+        /**
+         * Returns the slot in which the key is scheduled, or {@link
+         * #NOT_SCHEDULED}. The initial value must be {@code NOT_SCHEDULED}.
+         */
+        long scheduledSlot();
+
+        void setScheduledSlot(long slot);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * The frames of {@link SlidingWindowP}: for each frame timestamp a map from
+ * the grouping key to the accumulator.
+ * <p>
+ * The frames are kept in a ring indexed by {@code (frameTs / frameSize) mod
+ * capacity}. The ring grows when a new frame collides with a live one, up
+ * to {@link #MAX_RING_CAPACITY} slots; frames which don't fit after that
+ * (only possible when events are spread over a very long time span) are
+ * kept in an overflow map. The map of an evicted frame stays in its slot
+ * and is reused by the next frame which lands there.
+ */
+final class FrameStore<K, A> {
+
+    static final int MAX_RING_CAPACITY = 1 << 14;
+
+    private static final long NO_FRAME = Long.MIN_VALUE;
+    private static final int MIN_RING_CAPACITY = 8;
+
+    private final long frameSize;
+    private final Map<Long, OpenHashMap<K, A>> overflow = new HashMap<>();
+    private long[] frameTimestamps;
+    private OpenHashMap<K, A>[] frames;
+    private int mask;
+    private int ringFrameCount;
+
+    /**
+     * @param frameSize the distance between frame timestamps
+     * @param expectedFrameCount number of frames expected to be live at once
+     */
+    FrameStore(long frameSize, long expectedFrameCount) {
+        this.frameSize = frameSize;
+        allocate((int) Math.min(MAX_RING_CAPACITY,
+                nextPowerOfTwo(Math.max(MIN_RING_CAPACITY, expectedFrameCount))));
+    }
+
+    boolean isEmpty() {
+        return ringFrameCount == 0 && overflow.isEmpty();
+    }
+
+    /**
+     * Returns the frame with the given timestamp or {@code null}, if there's
+     * no such frame.
+     */
+    OpenHashMap<K, A> get(long frameTs) {
+        int slot = slot(frameTs);
+        if (frameTimestamps[slot] == frameTs) {
+            return frames[slot];
+        }
+        return overflow.isEmpty() ? null : overflow.get(frameTs);
+    }
+
+    /**
+     * Returns the frame with the given timestamp, creating it if it doesn't
+     * exist.
+     */
+    OpenHashMap<K, A> getOrCreate(long frameTs) {
+        int slot = slot(frameTs);
+        if (frameTimestamps[slot] == frameTs) {
+            return frames[slot];
+        }
+        if (!overflow.isEmpty()) {
+            OpenHashMap<K, A> frame = overflow.get(frameTs);
+            if (frame != null) {
+                return frame;
+            }
+        }
+        while (frameTimestamps[slot] != NO_FRAME) {
+            if (frames.length >= MAX_RING_CAPACITY) {
+                return overflow.computeIfAbsent(frameTs, x -> new OpenHashMap<>());
+            }
+            allocate(frames.length << 1);
+            slot = slot(frameTs);
+        }
+        frameTimestamps[slot] = frameTs;
+        if (frames[slot] == null) {
+            frames[slot] = new OpenHashMap<>();
+        }
+        ringFrameCount++;
+        return frames[slot];
+    }
+
+    /**
+     * Removes the frame with the given timestamp, if it exists.
+     */
+    void evict(long frameTs) {
+        int slot = slot(frameTs);
+        if (frameTimestamps[slot] == frameTs) {
+            frames[slot].clear();
+            frameTimestamps[slot] = NO_FRAME;
+            ringFrameCount--;
+        } else if (!overflow.isEmpty()) {
+            overflow.remove(frameTs);
+        }
+    }
+
+    /**
+     * Returns the lowest timestamp of an existing frame or {@code
+     * Long.MAX_VALUE}, if there are no frames.
+     */
+    long minFrameTs() {
+        long min = Long.MAX_VALUE;
+        if (ringFrameCount > 0) {
+            for (long ts : frameTimestamps) {
+                if (ts != NO_FRAME && ts < min) {
+                    min = ts;
+                }
+            }
+        }
+        for (long ts : overflow.keySet()) {
+            min = Math.min(min, ts);
+        }
+        return min;
+    }
+
+    /**
+     * Returns a traverser over the timestamps of existing frames, in no
+     * particular order. The store must not be modified while the traverser
+     * is in use.
+     */
+    Traverser<Long> frameTimestamps() {
+        Iterator<Long> overflowIterator = overflow.keySet().iterator();
+        return new Traverser<Long>() {
+            private int i;
+
+            @Override
+            public Long next() {
+                for (; i < frameTimestamps.length; i++) {
+                    if (frameTimestamps[i] != NO_FRAME) {
+                        return frameTimestamps[i++];
+                    }
+                }
+                return overflowIterator.hasNext() ? overflowIterator.next() : null;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        Traverser<Long> timestamps = frameTimestamps();
+        for (Long ts; (ts = timestamps.next()) != null; ) {
+            sb.append(sb.length() > 1 ? ", " : "").append(ts).append('=').append(get(ts));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Allocates the ring with the given capacity and moves the existing
+     * frames to it. Because the capacity only doubles, frames which didn't
+     * collide in the old ring don't collide in the new one.
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        long[] oldTimestamps = frameTimestamps;
+        OpenHashMap<K, A>[] oldFrames = frames;
+        frameTimestamps = new long[capacity];
+        Arrays.fill(frameTimestamps, NO_FRAME);
+        frames = new OpenHashMap[capacity];
+        mask = capacity - 1;
+        if (oldTimestamps == null) {
+            return;
+        }
+        for (int i = 0; i < oldTimestamps.length; i++) {
+            if (oldTimestamps[i] != NO_FRAME) {
+                int slot = slot(oldTimestamps[i]);
+                frameTimestamps[slot] = oldTimestamps[i];
+                frames[slot] = oldFrames[i];
+            }
+        }
+    }
+
+    private int slot(long frameTs) {
+        return (int) Math.floorDiv(frameTs, frameSize) & mask;
+    }
+}
@@ -16,20 +16,29 @@
 
 package com.hazelcast.jet.impl.processor;
 
+import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.execution.ClosedOnCompletion;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
+import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.spi.ExecutionService.IO_EXECUTOR;
 import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.util.Collections.singletonList;
 
@@ -38,26 +47,70 @@ import static java.util.Collections.singletonList;
  * aggregate operation on each group. The items may originate from one or
  * more inbound edges. The supplied aggregate operation must have as many
  * accumulation functions as there are inbound edges.
+ * <p>
+ * If the {@linkplain com.hazelcast.jet.config.InstanceConfig#setMaxInMemoryGroupingKeys
+ * number of in-memory keys} is limited, the processor keeps the keys in
+ * access order and spills the least recently used half to disk when it
+ * reaches the limit. The files are written and read on the member's I/O
+ * executor; the processor applies backpressure while a spill is being
+ * written and deletes the files in {@link #close()}.
+ * <p>
+ * Otherwise, if the accumulator is one of the fixed-width types in {@code
+ * com.hazelcast.jet.accumulator}, the accumulators are kept in a {@link
+ * PackedAccumulatorTable}, unless {@linkplain
+ * com.hazelcast.jet.config.InstanceConfig#setPackedGroupingAccumulators
+ * packed grouping accumulators} are disabled.
+ * <p>
+ * A processor doing the first stage of a two-stage aggregation is created
+ * as <em>partial</em>: its output is combined downstream, so it may emit
+ * several results for one key. If the {@linkplain
+ * com.hazelcast.jet.config.InstanceConfig#setMaxPartialAggregationKeys
+ * number of partial aggregation keys} is limited, it keeps the keys in a
+ * {@link PartialAggregationCache} and emits the evicted accumulators early.
  */
-public class GroupP<K, A, R, OUT> extends AbstractProcessor {
+public class GroupP<K, A, R, OUT> extends AbstractProcessor implements ClosedOnCompletion {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
     @Nonnull private final List<DistributedFunction<?, ? extends K>> groupKeyFns;
     @Nonnull private final AggregateOperation<A, R> aggrOp;
+    @Nonnull private final BiFunction<? super K, ? super R, OUT> mapToOutputFn;
+    private final boolean partial;
 
-    private final Map<K, A> keyToAcc = new HashMap<>();
-    private final Traverser<OUT> resultTraverser;
+    private Map<K, A> keyToAcc = new HashMap<>();
+    private AccumulatorSpiller<K, A> spiller;
+    private PackedAccumulatorTable<K, A> packedTable;
+    private int maxInMemoryKeys;
+    private PartialAggregationCache<K, A> partialCache;
+    private OUT pendingOutput;
+    // the outbox rejected the pending output in the current call, don't offer again before returning
+    private boolean outboxRejected;
+    private Traverser<OUT> resultTraverser;
 
     public GroupP(
             @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFns,
             @Nonnull AggregateOperation<A, R> aggrOp,
             @Nonnull BiFunction<? super K, ? super R, OUT> mapToOutputFn
+    ) {
+        this(groupKeyFns, aggrOp, mapToOutputFn, false);
+    }
+
+    /**
+     * @param partial if {@code true}, the results are combined downstream
+     *                and the processor can emit a key more than once
+     */
+    public GroupP(
+            @Nonnull List<DistributedFunction<?, ? extends K>> groupKeyFns,
+            @Nonnull AggregateOperation<A, R> aggrOp,
+            @Nonnull BiFunction<? super K, ? super R, OUT> mapToOutputFn,
+            boolean partial
     ) {
         checkTrue(groupKeyFns.size() == aggrOp.arity(), groupKeyFns.size() + " key functions " +
                 "provided for " + aggrOp.arity() + "-arity aggregate operation");
         this.groupKeyFns = groupKeyFns;
         this.aggrOp = aggrOp;
-        this.resultTraverser = traverseStream(keyToAcc
-                .entrySet().stream()
-                .map(e -> mapToOutputFn.apply(e.getKey(), aggrOp.finishFn().apply(e.getValue()))));
+        this.mapToOutputFn = mapToOutputFn;
+        this.partial = partial;
     }
 
     public <T> GroupP(
@@ -68,18 +121,137 @@ public class GroupP<K, A, R, OUT> extends AbstractProcessor {
         this(singletonList(groupKeyFn), aggrOp, mapToOutputFn);
     }
 
+    @Override
+    protected void init(@Nonnull Context context) {
+        int maxPartialKeys = context instanceof ProcCtx
+                ? context.jetInstance().getConfig().getInstanceConfig().getMaxPartialAggregationKeys()
+                : 0;
+        if (partial && maxPartialKeys > 0) {
+            partialCache = new PartialAggregationCache<>(aggrOp, maxPartialKeys);
+            return;
+        }
+        initSpilling(context);
+        if (spiller == null && context instanceof ProcCtx
+                && context.jetInstance().getConfig().getInstanceConfig().isPackedGroupingAccumulators()) {
+            packedTable = PackedAccumulatorTable.create(aggrOp);
+        }
+    }
+
+    private void initSpilling(@Nonnull Context context) {
+        if (!(context instanceof ProcCtx)) {
+            return;
+        }
+        InstanceConfig instanceConfig = context.jetInstance().getConfig().getInstanceConfig();
+        if (instanceConfig.getMaxInMemoryGroupingKeys() == 0) {
+            return;
+        }
+        if (aggrOp.combineFn() == null) {
+            getLogger().warning("The aggregate operation has no combine primitive, all keys will be kept in memory");
+            return;
+        }
+        maxInMemoryKeys = instanceConfig.getMaxInMemoryGroupingKeys();
+        keyToAcc = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        NodeEngine nodeEngine = ((HazelcastInstanceImpl) context.jetInstance().getHazelcastInstance()).node.nodeEngine;
+        spiller = new AccumulatorSpiller<>(Paths.get(instanceConfig.getTempDir()),
+                ((ProcCtx) context).getSerializationService(), aggrOp.combineFn(),
+                nodeEngine.getExecutionService().getExecutor(IO_EXECUTOR));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         Function<Object, ? extends K> keyFn = (Function<Object, ? extends K>) groupKeyFns.get(ordinal);
         K key = keyFn.apply(item);
+        if (partialCache != null) {
+            return accumulatePartial(key, ordinal, item);
+        }
+        if (packedTable != null) {
+            packedTable.accumulate(key, ordinal, item);
+            return true;
+        }
+        if (spiller != null && keyToAcc.size() >= maxInMemoryKeys && spiller.isSpilling()) {
+            // the map is full and the previous spill isn't written yet
+            return false;
+        }
         A acc = keyToAcc.computeIfAbsent(key, k -> aggrOp.createFn().get());
         aggrOp.accumulateFn(ordinal).accept(acc, item);
+        if (spiller != null && keyToAcc.size() > maxInMemoryKeys) {
+            spiller.spill(keyToAcc, keyToAcc.size() / 2);
+        }
+        return true;
+    }
+
+    private boolean accumulatePartial(K key, int ordinal, @Nonnull Object item) {
+        if (pendingOutput != null) {
+            if (outboxRejected) {
+                outboxRejected = false;
+                return false;
+            }
+            if (!tryEmit(pendingOutput)) {
+                return false;
+            }
+            pendingOutput = null;
+        }
+        Entry<K, A> flushed = partialCache.accumulate(key, ordinal, item);
+        if (flushed != null) {
+            OUT output = toOutput(flushed);
+            if (!tryEmit(output)) {
+                pendingOutput = output;
+                outboxRejected = true;
+            }
+        }
         return true;
     }
 
     @Override
     public boolean complete() {
+        if (pendingOutput != null) {
+            if (outboxRejected) {
+                outboxRejected = false;
+                return false;
+            }
+            if (!tryEmit(pendingOutput)) {
+                return false;
+            }
+            pendingOutput = null;
+        }
+        if (spiller != null && spiller.runCount() > 0) {
+            return completeFromSpiller();
+        }
+        if (resultTraverser == null) {
+            Traverser<Entry<K, A>> entries = partialCache != null ? traverseIterable(partialCache.keyToAcc().entrySet())
+                    : packedTable != null ? packedTable.traverser()
+                    : traverseIterable(keyToAcc.entrySet());
+            resultTraverser = entries.map(this::toOutput);
+        }
         return emitFromTraverser(resultTraverser);
     }
+
+    /**
+     * Emits the merged accumulators batch by batch as the spiller reads them.
+     */
+    private boolean completeFromSpiller() {
+        while (resultTraverser == null || emitFromTraverser(resultTraverser)) {
+            List<Entry<K, A>> batch = spiller.pollMerged(keyToAcc);
+            if (batch == null) {
+                return false;
+            }
+            if (batch.isEmpty()) {
+                return true;
+            }
+            resultTraverser = traverseIterable(batch).map(this::toOutput);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (spiller != null) {
+            spiller.close();
+        }
+    }
+
+    private OUT toOutput(Entry<K, A> e) {
+        return mapToOutputFn.apply(e.getKey(), aggrOp.finishFn().apply(e.getValue()));
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.jet.impl.util.BloomFilter;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import java.util.function.Function;
+
+/**
+ * Builds a {@link BloomFilter} of the join keys on the build side of a
+ * partitioned hash join and emits it when complete. The filters from all
+ * members are broadcast to {@link HashJoinProbeFilterP}, which uses them
+ * to keep the probe-side items that certainly have no match off the
+ * network.
+ * <p>
+ * The keys are hashed in their serialized form so that members agree on
+ * the hash regardless of the key class's {@code hashCode()}.
+ */
+public class HashJoinBloomFilterP<E, K> extends AbstractProcessor {
+    static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Nonnull private final Function<E, K> keyFn;
+    private final BloomFilter filter;
+    private SerializationService serializationService;
+
+    public HashJoinBloomFilterP(@Nonnull Function<E, K> keyFn, long expectedKeys) {
+        this.keyFn = keyFn;
+        this.filter = new BloomFilter(expectedKeys, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        serializationService = serializationService(context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess0(@Nonnull Object item) {
+        filter.add(keyHash(serializationService, keyFn.apply((E) item)));
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        return tryEmit(filter);
+    }
+
+    /**
+     * Returns the member's serialization service. The hashes must come from
+     * the service configured on the members, otherwise the filter and the
+     * probe side could disagree on them.
+     */
+    static SerializationService serializationService(Context context) {
+        if (!(context instanceof ProcCtx)) {
+            throw new IllegalStateException("Hash join filter processors need the member's serialization service, "
+                    + "but the context " + context.getClass().getName() + " doesn't provide it");
+        }
+        return ((ProcCtx) context).getSerializationService();
+    }
+
+    static long keyHash(SerializationService serializationService, Object key) {
+        return serializationService.toData(key).hash64();
+    }
+}
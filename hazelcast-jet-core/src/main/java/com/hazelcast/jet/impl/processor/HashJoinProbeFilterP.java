@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.impl.util.BloomFilter;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import java.util.function.Function;
+
+import static com.hazelcast.jet.impl.processor.HashJoinBloomFilterP.keyHash;
+import static com.hazelcast.jet.impl.processor.HashJoinBloomFilterP.serializationService;
+
+/**
+ * Splits the probe side of a partitioned hash join using the Bloom
+ * filters received from {@link HashJoinBloomFilterP} on ordinal 1. Items
+ * whose key is possibly on the build side go to ordinal 0, which is
+ * partitioned by the key across the cluster. Items whose key certainly
+ * isn't there go to ordinal 1, a local edge on which the joiner emits them
+ * without a match.
+ */
+public class HashJoinProbeFilterP<E0> extends AbstractProcessor {
+
+    @Nonnull private final Function<E0, Object> keyFn;
+    private BloomFilter filter;
+    private SerializationService serializationService;
+    private boolean ordinal0consumed;
+
+    public HashJoinProbeFilterP(@Nonnull Function<E0, Object> keyFn) {
+        this.keyFn = keyFn;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        serializationService = serializationService(context);
+    }
+
+    @Override
+    protected boolean tryProcess1(@Nonnull Object item) {
+        assert !ordinal0consumed : "Edge 0 must have a lower priority than edge 1";
+        if (filter == null) {
+            filter = (BloomFilter) item;
+        } else {
+            filter.union((BloomFilter) item);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess0(@Nonnull Object item) {
+        ordinal0consumed = true;
+        boolean mightMatch = filter != null
+                && filter.mightContain(keyHash(serializationService, keyFn.apply((E0) item)));
+        return tryEmit(mightMatch ? 0 : 1, item);
+    }
+}
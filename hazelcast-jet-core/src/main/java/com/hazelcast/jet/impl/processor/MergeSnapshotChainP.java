@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.jet.impl.execution.InFlightItemKey;
+
+import javax.annotation.Nonnull;
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.DELTA_MARKER;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.REMOVED;
+
+/**
+ * Merges the snapshot data of one vertex stored in a chain of snapshots: a
+ * full snapshot followed by delta snapshots. Ordinal {@code i} receives
+ * the entries of the {@code i}-th snapshot in the chain, oldest first.
+ * <p>
+ * For each key the value from the highest ordinal wins and a {@link
+ * com.hazelcast.jet.impl.execution.DeltaSnapshotTag#REMOVED REMOVED} value
+ * drops the key. Broadcast keys are taken only from the newest snapshot,
+ * as each snapshot saves all of them again, and are emitted as {@link
+ * BroadcastEntry}. The saved in-flight items of a snapshot with
+ * non-blocking barriers belong only to that snapshot and are also taken
+ * from the newest one.
+ * <p>
+ * The inbound edges must have {@linkplain com.hazelcast.jet.core.Edge#priority
+ * priorities} such that the ordinals are received from the newest to the
+ * oldest. The processor then emits an entry as soon as it receives the
+ * first value of its key and only remembers the keys it has seen, not
+ * their values. The keys of the oldest snapshot don't have to be
+ * remembered.
+ * <p>
+ * The input is expected to be partitioned by the entry key.
+ */
+public class MergeSnapshotChainP extends AbstractProcessor {
+
+    private final int newestOrdinal;
+    private final Set<Object> seenKeys = new HashSet<>();
+    private int currentOrdinal;
+
+    public MergeSnapshotChainP(int chainLength) {
+        this.newestOrdinal = chainLength - 1;
+        this.currentOrdinal = newestOrdinal;
+    }
+
+    /**
+     * Returns the priority of the inbound edge at the given ordinal.
+     */
+    public static int edgePriority(int chainLength, int ordinal) {
+        return chainLength - 1 - ordinal;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+        assert ordinal <= currentOrdinal : "ordinal " + ordinal + " received after " + currentOrdinal;
+        currentOrdinal = ordinal;
+        Entry<Object, Object> e = (Entry<Object, Object>) item;
+        Object key = e.getKey();
+        if (key == DELTA_MARKER) {
+            return true;
+        }
+        if (key instanceof BroadcastKey) {
+            return ordinal != newestOrdinal || tryEmit(new BroadcastEntry<>(e));
+        }
+        if (key instanceof InFlightItemKey) {
+            return ordinal != newestOrdinal || tryEmit(e);
+        }
+        if (ordinal != 0 ? seenKeys.contains(key) : seenKeys.remove(key)) {
+            // a newer snapshot had the key; in the oldest one we won't see it again
+            return true;
+        }
+        if (e.getValue() != REMOVED && !tryEmit(e)) {
+            return false;
+        }
+        if (ordinal != 0) {
+            seenKeys.add(key);
+        }
+        return true;
+    }
+}
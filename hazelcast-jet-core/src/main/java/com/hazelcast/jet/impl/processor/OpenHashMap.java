@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * An insert-only hash map with open addressing and linear probing. The
+ * entries are stored in insertion order in dense arrays and the hash table
+ * only holds their indices. Unlike {@code HashMap}, it allocates no objects
+ * per entry and {@link #clear()} keeps the allocated arrays so the map can
+ * be reused without producing garbage. Iteration is in insertion order.
+ * Entries can't be removed individually. A {@code null} key is supported,
+ * {@code null} values are not, except for keys added with {@link #addKey}.
+ */
+final class OpenHashMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private static final int HASH_SPREAD_SHIFT = 16;
+    private static final Object NULL_KEY = new Object();
+
+    // hash table, contains (index into keys/values + 1) or 0 for a free slot
+    private int[] table;
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    OpenHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    OpenHashMap(int initialCapacity) {
+        allocate(nextPowerOfTwo(Math.max(DEFAULT_CAPACITY, initialCapacity)));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        int index = indexOf(maskNull(key));
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    /**
+     * Returns the value for the given key. If there's none, creates it using
+     * the given function, stores it and returns it.
+     */
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(K key, Supplier<? extends V> createFn) {
+        Object k = maskNull(key);
+        int index = indexOf(k);
+        if (index >= 0) {
+            return (V) values[index];
+        }
+        V value = createFn.get();
+        insert(k, value);
+        return value;
+    }
+
+    /**
+     * Stores the value for the given key and returns the previous value or
+     * {@code null}, if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    V put(K key, V value) {
+        Object k = maskNull(key);
+        int index = indexOf(k);
+        if (index >= 0) {
+            V prev = (V) values[index];
+            values[index] = value;
+            return prev;
+        }
+        insert(k, value);
+        return null;
+    }
+
+    /**
+     * Returns the position of the key in the insertion order. If the key is
+     * absent, adds it with a {@code null} value. This allows to use the map
+     * as an index of keys, with the values kept elsewhere.
+     */
+    int addKey(K key) {
+        Object k = maskNull(key);
+        int index = indexOf(k);
+        if (index >= 0) {
+            return index;
+        }
+        insert(k, null);
+        return size - 1;
+    }
+
+    /**
+     * Returns the key at the given position in the insertion order.
+     */
+    K keyAt(int index) {
+        return unmaskNull(keys[index]);
+    }
+
+    /**
+     * Removes all entries, but keeps the allocated capacity.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, 0);
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(unmaskNull(keys[i]), (V) values[i]);
+        }
+    }
+
+    /**
+     * Returns a traverser over the entries of this map. The map must not be
+     * modified while the traverser is in use.
+     */
+    @SuppressWarnings("unchecked")
+    Traverser<Entry<K, V>> traverser() {
+        return new Traverser<Entry<K, V>>() {
+            private int i;
+
+            @Override
+            public Entry<K, V> next() {
+                if (i == size) {
+                    return null;
+                }
+                Entry<K, V> e = entry(unmaskNull(keys[i]), (V) values[i]);
+                i++;
+                return e;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Returns the index of the key in {@link #keys} or -1 if it's absent.
+     */
+    private int indexOf(Object k) {
+        for (int i = slot(k); table[i] != 0; i = (i + 1) & mask) {
+            int index = table[i] - 1;
+            if (keys[index].equals(k)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(Object k, Object value) {
+        if (size == resizeThreshold) {
+            allocate(table.length << 1);
+        }
+        keys[size] = k;
+        values[size] = value;
+        size++;
+        table[freeSlot(k)] = size;
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        if (keys == null) {
+            keys = new Object[resizeThreshold];
+            values = new Object[resizeThreshold];
+            return;
+        }
+        keys = Arrays.copyOf(keys, resizeThreshold);
+        values = Arrays.copyOf(values, resizeThreshold);
+        for (int index = 0; index < size; index++) {
+            table[freeSlot(keys[index])] = index + 1;
+        }
+    }
+
+    private int freeSlot(Object k) {
+        int i = slot(k);
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int slot(Object k) {
+        int h = k.hashCode() * HASH_MULTIPLIER;
+        return (h ^ (h >>> HASH_SPREAD_SHIFT)) & mask;
+    }
+
+    private static Object maskNull(Object key) {
+        return key != null ? key : NULL_KEY;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmaskNull(Object key) {
+        return key != NULL_KEY ? (K) key : null;
+    }
+}
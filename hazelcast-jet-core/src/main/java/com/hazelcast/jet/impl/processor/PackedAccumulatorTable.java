@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
+import com.hazelcast.jet.accumulator.LongLongAccumulator;
+import com.hazelcast.jet.aggregate.AggregateOperation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+
+/**
+ * A table of the accumulators of a grouping processor for aggregate
+ * operations whose accumulator is one of the fixed-width types in {@code
+ * com.hazelcast.jet.accumulator}. Instead of an accumulator object per key,
+ * the table keeps the accumulator values packed in a {@code long} array and
+ * the keys in an {@link OpenHashMap}, which doesn't allocate a map entry
+ * per key. To accumulate an item, the values are copied to a single
+ * reusable accumulator, the operation's accumulate function is applied to
+ * it and the values are copied back; in a benchmark, this was as fast as
+ * looking the accumulator object up in a {@code HashMap}.
+ */
+final class PackedAccumulatorTable<K, A> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // some VMs reserve header words in an array
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final AggregateOperation<A, ?> aggrOp;
+    private final Layout layout;
+    private final A scratchAcc;
+    private final long[] initialValues;
+    private final OpenHashMap<K, Void> keys = new OpenHashMap<>();
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int usedLongs;
+
+    private PackedAccumulatorTable(AggregateOperation<A, ?> aggrOp, Layout layout, A scratchAcc) {
+        this.aggrOp = aggrOp;
+        this.layout = layout;
+        this.scratchAcc = scratchAcc;
+        this.initialValues = new long[layout.width];
+        layout.store(scratchAcc, initialValues, 0);
+    }
+
+    /**
+     * Returns a table for the given aggregate operation or {@code null}, if
+     * its accumulator type isn't supported.
+     */
+    @Nullable
+    static <K, A> PackedAccumulatorTable<K, A> create(@Nonnull AggregateOperation<A, ?> aggrOp) {
+        A acc = aggrOp.createFn().get();
+        Layout layout = Layout.of(acc);
+        return layout != null ? new PackedAccumulatorTable<>(aggrOp, layout, acc) : null;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    /**
+     * Applies the accumulate function for the given ordinal to the
+     * accumulator of the given key, creating it if absent.
+     */
+    void accumulate(K key, int ordinal, Object item) {
+        int offset = keys.addKey(key) * layout.width;
+        if (offset == usedLongs) {
+            // a new key
+            if (offset + layout.width > values.length) {
+                grow();
+            }
+            System.arraycopy(initialValues, 0, values, offset, layout.width);
+            usedLongs += layout.width;
+        }
+        layout.load(values, offset, scratchAcc);
+        aggrOp.accumulateFn(ordinal).accept(scratchAcc, item);
+        layout.store(scratchAcc, values, offset);
+    }
+
+    /**
+     * Returns a traverser over the keys and their accumulators. Each
+     * accumulator is a new object, it can be retained by the caller.
+     */
+    @Nonnull
+    Traverser<Entry<K, A>> traverser() {
+        return new Traverser<Entry<K, A>>() {
+            private int index;
+
+            @Override
+            public Entry<K, A> next() {
+                if (index == keys.size()) {
+                    return null;
+                }
+                A acc = aggrOp.createFn().get();
+                layout.load(values, index * layout.width, acc);
+                return entry(keys.keyAt(index++), acc);
+            }
+        };
+    }
+
+    private void grow() {
+        if (values.length == MAX_CAPACITY) {
+            throw new JetException("Too many keys for a packed accumulator table: " + keys.size());
+        }
+        values = Arrays.copyOf(values, (int) Math.min((long) values.length * 2, MAX_CAPACITY));
+    }
+
+    /**
+     * Copies the values of an accumulator type to and from an array.
+     */
+    private enum Layout {
+        LONG(1) {
+            @Override
+            void store(Object acc, long[] values, int offset) {
+                values[offset] = ((LongAccumulator) acc).get();
+            }
+
+            @Override
+            void load(long[] values, int offset, Object acc) {
+                ((LongAccumulator) acc).set(values[offset]);
+            }
+        },
+        DOUBLE(1) {
+            @Override
+            void store(Object acc, long[] values, int offset) {
+                values[offset] = doubleToRawLongBits(((DoubleAccumulator) acc).finish());
+            }
+
+            @Override
+            void load(long[] values, int offset, Object acc) {
+                ((DoubleAccumulator) acc).set(longBitsToDouble(values[offset]));
+            }
+        },
+        LONG_LONG(2) {
+            @Override
+            void store(Object acc, long[] values, int offset) {
+                LongLongAccumulator a = (LongLongAccumulator) acc;
+                values[offset] = a.get1();
+                values[offset + 1] = a.get2();
+            }
+
+            @Override
+            void load(long[] values, int offset, Object acc) {
+                LongLongAccumulator a = (LongLongAccumulator) acc;
+                a.set1(values[offset]);
+                a.set2(values[offset + 1]);
+            }
+        },
+        LONG_DOUBLE(2) {
+            @Override
+            void store(Object acc, long[] values, int offset) {
+                LongDoubleAccumulator a = (LongDoubleAccumulator) acc;
+                values[offset] = a.getLong();
+                values[offset + 1] = doubleToRawLongBits(a.getDouble());
+            }
+
+            @Override
+            void load(long[] values, int offset, Object acc) {
+                LongDoubleAccumulator a = (LongDoubleAccumulator) acc;
+                a.setLong(values[offset]);
+                a.setDouble(longBitsToDouble(values[offset + 1]));
+            }
+        };
+
+        final int width;
+
+        Layout(int width) {
+            this.width = width;
+        }
+
+        @Nullable
+        static Layout of(Object acc) {
+            // exact class match, a subclass can have more state
+            Class<?> clazz = acc.getClass();
+            return clazz == LongAccumulator.class ? LONG
+                    : clazz == DoubleAccumulator.class ? DOUBLE
+                    : clazz == LongLongAccumulator.class ? LONG_LONG
+                    : clazz == LongDoubleAccumulator.class ? LONG_DOUBLE
+                    : null;
+        }
+
+        abstract void store(Object acc, long[] values, int offset);
+
+        abstract void load(long[] values, int offset, Object acc);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.aggregate.AggregateOperation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * A bounded cache of partial accumulators for the first stage of a
+ * two-stage aggregation. It keeps at most the given number of keys, in
+ * access order. When a new key doesn't fit, the least recently used
+ * accumulator is evicted and must be sent downstream right away, where it
+ * is combined with the other partial results.
+ * <p>
+ * The cache tracks how many accumulators it evicts per accumulated item.
+ * If in a sample of items this is close to one, the keys hardly repeat
+ * while they are cached and caching only adds overhead. The cache then
+ * switches to bypass mode for the rest of the input: items of keys that
+ * aren't cached are returned right away, each in its own accumulator.
+ */
+final class PartialAggregationCache<K, A> {
+
+    /**
+     * The ratio of evicted accumulators to accumulated items in a sample at
+     * or above which the cache switches to bypass mode.
+     */
+    static final double BYPASS_RATIO = 0.9;
+
+    private static final int MIN_SAMPLE_SIZE = 10_000;
+    private static final int SAMPLE_SIZE_PER_KEY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final AggregateOperation<A, ?> aggrOp;
+    private final int maxKeys;
+    private final long sampleSize;
+    private final Map<K, A> keyToAcc = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long sampleItemCount;
+    private long sampleEvictionCount;
+    private boolean bypass;
+
+    PartialAggregationCache(@Nonnull AggregateOperation<A, ?> aggrOp, int maxKeys) {
+        this.aggrOp = aggrOp;
+        this.maxKeys = maxKeys;
+        this.sampleSize = Math.max(MIN_SAMPLE_SIZE, (long) SAMPLE_SIZE_PER_KEY * maxKeys);
+    }
+
+    /**
+     * Accumulates the item to the accumulator of the given key. Returns the
+     * evicted accumulator, if any, which must be emitted.
+     */
+    @Nullable
+    Entry<K, A> accumulate(K key, int ordinal, @Nonnull Object item) {
+        A acc = keyToAcc.get(key);
+        Entry<K, A> evicted = null;
+        if (acc == null) {
+            acc = aggrOp.createFn().get();
+            if (bypass) {
+                aggrOp.accumulateFn(ordinal).accept(acc, item);
+                return entry(key, acc);
+            }
+            keyToAcc.put(key, acc);
+            if (keyToAcc.size() > maxKeys) {
+                evicted = evictEldest();
+            }
+        }
+        aggrOp.accumulateFn(ordinal).accept(acc, item);
+        if (!bypass && ++sampleItemCount == sampleSize) {
+            bypass = sampleEvictionCount >= BYPASS_RATIO * sampleItemCount;
+            sampleItemCount = 0;
+            sampleEvictionCount = 0;
+        }
+        return evicted;
+    }
+
+    boolean isBypassing() {
+        return bypass;
+    }
+
+    /**
+     * Returns the cached accumulators. To be used after the last item.
+     */
+    @Nonnull
+    Map<K, A> keyToAcc() {
+        return keyToAcc;
+    }
+
+    private Entry<K, A> evictEldest() {
+        Iterator<Entry<K, A>> it = keyToAcc.entrySet().iterator();
+        Entry<K, A> eldest = it.next();
+        Entry<K, A> evicted = entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        sampleEvictionCount++;
+        return evicted;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.datamodel.ItemsByTag;
+import com.hazelcast.jet.datamodel.Tag;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Implements the partitioned mode of the {@link
+ * com.hazelcast.jet.impl.pipeline.transform.HashJoinTransform hash-join
+ * transform}. Both sides arrive partitioned by the join key, so each
+ * processor builds a lookup table only from its share of the build side,
+ * received on ordinal 1. It then joins the probe-side items received on
+ * ordinal 0. Probe-side items received on ordinal 2 were found by a Bloom
+ * filter to have no match and are emitted joined to {@code null}.
+ * <p>
+ * The output is the same as that of {@link HashJoinP} with a single
+ * joined stream: if {@code tag} is {@code null}, {@code mapToOutputFn}
+ * receives the joined item, otherwise it receives an {@code ItemsByTag}
+ * with the joined item under {@code tag}.
+ */
+public class PartitionedHashJoinP<E0> extends AbstractProcessor {
+
+    private final Map<Object, Object> lookupTable = new HashMap<>();
+    @Nonnull private final Function<E0, Object> probeKeyFn;
+    @Nonnull private final Function<Object, Object> buildKeyFn;
+    @Nonnull private final Function<Object, Object> buildProjectFn;
+    @Nullable private final Tag tag;
+    @Nonnull private final BiFunction mapToOutputFn;
+    private boolean ordinal0consumed;
+
+    public PartitionedHashJoinP(
+            @Nonnull Function<E0, Object> probeKeyFn,
+            @Nonnull Function<Object, Object> buildKeyFn,
+            @Nonnull Function<Object, Object> buildProjectFn,
+            @Nullable Tag tag,
+            @Nonnull BiFunction mapToOutputFn
+    ) {
+        this.probeKeyFn = probeKeyFn;
+        this.buildKeyFn = buildKeyFn;
+        this.buildProjectFn = buildProjectFn;
+        this.tag = tag;
+        this.mapToOutputFn = mapToOutputFn;
+    }
+
+    @Override
+    protected boolean tryProcess1(@Nonnull Object item) {
+        assert !ordinal0consumed : "Edges 0 and 2 must have a lower priority than edge 1";
+        Object key = buildKeyFn.apply(item);
+        Object value = buildProjectFn.apply(item);
+        Object previous = lookupTable.put(key, value);
+        if (previous != null) {
+            throw new IllegalStateException("Duplicate values for key '" + key + "': '" + previous + "' and '" + value
+                    + "'");
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess0(@Nonnull Object item) {
+        ordinal0consumed = true;
+        E0 e0 = (E0) item;
+        return tryEmit(join(e0, lookupTable.get(probeKeyFn.apply(e0))));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess2(@Nonnull Object item) {
+        ordinal0consumed = true;
+        return tryEmit(join((E0) item, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object join(E0 e0, @Nullable Object joined) {
+        if (tag == null) {
+            return mapToOutputFn.apply(e0, joined);
+        }
+        ItemsByTag map = new ItemsByTag();
+        map.put(tag, joined);
+        return mapToOutputFn.apply(e0, map);
+    }
+}
@@ -80,7 +80,8 @@ public final class PeekWrappedP<T> extends ProcessorWrapper {
             ILogger newLogger = nodeEngine.getLogger(
                     createLoggerName(wrapped.getClass().getName(), c.vertexName(), c.globalProcessorIndex()));
             context = new ProcCtx(c.jetInstance(), c.getSerializationService(), newLogger, c.vertexName(),
-                    c.globalProcessorIndex(), c.processingGuarantee(), c.localParallelism(), c.totalParallelism());
+                    c.globalProcessorIndex(), c.processingGuarantee(), c.deltaSnapshotsEnabled(), c.localParallelism(),
+                    c.totalParallelism());
         }
         super.init(outbox, context);
     }
@@ -231,5 +232,16 @@ public final class PeekWrappedP<T> extends ProcessorWrapper {
             }
             return true;
         }
+
+        @Override
+        public boolean offerRemovalToSnapshot(@Nonnull Object key) {
+            if (!wrappedOutbox.offerRemovalToSnapshot(key)) {
+                return false;
+            }
+            if (logSnapshot) {
+                log("Removal from snapshot", (T) key);
+            }
+            return true;
+        }
     }
 }
@@ -74,6 +74,16 @@ public class ProcessorWrapper implements Processor {
         return wrapped.saveToSnapshot();
     }
 
+    @Override
+    public boolean supportsDeltaSnapshot() {
+        return wrapped.supportsDeltaSnapshot();
+    }
+
+    @Override
+    public boolean saveDeltaToSnapshot() {
+        return wrapped.saveDeltaToSnapshot();
+    }
+
     @Override
     public void restoreFromSnapshot(@Nonnull Inbox inbox) {
         wrapped.restoreFromSnapshot(inbox);
@@ -41,18 +41,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.StringJoiner;
-import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
-import java.util.stream.Stream;
 
-import static com.hazelcast.jet.Traversers.traverseStream;
+import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.REMOVED;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.Util.logLateEvent;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
@@ -60,7 +58,6 @@ import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.lang.Math.min;
 import static java.lang.System.arraycopy;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Session window processor. See {@link
@@ -76,7 +73,7 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
 
     // exposed for testing, to check for memory leaks
     final Map<K, Windows<A>> keyToWindows = new HashMap<>();
-    final SortedMap<Long, Set<K>> deadlineToKeys = new TreeMap<>();
+    final DeadlineWheel<K, Windows<A>> deadlines;
     long currentWatermark = Long.MIN_VALUE;
 
     private final long sessionTimeout;
@@ -94,6 +91,10 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
     private final FlatMapper<Watermark, OUT> closedWindowFlatmapper;
     private ProcessingGuarantee processingGuarantee;
 
+    private final List<K> expiredKeys = new ArrayList<>();
+    // keys changed or removed since the last snapshot, tracked only with delta snapshots
+    private final Set<K> dirtyKeys = new HashSet<>();
+    private boolean trackDirtyKeys;
     private Traverser snapshotTraverser;
     private long minRestoredCurrentWatermark = Long.MAX_VALUE;
 
@@ -114,11 +115,13 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         this.mapToOutputFn = mapToOutputFn;
         this.sessionTimeout = sessionTimeout;
         this.closedWindowFlatmapper = flatMapper(this::traverseClosedWindows);
+        this.deadlines = new DeadlineWheel<>(sessionTimeout);
     }
 
     @Override
     protected void init(@Nonnull Context context) {
         processingGuarantee = context.processingGuarantee();
+        trackDirtyKeys = context.deltaSnapshotsEnabled();
     }
 
     @Override
@@ -132,6 +135,7 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         K key = keyFns.get(ordinal).apply(item);
         addItem(ordinal, keyToWindows.computeIfAbsent(key, k -> new Windows<>()),
                 key, timestamp, item);
+        markDirty(key);
         return true;
     }
 
@@ -147,43 +151,54 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
     }
 
     private Traverser<OUT> traverseClosedWindows(Watermark wm) {
-        SortedMap<Long, Set<K>> windowsToClose = deadlineToKeys.headMap(wm.timestamp());
-        List<K> distinctKeys = windowsToClose
-                .values().stream()
-                .flatMap(Set::stream)
-                .distinct()
-                .collect(toList());
-        windowsToClose.clear();
-
-        Stream<OUT> closedWindows = distinctKeys
-                .stream()
-                .map(key -> closeWindows(keyToWindows.get(key), key, wm.timestamp()))
-                .flatMap(List::stream);
-        return traverseStream(closedWindows);
+        // the previous traverser is exhausted at this point, so the list can be reused
+        expiredKeys.clear();
+        deadlines.collectExpired(wm.timestamp(), keyToWindows, expiredKeys);
+        return traverseIterable(expiredKeys)
+                .flatMap(key -> traverseIterable(closeWindows(keyToWindows.get(key), key, wm.timestamp())));
     }
 
-    private void addToDeadlines(K key, long deadline) {
-        deadlineToKeys.computeIfAbsent(deadline, x -> new HashSet<>()).add(key);
+    @Override
+    public boolean saveToSnapshot() {
+        if (snapshotTraverser == null) {
+            snapshotTraverser = Traversers.<Object>traverseIterable(keyToWindows.entrySet())
+                    .append(entry(broadcastKey(Keys.CURRENT_WATERMARK), currentWatermark))
+                    .onFirstNull(() -> {
+                        snapshotTraverser = null;
+                        dirtyKeys.clear();
+                    });
+        }
+        return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
-    private void removeFromDeadlines(K key, long deadline) {
-        Set<K> ks = deadlineToKeys.get(deadline);
-        ks.remove(key);
-        if (ks.isEmpty()) {
-            deadlineToKeys.remove(deadline);
-        }
+    @Override
+    public boolean supportsDeltaSnapshot() {
+        return true;
     }
 
     @Override
-    public boolean saveToSnapshot() {
+    public boolean saveDeltaToSnapshot() {
         if (snapshotTraverser == null) {
-            snapshotTraverser = Traversers.<Object>traverseIterable(keyToWindows.entrySet())
+            snapshotTraverser = Traversers.traverseIterable(dirtyKeys)
+                    .<Object>map(key -> {
+                        Windows<A> w = keyToWindows.get(key);
+                        return entry(key, w != null ? w : REMOVED);
+                    })
                     .append(entry(broadcastKey(Keys.CURRENT_WATERMARK), currentWatermark))
-                    .onFirstNull(() -> snapshotTraverser = null);
+                    .onFirstNull(() -> {
+                        snapshotTraverser = null;
+                        dirtyKeys.clear();
+                    });
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    private void markDirty(K key) {
+        if (trackDirtyKeys) {
+            dirtyKeys.add(key);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
@@ -207,12 +222,10 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
 
     @Override
     public boolean finishSnapshotRestore() {
-        assert deadlineToKeys.isEmpty();
-        // populate deadlineToKeys
+        assert deadlines.isEmpty();
+        // populate deadlines
         for (Entry<K, Windows<A>> entry : keyToWindows.entrySet()) {
-            for (long end : entry.getValue().ends) {
-                addToDeadlines(entry.getKey(), end);
-            }
+            deadlines.schedule(entry.getKey(), entry.getValue());
         }
         currentWatermark = minRestoredCurrentWatermark;
         logFine(getLogger(), "Restored currentWatermark from snapshot to: %s", currentWatermark);
@@ -231,9 +244,11 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         }
         if (i != w.size) {
             w.removeHead(i);
+            deadlines.schedule(key, w);
         } else {
             keyToWindows.remove(key);
         }
+        markDirty(key);
         return results;
     }
 
@@ -255,23 +270,23 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
 
             if (i + 1 == w.size || w.starts[i + 1] > eventEnd) {
                 // the window `i + 1` doesn't overlap the event interval
+                // extending the window doesn't require updating the deadlines, see DeadlineWheel
                 w.starts[i] = min(w.starts[i], timestamp);
-                if (w.ends[i] < eventEnd) {
-                    removeFromDeadlines(key, w.ends[i]);
-                    w.ends[i] = eventEnd;
-                    addToDeadlines(key, w.ends[i]);
-                }
+                w.ends[i] = Math.max(w.ends[i], eventEnd);
                 return w.accs[i];
             }
             // both `i` and `i + 1` windows overlap the event interval
-            removeFromDeadlines(key, w.ends[i]);
             w.ends[i] = w.ends[i + 1];
             combineFn.accept(w.accs[i], w.accs[i + 1]);
             w.removeWindow(i + 1);
             return w.accs[i];
         }
-        addToDeadlines(key, eventEnd);
-        return insertWindow(w, i, timestamp, eventEnd);
+        A acc = insertWindow(w, i, timestamp, eventEnd);
+        if (i == 0) {
+            // the new window is the first one, it might have an earlier deadline
+            deadlines.schedule(key, w);
+        }
+        return acc;
     }
 
     private A insertWindow(Windows<A> w, int idx, long windowStart, long windowEnd) {
@@ -284,12 +299,30 @@ public class SessionWindowP<K, A, R, OUT> extends AbstractProcessor {
         return w.accs[idx];
     }
 
-    public static class Windows<A> implements IdentifiedDataSerializable {
+    public static class Windows<A> implements IdentifiedDataSerializable, DeadlineWheel.Scheduled {
+        // the slot in DeadlineWheel where the key is scheduled, not serialized
+        private long scheduledSlot = DeadlineWheel.NOT_SCHEDULED;
+
         private int size;
         private long[] starts = new long[2];
         private long[] ends = new long[2];
         private A[] accs = (A[]) new Object[2];
 
+        @Override
+        public long deadline() {
+            return ends[0];
+        }
+
+        @Override
+        public long scheduledSlot() {
+            return scheduledSlot;
+        }
+
+        @Override
+        public void setScheduledSlot(long slot) {
+            scheduledSlot = slot;
+        }
+
         private void removeWindow(int idx) {
             size--;
             copy(idx + 1, idx, size - idx);
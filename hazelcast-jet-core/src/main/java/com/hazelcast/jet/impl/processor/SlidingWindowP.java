@@ -31,11 +31,14 @@ import com.hazelcast.jet.impl.util.Util;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
 import java.util.stream.LongStream;
 
@@ -44,13 +47,11 @@ import static com.hazelcast.jet.Traversers.traverseStream;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
-import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
-import static java.util.Collections.emptyMap;
 
 /**
  * Handles various setups of sliding and tumbling window aggregation.
@@ -62,8 +63,9 @@ import static java.util.Collections.emptyMap;
 public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
 
     // package-visible for testing
-    final Map<Long, Map<K, A>> tsToKeyToAcc = new HashMap<>();
+    final FrameStore<K, A> tsToKeyToAcc;
     Map<K, A> slidingWindow;
+    TwoStacksWindow<K, A> twoStacksWindow;
     long nextWinToEmit = Long.MIN_VALUE;
 
     @Nonnull
@@ -85,6 +87,8 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
 
     @Nonnull
     private final A emptyAcc;
+    @Nonnull
+    private final Supplier<A> createFn;
     private Traverser<Object> flushTraverser;
     private Traverser<Entry> snapshotTraverser;
 
@@ -97,6 +101,11 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
     private long minRestoredNextWinToEmit = Long.MAX_VALUE;
     private ProcessingGuarantee processingGuarantee;
 
+    // timestamps of frames changed since the last snapshot, tracked only with
+    // delta snapshots. Evicted frames aren't tracked, they are dropped on restore.
+    private final Set<Long> dirtyFrames = new HashSet<>();
+    private boolean trackDirtyFrames;
+
     @SuppressWarnings("unchecked")
     public SlidingWindowP(
             @Nonnull List<? extends Function<?, ? extends K>> keyFns,
@@ -122,12 +131,15 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
                 wm -> windowTraverserAndEvictor(wm.timestamp())
                         .onFirstNull(() -> nextWinToEmit = this.winPolicy.higherFrameTs(wm.timestamp()))
         );
-        this.emptyAcc = aggrOp.createFn().get();
+        this.createFn = aggrOp.createFn();
+        this.emptyAcc = createFn.get();
+        this.tsToKeyToAcc = new FrameStore<>(winPolicy.frameSize(), winPolicy.windowSize() / winPolicy.frameSize() + 1);
     }
 
     @Override
     protected void init(@Nonnull Context context) {
         processingGuarantee = context.processingGuarantee();
+        trackDirtyFrames = isLastStage && context.deltaSnapshotsEnabled();
     }
 
     @Override
@@ -146,10 +158,12 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
             return true;
         }
         final K key = keyFns.get(ordinal).apply(item);
-        A acc = tsToKeyToAcc.computeIfAbsent(frameTs, x -> new HashMap<>())
-                            .computeIfAbsent(key, k -> aggrOp.createFn().get());
+        A acc = tsToKeyToAcc.getOrCreate(frameTs).computeIfAbsent(key, createFn);
         aggrOp.accumulateFn(ordinal).accept(acc, item);
         topTs = max(topTs, frameTs);
+        if (trackDirtyFrames) {
+            dirtyFrames.add(frameTs);
+        }
         return true;
     }
 
@@ -169,16 +183,41 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
             return flushBuffers();
         }
         if (snapshotTraverser == null) {
-            snapshotTraverser = traverseIterable(tsToKeyToAcc.entrySet())
-                    .<Entry>flatMap(e -> traverseIterable(e.getValue().entrySet())
-                            .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue()))
-                    )
-                    .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
-                    .onFirstNull(() -> snapshotTraverser = null);
+            snapshotTraverser = snapshotTraverser(tsToKeyToAcc.frameTimestamps());
         }
         return emitFromTraverserToSnapshot(snapshotTraverser);
     }
 
+    @Override
+    public boolean supportsDeltaSnapshot() {
+        return true;
+    }
+
+    @Override
+    public boolean saveDeltaToSnapshot() {
+        if (!isLastStage || flushTraverser != null) {
+            return flushBuffers();
+        }
+        if (snapshotTraverser == null) {
+            // frames evicted in the meantime are no longer in the store
+            snapshotTraverser = snapshotTraverser(traverseIterable(dirtyFrames)
+                    .filter(ts -> tsToKeyToAcc.get(ts) != null));
+        }
+        return emitFromTraverserToSnapshot(snapshotTraverser);
+    }
+
+    private Traverser<Entry> snapshotTraverser(Traverser<Long> frameTimestamps) {
+        return frameTimestamps
+                .<Entry>flatMap(ts -> tsToKeyToAcc.get(ts).traverser()
+                        .map(e -> entry(new SnapshotKey(ts, e.getKey()), e.getValue()))
+                )
+                .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
+                .onFirstNull(() -> {
+                    snapshotTraverser = null;
+                    dirtyFrames.clear();
+                });
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
@@ -197,8 +236,7 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
             return;
         }
         SnapshotKey k = (SnapshotKey) key;
-        if (tsToKeyToAcc.computeIfAbsent(k.timestamp, x -> new HashMap<>())
-                        .put((K) k.key, (A) value) != null) {
+        if (tsToKeyToAcc.getOrCreate(k.timestamp).put((K) k.key, (A) value) != null) {
             throw new JetException("Duplicate key in snapshot: " + k);
         }
         topTs = max(topTs, k.timestamp);
@@ -212,6 +250,14 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
         // restore and remain at MIN_VALUE.
         if (isLastStage) {
             nextWinToEmit = minRestoredNextWinToEmit;
+            // A delta snapshot doesn't record the evicted frames, the older
+            // snapshots in the chain might still contain them.
+            if (nextWinToEmit != Long.MIN_VALUE) {
+                long minRetainedFrameTs = nextWinToEmit - winPolicy.windowSize() + winPolicy.frameSize();
+                for (long ts; (ts = tsToKeyToAcc.minFrameTs()) < minRetainedFrameTs; ) {
+                    tsToKeyToAcc.evict(ts);
+                }
+            }
         }
         logFine(getLogger(), "Restored nextWinToEmit from snapshot to: %s", nextWinToEmit);
         return true;
@@ -233,26 +279,24 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
             // initialized using the "add leading/deduct trailing" approach because we
             // start from a window that covers at most one existing frame -- the lowest
             // one on record.
-            long bottomTs = tsToKeyToAcc
-                    .keySet().stream()
-                    .min(naturalOrder())
-                    .orElseThrow(() -> new AssertionError("Failed to find the min key in a non-empty map"));
+            long bottomTs = tsToKeyToAcc.minFrameTs();
             rangeStart = min(bottomTs, winPolicy.floorFrameTs(wm));
         }
         return traverseStream(range(rangeStart, wm, winPolicy.frameSize()).boxed())
-                .flatMap(winEnd -> traverseIterable(computeWindow(winEnd).entrySet())
+                .flatMap(winEnd -> computeWindow(winEnd)
                         .map(e -> mapToOutputFn.apply(
                                 winEnd - winPolicy.windowSize(), winEnd,
                                 e.getKey(), aggrOp.finishFn().apply(e.getValue())))
                         .onFirstNull(() -> completeWindow(winEnd)));
     }
 
-    private Map<K, A> computeWindow(long frameTs) {
+    private Traverser<Entry<K, A>> computeWindow(long frameTs) {
         if (winPolicy.isTumbling()) {
-            return tsToKeyToAcc.getOrDefault(frameTs, emptyMap());
+            OpenHashMap<K, A> frame = tsToKeyToAcc.get(frameTs);
+            return frame != null ? frame.traverser() : Traversers.empty();
         }
         if (aggrOp.deductFn() == null) {
-            return recomputeWindow(frameTs);
+            return traverseIterable(computeWindowWithoutDeduct(frameTs).entrySet());
         }
         if (slidingWindow == null) {
             slidingWindow = recomputeWindow(frameTs);
@@ -260,7 +304,22 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
             // add leading-edge frame
             patchSlidingWindow(aggrOp.combineFn(), tsToKeyToAcc.get(frameTs));
         }
-        return slidingWindow;
+        return traverseIterable(slidingWindow.entrySet());
+    }
+
+    private Map<K, A> computeWindowWithoutDeduct(long frameTs) {
+        if (twoStacksWindow == null) {
+            twoStacksWindow = new TwoStacksWindow<>(createFn, combineFn);
+            for (long ts = frameTs - winPolicy.windowSize() + winPolicy.frameSize();
+                 ts < frameTs;
+                 ts += winPolicy.frameSize()
+            ) {
+                twoStacksWindow.addNewest(tsToKeyToAcc.get(ts));
+            }
+        }
+        // add leading-edge frame
+        twoStacksWindow.addNewest(tsToKeyToAcc.get(frameTs));
+        return twoStacksWindow.window();
     }
 
     private Map<K, A> recomputeWindow(long frameTs) {
@@ -269,34 +328,39 @@ public class SlidingWindowP<K, A, R, OUT> extends AbstractProcessor {
              ts <= frameTs;
              ts += winPolicy.frameSize()
         ) {
-            tsToKeyToAcc.getOrDefault(ts, emptyMap())
-                        .forEach((key, currAcc) -> combineFn.accept(
-                                window.computeIfAbsent(key, k -> aggrOp.createFn().get()),
-                                currAcc));
+            OpenHashMap<K, A> frame = tsToKeyToAcc.get(ts);
+            if (frame != null) {
+                frame.forEach((key, currAcc) -> combineFn.accept(
+                        window.computeIfAbsent(key, k -> createFn.get()),
+                        currAcc));
+            }
         }
         return window;
     }
 
-    private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, Map<K, A> patchingFrame) {
+    private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, OpenHashMap<K, A> patchingFrame) {
         if (patchingFrame == null) {
             return;
         }
-        for (Entry<K, A> e : patchingFrame.entrySet()) {
-            slidingWindow.compute(e.getKey(), (k, acc) -> {
-                A result = acc != null ? acc : aggrOp.createFn().get();
-                patchOp.accept(result, e.getValue());
-                return result.equals(emptyAcc) ? null : result;
-            });
-        }
+        patchingFrame.forEach((key, frameAcc) ->
+                slidingWindow.compute(key, (k, acc) -> {
+                    A result = acc != null ? acc : createFn.get();
+                    patchOp.accept(result, frameAcc);
+                    return result.equals(emptyAcc) ? null : result;
+                }));
     }
 
     private void completeWindow(long frameTs) {
         long frameToEvict = frameTs - winPolicy.windowSize() + winPolicy.frameSize();
-        Map<K, A> evictedFrame = tsToKeyToAcc.remove(frameToEvict);
-        if (!winPolicy.isTumbling() && aggrOp.deductFn() != null) {
-            // deduct trailing-edge frame
-            patchSlidingWindow(aggrOp.deductFn(), evictedFrame);
+        if (!winPolicy.isTumbling()) {
+            if (aggrOp.deductFn() != null) {
+                // deduct trailing-edge frame
+                patchSlidingWindow(aggrOp.deductFn(), tsToKeyToAcc.get(frameToEvict));
+            } else {
+                twoStacksWindow.evictOldest();
+            }
         }
+        tsToKeyToAcc.evict(frameToEvict);
     }
 
     private boolean flushBuffers() {
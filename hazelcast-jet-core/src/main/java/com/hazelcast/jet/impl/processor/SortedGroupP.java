@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.function.DistributedFunction;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Batch processor that computes the supplied aggregate operation on groups
+ * of items with the same key, assuming that all the items with the same key
+ * arrive one after another. It keeps the accumulator of the current key only
+ * and emits its result as soon as an item with a different key arrives.
+ * A key which isn't contiguous in the input is emitted more than once.
+ * If {@code mapToOutputFn} returns {@code null}, nothing is emitted for
+ * the group.
+ */
+public class SortedGroupP<T, K, A, R, OUT> extends AbstractProcessor {
+    @Nonnull private final DistributedFunction<? super T, ? extends K> groupKeyFn;
+    @Nonnull private final AggregateOperation1<? super T, A, R> aggrOp;
+    @Nonnull private final BiFunction<? super K, ? super R, OUT> mapToOutputFn;
+    @Nonnull private final BiConsumer<? super A, ? super T> accumulateFn;
+
+    private K currentKey;
+    private A currentAcc;
+    private OUT pendingOutput;
+
+    public SortedGroupP(
+            @Nonnull DistributedFunction<? super T, ? extends K> groupKeyFn,
+            @Nonnull AggregateOperation1<? super T, A, R> aggrOp,
+            @Nonnull BiFunction<? super K, ? super R, OUT> mapToOutputFn
+    ) {
+        this.groupKeyFn = groupKeyFn;
+        this.aggrOp = aggrOp;
+        this.mapToOutputFn = mapToOutputFn;
+        this.accumulateFn = aggrOp.accumulateFn();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean tryProcess0(@Nonnull Object item) {
+        T t = (T) item;
+        K key = groupKeyFn.apply(t);
+        if (currentAcc != null && !Objects.equals(key, currentKey) && !emitCurrentGroup()) {
+            return false;
+        }
+        if (currentAcc == null) {
+            currentKey = key;
+            currentAcc = aggrOp.createFn().get();
+        }
+        accumulateFn.accept(currentAcc, t);
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        return currentAcc == null || emitCurrentGroup();
+    }
+
+    private boolean emitCurrentGroup() {
+        if (pendingOutput == null) {
+            pendingOutput = mapToOutputFn.apply(currentKey, aggrOp.finishFn().apply(currentAcc));
+        }
+        // a null output is skipped, as in GroupP
+        if (pendingOutput != null && !tryEmit(pendingOutput)) {
+            return false;
+        }
+        pendingOutput = null;
+        currentKey = null;
+        currentAcc = null;
+        return true;
+    }
+}
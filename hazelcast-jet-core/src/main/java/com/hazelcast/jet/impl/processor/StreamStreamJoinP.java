@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.Traversers;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.datamodel.TimestampedItem;
+import com.hazelcast.jet.datamodel.TwoBags;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.logLateEvent;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * Joins two streams on a key and on the time distance of their items. An
+ * item {@code t0} from ordinal 0 and an item {@code t1} from ordinal 1
+ * with equal keys are joined if
+ * <pre>
+ *     timestamp(t0) + lowerBound <= timestamp(t1) <= timestamp(t0) + upperBound
+ * </pre>
+ * Each item is joined to the buffered items of the other ordinal and then
+ * buffered itself. As the watermark advances, the processor evicts the
+ * items that can no longer be joined to a future item: an item from
+ * ordinal 0 once {@code timestamp + upperBound} falls behind the
+ * watermark and an item from ordinal 1 once {@code timestamp - lowerBound}
+ * falls behind it. This keeps the state proportional to the amount of
+ * data within the join window. Items behind the watermark are dropped as
+ * late.
+ * <p>
+ * The buffered items of each key and ordinal are kept ordered by
+ * timestamp, so the items to join are found by a binary search and the
+ * evicted items are always a prefix. The keys with items to evict are
+ * found using a {@link DeadlineWheel}.
+ * <p>
+ * The input is expected to be partitioned by the key on both ordinals.
+ *
+ * @param <K> type of the join key
+ * @param <OUT> type of the output item
+ */
+public class StreamStreamJoinP<K, OUT> extends AbstractProcessor {
+
+    // package-visible for test
+    final Map<K, KeyBuffers> buffers = new HashMap<>();
+    // package-visible for test
+    final DeadlineWheel<K, KeyBuffers> deadlines;
+
+    private final Function<Object, ? extends K> keyFn0;
+    private final Function<Object, ? extends K> keyFn1;
+    private final ToLongFunction<Object> timestampFn0;
+    private final ToLongFunction<Object> timestampFn1;
+    private final long lowerBound;
+    private final long upperBound;
+    private final BiFunction<Object, Object, ? extends OUT> mapToOutputFn;
+
+    private final FlatMapper<Object, OUT> flatMapper0;
+    private final FlatMapper<Object, OUT> flatMapper1;
+    private final List<K> expiredKeys = new ArrayList<>();
+
+    private ProcessingGuarantee processingGuarantee;
+    private long currentWatermark = Long.MIN_VALUE;
+    private Traverser snapshotTraverser;
+    private long minRestoredCurrentWatermark = Long.MAX_VALUE;
+
+    @SuppressWarnings("unchecked")
+    public StreamStreamJoinP(
+            @Nonnull Function<?, ? extends K> keyFn0,
+            @Nonnull Function<?, ? extends K> keyFn1,
+            @Nonnull ToLongFunction<?> timestampFn0,
+            @Nonnull ToLongFunction<?> timestampFn1,
+            long lowerBound,
+            long upperBound,
+            @Nonnull BiFunction<?, ?, ? extends OUT> mapToOutputFn
+    ) {
+        checkTrue(lowerBound <= upperBound, "lowerBound must not be greater than upperBound");
+        this.keyFn0 = (Function<Object, ? extends K>) keyFn0;
+        this.keyFn1 = (Function<Object, ? extends K>) keyFn1;
+        this.timestampFn0 = (ToLongFunction<Object>) timestampFn0;
+        this.timestampFn1 = (ToLongFunction<Object>) timestampFn1;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.mapToOutputFn = (BiFunction<Object, Object, ? extends OUT>) mapToOutputFn;
+        this.flatMapper0 = flatMapper(item -> join(0, item));
+        this.flatMapper1 = flatMapper(item -> join(1, item));
+        this.deadlines = new DeadlineWheel<>(upperBound - lowerBound);
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        processingGuarantee = context.processingGuarantee();
+    }
+
+    @Override
+    protected boolean tryProcess0(@Nonnull Object item) {
+        return flatMapper0.tryProcess(item);
+    }
+
+    @Override
+    protected boolean tryProcess1(@Nonnull Object item) {
+        return flatMapper1.tryProcess(item);
+    }
+
+    @Override
+    public boolean tryProcessWatermark(@Nonnull Watermark wm) {
+        currentWatermark = wm.timestamp();
+        deadlines.collectExpired(currentWatermark, buffers, expiredKeys);
+        for (K key : expiredKeys) {
+            KeyBuffers b = buffers.get(key);
+            evictExpired(0, b.bag0);
+            evictExpired(1, b.bag1);
+            if (b.isEmpty()) {
+                buffers.remove(key);
+            } else {
+                deadlines.schedule(key, b);
+            }
+        }
+        expiredKeys.clear();
+        return true;
+    }
+
+    private void evictExpired(int ordinal, TimestampedBag bag) {
+        // the expiry grows with the timestamp, so the expired items are a prefix
+        int count = 0;
+        while (count < bag.size() && expiry(ordinal, bag.timestamp(count)) < currentWatermark) {
+            count++;
+        }
+        bag.removeHead(count);
+    }
+
+    private Traverser<OUT> join(int ordinal, Object item) {
+        long timestamp = (ordinal == 0 ? timestampFn0 : timestampFn1).applyAsLong(item);
+        if (timestamp < currentWatermark) {
+            logLateEvent(getLogger(), currentWatermark, item);
+            return Traversers.empty();
+        }
+        K key = (ordinal == 0 ? keyFn0 : keyFn1).apply(item);
+        KeyBuffers b = buffers.get(key);
+        List<OUT> result = new ArrayList<>();
+        if (b != null) {
+            if (ordinal == 0) {
+                TimestampedBag other = b.bag1;
+                long maxTimestamp = timestamp + upperBound;
+                for (int i = other.firstIndexNotBefore(timestamp + lowerBound);
+                     i < other.size() && other.timestamp(i) <= maxTimestamp; i++) {
+                    result.add(mapToOutputFn.apply(item, other.item(i)));
+                }
+            } else {
+                TimestampedBag other = b.bag0;
+                long maxTimestamp = timestamp - lowerBound;
+                for (int i = other.firstIndexNotBefore(timestamp - upperBound);
+                     i < other.size() && other.timestamp(i) <= maxTimestamp; i++) {
+                    result.add(mapToOutputFn.apply(other.item(i), item));
+                }
+            }
+        }
+        if (expiry(ordinal, timestamp) >= currentWatermark) {
+            if (b == null) {
+                b = new KeyBuffers();
+                buffers.put(key, b);
+            }
+            (ordinal == 0 ? b.bag0 : b.bag1).add(timestamp, item);
+            deadlines.schedule(key, b);
+        }
+        return traverseIterable(result);
+    }
+
+    /**
+     * Returns the time after which no future item from the other ordinal
+     * can be joined to an item with the given timestamp.
+     */
+    private long expiry(int ordinal, long timestamp) {
+        return ordinal == 0 ? timestamp + upperBound : timestamp - lowerBound;
+    }
+
+    @Override
+    public boolean saveToSnapshot() {
+        if (snapshotTraverser == null) {
+            snapshotTraverser = traverseIterable(buffers.entrySet())
+                    .<Entry<Object, Object>>map(e -> entry(e.getKey(), e.getValue().toTwoBags()))
+                    .append(entry(broadcastKey(Keys.CURRENT_WATERMARK), currentWatermark))
+                    .onFirstNull(() -> snapshotTraverser = null);
+        }
+        return emitFromTraverserToSnapshot(snapshotTraverser);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
+        if (key instanceof BroadcastKey) {
+            BroadcastKey bcastKey = (BroadcastKey) key;
+            if (!Keys.CURRENT_WATERMARK.equals(bcastKey.key())) {
+                throw new JetException("Unexpected broadcast key: " + bcastKey.key());
+            }
+            long newCurrentWatermark = (long) value;
+            assert processingGuarantee != EXACTLY_ONCE
+                    || minRestoredCurrentWatermark == Long.MAX_VALUE
+                    || minRestoredCurrentWatermark == newCurrentWatermark
+                    : "different values for currentWatermark restored, before=" + minRestoredCurrentWatermark
+                    + ", new=" + newCurrentWatermark;
+            minRestoredCurrentWatermark = Math.min(newCurrentWatermark, minRestoredCurrentWatermark);
+            return;
+        }
+        TwoBags<TimestampedItem<Object>, TimestampedItem<Object>> bags =
+                (TwoBags<TimestampedItem<Object>, TimestampedItem<Object>>) value;
+        KeyBuffers b = new KeyBuffers();
+        addAll(b.bag0, bags.bag0());
+        addAll(b.bag1, bags.bag1());
+        buffers.put((K) key, b);
+    }
+
+    private static void addAll(TimestampedBag bag, Collection<TimestampedItem<Object>> items) {
+        for (TimestampedItem<Object> item : items) {
+            bag.add(item.timestamp(), item.item());
+        }
+    }
+
+    @Override
+    public boolean finishSnapshotRestore() {
+        assert deadlines.isEmpty();
+        for (Entry<K, KeyBuffers> e : buffers.entrySet()) {
+            deadlines.schedule(e.getKey(), e.getValue());
+        }
+        currentWatermark = minRestoredCurrentWatermark;
+        logFine(getLogger(), "Restored currentWatermark from snapshot to: %s", currentWatermark);
+        return true;
+    }
+
+    // package-visible for test
+    enum Keys {
+        CURRENT_WATERMARK
+    }
+
+    /**
+     * The buffered items of a key from both ordinals.
+     */
+    final class KeyBuffers implements DeadlineWheel.Scheduled {
+        final TimestampedBag bag0 = new TimestampedBag();
+        final TimestampedBag bag1 = new TimestampedBag();
+        private long scheduledSlot = DeadlineWheel.NOT_SCHEDULED;
+
+        boolean isEmpty() {
+            return bag0.size() == 0 && bag1.size() == 0;
+        }
+
+        @Override
+        public long deadline() {
+            return Math.min(
+                    bag0.size() == 0 ? Long.MAX_VALUE : expiry(0, bag0.timestamp(0)),
+                    bag1.size() == 0 ? Long.MAX_VALUE : expiry(1, bag1.timestamp(0)));
+        }
+
+        @Override
+        public long scheduledSlot() {
+            return scheduledSlot;
+        }
+
+        @Override
+        public void setScheduledSlot(long slot) {
+            scheduledSlot = slot;
+        }
+
+        TwoBags<TimestampedItem<Object>, TimestampedItem<Object>> toTwoBags() {
+            return TwoBags.twoBags(bag0.toList(), bag1.toList());
+        }
+    }
+
+    /**
+     * Items ordered by timestamp, in two parallel arrays. The items are
+     * removed from the head, the removed slots are reused when the arrays
+     * would otherwise grow.
+     */
+    static final class TimestampedBag {
+        private long[] timestamps = new long[2];
+        private Object[] items = new Object[2];
+        private int head;
+        private int tail;
+
+        int size() {
+            return tail - head;
+        }
+
+        long timestamp(int i) {
+            return timestamps[head + i];
+        }
+
+        Object item(int i) {
+            return items[head + i];
+        }
+
+        /**
+         * Inserts the item after the items with the same or lower timestamp.
+         * The items mostly arrive in timestamp order, so we search from the
+         * end.
+         */
+        void add(long timestamp, Object item) {
+            if (tail == timestamps.length) {
+                makeRoom();
+            }
+            int idx = tail;
+            while (idx > head && timestamps[idx - 1] > timestamp) {
+                idx--;
+            }
+            System.arraycopy(timestamps, idx, timestamps, idx + 1, tail - idx);
+            System.arraycopy(items, idx, items, idx + 1, tail - idx);
+            timestamps[idx] = timestamp;
+            items[idx] = item;
+            tail++;
+        }
+
+        /**
+         * Returns the index of the first item with a timestamp not lower than
+         * the given one, or {@code size()} if there's no such item.
+         */
+        int firstIndexNotBefore(long timestamp) {
+            int low = head;
+            int high = tail;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - head;
+        }
+
+        void removeHead(int count) {
+            Arrays.fill(items, head, head + count, null);
+            head += count;
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+        }
+
+        List<TimestampedItem<Object>> toList() {
+            List<TimestampedItem<Object>> list = new ArrayList<>(size());
+            for (int i = head; i < tail; i++) {
+                list.add(new TimestampedItem<>(timestamps[i], items[i]));
+            }
+            return list;
+        }
+
+        private void makeRoom() {
+            int size = size();
+            if (size <= timestamps.length / 2) {
+                // reuse the removed slots
+                System.arraycopy(timestamps, head, timestamps, 0, size);
+                System.arraycopy(items, head, items, 0, size);
+                Arrays.fill(items, size, tail, null);
+            } else {
+                timestamps = Arrays.copyOfRange(timestamps, head, head + 2 * size);
+                items = Arrays.copyOfRange(items, head, head + 2 * size);
+            }
+            head = 0;
+            tail = size;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Maintains the per-key aggregation of a sliding window of frames for an
+ * aggregate operation without a {@code deductFn}, using the "two stacks"
+ * technique.
+ * <p>
+ * The frames added since the last flip are kept on the back stack along
+ * with their running aggregation. The front stack holds, for each older
+ * frame, the aggregation of that frame and all the newer frames on the
+ * front stack. The window is the combination of the top of the front
+ * stack and the back aggregation. When the oldest frame must be evicted
+ * and the front stack is empty, all the frames from the back are moved to
+ * it. Every frame is thus combined a constant number of times, making the
+ * amortized cost of a window O(keys) instead of O(keys * frames in window).
+ * <p>
+ * The frames are combined in the order from the oldest to the newest. The
+ * frames must not change while in the window.
+ */
+final class TwoStacksWindow<K, A> {
+
+    private final Supplier<A> createFn;
+    private final BiConsumer<? super A, ? super A> combineFn;
+
+    // the last element is the aggregation of all frames on the front stack
+    private final List<Map<K, A>> front = new ArrayList<>();
+    // frames added since the last flip, oldest first
+    private final List<OpenHashMap<K, A>> back = new ArrayList<>();
+    private final Map<K, A> backAggregation = new HashMap<>();
+
+    TwoStacksWindow(@Nonnull Supplier<A> createFn, @Nonnull BiConsumer<? super A, ? super A> combineFn) {
+        this.createFn = createFn;
+        this.combineFn = combineFn;
+    }
+
+    /**
+     * Adds the frame at the leading edge of the window.
+     *
+     * @param frame the frame or {@code null}, if it has no data
+     */
+    void addNewest(@Nullable OpenHashMap<K, A> frame) {
+        back.add(frame);
+        if (frame != null) {
+            frame.forEach((key, acc) -> combineFn.accept(accFor(backAggregation, key), acc));
+        }
+    }
+
+    /**
+     * Removes the frame at the trailing edge of the window.
+     */
+    void evictOldest() {
+        if (front.isEmpty()) {
+            flip();
+        }
+        assert !front.isEmpty() : "evicting from an empty window";
+        front.remove(front.size() - 1);
+    }
+
+    /**
+     * Returns the current aggregation of the window. The accumulators in the
+     * returned map are new instances.
+     */
+    Map<K, A> window() {
+        Map<K, A> result = new HashMap<>();
+        if (!front.isEmpty()) {
+            combineInto(result, front.get(front.size() - 1));
+        }
+        combineInto(result, backAggregation);
+        return result;
+    }
+
+    private void flip() {
+        Map<K, A> newerFrames = emptyMap();
+        for (int i = back.size() - 1; i >= 0; i--) {
+            OpenHashMap<K, A> frame = back.get(i);
+            if (frame != null && !frame.isEmpty()) {
+                Map<K, A> aggregation = new HashMap<>();
+                frame.forEach((key, acc) -> combineFn.accept(accFor(aggregation, key), acc));
+                combineInto(aggregation, newerFrames);
+                newerFrames = aggregation;
+            }
+            front.add(newerFrames);
+        }
+        back.clear();
+        backAggregation.clear();
+    }
+
+    private void combineInto(Map<K, A> target, Map<K, A> source) {
+        source.forEach((key, acc) -> combineFn.accept(accFor(target, key), acc));
+    }
+
+    private A accFor(Map<K, A> map, K key) {
+        return map.computeIfAbsent(key, k -> createFn.get());
+    }
+}
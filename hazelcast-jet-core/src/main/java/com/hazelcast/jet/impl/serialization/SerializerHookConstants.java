@@ -53,6 +53,9 @@ public final class SerializerHookConstants {
     public static final int HASH_SET = -323;
     public static final int JET_EVENT = -324;
     public static final int TIMESTAMPED_ITEM = -325;
+    public static final int HYPER_LOG_LOG_ACC = -326;
+    public static final int T_DIGEST_ACC = -327;
+    public static final int HEAVY_HITTERS_ACC = -328;
 
     // reserved for hadoop module: -380 to -390
 
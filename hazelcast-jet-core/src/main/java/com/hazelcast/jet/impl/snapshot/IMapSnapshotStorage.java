@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.impl.execution.DeltaSnapshotTag;
+import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
+
+/**
+ * {@link SnapshotStorage} keeping the data of each vertex in each snapshot
+ * in its own IMap.
+ */
+public class IMapSnapshotStorage implements SnapshotStorage {
+
+    private final NodeEngine nodeEngine;
+    private final HazelcastInstance instance;
+
+    IMapSnapshotStorage(NodeEngine nodeEngine) {
+        this.nodeEngine = nodeEngine;
+        this.instance = nodeEngine.getHazelcastInstance();
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter() {
+        AsyncMapWriter mapWriter = new AsyncMapWriter(nodeEngine);
+        return new SnapshotWriter() {
+            @Override
+            public void setSnapshotName(@Nonnull String dataMapName) {
+                mapWriter.setMapName(dataMapName);
+            }
+
+            @Override
+            public void put(@Nonnull Entry<Data, Data> entry) {
+                mapWriter.put(entry);
+            }
+
+            @Override
+            public boolean tryFlushAsync(@Nonnull CompletableFuture<Void> completionFuture) {
+                return mapWriter.tryFlushAsync(completionFuture);
+            }
+        };
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(@Nonnull String dataMapName) {
+        return readMapP(dataMapName);
+    }
+
+    @Override
+    public boolean isDeltaSnapshot(@Nonnull String dataMapName) {
+        return instance.getMap(dataMapName).containsKey(DeltaSnapshotTag.DELTA_MARKER);
+    }
+
+    @Override
+    public boolean supportsDeltaSnapshots() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsPartitionLocalRestore() {
+        return true;
+    }
+
+    @Override
+    public void deleteSnapshotData(@Nonnull String dataMapName) {
+        instance.getMap(dataMapName).destroy();
+    }
+}
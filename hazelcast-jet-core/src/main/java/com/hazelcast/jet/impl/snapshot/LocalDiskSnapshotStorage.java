@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.config.InstanceConfig;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotChunksOperation;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+import static com.hazelcast.spi.ExecutionService.IO_EXECUTOR;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * {@link SnapshotStorage} writing the snapshot data of each vertex on each
+ * member to a memory-mapped chunk file in the {@link
+ * InstanceConfig#getTempDir() temp directory} and copying the file to
+ * {@link InstanceConfig#getBackupCount() backup count} other members, see
+ * {@link LocalDiskSnapshotWriter}.
+ * <p>
+ * The members holding a chunk are registered in an IMap named after the
+ * snapshot data: the key is the chunk name and the value is the list of
+ * UUIDs of the members holding it, the writing member first. On restore,
+ * each chunk is read by the first of its holders still in the cluster, see
+ * {@link ReadSnapshotChunksP}.
+ * <p>
+ * The chunks are kept in {@code <tempDir>/jet-snapshots/<member UUID>/<data
+ * map name>/}.
+ */
+public class LocalDiskSnapshotStorage implements SnapshotStorage {
+
+    static final String CHUNK_SUFFIX = ".chunk";
+    private static final String SNAPSHOTS_DIR = "jet-snapshots";
+
+    private final NodeEngine nodeEngine;
+    private final HazelcastInstance instance;
+    private final Path snapshotsDir;
+    private final Path memberDir;
+    private final int backupCount;
+    private final Executor ioExecutor;
+    private final ILogger logger;
+
+    LocalDiskSnapshotStorage(NodeEngine nodeEngine, InstanceConfig config) {
+        this.nodeEngine = nodeEngine;
+        this.instance = nodeEngine.getHazelcastInstance();
+        this.snapshotsDir = Paths.get(config.getTempDir(), SNAPSHOTS_DIR);
+        this.memberDir = snapshotsDir.resolve(nodeEngine.getLocalMember().getUuid());
+        this.backupCount = config.getBackupCount();
+        this.ioExecutor = nodeEngine.getExecutionService().getExecutor(IO_EXECUTOR);
+        this.logger = nodeEngine.getLogger(getClass());
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter() {
+        return new LocalDiskSnapshotWriter(nodeEngine, this, backupCount, ioExecutor);
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(@Nonnull String dataMapName) {
+        return ReadSnapshotChunksP.metaSupplier(dataMapName);
+    }
+
+    @Override
+    public boolean isDeltaSnapshot(@Nonnull String dataMapName) {
+        return false;
+    }
+
+    @Override
+    public boolean supportsDeltaSnapshots() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsPartitionLocalRestore() {
+        return false;
+    }
+
+    /**
+     * Deletes the chunk registry and asks all members to delete their
+     * chunks. Doesn't wait for the members to finish.
+     */
+    @Override
+    public void deleteSnapshotData(@Nonnull String dataMapName) {
+        instance.getMap(dataMapName).destroy();
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            nodeEngine.getOperationService()
+                      .invokeOnTarget(JetService.SERVICE_NAME, new DeleteSnapshotChunksOperation(dataMapName),
+                              member.getAddress())
+                      .andThen(callbackOf(r -> { }, t -> logger.warning("Failed to delete the chunks of '"
+                              + dataMapName + "' on " + member + ": " + t, t)));
+        }
+    }
+
+    /**
+     * Returns the directory with the chunks of the given snapshot data on
+     * this member.
+     */
+    @Nonnull
+    Path chunkDir(@Nonnull String dataMapName) {
+        return chunkDir(memberDir, dataMapName);
+    }
+
+    /**
+     * Writes a copy of a part of a chunk written by another member. The
+     * file is written on the I/O executor, the returned future is completed
+     * when it's done.
+     */
+    @Nonnull
+    public CompletableFuture<Void> writeReplicaAsync(@Nonnull String dataMapName, @Nonnull String chunkName,
+                                                     long offset, @Nonnull byte[] bytes) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                writeReplica(dataMapName, chunkName, offset, bytes);
+            } catch (IOException e) {
+                throw sneakyThrow(e);
+            }
+        }, ioExecutor);
+    }
+
+    private void writeReplica(String dataMapName, String chunkName, long offset, byte[] bytes) throws IOException {
+        File dir = chunkDir(dataMapName).toFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, chunkName), "rw")) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (long position = offset; buffer.hasRemaining(); ) {
+                position += file.getChannel().write(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Deletes the chunks of the given snapshot data held by this member on
+     * the I/O executor, along with the chunks left in the same temp
+     * directory by members no longer in the cluster. The returned future is
+     * completed when it's done.
+     */
+    @Nonnull
+    public CompletableFuture<Void> deleteLocalChunksAsync(@Nonnull String dataMapName) {
+        return CompletableFuture.runAsync(() -> {
+            IOUtil.delete(chunkDir(dataMapName).toFile());
+            deleteChunksOfDepartedMembers(dataMapName);
+        }, ioExecutor);
+    }
+
+    /**
+     * Deletes the chunks of the given snapshot data from the directories of
+     * the members that left the cluster, typically earlier runs of a member
+     * on this machine. No member would delete them otherwise. Several members
+     * sharing the temp directory can do this concurrently, so failures are
+     * only logged.
+     */
+    private void deleteChunksOfDepartedMembers(String dataMapName) {
+        File[] memberDirs = snapshotsDir.toFile().listFiles(File::isDirectory);
+        if (memberDirs == null) {
+            return;
+        }
+        Set<String> memberUuids = nodeEngine.getClusterService().getMembers().stream()
+                                            .map(Member::getUuid)
+                                            .collect(toSet());
+        for (File dir : memberDirs) {
+            if (memberUuids.contains(dir.getName())) {
+                continue;
+            }
+            try {
+                IOUtil.delete(chunkDir(dir.toPath(), dataMapName).toFile());
+                String[] remaining = dir.list();
+                if (remaining != null && remaining.length == 0) {
+                    IOUtil.delete(dir);
+                }
+            } catch (Exception e) {
+                logger.warning("Failed to delete the chunks of '" + dataMapName + "' in " + dir + ": " + e, e);
+            }
+        }
+    }
+
+    /**
+     * Casts the given storage, fails if this member isn't configured to use
+     * the local-disk storage.
+     */
+    @Nonnull
+    public static LocalDiskSnapshotStorage of(@Nonnull SnapshotStorage storage) {
+        if (!(storage instanceof LocalDiskSnapshotStorage)) {
+            throw new JetException("Member isn't configured with the LOCAL_DISK snapshot storage");
+        }
+        return (LocalDiskSnapshotStorage) storage;
+    }
+
+    static Path memberDir(@Nonnull String tempDir, @Nonnull String memberUuid) {
+        return Paths.get(tempDir, SNAPSHOTS_DIR, memberUuid);
+    }
+
+    static Path chunkDir(@Nonnull Path memberDir, @Nonnull String dataMapName) {
+        try {
+            // vertex names can contain any character
+            return memberDir.resolve(URLEncoder.encode(dataMapName, "UTF-8").replace("*", "%2A"));
+        } catch (UnsupportedEncodingException e) {
+            throw rethrow(e);
+        }
+    }
+
+    static JetException chunkLostException(String dataMapName, String chunkName) {
+        return new JetException("All members holding chunk '" + chunkName + "' of snapshot data '"
+                + dataMapName + "' left the cluster");
+    }
+}
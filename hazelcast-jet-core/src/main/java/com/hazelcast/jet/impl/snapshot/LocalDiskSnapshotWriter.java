@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.operation.ReplicateSnapshotChunkOperation;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+
+/**
+ * {@link SnapshotWriter} of the {@link LocalDiskSnapshotStorage}. It
+ * appends the entries of a snapshot to one chunk file per snapshot: each
+ * flush serializes the buffered entries to a byte array, copies it to a
+ * memory-mapped window of the file and sends it to the backup members.
+ * The flush completes when the local copy is written to the memory map
+ * and the backups have written theirs; writing the memory map out to the
+ * disk is left to the OS.
+ * <p>
+ * The file operations run on the member's I/O executor, never on the
+ * cooperative thread calling the writer. They are chained, so that they
+ * run one after another in the order of the flushes, while the backups
+ * are written in parallel with them.
+ * <p>
+ * Each entry is stored as the length and bytes of the key followed by the
+ * length and bytes of the value. The file is extended by whole windows,
+ * the unused zero-filled tail is read as a zero key length.
+ */
+class LocalDiskSnapshotWriter implements SnapshotWriter {
+
+    private static final int MAP_WINDOW_SIZE = 1 << 20;
+
+    private final NodeEngine nodeEngine;
+    private final HazelcastInstance instance;
+    private final LocalDiskSnapshotStorage storage;
+    private final int backupCount;
+    private final Executor ioExecutor;
+    private final String chunkName;
+
+    private final List<Entry<Data, Data>> buffer = new ArrayList<>();
+    private int bufferedBytes;
+
+    private String dataMapName;
+    // the position after the last flush, the file has this length once the pending writes are done
+    private long filePosition;
+    private boolean chunkStarted;
+    private List<Member> backups;
+    // the last of the chained file operations
+    private CompletableFuture<Void> lastFileOp = CompletableFuture.completedFuture(null);
+
+    // accessed only by the chained file operations
+    private RandomAccessFile file;
+    private MappedByteBuffer window;
+
+    LocalDiskSnapshotWriter(NodeEngine nodeEngine, LocalDiskSnapshotStorage storage, int backupCount,
+                            Executor ioExecutor) {
+        this.nodeEngine = nodeEngine;
+        this.instance = nodeEngine.getHazelcastInstance();
+        this.storage = storage;
+        this.backupCount = backupCount;
+        this.ioExecutor = ioExecutor;
+        this.chunkName = nodeEngine.getLocalMember().getUuid() + LocalDiskSnapshotStorage.CHUNK_SUFFIX;
+    }
+
+    @Override
+    public void setSnapshotName(@Nonnull String dataMapName) {
+        close();
+        this.dataMapName = dataMapName;
+    }
+
+    @Override
+    public void put(@Nonnull Entry<Data, Data> entry) {
+        buffer.add(entry);
+        bufferedBytes += 2 * Integer.BYTES + entry.getKey().totalSize() + entry.getValue().totalSize();
+    }
+
+    @Override
+    public boolean tryFlushAsync(@Nonnull CompletableFuture<Void> completionFuture) {
+        if (buffer.isEmpty()) {
+            completionFuture.complete(null);
+            return true;
+        }
+        byte[] bytes = serializeBuffer();
+        boolean isNewChunk = !chunkStarted;
+        if (isNewChunk) {
+            chunkStarted = true;
+            backups = selectBackups();
+            String mapName = dataMapName;
+            runFileOp(() -> openChunk(mapName));
+        }
+        long offset = filePosition;
+        filePosition += bytes.length;
+
+        AtomicInteger remaining = new AtomicInteger(1 + backups.size() + (isNewChunk ? 1 : 0));
+        ExecutionCallback<Object> callback = callbackOf(r -> {
+            if (remaining.decrementAndGet() == 0) {
+                completionFuture.complete(null);
+            }
+        }, completionFuture::completeExceptionally);
+        runFileOp(() -> writeToFile(offset, bytes)).whenComplete((r, t) -> {
+            if (t != null) {
+                callback.onFailure(peel(t));
+            } else {
+                callback.onResponse(null);
+            }
+        });
+        if (isNewChunk) {
+            List<String> holders = new ArrayList<>();
+            holders.add(nodeEngine.getLocalMember().getUuid());
+            for (Member backup : backups) {
+                holders.add(backup.getUuid());
+            }
+            instance.getMap(dataMapName).putAsync(chunkName, holders).andThen(callback);
+        }
+        for (Member backup : backups) {
+            nodeEngine.getOperationService()
+                      .invokeOnTarget(JetService.SERVICE_NAME,
+                              new ReplicateSnapshotChunkOperation(dataMapName, chunkName, offset, bytes),
+                              backup.getAddress())
+                      .andThen(callback);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the chunk file. The file is closed on the I/O executor after
+     * the pending file operations, the caller doesn't wait for it.
+     */
+    @Override
+    public void close() {
+        if (chunkStarted) {
+            // also after a failed operation
+            lastFileOp.whenCompleteAsync((r, t) -> closeFile(), ioExecutor);
+        }
+        chunkStarted = false;
+        filePosition = 0;
+        // a failed operation fails only the flushes of its snapshot
+        lastFileOp = CompletableFuture.completedFuture(null);
+    }
+
+    private byte[] serializeBuffer() {
+        ByteBuffer bytes = ByteBuffer.allocate(bufferedBytes);
+        for (Entry<Data, Data> entry : buffer) {
+            writeData(bytes, entry.getKey());
+            writeData(bytes, entry.getValue());
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+        return bytes.array();
+    }
+
+    private static void writeData(ByteBuffer bytes, Data data) {
+        bytes.putInt(data.totalSize());
+        bytes.put(data.toByteArray());
+    }
+
+    /**
+     * Chains the given file operation after the previous ones and runs it
+     * on the I/O executor.
+     */
+    private CompletableFuture<Void> runFileOp(FileOp op) {
+        lastFileOp = lastFileOp.thenRunAsync(() -> {
+            try {
+                op.run();
+            } catch (IOException e) {
+                throw sneakyThrow(e);
+            }
+        }, ioExecutor);
+        return lastFileOp;
+    }
+
+    private void openChunk(String mapName) throws IOException {
+        File dir = storage.chunkDir(mapName).toFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        file = new RandomAccessFile(new File(dir, chunkName), "rw");
+        file.setLength(0);
+        window = null;
+    }
+
+    private void closeFile() {
+        window = null;
+        IOUtil.closeResource(file);
+        file = null;
+    }
+
+    /**
+     * Returns the {@code backupCount} data members following this member in
+     * the member list.
+     */
+    private List<Member> selectBackups() {
+        List<Member> members = new ArrayList<>(nodeEngine.getClusterService().getMembers(DATA_MEMBER_SELECTOR));
+        int localIndex = members.indexOf(nodeEngine.getLocalMember());
+        List<Member> result = new ArrayList<>();
+        for (int i = 1; i < members.size() && result.size() < backupCount; i++) {
+            result.add(members.get((localIndex + i) % members.size()));
+        }
+        return result;
+    }
+
+    private void writeToFile(long offset, byte[] bytes) throws IOException {
+        if (window == null || window.remaining() < bytes.length) {
+            window = file.getChannel().map(READ_WRITE, offset, Math.max(MAP_WINDOW_SIZE, bytes.length));
+        }
+        window.put(bytes);
+    }
+
+    @FunctionalInterface
+    private interface FileOp {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reads the chunks of snapshot data written by the {@link
+ * LocalDiskSnapshotStorage}. The meta-supplier assigns each chunk to the
+ * first of its holders that is still in the cluster, so a chunk is read on
+ * the member which wrote it unless that member left. Fails if all the
+ * holders of a chunk left. Each processor reads its chunks through
+ * memory-mapped windows and emits the deserialized entries.
+ */
+final class ReadSnapshotChunksP extends AbstractProcessor implements Closeable {
+
+    private static final int MAP_WINDOW_SIZE = 1 << 20;
+
+    private final String dataMapName;
+    private final Queue<String> chunkNames;
+    private final Traverser<Entry<Object, Object>> traverser = this::nextEntry;
+
+    private Path chunkDir;
+    private SerializationService serializationService;
+    private RandomAccessFile file;
+    private long fileSize;
+    private long windowPosition;
+    private MappedByteBuffer window;
+
+    private ReadSnapshotChunksP(String dataMapName, List<String> chunkNames) {
+        this.dataMapName = dataMapName;
+        this.chunkNames = new ArrayDeque<>(chunkNames);
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) {
+        JetInstance instance = context.jetInstance();
+        chunkDir = LocalDiskSnapshotStorage.chunkDir(LocalDiskSnapshotStorage.memberDir(
+                instance.getConfig().getInstanceConfig().getTempDir(),
+                instance.getCluster().getLocalMember().getUuid()), dataMapName);
+        serializationService = ((ProcCtx) context).getSerializationService();
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(traverser);
+    }
+
+    private Entry<Object, Object> nextEntry() {
+        try {
+            while (true) {
+                if (file == null) {
+                    String chunkName = chunkNames.poll();
+                    if (chunkName == null) {
+                        return null;
+                    }
+                    openChunk(chunkName);
+                }
+                Data key = readData();
+                if (key == null) {
+                    close();
+                    continue;
+                }
+                Data value = readData();
+                if (value == null) {
+                    throw truncatedChunkException();
+                }
+                return entry(serializationService.toObject(key), serializationService.toObject(value));
+            }
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+    }
+
+    private void openChunk(String chunkName) throws IOException {
+        file = new RandomAccessFile(chunkDir.resolve(chunkName).toFile(), "r");
+        fileSize = file.length();
+        windowPosition = 0;
+        window = null;
+    }
+
+    /**
+     * Returns the next length-prefixed data or null at the end of the chunk.
+     * Throws if the chunk ends inside the data, a key is never cut off
+     * silently.
+     */
+    private Data readData() throws IOException {
+        if (!ensureAvailable(Integer.BYTES)) {
+            // the end of a replica or less than a length left in the zero-filled tail
+            return null;
+        }
+        int length = window.getInt();
+        if (length == 0) {
+            // the zero-filled tail of a locally written chunk
+            return null;
+        }
+        if (!ensureAvailable(length)) {
+            throw truncatedChunkException();
+        }
+        byte[] bytes = new byte[length];
+        window.get(bytes);
+        return new HeapData(bytes);
+    }
+
+    private boolean ensureAvailable(int length) throws IOException {
+        if (window != null && window.remaining() >= length) {
+            return true;
+        }
+        long position = position();
+        if (fileSize - position < length) {
+            return false;
+        }
+        windowPosition = position;
+        window = file.getChannel().map(READ_ONLY, position,
+                Math.min(fileSize - position, Math.max(MAP_WINDOW_SIZE, length)));
+        return true;
+    }
+
+    private long position() {
+        return windowPosition + (window == null ? 0 : window.position());
+    }
+
+    private JetException truncatedChunkException() {
+        return new JetException("Truncated entry in a chunk of snapshot data '" + dataMapName + '\'');
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        IOUtil.closeResource(file);
+        file = null;
+    }
+
+    static ProcessorMetaSupplier metaSupplier(String dataMapName) {
+        return new MetaSupplier(dataMapName);
+    }
+
+    private static final class MetaSupplier implements ProcessorMetaSupplier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String dataMapName;
+        private transient Map<Address, List<String>> assignment;
+
+        private MetaSupplier(String dataMapName) {
+            this.dataMapName = dataMapName;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            Map<String, Address> memberAddresses = new HashMap<>();
+            for (Member member : context.jetInstance().getCluster().getMembers()) {
+                memberAddresses.put(member.getUuid(), member.getAddress());
+            }
+            Map<String, List<String>> holdersByChunk = context.jetInstance().getMap(dataMapName);
+            assignment = new HashMap<>();
+            for (Entry<String, List<String>> chunk : holdersByChunk.entrySet()) {
+                Address address = chunk.getValue().stream()
+                                       .map(memberAddresses::get)
+                                       .filter(a -> a != null)
+                                       .findFirst()
+                                       .orElseThrow(() -> LocalDiskSnapshotStorage.chunkLostException(
+                                               dataMapName, chunk.getKey()));
+                assignment.computeIfAbsent(address, a -> new ArrayList<>()).add(chunk.getKey());
+            }
+        }
+
+        @Nonnull @Override
+        public Function<Address, ProcessorSupplier> get(@Nonnull List<Address> addresses) {
+            return address -> {
+                List<String> chunks = assignment.getOrDefault(address, Collections.emptyList());
+                String name = dataMapName;
+                return CloseableProcessorSupplier.of(count -> IntStream
+                        .range(0, count)
+                        .mapToObj(i -> new ReadSnapshotChunksP(name, chunksOfProcessor(chunks, i, count)))
+                        .collect(toList()));
+            };
+        }
+    }
+
+    private static List<String> chunksOfProcessor(List<String> chunks, int index, int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = index; i < chunks.size(); i += count) {
+            result.add(chunks.get(i));
+        }
+        return result;
+    }
+}
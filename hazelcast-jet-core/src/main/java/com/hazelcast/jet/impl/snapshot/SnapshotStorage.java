@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.config.InstanceConfig;
+import com.hazelcast.jet.config.SnapshotStorageType;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Stores the data of job snapshots. The data of one vertex in one snapshot
+ * is identified by its {@link
+ * com.hazelcast.jet.impl.SnapshotRepository#snapshotDataMapName data map
+ * name}, regardless of whether the storage keeps it in that map or not.
+ * The snapshot metadata is always kept by the {@link
+ * com.hazelcast.jet.impl.SnapshotRepository SnapshotRepository}.
+ */
+public interface SnapshotStorage {
+
+    /**
+     * Returns a new writer used by a {@link
+     * com.hazelcast.jet.impl.execution.StoreSnapshotTasklet} to store the
+     * snapshot data of a vertex on this member.
+     */
+    @Nonnull
+    SnapshotWriter newWriter();
+
+    /**
+     * Returns the supplier of the source reading the snapshot data with the
+     * given name. The source emits each stored entry once with the key and
+     * value deserialized.
+     */
+    @Nonnull
+    ProcessorMetaSupplier readSnapshotP(@Nonnull String dataMapName);
+
+    /**
+     * Tells whether the snapshot data with the given name is a delta of the
+     * previous snapshot, that is whether it contains the {@link
+     * com.hazelcast.jet.impl.execution.DeltaSnapshotTag#DELTA_MARKER}.
+     */
+    boolean isDeltaSnapshot(@Nonnull String dataMapName);
+
+    /**
+     * Tells whether delta snapshots can be stored. If not, every snapshot
+     * is a full snapshot.
+     */
+    boolean supportsDeltaSnapshots();
+
+    /**
+     * Tells whether the snapshot data is kept in an IMap with the data map
+     * name, partitioned by the serialized key. If so, each processor can
+     * restore its state by reading the partitions assigned to it directly,
+     * otherwise the data is read using {@link #readSnapshotP}.
+     */
+    boolean supportsPartitionLocalRestore();
+
+    /**
+     * Deletes the snapshot data with the given name.
+     */
+    void deleteSnapshotData(@Nonnull String dataMapName);
+
+    /**
+     * Creates the storage {@link InstanceConfig#setSnapshotStorage
+     * configured} for this member.
+     */
+    @Nonnull
+    static SnapshotStorage create(@Nonnull NodeEngine nodeEngine, @Nonnull InstanceConfig config) {
+        return config.getSnapshotStorage() == SnapshotStorageType.LOCAL_DISK
+                ? new LocalDiskSnapshotStorage(nodeEngine, config)
+                : new IMapSnapshotStorage(nodeEngine);
+    }
+}
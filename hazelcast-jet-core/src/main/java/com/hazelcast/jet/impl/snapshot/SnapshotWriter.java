@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.impl.execution.SnapshotBatch;
+import com.hazelcast.nio.serialization.Data;
+
+import javax.annotation.Nonnull;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cooperative writer of the snapshot data of one vertex on one member,
+ * obtained from {@link SnapshotStorage#newWriter()}. Not thread-safe.
+ */
+public interface SnapshotWriter {
+
+    /**
+     * Sets the data map name of the snapshot the following entries belong
+     * to. No flush must be in progress when this is called.
+     */
+    void setSnapshotName(@Nonnull String dataMapName);
+
+    /**
+     * Buffers the given entry until the next {@link #tryFlushAsync flush}.
+     */
+    void put(@Nonnull Entry<Data, Data> entry);
+
+    /**
+     * Buffers the entries of the given batch until the next {@link
+     * #tryFlushAsync flush}. The default implementation puts them one by
+     * one, the serialized keys and values aren't copied. No storage
+     * overrides it: each entry is stored as its own record.
+     */
+    default void put(@Nonnull SnapshotBatch batch) {
+        batch.forEach(this::put);
+    }
+
+    /**
+     * Starts storing the buffered entries. The future is completed when
+     * they are stored.
+     *
+     * @return false, if the flush can't be started now. The call should be
+     * retried later.
+     */
+    boolean tryFlushAsync(@Nonnull CompletableFuture<Void> completionFuture);
+
+    /**
+     * Releases the resources held by the writer. No flush must be in
+     * progress when this is called.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * A Bloom filter over 64-bit hashes. It answers whether a hash was
+ * possibly added (with the configured false-positive probability) or
+ * definitely not added. Filters of the same size can be united, which
+ * lets each member build a filter of its local items and the receivers
+ * combine them.
+ */
+public final class BloomFilter implements IdentifiedDataSerializable {
+
+    private static final int MAX_BITS = 1 << 30;
+
+    private long[] bits;
+    private int numHashes;
+
+    public BloomFilter() {
+    }
+
+    /**
+     * Creates a filter sized for the given number of keys so that the
+     * false-positive probability stays at about {@code fpp}.
+     */
+    public BloomFilter(long expectedKeys, double fpp) {
+        checkPositive(expectedKeys, "expectedKeys must be positive");
+        checkTrue(fpp > 0 && fpp < 1, "fpp must be between 0 and 1");
+        double ln2 = Math.log(2);
+        double optimalBits = -expectedKeys * Math.log(fpp) / (ln2 * ln2);
+        int numBits = (int) Math.min(MAX_BITS, Math.max(Long.SIZE, optimalBits));
+        this.bits = new long[(numBits + Long.SIZE - 1) / Long.SIZE];
+        this.numHashes = Math.max(1, (int) Math.round(optimalBits / expectedKeys * ln2));
+    }
+
+    /**
+     * Adds the given hash to the filter.
+     */
+    public void add(long hash) {
+        long numBits = (long) bits.length * Long.SIZE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> Integer.SIZE);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            bits[(int) (bit / Long.SIZE)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Returns {@code false} if the given hash certainly wasn't added to the
+     * filter, {@code true} if it possibly was.
+     */
+    public boolean mightContain(long hash) {
+        long numBits = (long) bits.length * Long.SIZE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> Integer.SIZE);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits[(int) (bit / Long.SIZE)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds all the hashes of the given filter to this filter. Both filters
+     * must have been created with the same parameters.
+     */
+    public void union(BloomFilter that) {
+        checkTrue(this.bits.length == that.bits.length && this.numHashes == that.numHashes,
+                "Can't unite Bloom filters of different sizes");
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= that.bits[i];
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.BLOOM_FILTER;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(numHashes);
+        out.writeLongArray(bits);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        numHashes = in.readInt();
+        bits = in.readLongArray();
+    }
+}
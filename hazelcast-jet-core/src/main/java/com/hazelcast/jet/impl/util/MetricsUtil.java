@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.renderers.ProbeRenderer;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Utility to read the current values of the metrics Jet registers in the
+ * Hazelcast {@link MetricsRegistry}.
+ */
+public final class MetricsUtil {
+
+    private MetricsUtil() {
+    }
+
+    /**
+     * Returns the current values of all metrics whose name starts with the
+     * given prefix, keyed by the metric name with the prefix removed. Metrics
+     * which currently have no value are omitted.
+     */
+    public static Map<String, Long> collectMetrics(MetricsRegistry registry, String prefix) {
+        Map<String, Long> result = new TreeMap<>();
+        registry.render(new ProbeRenderer() {
+            @Override
+            public void renderLong(String name, long value) {
+                if (name.startsWith(prefix)) {
+                    result.put(name.substring(prefix.length()), value);
+                }
+            }
+
+            @Override
+            public void renderDouble(String name, double value) {
+                renderLong(name, Math.round(value));
+            }
+
+            @Override
+            public void renderException(String name, Exception e) {
+            }
+
+            @Override
+            public void renderNoValue(String name) {
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Hashes objects by their serialized form. Unlike {@code hashCode()}, which
+ * differs between JVMs for enums and for classes that don't override it,
+ * such a hash is the same on all members, so the sketches built from it on
+ * different members can be combined.
+ * <p>
+ * Jet's worker threads use the member's serialization service, see {@link
+ * #setThreadSerializationService}. Other threads, such as those running
+ * processor tests, use a default serialization service.
+ */
+public final class SerializedHash {
+
+    private static final ThreadLocal<SerializationService> THREAD_SERVICE = new ThreadLocal<>();
+
+    private SerializedHash() {
+    }
+
+    /**
+     * Returns the 64-bit hash of the serialized form of the given object.
+     */
+    public static long hash64(@Nonnull Object o) {
+        SerializationService service = THREAD_SERVICE.get();
+        if (service == null) {
+            service = DefaultServiceHolder.SERVICE;
+        }
+        return service.toData(o).hash64();
+    }
+
+    /**
+     * Sets the serialization service {@link #hash64} uses on the current
+     * thread. Called by the member's worker threads when they start.
+     */
+    public static void setThreadSerializationService(SerializationService service) {
+        THREAD_SERVICE.set(service);
+    }
+
+    // created on the first use outside of a worker thread
+    private static final class DefaultServiceHolder {
+        static final SerializationService SERVICE = new DefaultSerializationServiceBuilder().build();
+    }
+}
@@ -21,6 +21,8 @@ import com.hazelcast.jet.function.DistributedFunction;
 import java.io.Serializable;
 import java.util.Map.Entry;
 
+import static com.hazelcast.util.Preconditions.checkPositive;
+
 /**
  * Specifies how to join an enriching stream to the primary stream in a
  * {@link BatchStage#hashJoin hash-join} operation. It holds three
@@ -41,6 +43,11 @@ import java.util.Map.Entry;
  *  contain just the vaules. In this case the projection function should be
  *  {@code Entry::getValue}. There is direct support for this case with the
  *  method {@link #joinMapEntries(DistributedFunction)}.
+ * <p>
+ * By default the whole enriching stream is collected into a hashtable that
+ * is replicated to every processor of the join on every member. If the
+ * enriching stream is too large for that, use {@link #partitioned()} to
+ * partition both streams by the join key instead.
  *
  * @param <K> the type of the join key
  * @param <T0> the type of the left-hand stream item
@@ -51,15 +58,29 @@ public final class JoinClause<K, T0, T1, T1_OUT> implements Serializable {
     private final DistributedFunction<? super T0, ? extends K> leftKeyFn;
     private final DistributedFunction<? super T1, ? extends K> rightKeyFn;
     private final DistributedFunction<? super T1, ? extends T1_OUT> rightProjectFn;
+    private final boolean partitioned;
+    private final long bloomFilterExpectedKeys;
 
     private JoinClause(
             DistributedFunction<? super T0, ? extends K> leftKeyFn,
             DistributedFunction<? super T1, ? extends K> rightKeyFn,
             DistributedFunction<? super T1, ? extends T1_OUT> rightProjectFn
+    ) {
+        this(leftKeyFn, rightKeyFn, rightProjectFn, false, 0);
+    }
+
+    private JoinClause(
+            DistributedFunction<? super T0, ? extends K> leftKeyFn,
+            DistributedFunction<? super T1, ? extends K> rightKeyFn,
+            DistributedFunction<? super T1, ? extends T1_OUT> rightProjectFn,
+            boolean partitioned,
+            long bloomFilterExpectedKeys
     ) {
         this.leftKeyFn = leftKeyFn;
         this.rightKeyFn = rightKeyFn;
         this.rightProjectFn = rightProjectFn;
+        this.partitioned = partitioned;
+        this.bloomFilterExpectedKeys = bloomFilterExpectedKeys;
     }
 
     /**
@@ -97,7 +118,43 @@ public final class JoinClause<K, T0, T1, T1_OUT> implements Serializable {
     public <T1_NEW_OUT> JoinClause<K, T0, T1, T1_NEW_OUT> projecting(
             DistributedFunction<? super T1, ? extends T1_NEW_OUT> rightProjectFn
     ) {
-        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, rightProjectFn);
+        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, rightProjectFn,
+                this.partitioned, this.bloomFilterExpectedKeys);
+    }
+
+    /**
+     * Returns a copy of this join clause that uses the partitioned join
+     * mode. Instead of replicating the whole enriching stream to every
+     * processor, both streams are partitioned by the join key over
+     * distributed edges, so each member holds only its share of the
+     * enriching stream. The result of the join is the same, but every
+     * primary stream item travels over the network to the member that owns
+     * its key.
+     * <p>
+     * The partitioned mode is supported only when joining a single
+     * enriching stream. The join keys must not be {@code null}.
+     */
+    public JoinClause<K, T0, T1, T1_OUT> partitioned() {
+        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, this.rightProjectFn,
+                true, this.bloomFilterExpectedKeys);
+    }
+
+    /**
+     * Returns a copy of this join clause that uses the {@linkplain
+     * #partitioned() partitioned join mode} with a Bloom filter. Each
+     * member builds a Bloom filter of the enriching stream's keys and sends
+     * it to all members. Primary stream items whose key certainly isn't in
+     * the enriching stream are then joined locally to {@code null} instead
+     * of being sent over the network. This pays off when a large share of
+     * the primary stream has no match.
+     *
+     * @param expectedKeys the expected number of keys in the enriching stream
+     *                     on a single member; it sizes the filter for a false
+     *                     positive probability of about 1%
+     */
+    public JoinClause<K, T0, T1, T1_OUT> partitionedWithBloomFilter(long expectedKeys) {
+        checkPositive(expectedKeys, "expectedKeys must be positive");
+        return new JoinClause<>(this.leftKeyFn, this.rightKeyFn, this.rightProjectFn, true, expectedKeys);
     }
 
     /**
@@ -120,4 +177,21 @@ public final class JoinClause<K, T0, T1, T1_OUT> implements Serializable {
     public DistributedFunction<? super T1, ? extends T1_OUT> rightProjectFn() {
         return rightProjectFn;
     }
+
+    /**
+     * Tells whether this join clause uses the {@linkplain #partitioned()
+     * partitioned join mode}.
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Returns the number of keys the Bloom filter is sized for, or 0 if this
+     * join clause doesn't use a {@linkplain #partitionedWithBloomFilter(long)
+     * Bloom filter}.
+     */
+    public long bloomFilterExpectedKeys() {
+        return bloomFilterExpectedKeys;
+    }
 }
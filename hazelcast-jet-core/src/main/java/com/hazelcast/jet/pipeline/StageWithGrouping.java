@@ -37,6 +37,28 @@ import java.util.Map.Entry;
  */
 public interface StageWithGrouping<T, K> extends GeneralStageWithGrouping<T, K> {
 
+    /**
+     * Declares that the items with the same grouping key arrive one after
+     * another from the upstream stage, for example because a source reads
+     * files sorted by the key and each key is only in one file. The
+     * aggregating stage then keeps only the accumulator of the current key
+     * and emits its result as soon as an item with a different key arrives,
+     * so it needs constant memory and emits the first results early.
+     * <p>
+     * The aggregating stage gets the same local parallelism as the upstream
+     * stage and each of its processors receives the items of exactly one
+     * upstream processor, in their original order. The results aren't
+     * combined across the upstream processors: the stage emits a separate
+     * result for each run of adjacent items with the same key in the output
+     * of each upstream processor. Therefore, to get one result per key, all
+     * items of a key must come from the same upstream processor, such as
+     * from a single file or from a source with only one processor. Only the
+     * single-input {@link #aggregate(AggregateOperation1) aggregate()} is
+     * supported with this option.
+     */
+    @Nonnull
+    StageWithGrouping<T, K> inputSortedByKey();
+
     /**
      * Attaches to this stage a stage that performs the given
      * group-and-aggregate operation. For each distinct grouping key it
@@ -90,6 +90,47 @@ public interface StreamStage<T> extends GeneralStage<T> {
             @Nonnull DistributedTriFunction<T, T1, T2, R> mapToOutputFn
     );
 
+    /**
+     * Attaches to both this and the supplied stage a windowed-join stage and
+     * returns it. The stage joins an item {@code t0} from this stage to an
+     * item {@code t1} from {@code stage1} if their keys, extracted by {@code
+     * keyFn0} and {@code keyFn1}, are equal and their timestamps satisfy
+     * <pre>
+     *     timestamp(t0) + lowerBound <= timestamp(t1) <= timestamp(t0) + upperBound
+     * </pre>
+     * For example, to join ad impressions to the clicks that happened within
+     * 10 minutes after them, call it on the impressions stage with the
+     * clicks stage, a {@code lowerBound} of 0 and an {@code upperBound} of
+     * 10 minutes.
+     * <p>
+     * For each joined pair the stage emits the result of {@code
+     * mapToOutputFn}, timestamped with the later of the two timestamps. It
+     * is an inner join: items without a match produce no output. Both stages
+     * must have timestamps. The stage buffers the items of both streams
+     * until the watermark makes it certain they won't match any more items,
+     * so its memory use is proportional to the amount of data within the
+     * join window.
+     *
+     * @param stage1 the stage to join with this one
+     * @param keyFn0 function to extract the join key from this stage's items
+     * @param keyFn1 function to extract the join key from {@code stage1}'s items
+     * @param lowerBound the lower bound of {@code timestamp(t1) - timestamp(t0)}
+     * @param upperBound the upper bound of {@code timestamp(t1) - timestamp(t0)}
+     * @param mapToOutputFn function that creates the output item from the joined items
+     * @param <K> type of the join key
+     * @param <T1> type of {@code stage1}'s items
+     * @param <R> type of the output item
+     */
+    @Nonnull
+    <K, T1, R> StreamStage<R> windowedJoin(
+            @Nonnull StreamStage<T1> stage1,
+            @Nonnull DistributedFunction<? super T, ? extends K> keyFn0,
+            @Nonnull DistributedFunction<? super T1, ? extends K> keyFn1,
+            long lowerBound,
+            long upperBound,
+            @Nonnull DistributedBiFunction<? super T, ? super T1, ? extends R> mapToOutputFn
+    );
+
     @Nonnull @Override
     default StreamHashJoinBuilder<T> hashJoinBuilder() {
         return new StreamHashJoinBuilder<>(this);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class TDigestAccumulatorTest {
+
+    @Test
+    public void when_manyValuesAccumulated_then_centroidCountBoundedByCompression() {
+        // Given
+        TDigestAccumulator digest = new TDigestAccumulator(100);
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 5_000_000; i++) {
+            digest.accumulate(random.nextGaussian());
+        }
+
+        // Then
+        int centroidCount = digest.centroidMeans().length;
+        assertTrue("centroidCount=" + centroidCount, centroidCount <= 100);
+        assertEquals(0, digest.quantile(0.5), 0.01);
+        assertEquals(2.326, digest.quantile(0.99), 0.01);
+    }
+
+    @Test
+    public void when_manyDigestsCombined_then_centroidCountBoundedByCompression() {
+        // Given
+        TDigestAccumulator combined = new TDigestAccumulator(100);
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            TDigestAccumulator digest = new TDigestAccumulator(100);
+            for (int j = 0; j < 100_000; j++) {
+                digest.accumulate(random.nextDouble());
+            }
+            combined.combine(digest);
+        }
+
+        // Then
+        int centroidCount = combined.centroidMeans().length;
+        assertTrue("centroidCount=" + centroidCount, centroidCount <= 100);
+        assertEquals(5_000_000, combined.count());
+        assertEquals(0.5, combined.quantile(0.5), 0.01);
+        assertEquals(0.999, combined.quantile(0.999), 0.001);
+    }
+
+    @Test
+    public void when_createdFromCentroids_then_equalToOriginal() {
+        // Given
+        TDigestAccumulator digest = new TDigestAccumulator(20);
+        for (int i = 0; i < 10_000; i++) {
+            digest.accumulate(i);
+        }
+
+        // When
+        TDigestAccumulator copy = new TDigestAccumulator(digest.compression(), digest.centroidMeans(),
+                digest.centroidWeights(), digest.min(), digest.max());
+
+        // Then
+        assertEquals(digest, copy);
+    }
+}
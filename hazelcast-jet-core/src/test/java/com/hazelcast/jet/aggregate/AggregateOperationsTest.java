@@ -17,11 +17,14 @@
 package com.hazelcast.jet.aggregate;
 
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.HeavyHittersAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.TDigestAccumulator;
 import com.hazelcast.jet.datamodel.ItemsByTag;
 import com.hazelcast.jet.datamodel.Tag;
 import com.hazelcast.jet.datamodel.Tuple2;
@@ -32,9 +35,12 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -45,6 +51,9 @@ import java.util.function.Supplier;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.aggregate.AggregateOperations.allOf;
 import static com.hazelcast.jet.aggregate.AggregateOperations.allOfBuilder;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateCountDistinct;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateQuantile;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateTopK;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingLong;
 import static com.hazelcast.jet.aggregate.AggregateOperations.concatenating;
@@ -65,6 +74,7 @@ import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
 import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.function.DistributedFunctions.entryValue;
+import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
@@ -259,6 +269,131 @@ public class AggregateOperationsTest {
         assertTrue("NaN expected if all data points have same x value", Double.isNaN(finishFn.apply(acc)));
     }
 
+    @Test
+    public void when_approximateCountDistinct() {
+        validateOpWithoutDeduct(approximateCountDistinct(DistributedFunctions.<String>wholeItem()),
+                HyperLogLogAccumulator::estimate,
+                "a", "b", 1L, 2L, 2L);
+    }
+
+    @Test
+    public void when_approximateCountDistinctOfManyItems_then_withinError() {
+        // Given
+        AggregateOperation1<Integer, HyperLogLogAccumulator, Long> op =
+                approximateCountDistinct(wholeItem());
+        HyperLogLogAccumulator acc1 = op.createFn().get();
+        HyperLogLogAccumulator acc2 = op.createFn().get();
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            // the accumulators overlap on half of the keys
+            op.accumulateFn().accept(acc1, i);
+            op.accumulateFn().accept(acc2, i + 50_000);
+        }
+        op.combineFn().accept(acc1, acc2);
+
+        // Then
+        assertEquals(150_000, op.finishFn().apply(acc1), 150_000 * 0.03);
+    }
+
+    @Test
+    public void when_approximateCountDistinctOfItemsWithIdentityHashCode_then_hashedBySerializedForm() {
+        // Given
+        AggregateOperation1<IdentityHashedKey, HyperLogLogAccumulator, Long> op =
+                approximateCountDistinct(wholeItem());
+        HyperLogLogAccumulator acc = op.createFn().get();
+
+        // When
+        // the two instances have different hash codes, but serialize to the same bytes
+        op.accumulateFn().accept(acc, new IdentityHashedKey(1));
+        op.accumulateFn().accept(acc, new IdentityHashedKey(1));
+        op.accumulateFn().accept(acc, new IdentityHashedKey(2));
+
+        // Then
+        assertEquals(2L, (long) op.finishFn().apply(acc));
+    }
+
+    @Test
+    public void when_approximateTopKOfItemsWithIdentityHashCode_then_hashedBySerializedForm() {
+        // Given
+        HeavyHittersAccumulator<IdentityHashedKey> acc = approximateTopK(
+                DistributedFunctions.<IdentityHashedKey>wholeItem(), 2).createFn().get();
+
+        // When
+        acc.accumulate(new IdentityHashedKey(1));
+        acc.accumulate(new IdentityHashedKey(1));
+
+        // Then
+        assertEquals(2, acc.estimate(new IdentityHashedKey(1)));
+    }
+
+    @Test
+    public void when_approximateQuantile() {
+        validateOpWithoutDeduct(approximateQuantile(Integer::doubleValue, 0.5),
+                TDigestAccumulator::count,
+                1, 3, 1L, 2L, 2.0);
+    }
+
+    @Test
+    public void when_approximateQuantileOfManyItems_then_withinError() {
+        // Given
+        AggregateOperation1<Integer, TDigestAccumulator, Double> op = approximateQuantile(Integer::doubleValue, 0.99);
+        List<TDigestAccumulator> accs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accs.add(op.createFn().get());
+        }
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            op.accumulateFn().accept(accs.get(i % accs.size()), i);
+        }
+        TDigestAccumulator combined = op.createFn().get();
+        for (TDigestAccumulator acc : accs) {
+            op.combineFn().accept(combined, acc);
+        }
+
+        // Then
+        assertEquals(99_000, op.finishFn().apply(combined), 100_000 * 0.001);
+        assertEquals(50_000, combined.quantile(0.5), 100_000 * 0.01);
+        assertEquals(0, combined.quantile(0), 0);
+        assertEquals(99_999, combined.quantile(1), 0);
+    }
+
+    @Test
+    public void when_approximateTopK() {
+        // Given
+        AggregateOperation1<String, HeavyHittersAccumulator<String>, List<Entry<String, Long>>> op =
+                approximateTopK(wholeItem(), 2);
+        HeavyHittersAccumulator<String> acc1 = op.createFn().get();
+        HeavyHittersAccumulator<String> acc2 = op.createFn().get();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            op.accumulateFn().accept(acc1, "item" + i);
+            op.accumulateFn().accept(acc2, "item" + i);
+        }
+        for (int i = 0; i < 30; i++) {
+            op.accumulateFn().accept(acc1, "a");
+            op.accumulateFn().accept(acc2, "b");
+        }
+        op.accumulateFn().accept(acc2, "b");
+
+        // Then
+        assertEquals(asList(entry("a", 30L)), op.finishFn().apply(acc1).subList(0, 1));
+
+        // When
+        op.combineFn().accept(acc1, acc2);
+        // Then
+        assertEquals(asList(entry("b", 31L), entry("a", 30L)), op.finishFn().apply(acc1));
+
+        // When
+        op.deductFn().accept(acc1, acc2);
+        // Then
+        assertEquals(30L, acc1.estimate("a"));
+        assertEquals(0L, acc1.estimate("b"));
+        assertEquals(asList(entry("a", 30L)), op.finishFn().apply(acc1).subList(0, 1));
+    }
+
     @Test
     public void when_reducing() {
         validateOp(reducing(0, Integer::intValue, Integer::sum, (x, y) -> x - y),
@@ -618,4 +753,13 @@ public class AggregateOperationsTest {
     private static LongLongAccumulator longLongAcc(long val1, long val2) {
         return new LongLongAccumulator(val1, val2);
     }
+
+    // doesn't override hashCode(), so equal instances hash differently
+    private static final class IdentityHashedKey implements Serializable {
+        private final int value;
+
+        IdentityHashedKey(int value) {
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.benchmark;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.EdgeCompression;
+import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.NightlyTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.Processors.noopP;
+import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput and the CPU time of a distributed edge carrying
+ * JSON-like strings with each {@link EdgeCompression}.
+ */
+@Category(NightlyTest.class)
+@RunWith(HazelcastSerialClassRunner.class)
+public class EdgeCompressionTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 2_000_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private static final AtomicLong RECEIVED_COUNT = new AtomicLong();
+
+    private JetInstance jet1;
+    private JetInstance jet2;
+
+    @Before
+    public void setUp() {
+        JetConfig config = new JetConfig();
+        jet1 = createJetMember(config);
+        jet2 = createJetMember(config);
+    }
+
+    @Test
+    public void benchmark() {
+        for (EdgeCompression compression : EdgeCompression.values()) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                runJob(compression);
+            }
+            long totalNanos = 0;
+            long totalCpuNanos = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long cpuStart = processCpuTime();
+                long start = System.nanoTime();
+                runJob(compression);
+                totalNanos += System.nanoTime() - start;
+                totalCpuNanos += processCpuTime() - cpuStart;
+            }
+            long itemsPerSecond = ITEM_COUNT * MEASURED_ROUNDS * 1_000_000_000L / totalNanos;
+            System.out.println(String.format("%-8s throughput=%,d items/s, time=%,d ms, cpu=%,d ms",
+                    compression, itemsPerSecond, NANOSECONDS.toMillis(totalNanos / MEASURED_ROUNDS),
+                    NANOSECONDS.toMillis(totalCpuNanos / MEASURED_ROUNDS)));
+        }
+    }
+
+    private void runJob(EdgeCompression compression) {
+        int member1Port = jet1.getCluster().getLocalMember().getAddress().getPort();
+        Member member2 = jet2.getCluster().getLocalMember();
+        int ptionOwnedByMember2 = jet1.getHazelcastInstance().getPartitionService()
+                                      .getPartitions().stream()
+                                      .filter(p -> p.getOwner().equals(member2))
+                                      .map(Partition::getPartitionId)
+                                      .findAny()
+                                      .orElseThrow(() -> new AssertionError("No partition owned by " + member2));
+
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", ProcessorMetaSupplier.of((Address address) ->
+                ProcessorSupplier.of(address.getPort() == member1Port ? GenerateP::new : noopP())
+        )).localParallelism(1);
+        Vertex sink = dag.newVertex("sink", CountP::new);
+        dag.edge(between(source, sink)
+                .distributed().partitioned(wholeItem(), (item, count) -> ptionOwnedByMember2)
+                .setConfig(new EdgeConfig().setCompression(compression)));
+
+        RECEIVED_COUNT.set(0);
+        jet1.newJob(dag).join();
+        assertEquals(ITEM_COUNT, RECEIVED_COUNT.get());
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private static class GenerateP extends AbstractProcessor {
+        private int counter;
+
+        @Override
+        public boolean complete() {
+            while (counter < ITEM_COUNT) {
+                String item = "{\"id\":" + counter + ",\"type\":\"order\",\"status\":\"confirmed\","
+                        + "\"customer\":\"customer-" + counter % 1000 + "\"}";
+                if (!tryEmit(item)) {
+                    return false;
+                }
+                counter++;
+            }
+            return true;
+        }
+    }
+
+    private static class CountP extends AbstractProcessor {
+        @Override
+        protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+            RECEIVED_COUNT.incrementAndGet();
+            return true;
+        }
+    }
+}
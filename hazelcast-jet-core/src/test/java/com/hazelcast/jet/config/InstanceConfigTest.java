@@ -60,6 +60,46 @@ public class InstanceConfigTest {
         assertEquals(3, instanceConfig.getBackupCount());
     }
 
+    @Test
+    public void when_zeroLoadImbalanceThreshold_thenThrowsException() {
+        // When
+        InstanceConfig instanceConfig = new InstanceConfig();
+
+        // Then
+        expectedException.expect(IllegalArgumentException.class);
+        instanceConfig.setLoadImbalanceThreshold(0);
+    }
+
+    @Test
+    public void when_negativeLoadBalancingPeriod_thenThrowsException() {
+        // When
+        InstanceConfig instanceConfig = new InstanceConfig();
+
+        // Then
+        expectedException.expect(IllegalArgumentException.class);
+        instanceConfig.setLoadBalancingPeriodMs(-1);
+    }
+
+    @Test
+    public void when_negativeMaxInMemoryGroupingKeys_thenThrowsException() {
+        // When
+        InstanceConfig instanceConfig = new InstanceConfig();
+
+        // Then
+        expectedException.expect(IllegalArgumentException.class);
+        instanceConfig.setMaxInMemoryGroupingKeys(-1);
+    }
+
+    @Test
+    public void when_negativeMaxPartialAggregationKeys_thenThrowsException() {
+        // When
+        InstanceConfig instanceConfig = new InstanceConfig();
+
+        // Then
+        expectedException.expect(IllegalArgumentException.class);
+        instanceConfig.setMaxPartialAggregationKeys(-1);
+    }
+
     @Test
     public void when_noTmpDirSet_thenReturnsDefaultUserDir() {
         // When
@@ -27,6 +27,7 @@ import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.SnapshotStorageType;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.core.processor.SinkProcessors;
 import com.hazelcast.jet.core.test.TestProcessorMetaSupplierContext;
@@ -46,6 +47,7 @@ import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import javax.annotation.Nonnull;
@@ -94,6 +96,9 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     private JetInstance instance1;
     private JetInstance instance2;
 
@@ -116,7 +121,51 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         when_nodeDown_then_jobRestartsFromSnapshot(true);
     }
 
+    @Test
+    public void when_nodeDown_then_jobRestartsFromDeltaSnapshot_singleStage() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(false, 3);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromDeltaSnapshot_twoStage() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, 3);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromNonBlockingSnapshot_singleStage() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(false, 1, true);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromNonBlockingSnapshot_twoStage() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, 1, true);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromLocalDiskSnapshot() throws Exception {
+        instance1.shutdown();
+        instance2.shutdown();
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig().setCooperativeThreadCount(LOCAL_PARALLELISM)
+              .setSnapshotStorage(SnapshotStorageType.LOCAL_DISK)
+              .setTempDir(tempFolder.getRoot().getPath());
+        instance1 = createJetMember(config);
+        instance2 = createJetMember(config);
+
+        when_nodeDown_then_jobRestartsFromSnapshot(true);
+    }
+
     public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage) throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(twoStage, 1);
+    }
+
+    public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage, int fullSnapshotInterval)
+            throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(twoStage, fullSnapshotInterval, false);
+    }
+
+    public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage, int fullSnapshotInterval,
+                                                           boolean nonBlockingBarriers) throws Exception {
         /* Design of this test:
 
         It uses random partitioned generator of source events. The events are Map.Entry(partitionId, timestamp).
@@ -197,6 +246,8 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         JobConfig config = new JobConfig();
         config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
         config.setSnapshotIntervalMillis(1200);
+        config.setFullSnapshotInterval(fullSnapshotInterval);
+        config.setNonBlockingSnapshotBarriers(nonBlockingBarriers);
         Job job = instance1.newJob(dag, config);
 
         SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
@@ -36,6 +36,7 @@ import org.junit.runner.RunWith;
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -47,6 +48,7 @@ import static com.hazelcast.jet.core.JobStatus.NOT_STARTED;
 import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.core.JobStatus.STARTING;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -125,6 +127,39 @@ public class JobTest extends JetTestSupport {
         assertCompletedEventually(job);
     }
 
+    @Test
+    public void when_jobIsRunning_then_metricsAreReturnedFromAllMembers() throws InterruptedException {
+        testMetricsOfRunningJob(instance1);
+    }
+
+    @Test
+    public void when_jobIsRunning_then_metricsAreReturnedToClient() throws InterruptedException {
+        testMetricsOfRunningJob(createJetClient());
+    }
+
+    private void testMetricsOfRunningJob(JetInstance submitter) throws InterruptedException {
+        // Given
+        DAG dag = new DAG().vertex(new Vertex("test", new MockPS(StuckProcessor::new, NODE_COUNT)));
+        Job job = submitter.newJob(dag);
+        StuckProcessor.executionStarted.await();
+
+        // When
+        Map<String, Long> metrics = job.getMetrics();
+
+        // Then
+        for (JetInstance instance : asList(instance1, instance2)) {
+            String prefix = instance.getHazelcastInstance().getCluster().getLocalMember().getAddress() + ".test#0.";
+            assertTrue(metrics.toString(), metrics.containsKey(prefix + "receivedCount"));
+            assertTrue(metrics.toString(), metrics.containsKey(prefix + "emittedCount"));
+            assertTrue(metrics.toString(), metrics.containsKey(prefix + "callCount"));
+            assertTrue(metrics.toString(), metrics.containsKey(prefix + "outboxBlockedNanos"));
+        }
+
+        StuckProcessor.proceedLatch.countDown();
+        job.join();
+        assertTrueEventually(() -> assertTrue(job.getMetrics().isEmpty()));
+    }
+
     @Test
     public void when_jobIsFailed_then_jobStatusIsCompletedEventually() throws InterruptedException {
         // Given
@@ -36,6 +36,7 @@ import java.util.stream.Stream;
 import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.processor.Processors.aggregateByKeyP;
+import static com.hazelcast.jet.core.processor.Processors.aggregateSortedByKeyP;
 import static com.hazelcast.jet.core.processor.Processors.combineByKeyP;
 import static com.hazelcast.jet.core.processor.Processors.combineP;
 import static com.hazelcast.jet.core.processor.Processors.filterP;
@@ -168,6 +169,35 @@ public class ProcessorsTest {
                 ));
     }
 
+    @Test
+    public void aggregateSortedByKey() {
+        DistributedFunction<Object, String> keyFn = Object::toString;
+        TestSupport
+                .verifyProcessor(aggregateSortedByKeyP(keyFn, aggregateToListAndString(), Util::entry))
+                .disableSnapshots()
+                .input(asList(1, 1, 2, 2, 2, 1))
+                .expectOutput(asList(
+                        entry("1", "[1, 1]"),
+                        entry("2", "[2, 2, 2]"),
+                        // not adjacent to the first run of the key
+                        entry("1", "[1]")
+                ));
+    }
+
+    @Test
+    public void aggregateSortedByKey_when_mapToOutputFnReturnsNull_then_groupSkipped() {
+        DistributedFunction<Object, String> keyFn = Object::toString;
+        TestSupport
+                .verifyProcessor(aggregateSortedByKeyP(keyFn, aggregateToListAndString(),
+                        (String k, String r) -> k.equals("2") ? null : entry(k, r)))
+                .disableSnapshots()
+                .input(asList(1, 1, 2, 2, 3))
+                .expectOutput(asList(
+                        entry("1", "[1, 1]"),
+                        entry("3", "[3]")
+                ));
+    }
+
     @Test
     public void accumulateByKey() {
         DistributedFunction<Object, String> keyFn = Object::toString;
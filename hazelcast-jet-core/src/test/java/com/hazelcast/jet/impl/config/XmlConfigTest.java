@@ -17,8 +17,12 @@
 package com.hazelcast.jet.impl.config;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.jet.config.EdgeConfig;
+import com.hazelcast.jet.config.IdleStrategyType;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorageType;
 import com.hazelcast.jet.impl.util.Util;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Ignore;
@@ -36,7 +40,9 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 public class XmlConfigTest {
@@ -170,8 +176,31 @@ public class XmlConfigTest {
         // Then
         EdgeConfig edgeConfig = jetConfig.getDefaultEdgeConfig();
         assertEquals("queueSize", 999, edgeConfig.getQueueSize());
+        assertTrue("adaptiveQueueSize", edgeConfig.isAdaptiveQueueSize());
         assertEquals("packetSizeLimit", 997, edgeConfig.getPacketSizeLimit());
         assertEquals("receiveWindowMultiplier", 996, edgeConfig.getReceiveWindowMultiplier());
+        assertEquals("compression", EdgeCompression.FAST, edgeConfig.getCompression());
+    }
+
+    @Test
+    public void when_schedulingOptionsSpecified_usesSpecified() {
+        // Given
+        Properties properties = new Properties();
+        properties.put(XmlJetConfigLocator.HAZELCAST_JET_CONFIG_PROPERTY, "classpath:" + TEST_XML_1);
+
+        // When
+        JetConfig jetConfig = XmlJetConfigBuilder.getConfig(properties);
+
+        // Then
+        InstanceConfig instanceConfig = jetConfig.getInstanceConfig();
+        assertEquals("idleStrategy", IdleStrategyType.PARK_UNTIL_SIGNALLED, instanceConfig.getIdleStrategy());
+        assertEquals("maxIdleParkMicros", 500, instanceConfig.getMaxIdleParkMicros());
+        assertEquals("loadBalancingPeriodMs", 200, instanceConfig.getLoadBalancingPeriodMs());
+        assertEquals("loadImbalanceThreshold", 0.5, instanceConfig.getLoadImbalanceThreshold(), 0.0);
+        assertEquals("maxInMemoryGroupingKeys", 100000, instanceConfig.getMaxInMemoryGroupingKeys());
+        assertEquals("maxPartialAggregationKeys", 10000, instanceConfig.getMaxPartialAggregationKeys());
+        assertFalse("packedGroupingAccumulators", instanceConfig.isPackedGroupingAccumulators());
+        assertEquals("snapshotStorage", SnapshotStorageType.LOCAL_DISK, instanceConfig.getSnapshotStorage());
     }
 
     private static void assertConfig(JetConfig jetConfig) {
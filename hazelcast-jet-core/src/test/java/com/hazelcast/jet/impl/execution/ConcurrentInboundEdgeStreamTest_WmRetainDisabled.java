@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.internal.util.concurrent.ConcurrentConveyor;
 import com.hazelcast.internal.util.concurrent.OneToOneConcurrentArrayQueue;
+import com.hazelcast.internal.util.concurrent.QueuedPipe;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.test.HazelcastParametersRunnerFactory;
@@ -37,12 +38,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.util.ProgressState.DONE;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.WAS_ALREADY_DONE;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 @UseParametersRunnerFactory(HazelcastParametersRunnerFactory.class)
@@ -54,26 +59,35 @@ public class ConcurrentInboundEdgeStreamTest_WmRetainDisabled {
     @Parameter
     public int maxWatermarkRetainMillis;
 
+    @Parameter(1)
+    public boolean bulkDrain;
+
     @Rule
     public ExpectedException exception = ExpectedException.none();
 
-    private OneToOneConcurrentArrayQueue<Object> q1;
-    private OneToOneConcurrentArrayQueue<Object> q2;
+    private QueuedPipe<Object> q1;
+    private QueuedPipe<Object> q2;
     private ConcurrentInboundEdgeStream stream;
     private ConcurrentConveyor<Object> conveyor;
 
-    @Parameters(name = "retainMs={0}")
+    @Parameters(name = "retainMs={0}, bulkDrain={1}")
     public static Iterable<?> parameters() {
         // -1 is really disabled, 100_000ms is effectively disabled because the test doesn't take
         // long enough to have any effect. We do this to test the case that the retain logic doesn't
         // affect the functionality when it has no effect, which is quite common.
-        return Arrays.asList(-1, 100_000);
+        // With bulkDrain, the queues signal special items through their control channel
+        // and ordinary items are drained in bulk into a collection.
+        return Arrays.asList(
+                new Object[] {-1, false},
+                new Object[] {100_000, false},
+                new Object[] {-1, true},
+                new Object[] {100_000, true});
     }
 
     @Before
     public void setUp() {
-        q1 = new OneToOneConcurrentArrayQueue<>(128);
-        q2 = new OneToOneConcurrentArrayQueue<>(128);
+        q1 = bulkDrain ? new ConveyorQueue(128) : new OneToOneConcurrentArrayQueue<>(128);
+        q2 = bulkDrain ? new ConveyorQueue(128) : new OneToOneConcurrentArrayQueue<>(128);
         //noinspection unchecked
         conveyor = ConcurrentConveyor.concurrentConveyor(senderGone, q1, q2);
 
@@ -164,6 +178,49 @@ public class ConcurrentInboundEdgeStreamTest_WmRetainDisabled {
         drainAndAssert(MADE_PROGRESS, 2);
     }
 
+    @Test
+    public void when_nonBlockingBarrier_then_forwardedImmediatelyAndOtherQueuesRecorded() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, false, item -> (int) item * 10,
+                maxWatermarkRetainMillis, "cies");
+
+        // When
+        add(q1, 1, barrier(0), 2);
+        add(q2, 3);
+
+        // Then
+        drainAndAssert(MADE_PROGRESS, 1, barrier(0));
+        assertTrue(stream.isRecordingInFlightItems());
+        drainAndAssert(MADE_PROGRESS, 2, 3);
+        assertEquals(singletonList(entry(30, 3)), new ArrayList<>(stream.inFlightItems()));
+
+        // When
+        add(q2, barrier(0), 4);
+        drainAndAssert(MADE_PROGRESS);
+
+        // Then
+        assertFalse(stream.isRecordingInFlightItems());
+        drainAndAssert(MADE_PROGRESS, 4);
+        assertEquals(1, stream.inFlightItems().size());
+
+        // the next barrier is forwarded again
+        add(q2, barrier(1));
+        drainAndAssert(MADE_PROGRESS, barrier(1));
+    }
+
+    @Test
+    public void when_nonBlockingAndOtherQueueDone_then_recordingStops() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, false, item -> -1,
+                maxWatermarkRetainMillis, "cies");
+
+        add(q1, barrier(0));
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        add(q2, 1, DONE_ITEM);
+        drainAndAssert(MADE_PROGRESS, 1);
+
+        assertFalse(stream.isRecordingInFlightItems());
+        assertEquals(singletonList(entry(-1, 1)), new ArrayList<>(stream.inFlightItems()));
+    }
+
     @Test
     public void when_receivingBarriersWhileDone_then_coalesce() {
         stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, maxWatermarkRetainMillis, "cies");
@@ -253,11 +310,11 @@ public class ConcurrentInboundEdgeStreamTest_WmRetainDisabled {
 
     private void drainAndAssert(ProgressState expectedState, Object... expectedItems) {
         List<Object> list = new ArrayList<>();
-        assertEquals("progressState", expectedState, stream.drainTo(list::add));
+        assertEquals("progressState", expectedState, bulkDrain ? stream.drainTo(list) : stream.drainTo(list::add));
         assertEquals(Arrays.asList(expectedItems), list);
     }
 
-    private void add(OneToOneConcurrentArrayQueue<Object> q, Object... items) {
+    private void add(QueuedPipe<Object> q, Object... items) {
         q.addAll(Arrays.asList(items));
     }
 
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.hazelcast.jet.impl.execution.ConveyorQueue.ADAPTATION_PERIOD;
+import static com.hazelcast.jet.impl.execution.ConveyorQueue.MIN_ADAPTIVE_CAPACITY;
+import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ConveyorQueueTest {
+
+    private static final int CAPACITY = 4;
+
+    private final ConveyorQueue queue = new ConveyorQueue(CAPACITY, true, false);
+    private final List<Object> items = new ArrayList<>();
+    private final List<Integer> partitionIds = new ArrayList<>();
+
+    @Test
+    public void when_drainWithPartitionIds_then_partitionIdsMatchItemsAcrossWrapAround() {
+        for (int round = 0; round < 3; round++) {
+            // When
+            for (int i = 0; i < CAPACITY; i++) {
+                assertTrue(queue.offer("item" + i, round * 10 + i));
+            }
+            drain();
+
+            // Then
+            assertEquals(asList("item0", "item1", "item2", "item3"), items);
+            assertEquals(asList(round * 10, round * 10 + 1, round * 10 + 2, round * 10 + 3), partitionIds);
+            items.clear();
+            partitionIds.clear();
+        }
+    }
+
+    @Test
+    public void when_queueFull_then_offerFailsAndPartitionIdsIntact() {
+        // Given
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(queue.offer(i, i));
+        }
+
+        // When
+        assertFalse(queue.offer(CAPACITY, CAPACITY));
+        drain();
+
+        // Then
+        assertEquals(asList(0, 1, 2, 3), items);
+        assertEquals(asList(0, 1, 2, 3), partitionIds);
+    }
+
+    @Test
+    public void when_producerFoundQueueFull_then_consumerSignalsItAfterDraining() {
+        // Given
+        WorkerWakeup.Target producerWakeup = new WorkerWakeup().newTarget();
+        IdleStrategy producerIdler = armedIdler(producerWakeup, SECONDS.toNanos(30));
+        queue.setProducerWakeup(producerWakeup);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(queue.offer(i, i));
+        }
+        assertFalse(queue.offer(CAPACITY, CAPACITY));
+
+        // When
+        drain();
+
+        // Then
+        // the signal disarmed the idler, so it arms again instead of parking
+        assertFalse(producerIdler.idle(0));
+    }
+
+    @Test
+    public void when_producerNotBlocked_then_consumerDoesNotSignalIt() {
+        // Given
+        WorkerWakeup.Target producerWakeup = new WorkerWakeup().newTarget();
+        IdleStrategy producerIdler = armedIdler(producerWakeup, MILLISECONDS.toNanos(1));
+        queue.setProducerWakeup(producerWakeup);
+        assertTrue(queue.offer(0, 0));
+
+        // When
+        drain();
+
+        // Then
+        // the idler is still armed, so it parks
+        assertTrue(producerIdler.idle(0));
+    }
+
+    @Test
+    public void when_offerWithoutPartitionId_then_minusOne() {
+        // Given
+        Watermark wm = new Watermark(1);
+
+        // When
+        queue.offer("a", 5);
+        queue.offer(wm);
+        drain();
+
+        // Then
+        assertEquals(asList("a", wm), items);
+        assertEquals(asList(5, -1), partitionIds);
+    }
+
+    @Test
+    public void when_queueHasPartitionIds_then_notDrainedInBulk() {
+        // Given
+        queue.offer("a", 1);
+
+        // When-Then
+        assertEquals(-1, queue.drainOrdinaryItemsTo(items));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void when_adaptiveQueueFull_then_limitDoubled() {
+        // Given
+        ConveyorQueue adaptive = new ConveyorQueue(1024, false, true);
+        assertEquals(MIN_ADAPTIVE_CAPACITY, adaptive.capacityLimit());
+        for (int i = 0; i < MIN_ADAPTIVE_CAPACITY; i++) {
+            assertTrue(adaptive.offer(i));
+        }
+        assertFalse(adaptive.offer(MIN_ADAPTIVE_CAPACITY));
+
+        // When
+        assertEquals(MIN_ADAPTIVE_CAPACITY, adaptive.drainOrdinaryItemsTo(items));
+
+        // Then
+        assertEquals(2 * MIN_ADAPTIVE_CAPACITY, adaptive.capacityLimit());
+        for (int i = 0; i < 2 * MIN_ADAPTIVE_CAPACITY; i++) {
+            assertTrue(adaptive.offer(i));
+        }
+        assertFalse(adaptive.offer(2 * MIN_ADAPTIVE_CAPACITY));
+    }
+
+    @Test
+    public void when_adaptiveQueueDrainedInSmallBatches_then_limitHalved() {
+        // Given
+        ConveyorQueue adaptive = new ConveyorQueue(1024, false, true);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < adaptive.capacityLimit(); i++) {
+                adaptive.offer(i);
+            }
+            adaptive.drainOrdinaryItemsTo(items);
+        }
+        int grownLimit = adaptive.capacityLimit();
+        assertEquals(16 * MIN_ADAPTIVE_CAPACITY, grownLimit);
+
+        // When
+        for (int i = 0; i < ADAPTATION_PERIOD; i++) {
+            adaptive.offer(i);
+            adaptive.drain(o -> true);
+        }
+
+        // Then
+        assertEquals(grownLimit / 2, adaptive.capacityLimit());
+    }
+
+    @Test
+    public void when_adaptiveQueueIdle_then_limitNotBelowMinimum() {
+        // Given
+        ConveyorQueue adaptive = new ConveyorQueue(1024, false, true);
+
+        // When
+        for (int i = 0; i < 2 * ADAPTATION_PERIOD; i++) {
+            adaptive.drainOrdinaryItemsTo(items);
+        }
+
+        // Then
+        assertEquals(MIN_ADAPTIVE_CAPACITY, adaptive.capacityLimit());
+    }
+
+    @Test
+    public void when_adaptiveQueueCreated_then_bufferSizedByLimit() {
+        // When
+        ConveyorQueue adaptive = new ConveyorQueue(1024, false, true);
+
+        // Then
+        assertEquals(MIN_ADAPTIVE_CAPACITY, adaptive.bufferLength());
+    }
+
+    @Test
+    public void when_adaptiveLimitGrows_then_bufferGrowsAndItemsKeepOrder() {
+        // Given
+        ConveyorQueue adaptive = new ConveyorQueue(1024, true, true);
+        int next = 0;
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> expectedPartitionIds = new ArrayList<>();
+
+        // When
+        // fill the queue up to its limit, drain only a part of it, so that
+        // the buffer is replaced while it still contains items
+        for (int round = 0; round < 8; round++) {
+            while (adaptive.offer(next, next + 1000)) {
+                expected.add(next);
+                expectedPartitionIds.add(next + 1000);
+                next++;
+            }
+            drain(adaptive, () -> items.size() % 10 != 0);
+        }
+        drain(adaptive, () -> true);
+
+        // Then
+        assertEquals(expected, items);
+        assertEquals(expectedPartitionIds, partitionIds);
+        assertTrue(adaptive.bufferLength() <= 2 * adaptive.capacityLimit());
+    }
+
+    @Test
+    public void when_concurrentProducerAndConsumer_then_allItemsInOrder() throws Exception {
+        // Given
+        ConveyorQueue adaptive = new ConveyorQueue(1024, false, true);
+        int itemCount = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < itemCount; ) {
+                if (adaptive.offer(i)) {
+                    i++;
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+
+        // When
+        producer.start();
+        int expected = 0;
+        while (expected < itemCount) {
+            // drain in batches of random size, so that the limit and the buffer change
+            int batchSize = 1 + expected % 37;
+            List<Object> batch = new ArrayList<>();
+            if (adaptive.drain(o -> batch.add(o) && batch.size() < batchSize) == 0) {
+                Thread.yield();
+            }
+            for (Object item : batch) {
+                // Then
+                assertEquals(expected++, item);
+            }
+        }
+        producer.join();
+        assertTrue(adaptive.isEmpty());
+    }
+
+    private void drain(ConveyorQueue q, BooleanSupplier continueFn) {
+        q.drain(o -> {
+            items.add(o);
+            partitionIds.add(q.drainedPartitionId());
+            return continueFn.getAsBoolean();
+        });
+    }
+
+    private void drain() {
+        queue.drain(o -> {
+            items.add(o);
+            partitionIds.add(queue.drainedPartitionId());
+            return o != DONE_ITEM;
+        });
+    }
+
+    private static IdleStrategy armedIdler(WorkerWakeup.Target target, long maxParkNanos) {
+        IdleStrategy idler = new WorkerWakeup().newIdleStrategy(maxParkNanos);
+        target.setOwner(idler);
+        // the first call arms the idler without parking
+        assertFalse(idler.idle(0));
+        return idler;
+    }
+}
@@ -50,7 +50,8 @@ public class ExecutionSerializerHooksTest {
         return Arrays.asList(
                 new SnapshotBarrier(17L),
                 new BroadcastEntry<>("key", "value"),
-                new BroadcastKeyReference<>(17L, "broadcast-key")
+                new BroadcastKeyReference<>(17L, "broadcast-key"),
+                new InFlightItemKey(1, 0, 17L, 5)
         );
     }
 
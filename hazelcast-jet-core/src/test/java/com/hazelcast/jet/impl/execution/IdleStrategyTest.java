@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class IdleStrategyTest {
+
+    @Test
+    public void when_signalled_then_parkedWorkerWakesUp() throws Exception {
+        // Given
+        WorkerWakeup wakeup = new WorkerWakeup();
+        IdleStrategy idler = wakeup.newIdleStrategy(SECONDS.toNanos(60));
+        WorkerWakeup.Target target = wakeup.newTarget();
+        target.setOwner(idler);
+        CountDownLatch armed = new CountDownLatch(1);
+        CountDownLatch woken = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            assertFalse(idler.idle(1));
+            armed.countDown();
+            idler.idle(2);
+            woken.countDown();
+        });
+        worker.start();
+        assertTrue(armed.await(10, SECONDS));
+
+        // When
+        target.signal();
+
+        // Then
+        assertTrue("worker didn't wake up", woken.await(10, SECONDS));
+        worker.join();
+    }
+
+    @Test
+    public void when_wokenUp_then_rearmsBeforeParkingAgain() throws Exception {
+        // Given
+        WorkerWakeup wakeup = new WorkerWakeup();
+        IdleStrategy idler = wakeup.newIdleStrategy(SECONDS.toNanos(60));
+        WorkerWakeup.Target target = wakeup.newTarget();
+        target.setOwner(idler);
+        CountDownLatch[] armed = {new CountDownLatch(1), new CountDownLatch(1)};
+        CountDownLatch woken = new CountDownLatch(2);
+        Thread worker = new Thread(() -> {
+            // the idle streak continues after the wake-up, yet the worker must arm again
+            long idleCount = 0;
+            for (CountDownLatch latch : armed) {
+                assertFalse(idler.idle(++idleCount));
+                latch.countDown();
+                idler.idle(++idleCount);
+                woken.countDown();
+            }
+        });
+        worker.start();
+
+        // When
+        for (CountDownLatch latch : armed) {
+            assertTrue(latch.await(10, SECONDS));
+            target.signal();
+        }
+
+        // Then
+        assertTrue("worker didn't wake up twice", woken.await(10, SECONDS));
+        worker.join();
+    }
+
+    @Test
+    public void when_shortIdleStreaks_then_adaptiveSpinsBeforeParking() {
+        // Given
+        AdaptiveIdleStrategy idler = new AdaptiveIdleStrategy(SECONDS.toNanos(1));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            idler.idle(1);
+        }
+
+        // Then
+        assertEquals(2, idler.activeRounds());
+    }
+
+    @Test
+    public void when_longIdleStreaks_then_adaptiveParksImmediately() {
+        // Given
+        AdaptiveIdleStrategy idler = new AdaptiveIdleStrategy(1);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            for (int n = 1; n <= 2 * AdaptiveIdleStrategy.MAX_ACTIVE_ROUNDS; n++) {
+                idler.idle(n);
+            }
+        }
+
+        // Then
+        assertEquals(0, idler.activeRounds());
+    }
+}
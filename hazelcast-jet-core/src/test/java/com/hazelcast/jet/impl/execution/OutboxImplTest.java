@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.spi.serialization.SerializationService;
 import org.junit.Before;
@@ -23,10 +24,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 import static com.hazelcast.jet.impl.util.ProgressState.DONE;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -56,8 +61,49 @@ public class OutboxImplTest {
     }
 
     @Test
-    public void when_offer3_then_rateLimited() {
-        do_when_offer_then_rateLimited(e -> outbox.offerToSnapshot(e, e));
+    public void when_offerToSnapshot_then_batchedUntilNextSnapshotQueueItem() {
+        // Given
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        List<Object> snapshotItems = new ArrayList<>();
+        OutboundCollector snapshotCollector = e -> {
+            snapshotItems.add(e);
+            return DONE;
+        };
+        outbox = new OutboxImpl(new OutboundCollector[] {e -> DONE, snapshotCollector},
+                true, new ProgressTracker(), serializationService, 3);
+        outbox.reset();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertTrue(outbox.offerToSnapshot("k" + i, i));
+        }
+        assertEquals(0, snapshotItems.size());
+        assertTrue(outbox.offerToSnapshotQueue("barrier"));
+
+        // Then
+        assertEquals(2, snapshotItems.size());
+        SnapshotBatch batch = (SnapshotBatch) snapshotItems.get(0);
+        assertEquals(10, batch.entryCount());
+        List<Object> values = new ArrayList<>();
+        batch.forEach(e -> {
+            assertEquals("k" + values.size(), serializationService.toObject(e.getKey()));
+            values.add(serializationService.toObject(e.getValue()));
+        });
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values);
+        assertEquals("barrier", snapshotItems.get(1));
+    }
+
+    @Test
+    public void when_snapshotBatchFullAndQueueFull_then_offerToSnapshotFails() {
+        // Given
+        outbox = new OutboxImpl(new OutboundCollector[] {e -> DONE, e -> NO_PROGRESS},
+                true, new ProgressTracker(), new DefaultSerializationServiceBuilder().build(), 3);
+        outbox.reset();
+        byte[] largeValue = new byte[1 << 18];
+
+        // When-Then
+        assertTrue(outbox.offerToSnapshot("k1", largeValue));
+        assertFalse(outbox.offerToSnapshot("k2", largeValue));
     }
 
     @Test
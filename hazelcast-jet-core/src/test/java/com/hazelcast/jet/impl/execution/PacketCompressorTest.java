@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.config.EdgeCompression;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PacketCompressorTest {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int BODY_SIZE = 1 << 16;
+
+    @Test
+    public void when_noCompression_then_noCompressor() {
+        assertNull(PacketCompressor.forCompression(EdgeCompression.NONE));
+    }
+
+    @Test
+    public void when_fastCompressionOfRedundantData_then_roundTrip() {
+        // Given
+        byte[] packet = new byte[HEADER_SIZE + BODY_SIZE];
+        for (int i = 0; i < packet.length; i++) {
+            packet[i] = (byte) ('a' + i % 7);
+        }
+
+        // When-Then
+        byte[] compressed = assertRoundTrip(EdgeCompression.FAST, packet);
+        assertTrue("Not compressed, length=" + compressed.length, compressed.length < packet.length / 10);
+    }
+
+    @Test
+    public void when_deflateOfRandomData_then_roundTrip() {
+        // Given
+        byte[] packet = new byte[HEADER_SIZE + BODY_SIZE];
+        new Random(42).nextBytes(packet);
+
+        // When-Then
+        assertRoundTrip(EdgeCompression.DEFLATE, packet);
+    }
+
+    @Test
+    public void when_emptyBody_then_roundTrip() {
+        assertRoundTrip(EdgeCompression.FAST, new byte[HEADER_SIZE]);
+    }
+
+    @Test
+    public void when_closedTwice_then_noError() {
+        // Given
+        PacketCompressor compressor = PacketCompressor.forCompression(EdgeCompression.DEFLATE);
+
+        // When-Then
+        compressor.close();
+        compressor.close();
+    }
+
+    private static byte[] assertRoundTrip(EdgeCompression compression, byte[] packet) {
+        PacketCompressor sender = PacketCompressor.forCompression(compression);
+        PacketCompressor receiver = PacketCompressor.forCompression(compression);
+        try {
+            byte[] compressed = sender.compress(packet, HEADER_SIZE);
+            assertArrayEquals(Arrays.copyOf(packet, HEADER_SIZE), Arrays.copyOf(compressed, HEADER_SIZE));
+
+            byte[] body = receiver.decompress(compressed, HEADER_SIZE);
+            assertArrayEquals(Arrays.copyOfRange(packet, HEADER_SIZE, packet.length),
+                    Arrays.copyOf(body, packet.length - HEADER_SIZE));
+            return compressed;
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PartitionedItemQueueTest {
+
+    private static final int ITEM_COUNT = 1000;
+
+    private final PartitionedItemQueue queue = new PartitionedItemQueue();
+
+    @Test
+    public void when_empty_then_peekNull() {
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peekItem());
+    }
+
+    @Test
+    public void when_growWhileWrappedAround_then_fifoOrderKept() {
+        // Given - move the head away from the start of the arrays
+        for (int i = 0; i < 10; i++) {
+            queue.add(-1, -1, -1);
+            queue.remove();
+        }
+
+        // When
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            queue.add(i, i + 1, i + 2);
+        }
+
+        // Then
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            assertEquals(i, queue.peekItem());
+            assertEquals(i + 1, queue.peekPartitionId());
+            assertEquals(i + 2, queue.peekItemSize());
+            queue.remove();
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peekItem());
+    }
+}
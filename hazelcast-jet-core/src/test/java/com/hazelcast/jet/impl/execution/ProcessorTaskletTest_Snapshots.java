@@ -38,7 +38,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.hazelcast.jet.Util.entry;
@@ -204,9 +203,15 @@ public class ProcessorTaskletTest_Snapshots {
     }
 
     private List<Object> getSnapshotBufferValues() {
-        return snapshotCollector.getBuffer().stream()
-                                .map(e -> (e instanceof Map.Entry) ? deserializeEntryValue((Map.Entry) e) : e)
-                                .collect(Collectors.toList());
+        List<Object> values = new ArrayList<>();
+        for (Object item : snapshotCollector.getBuffer()) {
+            if (item instanceof SnapshotBatch) {
+                ((SnapshotBatch) item).forEach(e -> values.add(deserializeEntryValue(e)));
+            } else {
+                values.add(item instanceof Map.Entry ? deserializeEntryValue((Map.Entry) item) : item);
+            }
+        }
+        return values;
     }
 
     private Object deserializeEntryValue(Entry e) {
@@ -94,6 +94,22 @@ public class ProcessorTaskletTest_Watermarks {
         assertEquals(asList(0, 1, "wm(123)-0", wm(123)), outstream1.getBuffer());
     }
 
+    @Test
+    public void when_watermarkReceived_then_notCountedAsReceivedItem() {
+        // Given
+        List<Object> input = new ArrayList<>(asList(0, 1));
+        input.add(wm(123));
+        instreams.add(new MockInboundStream(0, input, input.size()));
+        outstreams.add(new MockOutboundStream(0));
+        ProcessorTasklet tasklet = createTasklet(-1);
+
+        // When
+        callUntil(400, tasklet, NO_PROGRESS);
+
+        // Then
+        assertEquals(2, tasklet.receivedCount());
+    }
+
     @Test
     public void when_multipleInboundAndUnlimitedRetention_then_waitForWm() {
         // Given
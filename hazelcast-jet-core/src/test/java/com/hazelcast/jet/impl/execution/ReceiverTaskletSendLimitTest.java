@@ -16,6 +16,8 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +31,7 @@ import static java.lang.Math.ceil;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -43,7 +46,8 @@ public class ReceiverTaskletSendLimitTest {
 
     @Before
     public void before() {
-        tasklet = new ReceiverTasklet(null, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS);
+        tasklet = new ReceiverTasklet(null, RWIN_MULTIPLIER, FLOW_CONTROL_PERIOD_MS, new WorkerWakeup().newTarget(),
+                new DefaultSerializationServiceBuilder().build(), EdgeCompression.NONE, () -> { });
     }
 
     @Test
@@ -134,4 +138,24 @@ public class ReceiverTaskletSendLimitTest {
         final long rwin = seqLimitAfterRecover - ackedSeqCompressed;
         assertTrue(rwin >= RWIN_MULTIPLIER * ackedSeqsPerIterCompressed);
     }
+
+    @Test
+    public void when_noDataProcessed_then_limitNotSentAgain() {
+        // Given
+        int limit = tasklet.updateAndGetSendSeqLimitCompressed(START);
+        assertTrue("first limit not sent", tasklet.offerSendSeqLimitToSend(limit));
+
+        // When - no data processed, the limit doesn't grow
+        limit = tasklet.updateAndGetSendSeqLimitCompressed(START + ACK_PERIOD);
+
+        // Then
+        assertFalse("unchanged limit sent", tasklet.offerSendSeqLimitToSend(limit));
+
+        // When - some data processed, even though the limit is still lower than the sent one
+        tasklet.ackItem(1 << COMPRESSED_SEQ_UNIT_LOG2);
+        limit = tasklet.updateAndGetSendSeqLimitCompressed(START + 2 * ACK_PERIOD);
+
+        // Then
+        assertTrue("limit not sent after processing data", tasklet.offerSendSeqLimitToSend(limit));
+    }
 }
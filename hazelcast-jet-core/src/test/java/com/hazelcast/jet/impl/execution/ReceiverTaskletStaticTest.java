@@ -39,7 +39,7 @@ public class ReceiverTaskletStaticTest {
 
     @Test
     public void testEstimatedMemoryFootprint() throws Exception {
-        assertEquals(56, estimatedMemoryFootprint(0));
-        assertEquals(66, estimatedMemoryFootprint(10));
+        assertEquals(28, estimatedMemoryFootprint(0));
+        assertEquals(38, estimatedMemoryFootprint(10));
     }
 }
@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.config.EdgeCompression;
 import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Before;
@@ -25,7 +26,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.jet.impl.Networking.STREAM_PACKET_HEADER_SIZE;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 
@@ -35,12 +38,14 @@ public class ReceiverTaskletTest {
     private ReceiverTasklet t;
     private InternalSerializationService serService;
     private MockOutboundCollector collector;
+    private AtomicInteger flowControlRequestCount = new AtomicInteger();
 
     @Before
     public void before() {
         collector = new MockOutboundCollector(2);
-        t = new ReceiverTasklet(collector, 3, 100);
         serService = new DefaultSerializationServiceBuilder().build();
+        t = new ReceiverTasklet(collector, 3, 100, new WorkerWakeup().newTarget(), serService, EdgeCompression.NONE,
+                flowControlRequestCount::incrementAndGet);
     }
 
     @Test
@@ -50,13 +55,57 @@ public class ReceiverTaskletTest {
         assertEquals(asList(1, 2), collector.getBuffer());
     }
 
+    @Test
+    public void when_receiveTwoPackets_then_emitItemsOfBoth() throws IOException {
+        pushObjects(1);
+        pushObjects("a");
+        t.call();
+        assertEquals(asList(1, "a"), collector.getBuffer());
+    }
+
+    @Test
+    public void when_halfOfWindowProcessed_then_flowControlRequested() throws IOException {
+        // Given - the sender is initially allowed to send one compressed seq unit
+        pushObjects(new byte[1 << (ReceiverTasklet.COMPRESSED_SEQ_UNIT_LOG2 - 1)]);
+
+        // When
+        t.call();
+
+        // Then
+        assertEquals(1, flowControlRequestCount.get());
+
+        // When - a big window is sent to the sender
+        t.offerSendSeqLimitToSend(t.updateAndGetSendSeqLimitCompressed());
+        pushObjects(1);
+        t.call();
+
+        // Then - no new request
+        assertEquals(1, flowControlRequestCount.get());
+    }
+
+    @Test
+    public void when_requestNotYetServed_then_flowControlRequestedOnce() throws IOException {
+        // Given
+        pushObjects(new byte[1 << (ReceiverTasklet.COMPRESSED_SEQ_UNIT_LOG2 - 1)]);
+        t.call();
+
+        // When - more data arrives before the limit is sent
+        pushObjects(1);
+        t.call();
+        t.call();
+
+        // Then
+        assertEquals(1, flowControlRequestCount.get());
+    }
+
     private void pushObjects(Object... objs) throws IOException {
         final BufferObjectDataOutput out = serService.createObjectDataOutput();
+        out.write(new byte[STREAM_PACKET_HEADER_SIZE]);
         out.writeInt(objs.length);
         for (Object obj : objs) {
             out.writeObject(obj);
             out.writeInt(Math.abs(obj.hashCode())); // partition id
         }
-        t.receiveStreamPacket(serService.createObjectDataInput(out.toByteArray()));
+        t.receiveStreamPacket(out.toByteArray());
     }
 }
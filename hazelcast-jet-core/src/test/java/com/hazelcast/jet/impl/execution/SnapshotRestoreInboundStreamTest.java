@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.impl.util.ProgressState;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class SnapshotRestoreInboundStreamTest extends JetTestSupport {
+
+    private static final String MAP_NAME = "snapshotData";
+    private static final int PROCESSOR_COUNT = 3;
+
+    private NodeEngine nodeEngine;
+    private IMap<Object, Object> map;
+    private BroadcastKeysReader broadcastKeysReader;
+
+    @Before
+    public void before() {
+        JetInstance instance = createJetMember();
+        nodeEngine = getNode(instance.getHazelcastInstance()).getNodeEngine();
+        map = instance.getHazelcastInstance().getMap(MAP_NAME);
+        int broadcastPartitionId = nodeEngine.getPartitionService()
+                                             .getPartitionId(BroadcastKeyReference.PARTITION_KEY);
+        broadcastKeysReader = new BroadcastKeysReader(nodeEngine, MAP_NAME, broadcastPartitionId);
+    }
+
+    @Test
+    public void when_partitionsSplit_then_eachKeyRestoredOnceAndBroadcastKeysToAll() {
+        // Given
+        int keyCount = 50_000;
+        for (int i = 0; i < keyCount; i++) {
+            map.put(i, "v" + i);
+        }
+        BroadcastKey<String> bcastKey1 = new BroadcastKeyReference<>(1, "a");
+        BroadcastKey<String> bcastKey2 = new BroadcastKeyReference<>(2, "b");
+        map.put(bcastKey1, 1L);
+        map.put(bcastKey2, 2L);
+
+        // When
+        Map<Object, Object> restored = new HashMap<>();
+        for (int processor = 0; processor < PROCESSOR_COUNT; processor++) {
+            List<Object> items = drainFully(createStream(processor));
+            Map<Object, Object> broadcastItems = new HashMap<>();
+            for (Object item : items) {
+                Entry<?, ?> e = (Entry<?, ?>) item;
+                if (e.getKey() instanceof BroadcastKey) {
+                    broadcastItems.put(e.getKey(), e.getValue());
+                } else {
+                    assertNull("duplicate key " + e.getKey(), restored.put(e.getKey(), e.getValue()));
+                }
+            }
+
+            // Then
+            assertEquals(2, broadcastItems.size());
+            assertEquals(1L, broadcastItems.get(bcastKey1));
+            assertEquals(2L, broadcastItems.get(bcastKey2));
+        }
+        assertEquals(keyCount, restored.size());
+        assertEquals("v42", restored.get(42));
+    }
+
+    @Test
+    public void when_mapEmpty_then_doneWithoutItems() {
+        // When
+        List<Object> items = drainFully(createStream(0));
+
+        // Then
+        assertEquals(0, items.size());
+    }
+
+    private SnapshotRestoreInboundStream createStream(int processor) {
+        int[] partitions = IntStream.range(0, nodeEngine.getPartitionService().getPartitionCount())
+                                    .filter(p -> p % PROCESSOR_COUNT == processor)
+                                    .toArray();
+        return new SnapshotRestoreInboundStream(nodeEngine, MAP_NAME, 0, partitions, broadcastKeysReader);
+    }
+
+    private static List<Object> drainFully(SnapshotRestoreInboundStream stream) {
+        List<Object> items = new ArrayList<>();
+        for (ProgressState state = stream.drainTo(items::add); !state.isDone(); state = stream.drainTo(items::add)) {
+            Thread.yield();
+        }
+        return items;
+    }
+}
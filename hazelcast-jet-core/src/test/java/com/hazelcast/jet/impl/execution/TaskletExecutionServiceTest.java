@@ -17,6 +17,7 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jet.config.InstanceConfig;
 import com.hazelcast.jet.core.JetTestSupport;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.logging.ILogger;
@@ -47,10 +48,12 @@ import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
 import static com.hazelcast.jet.impl.util.ProgressState.NO_PROGRESS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -73,7 +76,7 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         Mockito.when(hzMock.getName()).thenReturn("test-hz-instance");
         Mockito.when(hzMock.getLoggingService()).thenReturn(loggingService);
         Mockito.when(loggingService.getLogger(Mockito.<Class>any())).thenReturn(mockLogger);
-        es = new TaskletExecutionService(hzMock, 4);
+        es = new TaskletExecutionService(hzMock, new InstanceConfig().setCooperativeThreadCount(4));
         classLoaderMock = mock(ClassLoader.class);
     }
 
@@ -285,6 +288,32 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         // -- assertions are inside TaskletAssertingThreadLocal and will fail, if t1 and t2 are running on the same thread
     }
 
+    @Test
+    public void when_heavyTaskletsShareWorker_then_rebalancedByLoad() {
+        // Given
+        // round-robin placement on 4 threads puts the first and the last tasklet on the same thread
+        List<ThreadRecordingTasklet> tasklets = asList(
+                new ThreadRecordingTasklet(true),
+                new ThreadRecordingTasklet(false),
+                new ThreadRecordingTasklet(false),
+                new ThreadRecordingTasklet(false),
+                new ThreadRecordingTasklet(true));
+
+        // When
+        CompletableFuture<Void> f = es.beginExecute(tasklets, cancellationFuture, classLoaderMock);
+
+        // Then
+        ThreadRecordingTasklet heavy1 = tasklets.get(0);
+        ThreadRecordingTasklet heavy2 = tasklets.get(tasklets.size() - 1);
+        assertTrueEventually(() -> {
+            assertNotNull(heavy1.lastThread);
+            assertNotEquals(heavy1.lastThread, heavy2.lastThread);
+        });
+        cancellationFuture.cancel(true);
+        exceptionRule.expect(CancellationException.class);
+        f.join();
+    }
+
     @Test
     public void when_tryCompleteOnReturnedFuture_then_fails() {
         // Given
@@ -429,6 +458,27 @@ public class TaskletExecutionServiceTest extends JetTestSupport {
         }
     }
 
+    private static class ThreadRecordingTasklet implements Tasklet {
+
+        private final boolean isHeavy;
+        private volatile Thread lastThread;
+
+        ThreadRecordingTasklet(boolean isHeavy) {
+            this.isHeavy = isHeavy;
+        }
+
+        @Nonnull
+        @Override
+        public ProgressState call() {
+            lastThread = Thread.currentThread();
+            if (isHeavy) {
+                LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+                return MADE_PROGRESS;
+            }
+            return NO_PROGRESS;
+        }
+    }
+
     private static class TaskletAssertingThreadLocal implements Tasklet {
 
         private static ThreadLocal<Integer> threadLocal = ThreadLocal.withInitial(() -> 0);
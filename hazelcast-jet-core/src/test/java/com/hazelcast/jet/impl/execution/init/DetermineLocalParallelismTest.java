@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.function.Function;
 
 import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
+import static java.util.Collections.emptyMap;
 import static org.junit.Assert.assertEquals;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -89,7 +90,7 @@ public class DetermineLocalParallelismTest extends JetTestSupport {
         ExecutionPlanBuilder.createExecutionPlans(
                 nodeEngine,
                 ((ClusterServiceImpl) nodeEngine.getClusterService()).getMembershipManager().getMembersView(),
-                dag, new JobConfig(), NO_SNAPSHOT);
+                dag, new JobConfig(), NO_SNAPSHOT, emptyMap());
     }
 
     private static class ValidatingMetaSupplier implements ProcessorMetaSupplier {
@@ -17,30 +17,44 @@
 package com.hazelcast.jet.impl.pipeline.transform;
 
 import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.core.IList;
 import com.hazelcast.core.IMap;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.pipeline.BatchStage;
 import com.hazelcast.jet.pipeline.Pipeline;
 import com.hazelcast.jet.pipeline.Sinks;
 import com.hazelcast.jet.pipeline.Sources;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.ParallelTest;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.aggregate.AggregateOperations.toList;
 import static com.hazelcast.jet.aggregate.AggregateOperations.toSet;
+import static com.hazelcast.jet.aggregate.AggregateOperations.toTwoBags;
 import static com.hazelcast.jet.core.TestUtil.set;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 
 @Category(ParallelTest.class)
 @RunWith(HazelcastParallelClassRunner.class)
 public class GroupTransform_IntegrationTest extends JetTestSupport {
 
+    private static final int MAX_IN_MEMORY_KEYS = 10;
+
     private JetInstance instance;
 
     @Before
@@ -48,6 +62,11 @@ public class GroupTransform_IntegrationTest extends JetTestSupport {
         JetConfig config = new JetConfig();
         config.getHazelcastConfig().addEventJournalConfig(
                 new EventJournalConfig().setMapName("source").setEnabled(true));
+        // more threads than the list source's single processor
+        config.getInstanceConfig()
+              .setCooperativeThreadCount(4)
+              .setMaxInMemoryGroupingKeys(MAX_IN_MEMORY_KEYS)
+              .setMaxPartialAggregationKeys(MAX_IN_MEMORY_KEYS);
         instance = createJetMember(config);
     }
 
@@ -72,4 +91,60 @@ public class GroupTransform_IntegrationTest extends JetTestSupport {
                         entry('b', set(entry(1L, "bar"), entry(2L, "baz")))),
                 new HashSet<>(instance.getHazelcastInstance().getList("sink")));
     }
+
+    @Test
+    public void when_moreKeysThanInMemoryLimit_then_allGroupsEmitted() {
+        IList<Integer> list = instance.getList("source");
+        int keyCount = 100 * MAX_IN_MEMORY_KEYS;
+        for (int i = 0; i < 5 * keyCount; i++) {
+            list.add(i);
+        }
+
+        Pipeline p = Pipeline.create();
+        p.drawFrom(Sources.<Integer>list("source"))
+         .groupingKey(i -> i % keyCount)
+         .aggregate(counting())
+         .drainTo(Sinks.list("sink"));
+
+        instance.newJob(p).join();
+
+        Set<Entry<Integer, Long>> expected = IntStream.range(0, keyCount)
+                                                      .mapToObj(i -> entry(i, 5L))
+                                                      .collect(Collectors.toSet());
+        IList<Entry<Integer, Long>> sink = instance.getList("sink");
+        assertEquals(keyCount, sink.size());
+        assertEquals(expected, new HashSet<>(sink));
+    }
+
+    @Test
+    public void when_inputSortedByKey_then_groupPerRunOfKey() {
+        IList<String> list = instance.getList("source");
+        list.addAll(asList("apple", "avocado", "banana", "blueberry", "cherry", "apricot"));
+
+        Pipeline p = Pipeline.create();
+        p.drawFrom(Sources.<String>list("source"))
+         .groupingKey(s -> s.charAt(0))
+         .inputSortedByKey()
+         .aggregate(toList())
+         .drainTo(Sinks.list("sink"));
+
+        instance.newJob(p).join();
+
+        assertEquals(
+                asList(
+                        entry('a', asList("apple", "avocado")),
+                        entry('b', asList("banana", "blueberry")),
+                        entry('c', singletonList("cherry")),
+                        entry('a', singletonList("apricot"))),
+                new ArrayList<>(instance.getHazelcastInstance().getList("sink")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_inputSortedByKeyWithCoGroup_then_exception() {
+        Pipeline p = Pipeline.create();
+        BatchStage<String> stage = p.drawFrom(Sources.list("source"));
+        stage.groupingKey(s -> s)
+             .inputSortedByKey()
+             .aggregate2(stage.groupingKey(s -> s), toTwoBags());
+    }
 }
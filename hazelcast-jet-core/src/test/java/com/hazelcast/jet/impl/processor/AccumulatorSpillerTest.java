@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.jet.core.JetTestSupport.assertTrueEventually;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class AccumulatorSpillerTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private AccumulatorSpiller<Object, long[]> spiller;
+    private final Map<Object, long[]> keyToAcc = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Before
+    public void before() {
+        spiller = newSpiller(Runnable::run);
+    }
+
+    @Test
+    public void when_keysSpilledSeveralTimes_then_mergedAccumulatorsCombined() {
+        // Given
+        Random rnd = new Random();
+        Map<Object, Long> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            // "Aa" and "BB" have the same hash code
+            Object key = i % 100 == 0 ? null : i % 10 == 0 ? (rnd.nextBoolean() ? "Aa" : "BB") : rnd.nextInt(500);
+            keyToAcc.computeIfAbsent(key, k -> new long[1])[0]++;
+            expected.merge(key, 1L, Long::sum);
+            if (keyToAcc.size() > 100) {
+                spiller.spill(keyToAcc, keyToAcc.size() / 2);
+            }
+        }
+        assertTrue(spiller.runCount() > 1);
+
+        // When
+        Map<Object, Long> actual = drain(spiller);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void when_spilled_then_leastRecentlyUsedKeysRemoved() {
+        // Given
+        keyToAcc.put("a", new long[] {1});
+        keyToAcc.put("b", new long[] {2});
+        keyToAcc.put("c", new long[] {3});
+        keyToAcc.get("a");
+
+        // When
+        spiller.spill(keyToAcc, 2);
+
+        // Then
+        assertEquals(1, keyToAcc.size());
+        assertArrayEquals(new long[] {1}, keyToAcc.get("a"));
+        assertEquals(1, spiller.runCount());
+    }
+
+    @Test
+    public void when_mergeExhausted_then_filesDeleted() {
+        // Given
+        keyToAcc.put("a", new long[] {1});
+        keyToAcc.put("b", new long[] {2});
+        spiller.spill(keyToAcc, 1);
+        assertFalse(isEmpty(tempFolder.getRoot()));
+
+        // When
+        Map<Object, Long> actual = drain(spiller);
+
+        // Then
+        assertEquals(2, actual.size());
+        assertTrue(isEmpty(tempFolder.getRoot()));
+        assertEquals(0, spiller.runCount());
+    }
+
+    @Test
+    public void when_spillInProgress_then_mergeWaits() {
+        // Given
+        CountDownLatch writeAllowed = new CountDownLatch(1);
+        spiller = newSpiller(blockedExecutor(writeAllowed));
+        keyToAcc.put("a", new long[] {1});
+        keyToAcc.put("b", new long[] {2});
+        spiller.spill(keyToAcc, 1);
+
+        // When-Then
+        assertTrue(spiller.isSpilling());
+        assertNull(spiller.pollMerged(keyToAcc));
+
+        // When
+        writeAllowed.countDown();
+
+        // Then
+        assertEquals(2, drain(spiller).size());
+    }
+
+    @Test
+    public void when_closedWhileSpilling_then_filesDeletedAfterSpill() {
+        // Given
+        CountDownLatch writeAllowed = new CountDownLatch(1);
+        spiller = newSpiller(blockedExecutor(writeAllowed));
+        keyToAcc.put("a", new long[] {1});
+        spiller.spill(keyToAcc, 1);
+
+        // When
+        spiller.close();
+        writeAllowed.countDown();
+
+        // Then
+        assertTrueEventually(() -> assertTrue(isEmpty(tempFolder.getRoot())), 10);
+    }
+
+    @Test
+    public void when_closedDuringMerge_then_filesDeleted() {
+        // Given
+        for (int i = 0; i < 3000; i++) {
+            keyToAcc.put(i, new long[] {i});
+        }
+        spiller.spill(keyToAcc, 2000);
+        assertFalse(isEmpty(tempFolder.getRoot()));
+        assertFalse(spiller.pollMerged(keyToAcc).isEmpty());
+
+        // When
+        spiller.close();
+
+        // Then
+        assertTrue(isEmpty(tempFolder.getRoot()));
+    }
+
+    private AccumulatorSpiller<Object, long[]> newSpiller(Executor ioExecutor) {
+        return new AccumulatorSpiller<>(tempFolder.getRoot().toPath(),
+                new DefaultSerializationServiceBuilder().build(), (acc1, acc2) -> acc1[0] += acc2[0], ioExecutor);
+    }
+
+    /**
+     * Returns an executor running each task in a new thread after the latch
+     * is released.
+     */
+    private static Executor blockedExecutor(CountDownLatch latch) {
+        return task -> new Thread(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        }).start();
+    }
+
+    private Map<Object, Long> drain(AccumulatorSpiller<Object, long[]> spiller) {
+        Map<Object, Long> result = new HashMap<>();
+        while (true) {
+            List<Entry<Object, long[]>> batch = spiller.pollMerged(keyToAcc);
+            if (batch == null) {
+                LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (batch.isEmpty()) {
+                return result;
+            }
+            for (Entry<Object, long[]> e : batch) {
+                assertNull("duplicate key " + e.getKey(), result.put(e.getKey(), e.getValue()[0]));
+            }
+        }
+    }
+
+    private static boolean isEmpty(File dir) {
+        String[] files = dir.list();
+        return files == null || files.length == 0;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class FrameStoreTest {
+
+    private static final long FRAME_SIZE = 10;
+
+    private final FrameStore<String, Long> store = new FrameStore<>(FRAME_SIZE, 4);
+
+    @Test
+    public void when_empty_then_noFrames() {
+        assertTrue(store.isEmpty());
+        assertNull(store.get(0));
+        assertEquals(Long.MAX_VALUE, store.minFrameTs());
+        assertNull(store.frameTimestamps().next());
+    }
+
+    @Test
+    public void when_frameEvicted_then_mapReused() {
+        // Given
+        OpenHashMap<String, Long> frame = store.getOrCreate(FRAME_SIZE);
+        frame.put("a", 1L);
+
+        // When
+        store.evict(FRAME_SIZE);
+
+        // Then
+        assertTrue(store.isEmpty());
+        assertNull(store.get(FRAME_SIZE));
+        OpenHashMap<String, Long> reused = store.getOrCreate(FRAME_SIZE * 9);
+        assertSame(frame, reused);
+        assertTrue(reused.isEmpty());
+    }
+
+    @Test
+    public void when_framesCollide_then_ringGrows() {
+        // When - 8 and 16 frames apart collide in the initial ring of 8 slots
+        for (long ts = -5 * FRAME_SIZE; ts <= 30 * FRAME_SIZE; ts += FRAME_SIZE) {
+            store.getOrCreate(ts).put("k", ts);
+        }
+
+        // Then
+        for (long ts = -5 * FRAME_SIZE; ts <= 30 * FRAME_SIZE; ts += FRAME_SIZE) {
+            assertEquals(Long.valueOf(ts), store.get(ts).get("k"));
+        }
+        assertEquals(-5 * FRAME_SIZE, store.minFrameTs());
+    }
+
+    @Test
+    public void when_framesSpreadBeyondMaxCapacity_then_overflowUsed() {
+        // Given
+        long farTs = FRAME_SIZE * FrameStore.MAX_RING_CAPACITY * 3;
+
+        // When
+        store.getOrCreate(0).put("a", 1L);
+        store.getOrCreate(farTs).put("b", 2L);
+        store.getOrCreate(farTs * 2).put("c", 3L);
+
+        // Then
+        assertEquals(Long.valueOf(1), store.get(0).get("a"));
+        assertEquals(Long.valueOf(2), store.get(farTs).get("b"));
+        assertEquals(Long.valueOf(3), store.get(farTs * 2).get("c"));
+        assertEquals(new HashSet<>(asList(0L, farTs, farTs * 2)), timestamps());
+
+        // When
+        store.evict(0);
+        store.evict(farTs);
+
+        // Then
+        assertFalse(store.isEmpty());
+        assertEquals(farTs * 2, store.minFrameTs());
+        store.evict(farTs * 2);
+        assertTrue(store.isEmpty());
+    }
+
+    private Set<Long> timestamps() {
+        Set<Long> result = new HashSet<>();
+        Traverser<Long> t = store.frameTimestamps();
+        for (Long ts; (ts = t.next()) != null; ) {
+            result.add(ts);
+        }
+        return result;
+    }
+}
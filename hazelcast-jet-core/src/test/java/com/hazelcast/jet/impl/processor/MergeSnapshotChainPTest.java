@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.core.test.TestSupport.SAME_ITEMS_ANY_ORDER;
+import static com.hazelcast.jet.core.test.TestSupport.verifyProcessor;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.DELTA_MARKER;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.REMOVED;
+import static java.util.Arrays.asList;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class MergeSnapshotChainPTest {
+
+    @Test
+    public void when_keyChangedInDelta_then_newestValueWins() {
+        verifyProcessor(() -> new MergeSnapshotChainP(3))
+                .disableSnapshots()
+                .outputChecker(SAME_ITEMS_ANY_ORDER)
+                .inputs(asList(
+                        asList(entry("a", 1), entry("b", 1), entry("c", 1)),
+                        asList(entry(DELTA_MARKER, true), entry("a", 2)),
+                        asList(entry(DELTA_MARKER, true), entry("c", 3))),
+                        priorities(3))
+                .expectOutput(asList(entry("a", 2), entry("b", 1), entry("c", 3)));
+    }
+
+    @Test
+    public void when_keyRemovedInDelta_then_dropped() {
+        verifyProcessor(() -> new MergeSnapshotChainP(3))
+                .disableSnapshots()
+                .outputChecker(SAME_ITEMS_ANY_ORDER)
+                .inputs(asList(
+                        asList(entry("a", 1), entry("b", 1)),
+                        asList(entry(DELTA_MARKER, true), entry("a", REMOVED), entry("c", 2)),
+                        asList(entry(DELTA_MARKER, true), entry("a", 3), entry("c", REMOVED))),
+                        priorities(3))
+                .expectOutput(asList(entry("a", 3), entry("b", 1)));
+    }
+
+    @Test
+    public void when_broadcastKeys_then_onlyNewestEmitted() {
+        BroadcastKey<String> key = broadcastKey("wm");
+        verifyProcessor(() -> new MergeSnapshotChainP(2))
+                .disableSnapshots()
+                .outputChecker(SAME_ITEMS_ANY_ORDER)
+                .inputs(asList(
+                        asList(entry(key, 1L), entry("a", 1)),
+                        asList(entry(DELTA_MARKER, true), entry(key, 2L))),
+                        priorities(2))
+                .expectOutput(asList(new BroadcastEntry<>(key, 2L), entry("a", 1)));
+    }
+
+    private static int[] priorities(int chainLength) {
+        return IntStream.range(0, chainLength)
+                        .map(i -> MergeSnapshotChainP.edgePriority(chainLength, i))
+                        .toArray();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class OpenHashMapTest {
+
+    private static final int KEY_COUNT = 10_000;
+
+    private final OpenHashMap<Integer, String> map = new OpenHashMap<>();
+
+    @Test
+    public void when_manyKeysInserted_then_allFound() {
+        // When
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertNull(map.put(i, "v" + i));
+        }
+
+        // Then
+        assertEquals(KEY_COUNT, map.size());
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+        assertNull(map.get(-1));
+    }
+
+    @Test
+    public void when_computeIfAbsent_then_createdOnlyOnce() {
+        assertEquals("a", map.computeIfAbsent(1, () -> "a"));
+        assertEquals("a", map.computeIfAbsent(1, () -> "b"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void when_nullKey_then_supported() {
+        map.put(null, "n");
+        assertEquals("n", map.get(null));
+        Map<Integer, String> copy = new HashMap<>();
+        map.forEach(copy::put);
+        assertEquals("n", copy.get(null));
+    }
+
+    @Test
+    public void when_cleared_then_emptyAndReusable() {
+        // Given
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, "v" + i);
+        }
+
+        // When
+        map.clear();
+
+        // Then
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        map.put(1, "x");
+        assertEquals("x", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void when_traverse_then_allEntriesReturned() {
+        // Given
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+
+        // When
+        Map<Integer, String> actual = new HashMap<>();
+        Traverser<Entry<Integer, String>> t = map.traverser();
+        for (Entry<Integer, String> e; (e = t.next()) != null; ) {
+            actual.put(e.getKey(), e.getValue());
+        }
+
+        // Then
+        assertEquals(expected, actual);
+    }
+}
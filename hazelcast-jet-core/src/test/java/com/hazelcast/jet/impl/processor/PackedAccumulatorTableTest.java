@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.aggregate.AggregateOperations;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PackedAccumulatorTableTest {
+
+    @Test
+    public void when_counting_then_sameAsWithAccumulatorObjects() {
+        assertSameResults(AggregateOperations.counting());
+    }
+
+    @Test
+    public void when_summingDouble_then_sameAsWithAccumulatorObjects() {
+        assertSameResults(AggregateOperations.summingDouble(i -> i / 3.0));
+    }
+
+    @Test
+    public void when_averagingLong_then_sameAsWithAccumulatorObjects() {
+        assertSameResults(AggregateOperations.averagingLong(i -> i));
+    }
+
+    @Test
+    public void when_averagingDouble_then_sameAsWithAccumulatorObjects() {
+        assertSameResults(AggregateOperations.averagingDouble(i -> i / 3.0));
+    }
+
+    @Test
+    public void when_unsupportedAccumulator_then_noTable() {
+        assertNull(PackedAccumulatorTable.create(AggregateOperations.toList()));
+        assertNull(PackedAccumulatorTable.create(AggregateOperations.<Long>linearTrend(i -> i, i -> i)));
+    }
+
+    @Test
+    public void when_traversed_then_newAccumulatorsReturned() {
+        // Given
+        PackedAccumulatorTable<String, Object> table = createTable(AggregateOperations.counting());
+        table.accumulate("a", 0, 1);
+
+        // When
+        Object acc1 = table.traverser().next().getValue();
+        Object acc2 = table.traverser().next().getValue();
+
+        // Then
+        assertNotSame(acc1, acc2);
+        assertEquals(acc1, acc2);
+    }
+
+    private static <A, R> void assertSameResults(AggregateOperation1<Integer, A, R> aggrOp) {
+        // Given
+        PackedAccumulatorTable<Integer, A> table = PackedAccumulatorTable.create(aggrOp);
+        Map<Integer, A> expected = new HashMap<>();
+
+        // When
+        // enough keys to grow the table several times, including the null key
+        for (int i = 0; i < 100_000; i++) {
+            Integer key = i % 5000 == 0 ? null : i % 9000;
+            table.accumulate(key, 0, i);
+            aggrOp.accumulateFn().accept(expected.computeIfAbsent(key, k -> aggrOp.createFn().get()), i);
+        }
+
+        // Then
+        Map<Integer, R> actual = new HashMap<>();
+        Traverser<Entry<Integer, A>> traverser = table.traverser();
+        for (Entry<Integer, A> e; (e = traverser.next()) != null; ) {
+            assertNull(actual.put(e.getKey(), aggrOp.finishFn().apply(e.getValue())));
+        }
+        assertEquals(expected.size(), table.size());
+        expected.forEach((k, acc) -> assertEquals(aggrOp.finishFn().apply(acc), actual.get(k)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> PackedAccumulatorTable<K, Object> createTable(AggregateOperation<?, ?> aggrOp) {
+        return PackedAccumulatorTable.create((AggregateOperation<Object, ?>) aggrOp);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.aggregate.AggregateOperations;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class PartialAggregationCacheTest {
+
+    private static final int MAX_KEYS = 100;
+
+    private final PartialAggregationCache<Integer, LongAccumulator> cache =
+            new PartialAggregationCache<>(AggregateOperations.counting(), MAX_KEYS);
+    private final Map<Integer, Long> combined = new HashMap<>();
+
+    @Test
+    public void when_tooManyKeys_then_leastRecentlyUsedEvicted() {
+        // Given
+        for (int i = 0; i < MAX_KEYS; i++) {
+            assertNull(cache.accumulate(i, 0, i));
+        }
+        // touch key 0 so that key 1 becomes the eldest
+        assertNull(cache.accumulate(0, 0, 0));
+
+        // When
+        Entry<Integer, LongAccumulator> evicted = cache.accumulate(MAX_KEYS, 0, MAX_KEYS);
+
+        // Then
+        assertEquals(Integer.valueOf(1), evicted.getKey());
+        assertEquals(1, evicted.getValue().get());
+        assertEquals(MAX_KEYS, cache.keyToAcc().size());
+    }
+
+    @Test
+    public void when_keysRepeat_then_noBypass() {
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            accumulate(i % (MAX_KEYS / 2));
+        }
+
+        // Then
+        assertFalse(cache.isBypassing());
+        assertCombinedCounts(100_000, MAX_KEYS / 2);
+    }
+
+    @Test
+    public void when_keysDontRepeat_then_bypass() {
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            accumulate(i);
+        }
+
+        // Then
+        assertTrue(cache.isBypassing());
+        assertEquals(MAX_KEYS, cache.keyToAcc().size());
+        assertCombinedCounts(100_000, 100_000);
+    }
+
+    private void accumulate(int key) {
+        Entry<Integer, LongAccumulator> flushed = cache.accumulate(key, 0, key);
+        if (flushed != null) {
+            combined.merge(flushed.getKey(), flushed.getValue().get(), Long::sum);
+        }
+    }
+
+    private void assertCombinedCounts(long itemCount, int keyCount) {
+        cache.keyToAcc().forEach((k, acc) -> combined.merge(k, acc.get(), Long::sum));
+        assertEquals(keyCount, combined.size());
+        assertEquals(itemCount, combined.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
@@ -32,9 +32,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 
@@ -46,7 +49,11 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.shuffle;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -70,7 +77,7 @@ public class SessionWindowPTest {
     public void after() {
         // Check against memory leaks
         assertTrue("keyToWindows not empty", lastSuppliedProcessor.keyToWindows.isEmpty());
-        assertTrue("deadlineToKeys not empty", lastSuppliedProcessor.deadlineToKeys.isEmpty());
+        assertTrue("deadlines not empty", lastSuppliedProcessor.deadlines.isEmpty());
     }
 
     @Test
@@ -137,6 +144,88 @@ public class SessionWindowPTest {
                 ));
     }
 
+    @Test
+    @Repeat(5)
+    public void when_randomEventsAndWatermarkJumps_then_windowsEmittedOnTime() {
+        // Given
+        long sessionTimeout = 1000;
+        supplier = () -> lastSuppliedProcessor = new SessionWindowP<>(
+                sessionTimeout,
+                singletonList((DistributedToLongFunction<Entry<Object, Long>>) Entry::getValue),
+                singletonList(entryKey()),
+                AggregateOperations.counting(),
+                WindowResult::new);
+        supplier.get();
+        TestOutbox outbox = new TestOutbox(1024);
+        lastSuppliedProcessor.init(outbox, new TestProcessorContext());
+        Random rnd = ThreadLocalRandom.current();
+        List<Entry<String, Long>> events = new ArrayList<>();
+        Set<Object> emitted = new HashSet<>();
+        long wm = 0;
+
+        // When-Then
+        for (int i = 0; i < 20_000; i++) {
+            if (rnd.nextInt(10) != 0) {
+                // some events are far beyond the current watermark
+                int range = rnd.nextInt(20) == 0 ? 20_000 : 3000;
+                Entry<String, Long> event = entry("k" + rnd.nextInt(50), wm + rnd.nextInt(range));
+                events.add(event);
+                assertTrue(lastSuppliedProcessor.tryProcess(0, event));
+                continue;
+            }
+            // occasionally jump far ahead, past all the scheduled deadlines
+            wm += rnd.nextInt(100) == 0 ? 10 * sessionTimeout + rnd.nextInt(100_000) : rnd.nextInt(300);
+            while (!lastSuppliedProcessor.tryProcessWatermark(new Watermark(wm))) {
+                drainTo(outbox, emitted);
+            }
+            drainTo(outbox, emitted);
+            long currentWm = wm;
+            assertEquals("wm=" + wm,
+                    expectedSessions(events, sessionTimeout).stream()
+                                                            .filter(w -> w.getEnd() < currentWm)
+                                                            .collect(toSet()),
+                    emitted);
+        }
+        while (!lastSuppliedProcessor.complete()) {
+            drainTo(outbox, emitted);
+        }
+        drainTo(outbox, emitted);
+        assertEquals(expectedSessions(events, sessionTimeout), emitted);
+    }
+
+    private static void drainTo(TestOutbox outbox, Set<Object> emitted) {
+        for (Object o; (o = outbox.queue(0).poll()) != null; ) {
+            if (!(o instanceof Watermark)) {
+                assertTrue("duplicate window " + o, emitted.add(o));
+            }
+        }
+    }
+
+    private static Set<WindowResult<String, Long>> expectedSessions(
+            List<Entry<String, Long>> events, long sessionTimeout
+    ) {
+        Map<String, List<Long>> keyToTimestamps = events.stream().collect(
+                groupingBy(Entry::getKey, mapping(Entry::getValue, toList())));
+        Set<WindowResult<String, Long>> sessions = new HashSet<>();
+        keyToTimestamps.forEach((key, timestamps) -> {
+            timestamps.sort(null);
+            long start = timestamps.get(0);
+            long end = start + sessionTimeout;
+            long count = 0;
+            for (long ts : timestamps) {
+                if (ts > end) {
+                    sessions.add(new WindowResult<>(start, end, key, count));
+                    start = ts;
+                    count = 0;
+                }
+                end = Math.max(end, ts + sessionTimeout);
+                count++;
+            }
+            sessions.add(new WindowResult<>(start, end, key, count));
+        });
+        return sessions;
+    }
+
     private void assertCorrectness(List<Object> events) {
         List<Object> expectedOutput = events.stream()
                                                .map(e -> ((Entry<String, Long>) e).getKey())
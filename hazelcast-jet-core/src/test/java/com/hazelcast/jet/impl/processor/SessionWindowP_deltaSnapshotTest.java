@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.BroadcastKey;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.datamodel.WindowResult;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static com.hazelcast.jet.impl.execution.DeltaSnapshotTag.REMOVED;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SessionWindowP_deltaSnapshotTest {
+
+    private static final long SESSION_TIMEOUT = 10;
+
+    private SessionWindowP<String, ?, Long, ?> p;
+    private TestOutbox outbox;
+
+    @Before
+    public void before() {
+        AggregateOperation1<Object, LongAccumulator, Long> aggrOp = counting();
+        p = new SessionWindowP<>(
+                SESSION_TIMEOUT,
+                singletonList((DistributedToLongFunction<Entry<?, Long>>) Entry::getValue),
+                singletonList(entryKey()),
+                aggrOp,
+                WindowResult::new);
+        outbox = new TestOutbox(new int[] {128}, 128);
+        p.init(outbox, new TestProcessorContext()
+                .setProcessingGuarantee(EXACTLY_ONCE)
+                .setDeltaSnapshotsEnabled(true));
+    }
+
+    @Test
+    public void when_saveDelta_then_onlyChangedAndRemovedKeysSaved() {
+        // Given
+        p.tryProcess(0, entry("a", 1L));
+        p.tryProcess(0, entry("b", 1L));
+        p.tryProcess(0, entry("c", 100L));
+        assertTrue(p.saveToSnapshot());
+        Map<Object, Object> fullSnapshot = drainSnapshot();
+        assertEquals(4, fullSnapshot.size());
+
+        // When
+        p.tryProcess(0, entry("a", 2L));
+        // closes the sessions of "a" and "b"
+        p.tryProcess(0, entry("c", 101L));
+        p.tryProcessWatermark(new Watermark(50));
+        outbox.queue(0).clear();
+        assertTrue(p.saveDeltaToSnapshot());
+
+        // Then
+        Map<Object, Object> delta = drainSnapshot();
+        assertEquals(4, delta.size());
+        assertEquals(REMOVED, delta.get("a"));
+        assertEquals(REMOVED, delta.get("b"));
+        assertEquals(p.keyToWindows.get("c").toString(), String.valueOf(delta.get("c")));
+        assertEquals(50L, broadcastValue(delta));
+    }
+
+    @Test
+    public void when_nothingChanged_then_deltaHasOnlyWatermark() {
+        // Given
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.saveToSnapshot());
+        drainSnapshot();
+
+        // When
+        assertTrue(p.saveDeltaToSnapshot());
+
+        // Then
+        Map<Object, Object> delta = drainSnapshot();
+        assertEquals(1, delta.size());
+        assertEquals(Long.MIN_VALUE, broadcastValue(delta));
+    }
+
+    private Map<Object, Object> drainSnapshot() {
+        List<Entry<Object, Object>> entries = new ArrayList<>();
+        outbox.drainSnapshotQueueAndReset(entries, false);
+        Map<Object, Object> result = new HashMap<>();
+        for (Entry<Object, Object> e : entries) {
+            result.put(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    private static Object broadcastValue(Map<Object, Object> snapshot) {
+        return snapshot.entrySet().stream()
+                       .filter(e -> e.getKey() instanceof BroadcastKey)
+                       .map(Entry::getValue)
+                       .findFirst()
+                       .orElse(null);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.LongStream;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.test.TestSupport.verifyProcessor;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class StreamStreamJoinPTest {
+
+    private StreamStreamJoinP<String, String> lastSuppliedProcessor;
+
+    private long lowerBound;
+    private long upperBound;
+    private DistributedSupplier<Processor> supplier;
+
+    @Before
+    public void before() {
+        lowerBound = 0;
+        upperBound = 10;
+        supplier = () -> lastSuppliedProcessor = new StreamStreamJoinP<>(
+                (Function<Entry<String, Long>, String>) Entry::getKey,
+                (Function<Entry<String, Long>, String>) Entry::getKey,
+                (ToLongFunction<Entry<String, Long>>) Entry::getValue,
+                (ToLongFunction<Entry<String, Long>>) Entry::getValue,
+                lowerBound,
+                upperBound,
+                (Entry<String, Long> e0, Entry<String, Long> e1) -> e0.getKey() + ':' + e0.getValue() + '-' + e1.getValue()
+        );
+    }
+
+    @After
+    public void after() {
+        // Check against memory leaks
+        assertTrue("buffers not empty", lastSuppliedProcessor.buffers.isEmpty());
+        assertTrue("deadlines not empty", lastSuppliedProcessor.deadlines.isEmpty());
+    }
+
+    @Test
+    public void when_itemsWithinBounds_then_joined() {
+        verifyProcessor(supplier)
+                .disableCompleteCall()
+                .inputs(asList(
+                        asList(entry("a", 1L), entry("b", 2L), entry("a", 20L)),
+                        asList(entry("a", 5L), entry("a", 12L), entry("b", 30L), entry("a", 25L), new Watermark(100))
+                ))
+                .expectOutput(asList(
+                        "a:1-5",
+                        "a:20-25",
+                        new Watermark(100)
+                ));
+    }
+
+    @Test
+    public void when_itemFromOrdinal1ArrivesFirst_then_joined() {
+        verifyProcessor(supplier)
+                .disableCompleteCall()
+                .inputs(asList(
+                        asList(new Watermark(0), entry("a", 1L), new Watermark(100)),
+                        asList(entry("a", 11L))
+                ))
+                .expectOutput(asList(
+                        new Watermark(0),
+                        "a:1-11",
+                        new Watermark(100)
+                ));
+    }
+
+    @Test
+    public void when_watermarkPassesExpiry_then_itemsEvicted() {
+        // Given
+        StreamStreamJoinP<String, String> processor = (StreamStreamJoinP<String, String>) supplier.get();
+        processor.init(new TestOutbox(1), new TestProcessorContext());
+        TestInbox inbox = new TestInbox();
+
+        // When
+        inbox.add(entry("a", 1L));
+        processor.process(0, inbox);
+        inbox.add(entry("b", 5L));
+        processor.process(1, inbox);
+
+        // Then
+        assertTrue(processor.tryProcessWatermark(new Watermark(5)));
+        assertEquals(2, processor.buffers.size());
+        assertTrue(processor.tryProcessWatermark(new Watermark(6)));
+        assertEquals(singleton("a"), processor.buffers.keySet());
+        assertTrue(processor.tryProcessWatermark(new Watermark(12)));
+        assertTrue(processor.buffers.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void when_itemsOutOfOrder_then_allPairsWithinBoundsJoined() {
+        // Given
+        lowerBound = -5;
+        upperBound = 5;
+        StreamStreamJoinP<String, String> processor = (StreamStreamJoinP<String, String>) supplier.get();
+        TestOutbox outbox = new TestOutbox(100_000);
+        processor.init(outbox, new TestProcessorContext());
+        TestInbox inbox = new TestInbox();
+        Random random = new Random(42);
+        List<Long>[] timestamps = new List[] {new ArrayList<>(), new ArrayList<>()};
+
+        // When
+        // the items are shuffled within blocks, a block starts after the watermark
+        int blockSize = 50;
+        for (long blockStart = 0; blockStart < 1000; blockStart += blockSize) {
+            assertTrue(processor.tryProcessWatermark(new Watermark(blockStart - 10)));
+            List<Long> block = LongStream.range(blockStart, blockStart + blockSize).boxed().collect(toList());
+            Collections.shuffle(block, random);
+            for (long ts : block) {
+                int ordinal = random.nextInt(2);
+                timestamps[ordinal].add(ts);
+                inbox.add(entry("a", ts));
+                processor.process(ordinal, inbox);
+                assertTrue(inbox.isEmpty());
+            }
+        }
+        assertTrue(processor.tryProcessWatermark(new Watermark(Long.MAX_VALUE)));
+
+        // Then
+        Set<String> expected = new HashSet<>();
+        for (long ts0 : timestamps[0]) {
+            for (long ts1 : timestamps[1]) {
+                if (ts1 >= ts0 + lowerBound && ts1 <= ts0 + upperBound) {
+                    expected.add("a:" + ts0 + '-' + ts1);
+                }
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        outbox.drainQueueAndReset(0, actual, false);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+    }
+
+    @Test
+    public void when_lateItem_then_dropped() {
+        verifyProcessor(supplier)
+                .disableCompleteCall()
+                .disableLogging()
+                .inputs(asList(
+                        asList(new Watermark(10), entry("a", 5L)),
+                        asList(entry("a", 9L))
+                ))
+                .expectOutput(singletonList(new Watermark(10)));
+    }
+
+    @Test
+    public void when_negativeLowerBound_then_itemsFromOrdinal1BeforeOrdinal0Joined() {
+        lowerBound = -5;
+        upperBound = 0;
+        verifyProcessor(supplier)
+                .disableCompleteCall()
+                .inputs(asList(
+                        asList(entry("a", 10L), entry("a", 20L)),
+                        asList(entry("a", 6L), entry("a", 4L), entry("a", 10L), new Watermark(100))
+                ))
+                .expectOutput(asList(
+                        "a:10-6",
+                        "a:10-10",
+                        new Watermark(100)
+                ));
+    }
+
+    @Test
+    public void when_noInput_then_noOutput() {
+        verifyProcessor(supplier)
+                .disableCompleteCall()
+                .inputs(asList(emptyList(), emptyList()))
+                .expectOutput(emptyList());
+    }
+}
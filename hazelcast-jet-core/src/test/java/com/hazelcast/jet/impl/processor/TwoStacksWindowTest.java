@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class TwoStacksWindowTest {
+
+    private static final int FRAMES_IN_WINDOW = 5;
+    private static final int FRAME_COUNT = 100;
+    private static final int KEY_COUNT = 4;
+
+    // combining lists isn't commutative, so this also checks the order of frames
+    private final TwoStacksWindow<Integer, List<Integer>> window =
+            new TwoStacksWindow<>(ArrayList::new, List::addAll);
+
+    @Test
+    public void when_slidingOverFrames_then_sameAsRecomputing() {
+        // Given
+        Random random = new Random(42);
+        List<OpenHashMap<Integer, List<Integer>>> frames = new ArrayList<>();
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            // some frames have no data
+            if (random.nextInt(4) == 0) {
+                frames.add(null);
+                continue;
+            }
+            OpenHashMap<Integer, List<Integer>> frame = new OpenHashMap<>();
+            for (int key = 0; key < KEY_COUNT; key++) {
+                if (random.nextBoolean()) {
+                    frame.computeIfAbsent(key, ArrayList::new).add(i);
+                }
+            }
+            frames.add(frame);
+        }
+        for (int i = 0; i < FRAMES_IN_WINDOW - 1; i++) {
+            window.addNewest(frames.get(i));
+        }
+
+        for (int i = FRAMES_IN_WINDOW - 1; i < FRAME_COUNT; i++) {
+            // When
+            window.addNewest(frames.get(i));
+            Map<Integer, List<Integer>> actual = window.window();
+            window.evictOldest();
+
+            // Then
+            assertEquals("window ending at frame " + i,
+                    recompute(frames.subList(i - FRAMES_IN_WINDOW + 1, i + 1)), actual);
+        }
+    }
+
+    @Test
+    public void when_windowReturned_then_notModifiedLater() {
+        // Given
+        OpenHashMap<Integer, List<Integer>> frame = new OpenHashMap<>();
+        frame.put(1, new ArrayList<>());
+        frame.get(1).add(1);
+        window.addNewest(frame);
+        Map<Integer, List<Integer>> result = window.window();
+
+        // When
+        result.get(1).add(2);
+
+        // Then
+        assertEquals(1, frame.get(1).size());
+        assertEquals(1, window.window().get(1).size());
+        window.evictOldest();
+        assertTrue(window.window().isEmpty());
+    }
+
+    private static Map<Integer, List<Integer>> recompute(List<OpenHashMap<Integer, List<Integer>>> frames) {
+        Map<Integer, List<Integer>> result = new HashMap<>();
+        for (OpenHashMap<Integer, List<Integer>> frame : frames) {
+            if (frame != null) {
+                frame.forEach((key, acc) -> result.computeIfAbsent(key, k -> new ArrayList<>()).addAll(acc));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.snapshot;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.JetConfig;
+import com.hazelcast.jet.config.SnapshotStorageType;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class LocalDiskSnapshotStorageTest extends JetTestSupport {
+
+    private static final String MAP_NAME = "snapshot-data";
+    private static final int WINDOW_SIZE = 1 << 20;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private JetInstance instance;
+    private SerializationService serializationService;
+    private LocalDiskSnapshotStorage storage;
+    private SnapshotWriter writer;
+    private final Map<Integer, byte[]> expected = new HashMap<>();
+
+    @Before
+    public void before() {
+        JetConfig config = new JetConfig();
+        config.getInstanceConfig()
+              .setSnapshotStorage(SnapshotStorageType.LOCAL_DISK)
+              .setTempDir(tempFolder.getRoot().getPath());
+        instance = createJetMember(config);
+        NodeEngine nodeEngine = getNodeEngineImpl(instance.getHazelcastInstance());
+        serializationService = nodeEngine.getSerializationService();
+        JetService jetService = nodeEngine.getService(JetService.SERVICE_NAME);
+        storage = LocalDiskSnapshotStorage.of(jetService.getSnapshotStorage());
+        writer = storage.newWriter();
+        writer.setSnapshotName(MAP_NAME);
+    }
+
+    @After
+    public void after() {
+        writer.close();
+    }
+
+    @Test
+    public void when_entriesCrossWindowBoundaries_then_allRead() throws Exception {
+        // Given
+        // entries of random sizes in small flushes, some of them span the reader's windows
+        Random random = new Random(42);
+        int key = 0;
+        for (long written = 0; written < 3L * WINDOW_SIZE; ) {
+            for (int i = 0; i < 10; i++) {
+                written += put(key++, random.nextInt(20_000));
+            }
+            flush();
+        }
+
+        // When-Then
+        assertReadBack();
+    }
+
+    @Test
+    public void when_flushLargerThanWindow_then_allRead() throws Exception {
+        // Given
+        put(0, 10);
+        put(1, 3 * WINDOW_SIZE);
+        put(2, 10);
+        flush();
+        // the next flush doesn't fit the remaining window either
+        put(3, WINDOW_SIZE + 1);
+        flush();
+        put(4, 10);
+        flush();
+
+        // When-Then
+        assertReadBack();
+    }
+
+    @Test
+    public void when_snapshotNameChanged_then_newChunkWritten() throws Exception {
+        // Given
+        put(0, 10);
+        flush();
+        Map<Integer, byte[]> firstSnapshot = new HashMap<>(expected);
+        expected.clear();
+        writer.setSnapshotName(MAP_NAME + "-2");
+
+        // When
+        put(1, 10);
+        flush();
+
+        // Then
+        assertReadBack(MAP_NAME + "-2", expected);
+        assertReadBack(MAP_NAME, firstSnapshot);
+    }
+
+    @Test
+    public void when_allChunkHoldersLeft_then_readFails() {
+        // Given
+        instance.getMap(MAP_NAME).put("lost" + LocalDiskSnapshotStorage.CHUNK_SUFFIX,
+                singletonList("unknown-member-uuid"));
+
+        // When
+        try {
+            readBack(MAP_NAME);
+            fail("Read didn't fail");
+        } catch (Exception e) {
+            // Then
+            assertThat(e.toString(), containsString("left the cluster"));
+        }
+    }
+
+    @Test
+    public void when_chunkEndsInsideKey_then_readFails() throws Exception {
+        // Given
+        int firstEntrySize = put(0, 10);
+        put(1, 10);
+        flush();
+        writer.close();
+        Path chunk = storage.chunkDir(MAP_NAME).resolve(
+                getNodeEngineImpl(instance.getHazelcastInstance()).getLocalMember().getUuid()
+                        + LocalDiskSnapshotStorage.CHUNK_SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(chunk.toFile(), "rw")) {
+            // keep the first entry, the length of the second key and a part of the key
+            file.setLength(firstEntrySize + 2 * Integer.BYTES + 2);
+        }
+
+        // When
+        try {
+            readBack(MAP_NAME);
+            fail("Read didn't fail");
+        } catch (Exception e) {
+            // Then
+            assertThat(e.toString(), containsString("Truncated entry"));
+        }
+    }
+
+    @Test
+    public void when_snapshotDeleted_then_chunksOfDepartedMembersDeleted() throws Exception {
+        // Given
+        String tempDir = tempFolder.getRoot().getPath();
+        Path departedMemberDir = LocalDiskSnapshotStorage.memberDir(tempDir, "departed-member-uuid");
+        Path departedChunkDir = LocalDiskSnapshotStorage.chunkDir(departedMemberDir, MAP_NAME);
+        Path otherChunkDir = LocalDiskSnapshotStorage.chunkDir(departedMemberDir, MAP_NAME + "-other");
+        Files.createDirectories(departedChunkDir);
+        Files.createDirectories(otherChunkDir);
+        Files.write(departedChunkDir.resolve("departed-member-uuid" + LocalDiskSnapshotStorage.CHUNK_SUFFIX),
+                new byte[10]);
+        put(0, 10);
+        flush();
+        writer.close();
+
+        // When
+        storage.deleteLocalChunksAsync(MAP_NAME).get();
+
+        // Then
+        assertFalse(Files.exists(storage.chunkDir(MAP_NAME)));
+        assertFalse(Files.exists(departedChunkDir));
+        assertTrue(Files.exists(otherChunkDir));
+    }
+
+    private int put(int key, int valueSize) {
+        byte[] value = new byte[valueSize];
+        Arrays.fill(value, (byte) key);
+        expected.put(key, value);
+        Data keyData = serializationService.toData(key);
+        Data valueData = serializationService.toData(value);
+        writer.put(entry(keyData, valueData));
+        return 2 * Integer.BYTES + keyData.totalSize() + valueData.totalSize();
+    }
+
+    private void flush() throws Exception {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        assertTrue(writer.tryFlushAsync(future));
+        future.get();
+    }
+
+    private void assertReadBack() {
+        assertReadBack(MAP_NAME, expected);
+    }
+
+    private void assertReadBack(String mapName, Map<Integer, byte[]> expectedEntries) {
+        List<Entry<Integer, byte[]>> actual = readBack(mapName);
+        assertEquals(expectedEntries.size(), actual.size());
+        for (Entry<Integer, byte[]> e : actual) {
+            assertArrayEquals("key " + e.getKey(), expectedEntries.get(e.getKey()), e.getValue());
+        }
+    }
+
+    private List<Entry<Integer, byte[]>> readBack(String mapName) {
+        DAG dag = new DAG();
+        Vertex read = dag.newVertex("read", storage.readSnapshotP(mapName));
+        Vertex sink = dag.newVertex("sink", writeListP("sink-" + mapName));
+        dag.edge(between(read, sink));
+        instance.newJob(dag).join();
+        return instance.getList("sink-" + mapName);
+    }
+
+}
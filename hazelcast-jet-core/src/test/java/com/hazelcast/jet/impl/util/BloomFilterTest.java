@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.util;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class BloomFilterTest {
+
+    private static final int KEY_COUNT = 10_000;
+
+    @Test
+    public void when_hashesAdded_then_allFound() {
+        // Given
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+
+        // When
+        for (long i = 0; i < KEY_COUNT; i++) {
+            filter.add(MurmurHash3_fmix(i));
+        }
+
+        // Then
+        for (long i = 0; i < KEY_COUNT; i++) {
+            assertTrue(filter.mightContain(MurmurHash3_fmix(i)));
+        }
+    }
+
+    @Test
+    public void when_hashesNotAdded_then_falsePositiveRateAsConfigured() {
+        // Given
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        for (long i = 0; i < KEY_COUNT; i++) {
+            filter.add(MurmurHash3_fmix(i));
+        }
+
+        // When
+        Random random = new Random(42);
+        int falsePositives = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (filter.mightContain(MurmurHash3_fmix((long) KEY_COUNT + random.nextInt(Integer.MAX_VALUE)))) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue("falsePositives=" + falsePositives, falsePositives < KEY_COUNT * 0.02);
+    }
+
+    @Test
+    public void when_union_then_containsBoth() {
+        // Given
+        BloomFilter filter1 = new BloomFilter(KEY_COUNT, 0.01);
+        BloomFilter filter2 = new BloomFilter(KEY_COUNT, 0.01);
+        filter1.add(MurmurHash3_fmix(1L));
+        filter2.add(MurmurHash3_fmix(2L));
+        assertFalse(filter1.mightContain(MurmurHash3_fmix(2L)));
+
+        // When
+        filter1.union(filter2);
+
+        // Then
+        assertTrue(filter1.mightContain(MurmurHash3_fmix(1L)));
+        assertTrue(filter1.mightContain(MurmurHash3_fmix(2L)));
+    }
+
+    @Test
+    public void when_serialized_then_sameContents() {
+        // Given
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        filter.add(MurmurHash3_fmix(1L));
+
+        // When
+        BloomFilter deserialized = serializationService.toObject(serializationService.toData(filter));
+
+        // Then
+        assertTrue(deserialized.mightContain(MurmurHash3_fmix(1L)));
+        assertFalse(deserialized.mightContain(MurmurHash3_fmix(2L)));
+    }
+}
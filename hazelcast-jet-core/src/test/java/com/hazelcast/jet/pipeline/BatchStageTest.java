@@ -20,6 +20,7 @@ import com.hazelcast.core.IMap;
 import com.hazelcast.core.ReplicatedMap;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.datamodel.ItemsByTag;
 import com.hazelcast.jet.datamodel.Tag;
@@ -223,6 +224,52 @@ public class BatchStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void when_statelessStagesChained_then_fusedIntoOneVertex() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        srcStage.map(i -> i * 2)
+                .filter(i -> i % 3 != 0)
+                .flatMap(i -> traverseIterable(asList(i, -i)))
+                .map(Object::toString)
+                .drainTo(sink);
+        int vertexCount = 0;
+        for (Vertex ignored : p.toDag()) {
+            vertexCount++;
+        }
+        execute();
+
+        // Then
+        // source, the fused vertex and the sink
+        assertEquals(3, vertexCount);
+        List<String> expected = input.stream()
+                                     .map(i -> i * 2)
+                                     .filter(i -> i % 3 != 0)
+                                     .flatMap(i -> Stream.of(i, -i))
+                                     .map(Object::toString)
+                                     .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void when_statelessStageHasTwoDownstreams_then_notFusedWithThem() {
+        // When
+        BatchStage<Integer> mapped = srcStage.map(i -> i + 1);
+        mapped.filter(i -> i % 2 == 0).drainTo(sink);
+        mapped.map(i -> -i).drainTo(Sinks.list(randomName()));
+        int vertexCount = 0;
+        for (Vertex ignored : p.toDag()) {
+            vertexCount++;
+        }
+
+        // Then
+        // source, the mapping vertex, its two downstream vertices and two sinks
+        assertEquals(6, vertexCount);
+    }
+
     @Test
     public void flatMapUsingContext() {
         // Given
@@ -288,6 +335,82 @@ public class BatchStageTest extends PipelineTestSupport {
         assertEquals(toBag(expected), sinkToBag());
     }
 
+    @Test
+    public void hashJoinTwo_partitioned() {
+        hashJoinTwo_partitioned(JoinClause.<Integer, Integer, String>joinMapEntries(wholeItem()).partitioned());
+    }
+
+    @Test
+    public void hashJoinTwo_partitionedWithBloomFilter() {
+        hashJoinTwo_partitioned(
+                JoinClause.<Integer, Integer, String>joinMapEntries(wholeItem()).partitionedWithBloomFilter(ITEM_COUNT));
+    }
+
+    private void hashJoinTwo_partitioned(JoinClause<Integer, Integer, Entry<Integer, String>, String> joinClause) {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        String enrichingName = HazelcastTestSupport.randomName();
+        IMap<Integer, String> enriching = jet().getMap(enrichingName);
+        // only the even items have a match
+        input.stream().filter(i -> i % 2 == 0).forEach(i -> enriching.put(i, i + "A"));
+        BatchStage<Entry<Integer, String>> enrichingStage = p.drawFrom(Sources.map(enrichingName));
+
+        // When
+        BatchStage<Tuple2<Integer, String>> joined = srcStage.hashJoin(
+                enrichingStage,
+                joinClause,
+                (t1, t2) -> tuple2(t1, t2));
+        joined.drainTo(sink);
+        execute();
+
+        // Then
+        List<Tuple2<Integer, String>> expected = input.stream()
+                                                      .map(i -> tuple2(i, i % 2 == 0 ? i + "A" : null))
+                                                      .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_hashJoinThreePartitioned_then_exception() {
+        // Given
+        BatchStage<Entry<Integer, String>> enrichingStage1 = p.drawFrom(Sources.map(HazelcastTestSupport.randomName()));
+        BatchStage<Entry<Integer, String>> enrichingStage2 = p.drawFrom(Sources.map(HazelcastTestSupport.randomName()));
+
+        // When
+        srcStage.hashJoin2(
+                enrichingStage1, JoinClause.<Integer, Integer, String>joinMapEntries(wholeItem()).partitioned(),
+                enrichingStage2, joinMapEntries(wholeItem()),
+                (t1, t2, t3) -> tuple3(t1, t2, t3)
+        );
+    }
+
+    @Test
+    public void hashJoinBuilder_partitioned() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        String enrichingName = HazelcastTestSupport.randomName();
+        BatchStage<Entry<Integer, String>> enrichingStage = p.drawFrom(Sources.map(enrichingName));
+        IMap<Integer, String> enriching = jet().getMap(enrichingName);
+        input.forEach(i -> enriching.put(i, i + "A"));
+
+        // When
+        HashJoinBuilder<Integer> b = srcStage.hashJoinBuilder();
+        Tag<String> tagA = b.add(enrichingStage,
+                JoinClause.<Integer, Integer, String>joinMapEntries(wholeItem()).partitionedWithBloomFilter(ITEM_COUNT));
+        GeneralStage<Tuple2<Integer, ItemsByTag>> joined = b.build((t1, t2) -> tuple2(t1, t2));
+        joined.drainTo(sink);
+        execute();
+
+        // Then
+        List<Tuple2<Integer, ItemsByTag>> expected = input
+                .stream()
+                .map(i -> tuple2(i, itemsByTag(tagA, i + "A")))
+                .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
     @Test
     public void hashJoinThree() {
         // Given
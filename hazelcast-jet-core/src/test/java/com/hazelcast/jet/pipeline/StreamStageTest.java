@@ -280,6 +280,36 @@ public class StreamStageTest extends PipelineTestSupport {
         assertTrueEventually(() -> assertEquals(toBag(expected), sinkToBag()));
     }
 
+    @Test
+    public void hashJoinTwo_partitionedWithBloomFilter() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        String mapName = JOURNALED_MAP_PREFIX + randomMapName();
+        IMap<String, Integer> map = jet().getMap(mapName);
+        putToMap(map, input);
+
+        String enrichingName = randomMapName();
+        IMap<Integer, String> enriching = jet().getMap(enrichingName);
+        input.stream().filter(i -> i % 2 == 0).forEach(i -> enriching.put(i, i + "A"));
+        BatchStage<Entry<Integer, String>> enrichingStage = p.drawFrom(Sources.map(enrichingName));
+
+        // When
+        p.drawFrom(Sources.<Integer, String, Integer>mapJournal(mapName, mapPutEvents(), mapEventNewValue(),
+                START_FROM_OLDEST))
+         .hashJoin(enrichingStage,
+                 JoinClause.<Integer, Integer, String>joinMapEntries(wholeItem()).partitionedWithBloomFilter(ITEM_COUNT),
+                 Tuple2::tuple2
+         )
+         .drainTo(sink);
+        jet().newJob(p);
+
+        // Then
+        List<Tuple2<Integer, String>> expected = input.stream()
+                                                      .map(i -> tuple2(i, i % 2 == 0 ? i + "A" : null))
+                                                      .collect(toList());
+        assertTrueEventually(() -> assertEquals(toBag(expected), sinkToBag()));
+    }
+
     @Test
     public void hashJoinThree() {
         // Given
@@ -353,6 +383,35 @@ public class StreamStageTest extends PipelineTestSupport {
         assertTrueEventually(() -> assertEquals(toBag(expected), sinkToBag()));
     }
 
+    @Test
+    public void windowedJoin() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        String leftName = JOURNALED_MAP_PREFIX + randomMapName();
+        String rightName = JOURNALED_MAP_PREFIX + randomMapName();
+        putToMap(jet().getMap(leftName), input);
+        putToMap(jet().getMap(rightName), input);
+        StreamStage<Integer> right = p
+                .drawFrom(Sources.<Integer, String, Integer>mapJournal(rightName, mapPutEvents(), mapEventNewValue(),
+                        START_FROM_OLDEST))
+                .addTimestamps(i -> i % 2 == 0 ? i + 1 : i + 2, ITEM_COUNT);
+
+        // When
+        p.drawFrom(Sources.<Integer, String, Integer>mapJournal(leftName, mapPutEvents(), mapEventNewValue(),
+                START_FROM_OLDEST))
+         .addTimestamps(i -> i, ITEM_COUNT)
+         .windowedJoin(right, wholeItem(), wholeItem(), 0, 1, (Integer l, Integer r) -> tuple2(l, r))
+         .drainTo(sink);
+        jet().newJob(p);
+
+        // Then
+        List<Tuple2<Integer, Integer>> expected = input.stream()
+                                                       .filter(i -> i % 2 == 0)
+                                                       .map(i -> tuple2(i, i))
+                                                       .collect(toList());
+        assertTrueEventually(() -> assertEquals(toBag(expected), sinkToBag()));
+    }
+
     @Test
     public void customTransform() {
         // Given